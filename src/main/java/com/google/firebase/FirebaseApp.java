@@ -363,8 +363,13 @@ public class FirebaseApp {
       synchronized (lock) {
         checkNotDeleted();
         if (scheduledExecutor == null) {
-          scheduledExecutor = new FirebaseScheduledExecutor(getThreadFactory(),
-              "firebase-scheduled-worker");
+          if (options.isLightweight()) {
+            scheduledExecutor = SharedScheduler.newAppScheduler(
+                threadManager, executors.getListeningExecutor());
+          } else {
+            scheduledExecutor = new FirebaseScheduledExecutor(getThreadFactory(),
+                "firebase-scheduled-worker");
+          }
         }
       }
     }
@@ -60,6 +60,11 @@ public final class FirebaseOptions {
           "https://www.googleapis.com/auth/cloud-platform",
           "https://www.googleapis.com/auth/datastore");
 
+  private static final long MAX_CUSTOM_TOKEN_CACHE_TTL_SECONDS = 600;
+  private static final long MAX_USER_CACHE_TTL_SECONDS = 3600;
+  private static final long DEFAULT_USER_CACHE_MAX_SIZE = 10000;
+  private static final long MAX_PROVIDER_CONFIG_CACHE_TTL_SECONDS = 86400;
+
   static final Supplier<GoogleCredentials> APPLICATION_DEFAULT_CREDENTIALS =
       new Supplier<GoogleCredentials>() {
         @Override
@@ -86,6 +91,12 @@ public final class FirebaseOptions {
   private final JsonFactory jsonFactory;
   private final ThreadManager threadManager;
   private final FirestoreOptions firestoreOptions;
+  private final boolean lightweight;
+  private final boolean stacklessTokenRejections;
+  private final long customTokenCacheTtlSeconds;
+  private final long userCacheTtlSeconds;
+  private final long userCacheMaxSize;
+  private final long providerConfigCacheTtlSeconds;
 
   private FirebaseOptions(@NonNull final FirebaseOptions.Builder builder) {
     this.databaseUrl = builder.databaseUrl;
@@ -116,6 +127,24 @@ public final class FirebaseOptions {
     checkArgument(builder.writeTimeout >= 0);
     this.writeTimeout = builder.writeTimeout;
     this.firestoreOptions = builder.firestoreOptions;
+    this.lightweight = builder.lightweight;
+    this.stacklessTokenRejections = builder.stacklessTokenRejections;
+    checkArgument(builder.customTokenCacheTtlSeconds >= 0
+            && builder.customTokenCacheTtlSeconds <= MAX_CUSTOM_TOKEN_CACHE_TTL_SECONDS,
+        "Custom token cache TTL must be between 0 and %s seconds",
+        MAX_CUSTOM_TOKEN_CACHE_TTL_SECONDS);
+    this.customTokenCacheTtlSeconds = builder.customTokenCacheTtlSeconds;
+    checkArgument(builder.userCacheTtlSeconds >= 0
+            && builder.userCacheTtlSeconds <= MAX_USER_CACHE_TTL_SECONDS,
+        "User cache TTL must be between 0 and %s seconds", MAX_USER_CACHE_TTL_SECONDS);
+    this.userCacheTtlSeconds = builder.userCacheTtlSeconds;
+    checkArgument(builder.userCacheMaxSize > 0, "User cache max size must be positive");
+    this.userCacheMaxSize = builder.userCacheMaxSize;
+    checkArgument(builder.providerConfigCacheTtlSeconds >= 0
+            && builder.providerConfigCacheTtlSeconds <= MAX_PROVIDER_CONFIG_CACHE_TTL_SECONDS,
+        "Provider config cache TTL must be between 0 and %s seconds",
+        MAX_PROVIDER_CONFIG_CACHE_TTL_SECONDS);
+    this.providerConfigCacheTtlSeconds = builder.providerConfigCacheTtlSeconds;
   }
 
   /**
@@ -218,6 +247,64 @@ public final class FirebaseOptions {
     return writeTimeout;
   }
 
+  /**
+   * Returns whether apps initialized with these options share their scheduler with other
+   * lightweight apps.
+   *
+   * @return true if lightweight mode is enabled, and false otherwise.
+   */
+  public boolean isLightweight() {
+    return lightweight;
+  }
+
+  /**
+   * Returns whether Firebase Auth rejects invalid ID tokens and session cookies with exceptions
+   * that do not carry a stack trace.
+   *
+   * @return true if stackless token rejections are enabled, and false otherwise.
+   */
+  public boolean isStacklessTokenRejections() {
+    return stacklessTokenRejections;
+  }
+
+  /**
+   * Returns the number of seconds for which Firebase Auth reuses the custom tokens it creates.
+   *
+   * @return Custom token cache TTL in seconds. 0 indicates that custom tokens are not cached.
+   */
+  public long getCustomTokenCacheTtlSeconds() {
+    return customTokenCacheTtlSeconds;
+  }
+
+  /**
+   * Returns the number of seconds for which Firebase Auth reuses the user records it looks up.
+   *
+   * @return User cache TTL in seconds. 0 indicates that user records are not cached.
+   */
+  public long getUserCacheTtlSeconds() {
+    return userCacheTtlSeconds;
+  }
+
+  /**
+   * Returns the maximum number of user records cached by Firebase Auth.
+   *
+   * @return Maximum number of cached user records.
+   */
+  public long getUserCacheMaxSize() {
+    return userCacheMaxSize;
+  }
+
+  /**
+   * Returns the number of seconds for which Firebase Auth reuses the OIDC and SAML provider
+   * configs it looks up.
+   *
+   * @return Provider config cache TTL in seconds. 0 indicates that provider configs are not
+   *     cached.
+   */
+  public long getProviderConfigCacheTtlSeconds() {
+    return providerConfigCacheTtlSeconds;
+  }
+
   @NonNull
   ThreadManager getThreadManager() {
     return threadManager;
@@ -272,6 +359,12 @@ public final class FirebaseOptions {
     private int connectTimeout;
     private int readTimeout;
     private int writeTimeout;
+    private boolean lightweight;
+    private boolean stacklessTokenRejections;
+    private long customTokenCacheTtlSeconds;
+    private long userCacheTtlSeconds;
+    private long userCacheMaxSize = DEFAULT_USER_CACHE_MAX_SIZE;
+    private long providerConfigCacheTtlSeconds;
 
     /**
      * Constructs an empty builder.
@@ -303,6 +396,12 @@ public final class FirebaseOptions {
       readTimeout = options.readTimeout;
       writeTimeout = options.writeTimeout;
       firestoreOptions = options.firestoreOptions;
+      lightweight = options.lightweight;
+      stacklessTokenRejections = options.stacklessTokenRejections;
+      customTokenCacheTtlSeconds = options.customTokenCacheTtlSeconds;
+      userCacheTtlSeconds = options.userCacheTtlSeconds;
+      userCacheMaxSize = options.userCacheMaxSize;
+      providerConfigCacheTtlSeconds = options.providerConfigCacheTtlSeconds;
     }
 
     /**
@@ -521,6 +620,97 @@ public final class FirebaseOptions {
       return this;
     }
 
+    /**
+     * Enables the lightweight mode, intended for processes that initialize a large number of
+     * apps, such as one app per customer project. By default each app starts its own scheduler
+     * thread the first time it schedules a task, and keeps it until the app is deleted.
+     * Lightweight apps instead share a single scheduler thread per {@link ThreadManager}, which
+     * only fires timers, and exits when no timers are pending. Scheduled tasks and callbacks run
+     * on the thread pool of the app, one at a time per app, so that a busy app cannot take over
+     * the shared pool.
+     *
+     * @param lightweight Whether to enable the lightweight mode.
+     * @return This <code>Builder</code> instance is returned so subsequent calls can be chained.
+     */
+    public Builder setLightweight(boolean lightweight) {
+      this.lightweight = lightweight;
+      return this;
+    }
+
+    /**
+     * Makes Firebase Auth reject invalid ID tokens and session cookies with exceptions that carry
+     * the usual {@link com.google.firebase.auth.AuthErrorCode}, but no stack trace, and messages
+     * that do not echo the contents of the token. This is intended for servers that receive
+     * large volumes of invalid tokens, for which capturing stack traces is wasted work.
+     *
+     * @param stacklessTokenRejections Whether to enable stackless token rejections.
+     * @return This <code>Builder</code> instance is returned so subsequent calls can be chained.
+     */
+    public Builder setStacklessTokenRejections(boolean stacklessTokenRejections) {
+      this.stacklessTokenRejections = stacklessTokenRejections;
+      return this;
+    }
+
+    /**
+     * Sets the number of seconds for which Firebase Auth reuses the custom tokens it creates.
+     * Within that period, repeated requests for the same UID and developer claims return the
+     * same token instead of signing a new one. Custom tokens are valid for an hour, so that a
+     * token handed out from the cache is valid for at least 50 more minutes. Custom tokens are
+     * not cached by default.
+     *
+     * @param customTokenCacheTtlSeconds Custom token cache TTL in seconds. Must be between 0 and
+     *     600. 0 disables the cache.
+     * @return This <code>Builder</code> instance is returned so subsequent calls can be chained.
+     */
+    public Builder setCustomTokenCacheTtlSeconds(long customTokenCacheTtlSeconds) {
+      this.customTokenCacheTtlSeconds = customTokenCacheTtlSeconds;
+      return this;
+    }
+
+    /**
+     * Sets the number of seconds for which Firebase Auth reuses the user records returned by
+     * {@code getUser()}, {@code getUserByEmail()} and {@code getUserByPhoneNumber()}. Cached
+     * records of a user are discarded whenever the user is updated, deleted or imported through
+     * the same {@link com.google.firebase.auth.FirebaseAuth} instance. Changes made by other
+     * means become visible when the cached records expire. User records are not cached by
+     * default.
+     *
+     * @param userCacheTtlSeconds User cache TTL in seconds. Must be between 0 and 3600. 0
+     *     disables the cache.
+     * @return This <code>Builder</code> instance is returned so subsequent calls can be chained.
+     */
+    public Builder setUserCacheTtlSeconds(long userCacheTtlSeconds) {
+      this.userCacheTtlSeconds = userCacheTtlSeconds;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of user records cached by Firebase Auth. Defaults to 10000. Has no
+     * effect unless the cache is enabled via {@link #setUserCacheTtlSeconds(long)}.
+     *
+     * @param userCacheMaxSize Maximum number of cached user records. Must be positive.
+     * @return This <code>Builder</code> instance is returned so subsequent calls can be chained.
+     */
+    public Builder setUserCacheMaxSize(long userCacheMaxSize) {
+      this.userCacheMaxSize = userCacheMaxSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of seconds for which Firebase Auth reuses the OIDC and SAML provider
+     * configs returned by {@code getOidcProviderConfig()} and {@code getSamlProviderConfig()}.
+     * Configs that are looked up after half that time are refreshed in the background. Provider
+     * configs are not cached by default.
+     *
+     * @param providerConfigCacheTtlSeconds Provider config cache TTL in seconds. Must be between
+     *     0 and 86400. 0 disables the cache.
+     * @return This <code>Builder</code> instance is returned so subsequent calls can be chained.
+     */
+    public Builder setProviderConfigCacheTtlSeconds(long providerConfigCacheTtlSeconds) {
+      this.providerConfigCacheTtlSeconds = providerConfigCacheTtlSeconds;
+      return this;
+    }
+
     /**
      * Builds the {@link FirebaseOptions} instance from the previously set options.
      *
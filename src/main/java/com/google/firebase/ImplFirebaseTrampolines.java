@@ -16,6 +16,8 @@
 
 package com.google.firebase;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.api.core.ApiAsyncFunction;
 import com.google.api.core.ApiFunction;
 import com.google.api.core.ApiFuture;
@@ -28,6 +30,8 @@ import com.google.firebase.internal.FirebaseService;
 import com.google.firebase.internal.NonNull;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 
@@ -98,6 +102,19 @@ public final class ImplFirebaseTrampolines {
     return app.submit(command);
   }
 
+  /**
+   * Returns an executor that runs tasks on the main thread pool of the given app.
+   */
+  public static Executor getExecutor(@NonNull final FirebaseApp app) {
+    checkNotNull(app);
+    return new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        app.submit(Executors.callable(command));
+      }
+    };
+  }
+
   public static void startTokenRefresher(@NonNull FirebaseApp app) {
     app.startTokenRefresher();
   }
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.internal.FirebaseScheduledExecutor;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A scheduler thread shared by all the lightweight apps (see
+ * {@link FirebaseOptions.Builder#setLightweight(boolean)}) that use the same {@link ThreadManager}.
+ * The shared thread only fires timers. Each app gets a {@code ScheduledExecutorService} view,
+ * which runs its tasks on the thread pool of the app, one at a time, and cancels its pending
+ * tasks when the app is deleted. The shared thread is started when the first view is created,
+ * exits while no timers are pending, and is shut down when the last view is shut down.
+ */
+final class SharedScheduler {
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  // Guarded by SharedScheduler.class.
+  private static final Map<ThreadManager, SharedScheduler> instances = new IdentityHashMap<>();
+
+  private final ThreadManager threadManager;
+  private final FirebaseScheduledExecutor timer;
+
+  // Guarded by SharedScheduler.class.
+  private int references;
+
+  private SharedScheduler(ThreadManager threadManager) {
+    this.threadManager = threadManager;
+    this.timer = new FirebaseScheduledExecutor(
+        threadManager.getThreadFactory(), "firebase-shared-scheduler");
+    this.timer.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+    this.timer.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Returns a new view of the scheduler shared by the apps of the given thread manager, which
+   * runs tasks on the given executor.
+   */
+  static ScheduledExecutorService newAppScheduler(
+      ThreadManager threadManager, Executor appExecutor) {
+    checkNotNull(threadManager);
+    checkNotNull(appExecutor);
+    SharedScheduler scheduler;
+    synchronized (SharedScheduler.class) {
+      scheduler = instances.get(threadManager);
+      if (scheduler == null) {
+        scheduler = new SharedScheduler(threadManager);
+        instances.put(threadManager, scheduler);
+      }
+      scheduler.references++;
+    }
+    return scheduler.new AppScheduler(appExecutor);
+  }
+
+  @VisibleForTesting
+  static int getInstanceCount() {
+    synchronized (SharedScheduler.class) {
+      return instances.size();
+    }
+  }
+
+  private void release() {
+    synchronized (SharedScheduler.class) {
+      if (--references == 0) {
+        instances.remove(threadManager);
+        timer.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * The view of the shared scheduler used by a single app. The view terminates when it has been
+   * shut down, and all the tasks submitted to it have completed or been cancelled.
+   */
+  private final class AppScheduler extends AbstractExecutorService
+      implements ScheduledExecutorService {
+
+    private final Executor sequentialExecutor;
+    private final Object lock = new Object();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    // Scheduled tasks that have not completed, and are cancelled on shutdown. Guarded by lock.
+    private final Set<AppTask<?>> pending = new HashSet<>();
+
+    // Number of submitted tasks that have not completed. Guarded by lock.
+    private int active;
+
+    private volatile boolean shutdown;
+
+    AppScheduler(Executor appExecutor) {
+      this.sequentialExecutor = MoreExecutors.newSequentialExecutor(appExecutor);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+      checkNotNull(command);
+      synchronized (lock) {
+        checkNotShutdown();
+        active++;
+      }
+      try {
+        sequentialExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              command.run();
+            } finally {
+              taskCompleted();
+            }
+          }
+        });
+      } catch (RuntimeException e) {
+        taskCompleted();
+        throw e;
+      }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      return schedule(Executors.callable(checkNotNull(command)), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+      AppTask<V> task = new AppTask<>(checkNotNull(callable), 0);
+      start(task, unit.toNanos(delay));
+      return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(
+        Runnable command, long initialDelay, long period, TimeUnit unit) {
+      checkArgument(period > 0, "period must be positive");
+      AppTask<Object> task = new AppTask<>(
+          Executors.callable(checkNotNull(command)), unit.toNanos(period));
+      start(task, unit.toNanos(initialDelay));
+      return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(
+        Runnable command, long initialDelay, long delay, TimeUnit unit) {
+      checkArgument(delay > 0, "delay must be positive");
+      AppTask<Object> task = new AppTask<>(
+          Executors.callable(checkNotNull(command)), -unit.toNanos(delay));
+      start(task, unit.toNanos(initialDelay));
+      return task;
+    }
+
+    private void start(AppTask<?> task, long delayNanos) {
+      synchronized (lock) {
+        checkNotShutdown();
+        task.nextRunNanos = System.nanoTime() + delayNanos;
+        task.timer = timer.schedule(task.trigger, delayNanos, TimeUnit.NANOSECONDS);
+        pending.add(task);
+        active++;
+      }
+    }
+
+    /**
+     * Shuts down this view, and cancels all the pending tasks. Same as {@link #shutdownNow()},
+     * since views are only shut down when their app is deleted.
+     */
+    @Override
+    public void shutdown() {
+      shutdownNow();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      List<AppTask<?>> tasks;
+      synchronized (lock) {
+        if (shutdown) {
+          return ImmutableList.of();
+        }
+        shutdown = true;
+        tasks = ImmutableList.copyOf(pending);
+        if (active == 0) {
+          terminated.countDown();
+        }
+      }
+      for (AppTask<?> task : tasks) {
+        task.cancel(false);
+      }
+      release();
+      return ImmutableList.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return terminated.await(timeout, unit);
+    }
+
+    private void checkNotShutdown() {
+      if (shutdown) {
+        throw new RejectedExecutionException("Scheduler has been shut down");
+      }
+    }
+
+    private void taskCompleted() {
+      synchronized (lock) {
+        if (--active == 0 && shutdown) {
+          terminated.countDown();
+        }
+      }
+    }
+
+    /**
+     * A task that is handed to the app executor when its timer fires. Periodic tasks schedule
+     * their next timer after each successful run, so that runs of the same task never overlap.
+     */
+    private final class AppTask<V> extends FutureTask<V> implements ScheduledFuture<V> {
+
+      // 0 for one-shot tasks. Positive for fixed-rate and negative for fixed-delay tasks.
+      private final long periodNanos;
+      private final AtomicBoolean completed = new AtomicBoolean();
+      private final Runnable trigger = new Runnable() {
+        @Override
+        public void run() {
+          try {
+            sequentialExecutor.execute(AppTask.this);
+          } catch (RejectedExecutionException e) {
+            cancel(false);
+          }
+        }
+      };
+
+      private volatile ScheduledFuture<?> timer;
+      private volatile boolean running;
+      private long nextRunNanos;
+
+      AppTask(Callable<V> callable, long periodNanos) {
+        super(callable);
+        this.periodNanos = periodNanos;
+      }
+
+      @Override
+      public void run() {
+        running = true;
+        try {
+          if (periodNanos == 0) {
+            super.run();
+          } else if (runAndReset()) {
+            scheduleNextRun();
+          }
+        } finally {
+          running = false;
+          if (isDone()) {
+            complete();
+          }
+        }
+      }
+
+      private void scheduleNextRun() {
+        long delayNanos;
+        if (periodNanos > 0) {
+          nextRunNanos += periodNanos;
+          delayNanos = nextRunNanos - System.nanoTime();
+        } else {
+          delayNanos = -periodNanos;
+        }
+        synchronized (lock) {
+          if (!shutdown && !isCancelled()) {
+            timer = SharedScheduler.this.timer.schedule(
+                trigger, delayNanos, TimeUnit.NANOSECONDS);
+          }
+        }
+      }
+
+      @Override
+      public long getDelay(TimeUnit unit) {
+        ScheduledFuture<?> current = timer;
+        return current != null ? current.getDelay(unit) : 0;
+      }
+
+      @Override
+      public int compareTo(Delayed other) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+      }
+
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        ScheduledFuture<?> current = timer;
+        if (current != null) {
+          current.cancel(false);
+        }
+        // A running task completes when its run returns.
+        if (cancelled && !running) {
+          complete();
+        }
+        return cancelled;
+      }
+
+      private void complete() {
+        if (completed.compareAndSet(false, true)) {
+          synchronized (lock) {
+            pending.remove(this);
+          }
+          taskCompleted();
+        }
+      }
+    }
+  }
+}
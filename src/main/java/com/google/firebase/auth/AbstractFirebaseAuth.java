@@ -18,6 +18,7 @@ package com.google.firebase.auth;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.firebase.auth.internal.Utils.isEmulatorMode;
 
 import com.google.api.client.json.JsonFactory;
@@ -27,21 +28,32 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.ImplFirebaseTrampolines;
 import com.google.firebase.auth.FirebaseUserManager.EmailLinkType;
 import com.google.firebase.auth.FirebaseUserManager.UserImportRequest;
 import com.google.firebase.auth.ListProviderConfigsPage.DefaultOidcProviderConfigSource;
 import com.google.firebase.auth.ListProviderConfigsPage.DefaultSamlProviderConfigSource;
 import com.google.firebase.auth.ListUsersPage.DefaultUserSource;
+import com.google.firebase.auth.internal.DownloadAccountResponse;
 import com.google.firebase.auth.internal.FirebaseTokenFactory;
+import com.google.firebase.auth.internal.Utils;
 import com.google.firebase.internal.CallableOperation;
 import com.google.firebase.internal.NonNull;
 import com.google.firebase.internal.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -57,6 +69,9 @@ public abstract class AbstractFirebaseAuth {
   private final Supplier<? extends FirebaseTokenVerifier> idTokenVerifier;
   private final Supplier<? extends FirebaseTokenVerifier> cookieVerifier;
   private final Supplier<? extends FirebaseUserManager> userManager;
+  private final TokenRejectionMetrics tokenRejectionMetrics;
+  private final UserRecordCache userRecordCache;
+  private final ProviderConfigCache providerConfigCache;
   private final JsonFactory jsonFactory;
 
   protected AbstractFirebaseAuth(Builder<?> builder) {
@@ -65,6 +80,10 @@ public abstract class AbstractFirebaseAuth {
     this.idTokenVerifier = threadSafeMemoize(builder.idTokenVerifier);
     this.cookieVerifier = threadSafeMemoize(builder.cookieVerifier);
     this.userManager = threadSafeMemoize(builder.userManager);
+    this.tokenRejectionMetrics = builder.tokenRejectionMetrics != null
+        ? builder.tokenRejectionMetrics : new TokenRejectionMetrics();
+    this.userRecordCache = builder.userRecordCache;
+    this.providerConfigCache = builder.providerConfigCache;
     this.jsonFactory = firebaseApp.getOptions().getJsonFactory();
   }
 
@@ -174,6 +193,94 @@ public abstract class AbstractFirebaseAuth {
     };
   }
 
+  /**
+   * Creates a Firebase custom token for each of the given UIDs. Uses the same signing approach
+   * as {@link #createCustomToken(String)}, but signs multiple tokens concurrently: tokens are
+   * signed in parallel when the SDK has access to a service account private key, and with a
+   * bounded number of concurrent requests when signing via the IAM service.
+   *
+   * @param uids A non-null collection of UIDs. Each UID must be non-empty, and should be less
+   *     than 128 characters.
+   * @return A map of UIDs to custom token strings, in the iteration order of the input.
+   * @throws IllegalArgumentException If any of the UIDs is null or empty.
+   * @throws IllegalStateException If the SDK fails to discover a viable approach for signing
+   *     tokens.
+   * @throws FirebaseAuthException If an error occurs while generating any of the custom tokens.
+   */
+  public Map<String, String> createCustomTokens(@NonNull Collection<String> uids)
+      throws FirebaseAuthException {
+    return createCustomTokensOp(toClaimsByUid(uids)).call();
+  }
+
+  /**
+   * Creates a Firebase custom token for each of the given UIDs, containing the corresponding
+   * developer claims. See {@link #createCustomTokens(Collection)} for details.
+   *
+   * @param claimsByUid A non-null map of UIDs to developer claims. Claims may be null. See
+   *     {@link #createCustomToken(String, Map)} for the constraints on UIDs and claims.
+   * @return A map of UIDs to custom token strings, in the iteration order of the input.
+   * @throws IllegalArgumentException If any of the UIDs is null or empty, or if any of the claims
+   *     contain a reserved key.
+   * @throws IllegalStateException If the SDK fails to discover a viable approach for signing
+   *     tokens.
+   * @throws FirebaseAuthException If an error occurs while generating any of the custom tokens.
+   */
+  public Map<String, String> createCustomTokens(
+      @NonNull Map<String, Map<String, Object>> claimsByUid) throws FirebaseAuthException {
+    return createCustomTokensOp(claimsByUid).call();
+  }
+
+  /**
+   * Similar to {@link #createCustomTokens(Collection)} but performs the operation asynchronously.
+   *
+   * @param uids A non-null collection of UIDs.
+   * @return An {@code ApiFuture} which will complete successfully with a map of UIDs to custom
+   *     token strings, or unsuccessfully with the failure Exception.
+   * @throws IllegalArgumentException If any of the UIDs is null or empty.
+   */
+  public ApiFuture<Map<String, String>> createCustomTokensAsync(
+      @NonNull Collection<String> uids) {
+    return createCustomTokensOp(toClaimsByUid(uids)).callAsync(firebaseApp);
+  }
+
+  /**
+   * Similar to {@link #createCustomTokens(Map)} but performs the operation asynchronously.
+   *
+   * @param claimsByUid A non-null map of UIDs to developer claims.
+   * @return An {@code ApiFuture} which will complete successfully with a map of UIDs to custom
+   *     token strings, or unsuccessfully with the failure Exception.
+   * @throws IllegalArgumentException If any of the UIDs is null or empty.
+   */
+  public ApiFuture<Map<String, String>> createCustomTokensAsync(
+      @NonNull Map<String, Map<String, Object>> claimsByUid) {
+    return createCustomTokensOp(claimsByUid).callAsync(firebaseApp);
+  }
+
+  private static Map<String, Map<String, Object>> toClaimsByUid(Collection<String> uids) {
+    checkNotNull(uids, "uids must not be null");
+    Map<String, Map<String, Object>> claimsByUid = new LinkedHashMap<>();
+    for (String uid : uids) {
+      claimsByUid.put(uid, null);
+    }
+    return claimsByUid;
+  }
+
+  private CallableOperation<Map<String, String>, FirebaseAuthException> createCustomTokensOp(
+      Map<String, Map<String, Object>> claimsByUid) {
+    checkNotNull(claimsByUid, "claimsByUid must not be null");
+    final Map<String, Map<String, Object>> claims = new LinkedHashMap<>(claimsByUid);
+    for (String uid : claims.keySet()) {
+      checkArgument(!Strings.isNullOrEmpty(uid), "uids must not contain null or empty strings");
+    }
+    final FirebaseTokenFactory tokenFactory = this.tokenFactory.get();
+    return new CallableOperation<Map<String, String>, FirebaseAuthException>() {
+      @Override
+      public Map<String, String> execute() throws FirebaseAuthException {
+        return tokenFactory.createSignedCustomAuthTokens(claims);
+      }
+    };
+  }
+
   /**
    * Creates a new Firebase session cookie from the given ID token and options. The returned JWT can
    * be set as a server-side session cookie with a custom cookie policy.
@@ -309,6 +416,57 @@ public abstract class AbstractFirebaseAuth {
     };
   }
 
+  /**
+   * Parses and verifies a batch of Firebase ID tokens.
+   *
+   * <p>Each token is subjected to the same checks as {@link #verifyIdToken(String)}. Public key
+   * certificates are fetched at most once for the whole batch, and the tokens are verified in
+   * parallel. A failure to verify one token does not affect the others; the outcome for each token
+   * is reported in the returned {@link VerifyIdTokensResult}.
+   *
+   * <p>This method does not check whether the tokens have been revoked.
+   *
+   * @param idTokens A collection of Firebase ID token strings to parse and verify.
+   * @return A {@link VerifyIdTokensResult} with one entry per input token, in iteration order.
+   * @throws NullPointerException If the idTokens collection is null.
+   * @throws IllegalArgumentException If any of the tokens is null or empty, or if the {@link
+   *     FirebaseApp} instance does not have a project ID associated with it.
+   */
+  public VerifyIdTokensResult verifyIdTokens(@NonNull Collection<String> idTokens) {
+    return verifyIdTokensOp(idTokens).call();
+  }
+
+  /**
+   * Similar to {@link #verifyIdTokens(Collection)} but performs the operation asynchronously.
+   *
+   * @param idTokens A collection of Firebase ID token strings to parse and verify.
+   * @return An {@code ApiFuture} which will complete successfully with a
+   *     {@link VerifyIdTokensResult}.
+   * @throws NullPointerException If the idTokens collection is null.
+   * @throws IllegalArgumentException If any of the tokens is null or empty, or if the {@link
+   *     FirebaseApp} instance does not have a project ID associated with it.
+   */
+  public ApiFuture<VerifyIdTokensResult> verifyIdTokensAsync(
+      @NonNull Collection<String> idTokens) {
+    return verifyIdTokensOp(idTokens).callAsync(firebaseApp);
+  }
+
+  private CallableOperation<VerifyIdTokensResult, RuntimeException> verifyIdTokensOp(
+      Collection<String> idTokens) {
+    checkNotNull(idTokens, "idTokens must not be null");
+    final List<String> tokens = new ArrayList<>(idTokens);
+    for (String idToken : tokens) {
+      checkArgument(!Strings.isNullOrEmpty(idToken), "ID token must not be null or empty");
+    }
+    final FirebaseTokenVerifier verifier = getIdTokenVerifier(false);
+    return new CallableOperation<VerifyIdTokensResult, RuntimeException>() {
+      @Override
+      protected VerifyIdTokensResult execute() {
+        return new VerifyIdTokensResult(verifier.verifyTokens(tokens));
+      }
+    };
+  }
+
   @VisibleForTesting
   FirebaseTokenVerifier getIdTokenVerifier(boolean checkRevoked) {
     FirebaseTokenVerifier verifier = idTokenVerifier.get();
@@ -402,6 +560,42 @@ public abstract class AbstractFirebaseAuth {
     return verifier;
   }
 
+  /**
+   * Returns the counts of ID tokens and session cookies rejected by this instance, grouped by the
+   * reason for rejection.
+   *
+   * <p>Rejections are counted regardless of whether stackless rejections are enabled via
+   * {@link com.google.firebase.FirebaseOptions.Builder#setStacklessTokenRejections(boolean)}. In
+   * that mode, rejected tokens result in exceptions that carry the usual {@link AuthErrorCode},
+   * but no stack trace, and messages that do not echo the contents of the token.
+   *
+   * @return A non-null {@link TokenRejectionMetrics} instance.
+   */
+  @NonNull
+  public TokenRejectionMetrics getTokenRejectionMetrics() {
+    return tokenRejectionMetrics;
+  }
+
+  /**
+   * Returns the statistics of the user record cache of this instance.
+   *
+   * <p>The cache is disabled by default. It is enabled by passing the number of seconds (up to
+   * 3600) for which the results of {@link #getUser(String)}, {@link #getUserByEmail(String)} and
+   * {@link #getUserByPhoneNumber(String)} may be reused to
+   * {@link FirebaseOptions.Builder#setUserCacheTtlSeconds(long)}.
+   * {@link FirebaseOptions.Builder#setUserCacheMaxSize(long)} bounds the number of cached
+   * records, and defaults to 10000. Cached records of a user are discarded whenever the user is
+   * updated, deleted or imported through this instance. Changes made by other means become visible
+   * when the cached records expire.
+   *
+   * @return A non-null {@link UserCacheStats} instance, in which all values are zero if the cache
+   *     is disabled.
+   */
+  @NonNull
+  public UserCacheStats getUserCacheStats() {
+    return userRecordCache != null ? userRecordCache.getStats() : UserCacheStats.EMPTY;
+  }
+
   /**
    * Revokes all refresh tokens for the specified user.
    *
@@ -443,7 +637,11 @@ public abstract class AbstractFirebaseAuth {
         int currentTimeSeconds = (int) (System.currentTimeMillis() / 1000);
         UserRecord.UpdateRequest request =
             new UserRecord.UpdateRequest(uid).setValidSince(currentTimeSeconds);
-        userManager.updateUser(request, jsonFactory);
+        try {
+          userManager.updateUser(request, jsonFactory);
+        } finally {
+          invalidateCachedUser(uid);
+        }
         return null;
       }
     };
@@ -480,7 +678,13 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<UserRecord, FirebaseAuthException>() {
       @Override
       protected UserRecord execute() throws FirebaseAuthException {
-        return userManager.getUserById(uid);
+        UserRecordCache.Loader loader = new UserRecordCache.Loader() {
+          @Override
+          public UserRecord load() throws FirebaseAuthException {
+            return userManager.getUserById(uid);
+          }
+        };
+        return userRecordCache != null ? userRecordCache.getByUid(uid, loader) : loader.load();
       }
     };
   }
@@ -517,7 +721,14 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<UserRecord, FirebaseAuthException>() {
       @Override
       protected UserRecord execute() throws FirebaseAuthException {
-        return userManager.getUserByEmail(email);
+        UserRecordCache.Loader loader = new UserRecordCache.Loader() {
+          @Override
+          public UserRecord load() throws FirebaseAuthException {
+            return userManager.getUserByEmail(email);
+          }
+        };
+        return userRecordCache != null
+            ? userRecordCache.getByEmail(email, loader) : loader.load();
       }
     };
   }
@@ -554,7 +765,14 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<UserRecord, FirebaseAuthException>() {
       @Override
       protected UserRecord execute() throws FirebaseAuthException {
-        return userManager.getUserByPhoneNumber(phoneNumber);
+        UserRecordCache.Loader loader = new UserRecordCache.Loader() {
+          @Override
+          public UserRecord load() throws FirebaseAuthException {
+            return userManager.getUserByPhoneNumber(phoneNumber);
+          }
+        };
+        return userRecordCache != null
+            ? userRecordCache.getByPhoneNumber(phoneNumber, loader) : loader.load();
       }
     };
   }
@@ -687,6 +905,103 @@ public abstract class AbstractFirebaseAuth {
     };
   }
 
+  /**
+   * Exports all users of the project to the given consumer. Pages of users are fetched in the
+   * background ahead of the consumer, and discarded once their users have been delivered. See
+   * {@link #exportUsers(UserExportConsumer, UserExportOptions)} for details.
+   *
+   * @param consumer A non-null {@link UserExportConsumer} that receives the users.
+   * @return A {@link UserExportResult} instance.
+   * @throws NullPointerException If the consumer is null.
+   * @throws FirebaseAuthException If an error occurs while retrieving user data.
+   */
+  public UserExportResult exportUsers(@NonNull UserExportConsumer consumer)
+      throws FirebaseAuthException {
+    return exportUsers(consumer, UserExportOptions.builder().build());
+  }
+
+  /**
+   * Exports all users of the project to the given consumer, using the specified options. Users are
+   * delivered in the same order as {@link #listUsers(String)} returns them, on the calling thread.
+   * The next page of users is requested as soon as the current page arrives, and at most
+   * {@link UserExportOptions.Builder#setPrefetchPages(int)} pages are held ahead of a slow
+   * consumer. A {@link UserExportOptions.CheckpointListener} may be used to record the page token
+   * after each page, which can later be used to resume an interrupted export.
+   *
+   * @param consumer A non-null {@link UserExportConsumer} that receives the users.
+   * @param options A non-null {@link UserExportOptions} instance.
+   * @return A {@link UserExportResult} instance.
+   * @throws NullPointerException If the consumer or options are null.
+   * @throws FirebaseAuthException If an error occurs while retrieving user data.
+   */
+  public UserExportResult exportUsers(
+      @NonNull UserExportConsumer consumer, @NonNull UserExportOptions options)
+      throws FirebaseAuthException {
+    return exportUsersOp(consumer, options).call();
+  }
+
+  /**
+   * Exports all users of the project to the given output stream as newline-delimited JSON. Each
+   * line holds one user account in the format returned by the Firebase Auth backend, including
+   * password hashes and salts when available. The stream is flushed after each page, before the
+   * page token of the next page is reported to the checkpoint listener, so a checkpoint always
+   * marks the end of complete data. The stream is not closed.
+   *
+   * @param out A non-null {@code OutputStream} to write to.
+   * @param options A non-null {@link UserExportOptions} instance.
+   * @return A {@link UserExportResult} instance.
+   * @throws NullPointerException If the output stream or options are null.
+   * @throws FirebaseAuthException If an error occurs while retrieving user data.
+   * @throws IOException If an error occurs while writing to the output stream.
+   */
+  public UserExportResult exportUsers(
+      @NonNull OutputStream out, @NonNull UserExportOptions options)
+      throws FirebaseAuthException, IOException {
+    checkNotNull(out, "output stream must not be null");
+    return newUserExporter(options).export(out);
+  }
+
+  /**
+   * Similar to {@link #exportUsers(UserExportConsumer, UserExportOptions)} but performs the
+   * operation asynchronously. The consumer is invoked on a thread managed by the SDK.
+   *
+   * @param consumer A non-null {@link UserExportConsumer} that receives the users.
+   * @param options A non-null {@link UserExportOptions} instance.
+   * @return An {@code ApiFuture} which will complete successfully with a {@link UserExportResult}
+   *     instance. If an error occurs while retrieving user data, the future throws an exception.
+   * @throws NullPointerException If the consumer or options are null.
+   */
+  public ApiFuture<UserExportResult> exportUsersAsync(
+      @NonNull UserExportConsumer consumer, @NonNull UserExportOptions options) {
+    return exportUsersOp(consumer, options).callAsync(firebaseApp);
+  }
+
+  private CallableOperation<UserExportResult, FirebaseAuthException> exportUsersOp(
+      @NonNull final UserExportConsumer consumer, @NonNull UserExportOptions options) {
+    checkNotNull(consumer, "consumer must not be null");
+    final UserExporter exporter = newUserExporter(options);
+    return new CallableOperation<UserExportResult, FirebaseAuthException>() {
+      @Override
+      protected UserExportResult execute() throws FirebaseAuthException {
+        return exporter.export(consumer);
+      }
+    };
+  }
+
+  private UserExporter newUserExporter(@NonNull UserExportOptions options) {
+    checkNotNull(options, "options must not be null");
+    final FirebaseUserManager userManager = getUserManager();
+    UserExporter.PageSource source = new UserExporter.PageSource() {
+      @Override
+      public DownloadAccountResponse fetch(int maxResults, String pageToken)
+          throws FirebaseAuthException {
+        return userManager.listUsers(maxResults, pageToken);
+      }
+    };
+    return new UserExporter(
+        source, jsonFactory, ImplFirebaseTrampolines.getExecutor(firebaseApp), options);
+  }
+
   /**
    * Creates a new user account with the attributes contained in the specified {@link
    * UserRecord.CreateRequest}.
@@ -722,7 +1037,7 @@ public abstract class AbstractFirebaseAuth {
       @Override
       protected UserRecord execute() throws FirebaseAuthException {
         String uid = userManager.createUser(request);
-        return userManager.getUserById(uid);
+        return getUpdatedUser(userManager, uid);
       }
     };
   }
@@ -760,8 +1075,14 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<UserRecord, FirebaseAuthException>() {
       @Override
       protected UserRecord execute() throws FirebaseAuthException {
-        userManager.updateUser(request, jsonFactory);
-        return userManager.getUserById(request.getUid());
+        final String uid = request.getUid();
+        try {
+          userManager.updateUser(request, jsonFactory);
+        } catch (FirebaseAuthException | RuntimeException e) {
+          invalidateCachedUser(uid);
+          throw e;
+        }
+        return getUpdatedUser(userManager, uid);
       }
     };
   }
@@ -814,12 +1135,88 @@ public abstract class AbstractFirebaseAuth {
       protected Void execute() throws FirebaseAuthException {
         final UserRecord.UpdateRequest request =
             new UserRecord.UpdateRequest(uid).setCustomClaims(claims);
-        userManager.updateUser(request, jsonFactory);
+        try {
+          userManager.updateUser(request, jsonFactory);
+        } finally {
+          invalidateCachedUser(uid);
+        }
         return null;
       }
     };
   }
 
+  /**
+   * Sets custom claims on a stream of existing user accounts. Each entry of the iterator maps a
+   * user ID to the claims of that user, with the same semantics as
+   * {@link #setCustomUserClaims(String, Map)}. Entries are read from the iterator as updates
+   * complete, so that arbitrarily large inputs can be processed without holding them in memory.
+   *
+   * <p>Up to {@link BulkCustomClaimsOptions.Builder#setMaxConcurrentRequests(int)} updates are
+   * sent at a time. When the backend reports that a quota has been exceeded, fewer updates are
+   * sent at a time, and the rejected updates are retried with exponential backoff.
+   *
+   * <p>Invalid entries and updates rejected by the backend do not stop the operation. They are
+   * reported in the returned result, and to the
+   * {@link BulkCustomClaimsOptions.FailureListener} of the options as they happen.
+   *
+   * @param claims A non-null iterator of user IDs mapped to their custom claims.
+   * @param options A non-null {@link BulkCustomClaimsOptions} instance.
+   * @return A {@link BulkCustomClaimsResult} instance.
+   * @throws FirebaseAuthException If the operation is interrupted.
+   * @throws NullPointerException If the claims iterator, any of its entries, or the options are
+   *     null.
+   */
+  public BulkCustomClaimsResult bulkSetCustomUserClaims(
+      @NonNull Iterator<? extends Map.Entry<String, ? extends Map<String, Object>>> claims,
+      @NonNull BulkCustomClaimsOptions options) throws FirebaseAuthException {
+    return bulkSetCustomUserClaimsOp(claims, options).call();
+  }
+
+  /**
+   * Similar to {@link #bulkSetCustomUserClaims(Iterator, BulkCustomClaimsOptions)} but performs
+   * the operation asynchronously.
+   *
+   * @param claims A non-null iterator of user IDs mapped to their custom claims.
+   * @param options A non-null {@link BulkCustomClaimsOptions} instance.
+   * @return An {@code ApiFuture} which will complete successfully when all the entries have been
+   *     processed. If the operation is interrupted, the future throws a
+   *     {@link FirebaseAuthException}.
+   * @throws NullPointerException If the claims iterator or options are null.
+   */
+  public ApiFuture<BulkCustomClaimsResult> bulkSetCustomUserClaimsAsync(
+      @NonNull Iterator<? extends Map.Entry<String, ? extends Map<String, Object>>> claims,
+      @NonNull BulkCustomClaimsOptions options) {
+    return bulkSetCustomUserClaimsOp(claims, options).callAsync(firebaseApp);
+  }
+
+  private CallableOperation<BulkCustomClaimsResult, FirebaseAuthException>
+      bulkSetCustomUserClaimsOp(
+      @NonNull final Iterator<? extends Map.Entry<String, ? extends Map<String, Object>>> claims,
+      @NonNull BulkCustomClaimsOptions options) {
+    checkNotNull(claims, "claims must not be null");
+    checkNotNull(options, "options must not be null");
+    final FirebaseUserManager userManager = getUserManager();
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) throws FirebaseAuthException {
+        try {
+          userManager.setCustomUserClaims(uid, customAttributes);
+        } finally {
+          invalidateCachedUser(uid);
+        }
+      }
+    };
+    final CustomClaimsUpdater claimsUpdater =
+        new CustomClaimsUpdater(
+            updater, jsonFactory, ImplFirebaseTrampolines.getExecutor(firebaseApp), options);
+    return new CallableOperation<BulkCustomClaimsResult, FirebaseAuthException>() {
+      @Override
+      protected BulkCustomClaimsResult execute() throws FirebaseAuthException {
+        return claimsUpdater.update(claims);
+      }
+    };
+  }
+
   /**
    * Deletes the user identified by the specified user ID.
    *
@@ -850,7 +1247,11 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<Void, FirebaseAuthException>() {
       @Override
       protected Void execute() throws FirebaseAuthException {
-        userManager.deleteUser(uid);
+        try {
+          userManager.deleteUser(uid);
+        } finally {
+          invalidateCachedUser(uid);
+        }
         return null;
       }
     };
@@ -932,7 +1333,87 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<UserImportResult, FirebaseAuthException>() {
       @Override
       protected UserImportResult execute() throws FirebaseAuthException {
-        return userManager.importUsers(request);
+        try {
+          return userManager.importUsers(request);
+        } finally {
+          invalidateCachedImportedUsers(users);
+        }
+      }
+    };
+  }
+
+  /**
+   * Imports an arbitrary number of users into Firebase Auth. Users are read from the iterator
+   * lazily, and uploaded in chunks of up to 1000 users, with several chunks in flight at the same
+   * time. Like {@link #importUsers(List, UserImportOptions)}, this operation ignores checks on
+   * identifier uniqueness which could result in duplications.
+   *
+   * <p>The returned {@link UserImportResult} combines the results of all chunks, and the index of
+   * each {@link ErrorInfo} refers to the position of the failed user in the complete input. If a
+   * chunk upload fails altogether, no further chunks are started, and the error is thrown once
+   * the chunks already in flight have completed. A
+   * {@link UserBulkImportOptions.CheckpointListener} can be used to find out where to resume from
+   * in that case.
+   *
+   * @param users A non-null iterator of users to be imported.
+   * @param options A non-null {@link UserBulkImportOptions} instance.
+   * @return A {@link UserImportResult} instance.
+   * @throws NullPointerException If the users iterator or options are null.
+   * @throws IllegalArgumentException If at least one user specifies a password, and the options do
+   *     not specify a {@link UserImportOptions} with a hash algorithm. Users are checked as they
+   *     are read, so no chunk is started once an invalid user has been read. Chunks read before
+   *     it may already have been imported, as reported to the
+   *     {@link UserBulkImportOptions.CheckpointListener}.
+   * @throws FirebaseAuthException If an error occurs while importing users.
+   */
+  public UserImportResult bulkImportUsers(
+      @NonNull Iterator<? extends ImportUserRecord> users, @NonNull UserBulkImportOptions options)
+      throws FirebaseAuthException {
+    return bulkImportUsersOp(users, options).call();
+  }
+
+  /**
+   * Similar to {@link #bulkImportUsers(Iterator, UserBulkImportOptions)} but performs the
+   * operation asynchronously.
+   *
+   * @param users A non-null iterator of users to be imported.
+   * @param options A non-null {@link UserBulkImportOptions} instance.
+   * @return An {@code ApiFuture} which will complete successfully when all the users have been
+   *     processed. If an error occurs while importing the users, the future throws a {@link
+   *     FirebaseAuthException}.
+   * @throws NullPointerException If the users iterator or options are null.
+   */
+  public ApiFuture<UserImportResult> bulkImportUsersAsync(
+      @NonNull Iterator<? extends ImportUserRecord> users,
+      @NonNull UserBulkImportOptions options) {
+    return bulkImportUsersOp(users, options).callAsync(firebaseApp);
+  }
+
+  private CallableOperation<UserImportResult, FirebaseAuthException> bulkImportUsersOp(
+      @NonNull final Iterator<? extends ImportUserRecord> users,
+      @NonNull UserBulkImportOptions options) {
+    checkNotNull(users, "users must not be null");
+    checkNotNull(options, "options must not be null");
+    final FirebaseUserManager userManager = getUserManager();
+    final UserImportOptions importOptions = options.getImportOptions();
+    UserImporter.ChunkUploader uploader = new UserImporter.ChunkUploader() {
+      @Override
+      public UserImportResult upload(List<ImportUserRecord> chunk)
+          throws FirebaseAuthException {
+        UserImportRequest request = new UserImportRequest(chunk, importOptions, jsonFactory);
+        try {
+          return userManager.importUsers(request);
+        } finally {
+          invalidateCachedImportedUsers(chunk);
+        }
+      }
+    };
+    final UserImporter importer =
+        new UserImporter(uploader, ImplFirebaseTrampolines.getExecutor(firebaseApp), options);
+    return new CallableOperation<UserImportResult, FirebaseAuthException>() {
+      @Override
+      protected UserImportResult execute() throws FirebaseAuthException {
+        return importer.importUsers(users);
       }
     };
   }
@@ -959,6 +1440,29 @@ public abstract class AbstractFirebaseAuth {
     return getUsersOp(identifiers).call();
   }
 
+  /**
+   * Gets the user data corresponding to any number of identifiers. The identifiers are split into
+   * batches of 100, which are looked up concurrently as configured by the given options, and the
+   * results of all batches are merged.
+   *
+   * <p>There are no ordering guarantees; in particular, the nth entry in the users result list is
+   * not guaranteed to correspond to the nth entry in the input parameters list. A user identified
+   * by more than one of the identifiers appears in the result only once.
+   *
+   * @param identifiers The identifiers used to indicate which user records should be returned.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return The corresponding user records.
+   * @throws IllegalArgumentException If any of the identifiers are invalid.
+   * @throws NullPointerException If the identifiers or options are null.
+   * @throws FirebaseAuthException If an error occurs while retrieving user data. No result is
+   *     returned if any of the batches fails.
+   */
+  public GetUsersResult getUsers(
+      @NonNull Collection<UserIdentifier> identifiers, @NonNull BulkOperationOptions options)
+      throws FirebaseAuthException {
+    return bulkGetUsersOp(identifiers, options).call();
+  }
+
   /**
    * Gets the user data corresponding to the specified identifiers.
    *
@@ -979,6 +1483,21 @@ public abstract class AbstractFirebaseAuth {
     return getUsersOp(identifiers).callAsync(firebaseApp);
   }
 
+  /**
+   * Similar to {@link #getUsers(Collection, BulkOperationOptions)} but performs the operation
+   * asynchronously.
+   *
+   * @param identifiers The identifiers used to indicate which user records should be returned.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return An {@code ApiFuture} that resolves to the corresponding user records.
+   * @throws IllegalArgumentException If any of the identifiers are invalid.
+   * @throws NullPointerException If the identifiers or options are null.
+   */
+  public ApiFuture<GetUsersResult> getUsersAsync(
+      @NonNull Collection<UserIdentifier> identifiers, @NonNull BulkOperationOptions options) {
+    return bulkGetUsersOp(identifiers, options).callAsync(firebaseApp);
+  }
+
   private CallableOperation<GetUsersResult, FirebaseAuthException> getUsersOp(
       @NonNull final Collection<UserIdentifier> identifiers) {
     checkNotNull(identifiers, "identifiers must not be null");
@@ -990,18 +1509,62 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<GetUsersResult, FirebaseAuthException>() {
       @Override
       protected GetUsersResult execute() throws FirebaseAuthException {
-        Set<UserRecord> users = userManager.getAccountInfo(identifiers);
+        return lookupUsers(userManager, identifiers);
+      }
+    };
+  }
+
+  private CallableOperation<GetUsersResult, FirebaseAuthException> bulkGetUsersOp(
+      @NonNull Collection<UserIdentifier> identifiers, @NonNull BulkOperationOptions options) {
+    checkNotNull(identifiers, "identifiers must not be null");
+    for (UserIdentifier id : identifiers) {
+      checkNotNull(id, "identifiers must not contain null elements");
+    }
+
+    final List<UserIdentifier> identifierList = new ArrayList<>(identifiers);
+    final FirebaseUserManager userManager = getUserManager();
+    final BulkRequestRunner runner =
+        new BulkRequestRunner(ImplFirebaseTrampolines.getExecutor(firebaseApp), options);
+    return new CallableOperation<GetUsersResult, FirebaseAuthException>() {
+      @Override
+      protected GetUsersResult execute() throws FirebaseAuthException {
+        List<GetUsersResult> results = runner.run(
+            identifierList,
+            FirebaseUserManager.MAX_GET_ACCOUNTS_BATCH_SIZE,
+            new BulkRequestRunner.BatchRequest<UserIdentifier, GetUsersResult>() {
+              @Override
+              public GetUsersResult execute(List<UserIdentifier> batch)
+                  throws FirebaseAuthException {
+                return lookupUsers(userManager, batch);
+              }
+            });
+
+        Map<String, UserRecord> users = new LinkedHashMap<>();
         Set<UserIdentifier> notFound = new HashSet<>();
-        for (UserIdentifier id : identifiers) {
-          if (!isUserFound(id, users)) {
-            notFound.add(id);
+        for (GetUsersResult result : results) {
+          for (UserRecord user : result.getUsers()) {
+            users.put(user.getUid(), user);
           }
+          notFound.addAll(result.getNotFound());
         }
-        return new GetUsersResult(users, notFound);
+        return new GetUsersResult(new HashSet<>(users.values()), notFound);
       }
     };
   }
 
+  private GetUsersResult lookupUsers(
+      FirebaseUserManager userManager, Collection<UserIdentifier> identifiers)
+      throws FirebaseAuthException {
+    Set<UserRecord> users = userManager.getAccountInfo(identifiers);
+    Set<UserIdentifier> notFound = new HashSet<>();
+    for (UserIdentifier id : identifiers) {
+      if (!isUserFound(id, users)) {
+        notFound.add(id);
+      }
+    }
+    return new GetUsersResult(users, notFound);
+  }
+
   private boolean isUserFound(UserIdentifier id, Collection<UserRecord> userRecords) {
     for (UserRecord userRecord : userRecords) {
       if (id.matches(userRecord)) {
@@ -1036,6 +1599,33 @@ public abstract class AbstractFirebaseAuth {
     return deleteUsersOp(uids).call();
   }
 
+  /**
+   * Deletes any number of users specified by the given uids. The uids are split into batches of
+   * 1000, which are deleted concurrently as configured by the given options, and the results of
+   * all batches are merged. The index of each {@link ErrorInfo} in the result refers to the
+   * position of the failed uid in the given list.
+   *
+   * <p>Deleting a non-existing user does not generate an error (the method is idempotent).
+   * Non-existing users are considered to be successfully deleted and are therefore included in the
+   * DeleteUsersResult.getSuccessCount() value.
+   *
+   * <p>The underlying API has a rate limit of 1 QPS. When deleting more than 1000 users, use
+   * {@link BulkOperationOptions.Builder#setMaxRequestsPerSecond(double)} to stay within the limit.
+   *
+   * @param uids The uids of the users to be deleted.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return The total number of successful/failed deletions, as well as the array of errors that
+   *     correspond to the failed deletions.
+   * @throws IllegalArgumentException If any of the identifiers are invalid.
+   * @throws NullPointerException If the uids or options are null.
+   * @throws FirebaseAuthException If an error occurs while deleting users. No result is returned
+   *     if any of the batches fails, although the users in other batches may have been deleted.
+   */
+  public DeleteUsersResult deleteUsers(List<String> uids, @NonNull BulkOperationOptions options)
+      throws FirebaseAuthException {
+    return bulkDeleteUsersOp(uids, options).call();
+  }
+
   /**
    * Similar to {@link #deleteUsers(List)} but performs the operation asynchronously.
    *
@@ -1051,6 +1641,24 @@ public abstract class AbstractFirebaseAuth {
     return deleteUsersOp(uids).callAsync(firebaseApp);
   }
 
+  /**
+   * Similar to {@link #deleteUsers(List, BulkOperationOptions)} but performs the operation
+   * asynchronously.
+   *
+   * @param uids The uids of the users to be deleted.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return An {@code ApiFuture} that resolves to the total number of successful/failed
+   *     deletions, as well as the array of errors that correspond to the failed deletions. If an
+   *     error occurs while deleting the user accounts, the future throws a
+   *     {@link FirebaseAuthException}.
+   * @throws IllegalArgumentException If any of the identifiers are invalid.
+   * @throws NullPointerException If the uids or options are null.
+   */
+  public ApiFuture<DeleteUsersResult> deleteUsersAsync(
+      List<String> uids, @NonNull BulkOperationOptions options) {
+    return bulkDeleteUsersOp(uids, options).callAsync(firebaseApp);
+  }
+
   private CallableOperation<DeleteUsersResult, FirebaseAuthException> deleteUsersOp(
       final List<String> uids) {
     checkNotNull(uids, "uids must not be null");
@@ -1064,7 +1672,48 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<DeleteUsersResult, FirebaseAuthException>() {
       @Override
       protected DeleteUsersResult execute() throws FirebaseAuthException {
-        return userManager.deleteUsers(uids);
+        try {
+          return userManager.deleteUsers(uids);
+        } finally {
+          invalidateCachedUsers(uids);
+        }
+      }
+    };
+  }
+
+  private CallableOperation<DeleteUsersResult, FirebaseAuthException> bulkDeleteUsersOp(
+      final List<String> uids, @NonNull BulkOperationOptions options) {
+    checkNotNull(uids, "uids must not be null");
+    for (String uid : uids) {
+      UserRecord.checkUid(uid);
+    }
+    final FirebaseUserManager userManager = getUserManager();
+    final BulkRequestRunner runner =
+        new BulkRequestRunner(ImplFirebaseTrampolines.getExecutor(firebaseApp), options);
+    return new CallableOperation<DeleteUsersResult, FirebaseAuthException>() {
+      @Override
+      protected DeleteUsersResult execute() throws FirebaseAuthException {
+        final int batchSize = FirebaseUserManager.MAX_DELETE_ACCOUNTS_BATCH_SIZE;
+        List<DeleteUsersResult> results = runner.run(uids, batchSize,
+            new BulkRequestRunner.BatchRequest<String, DeleteUsersResult>() {
+              @Override
+              public DeleteUsersResult execute(List<String> batch) throws FirebaseAuthException {
+                try {
+                  return userManager.deleteUsers(batch);
+                } finally {
+                  invalidateCachedUsers(batch);
+                }
+              }
+            });
+
+        List<ErrorInfo> errors = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+          int offset = i * batchSize;
+          for (ErrorInfo error : results.get(i).getErrors()) {
+            errors.add(new ErrorInfo(offset + error.getIndex(), error.getReason()));
+          }
+        }
+        return new DeleteUsersResult(uids.size(), errors);
       }
     };
   }
@@ -1239,6 +1888,176 @@ public abstract class AbstractFirebaseAuth {
     };
   }
 
+  /**
+   * Generates the out-of-band email action links for password reset flows for a stream of email
+   * addresses, using the same action code settings for all of them. Emails are read from the
+   * iterator as requests complete, and up to
+   * {@link BulkOperationOptions.Builder#setMaxConcurrentRequests(int)} requests are sent at a
+   * time. Each link, or the reason why it could not be generated, is reported to the listener as
+   * soon as the corresponding request completes.
+   *
+   * @param emails A non-null iterator of the emails of the users whose passwords are to be reset.
+   * @param settings The action code settings object which defines whether the link is to be
+   *     handled by a mobile app and the additional state information to be passed in the
+   *     deep link. Serialized once and shared by all requests.
+   * @param listener A non-null {@link EmailActionLinkListener} that receives the results.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return A {@link BulkEmailActionLinkResult} instance.
+   * @throws FirebaseAuthException If the operation is interrupted.
+   * @throws NullPointerException If the emails iterator, listener or options are null.
+   */
+  public BulkEmailActionLinkResult generatePasswordResetLinks(@NonNull Iterator<String> emails,
+      @Nullable ActionCodeSettings settings, @NonNull EmailActionLinkListener listener,
+      @NonNull BulkOperationOptions options) throws FirebaseAuthException {
+    return generateEmailActionLinksOp(
+        EmailLinkType.PASSWORD_RESET, emails, settings, listener, options).call();
+  }
+
+  /**
+   * Similar to {@link #generatePasswordResetLinks(Iterator, ActionCodeSettings,
+   * EmailActionLinkListener, BulkOperationOptions)} but performs the operation asynchronously.
+   *
+   * @param emails A non-null iterator of the emails of the users whose passwords are to be reset.
+   * @param settings The action code settings object which defines whether the link is to be
+   *     handled by a mobile app and the additional state information to be passed in the
+   *     deep link. Serialized once and shared by all requests.
+   * @param listener A non-null {@link EmailActionLinkListener} that receives the results.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return An {@code ApiFuture} which will complete successfully when all the emails have been
+   *     processed. If the operation is interrupted, the future throws a
+   *     {@link FirebaseAuthException}.
+   * @throws NullPointerException If the emails iterator, listener or options are null.
+   */
+  public ApiFuture<BulkEmailActionLinkResult> generatePasswordResetLinksAsync(
+      @NonNull Iterator<String> emails, @Nullable ActionCodeSettings settings,
+      @NonNull EmailActionLinkListener listener, @NonNull BulkOperationOptions options) {
+    return generateEmailActionLinksOp(
+        EmailLinkType.PASSWORD_RESET, emails, settings, listener, options).callAsync(firebaseApp);
+  }
+
+  /**
+   * Generates the out-of-band email action links for email verification flows for a stream of email
+   * addresses, using the same action code settings for all of them. Emails are read from the
+   * iterator as requests complete, and up to
+   * {@link BulkOperationOptions.Builder#setMaxConcurrentRequests(int)} requests are sent at a
+   * time. Each link, or the reason why it could not be generated, is reported to the listener as
+   * soon as the corresponding request completes.
+   *
+   * @param emails A non-null iterator of the emails of the users to be verified.
+   * @param settings The action code settings object which defines whether the link is to be
+   *     handled by a mobile app and the additional state information to be passed in the
+   *     deep link. Serialized once and shared by all requests.
+   * @param listener A non-null {@link EmailActionLinkListener} that receives the results.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return A {@link BulkEmailActionLinkResult} instance.
+   * @throws FirebaseAuthException If the operation is interrupted.
+   * @throws NullPointerException If the emails iterator, listener or options are null.
+   */
+  public BulkEmailActionLinkResult generateEmailVerificationLinks(@NonNull Iterator<String> emails,
+      @Nullable ActionCodeSettings settings, @NonNull EmailActionLinkListener listener,
+      @NonNull BulkOperationOptions options) throws FirebaseAuthException {
+    return generateEmailActionLinksOp(
+        EmailLinkType.VERIFY_EMAIL, emails, settings, listener, options).call();
+  }
+
+  /**
+   * Similar to {@link #generateEmailVerificationLinks(Iterator, ActionCodeSettings,
+   * EmailActionLinkListener, BulkOperationOptions)} but performs the operation asynchronously.
+   *
+   * @param emails A non-null iterator of the emails of the users to be verified.
+   * @param settings The action code settings object which defines whether the link is to be
+   *     handled by a mobile app and the additional state information to be passed in the
+   *     deep link. Serialized once and shared by all requests.
+   * @param listener A non-null {@link EmailActionLinkListener} that receives the results.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return An {@code ApiFuture} which will complete successfully when all the emails have been
+   *     processed. If the operation is interrupted, the future throws a
+   *     {@link FirebaseAuthException}.
+   * @throws NullPointerException If the emails iterator, listener or options are null.
+   */
+  public ApiFuture<BulkEmailActionLinkResult> generateEmailVerificationLinksAsync(
+      @NonNull Iterator<String> emails, @Nullable ActionCodeSettings settings,
+      @NonNull EmailActionLinkListener listener, @NonNull BulkOperationOptions options) {
+    return generateEmailActionLinksOp(
+        EmailLinkType.VERIFY_EMAIL, emails, settings, listener, options).callAsync(firebaseApp);
+  }
+
+  /**
+   * Generates the out-of-band email action links for email link sign-in flows for a stream of email
+   * addresses, using the same action code settings for all of them. Emails are read from the
+   * iterator as requests complete, and up to
+   * {@link BulkOperationOptions.Builder#setMaxConcurrentRequests(int)} requests are sent at a
+   * time. Each link, or the reason why it could not be generated, is reported to the listener as
+   * soon as the corresponding request completes.
+   *
+   * @param emails A non-null iterator of the emails of the users signing in.
+   * @param settings The action code settings object which defines whether the link is to be
+   *     handled by a mobile app and the additional state information to be passed in the
+   *     deep link. Serialized once and shared by all requests.
+   * @param listener A non-null {@link EmailActionLinkListener} that receives the results.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return A {@link BulkEmailActionLinkResult} instance.
+   * @throws FirebaseAuthException If the operation is interrupted.
+   * @throws NullPointerException If the emails iterator, settings, listener or options are null.
+   */
+  public BulkEmailActionLinkResult generateSignInWithEmailLinks(@NonNull Iterator<String> emails,
+      @NonNull ActionCodeSettings settings, @NonNull EmailActionLinkListener listener,
+      @NonNull BulkOperationOptions options) throws FirebaseAuthException {
+    return generateEmailActionLinksOp(
+        EmailLinkType.EMAIL_SIGNIN, emails, settings, listener, options).call();
+  }
+
+  /**
+   * Similar to {@link #generateSignInWithEmailLinks(Iterator, ActionCodeSettings,
+   * EmailActionLinkListener, BulkOperationOptions)} but performs the operation asynchronously.
+   *
+   * @param emails A non-null iterator of the emails of the users signing in.
+   * @param settings The action code settings object which defines whether the link is to be
+   *     handled by a mobile app and the additional state information to be passed in the
+   *     deep link. Serialized once and shared by all requests.
+   * @param listener A non-null {@link EmailActionLinkListener} that receives the results.
+   * @param options A non-null {@link BulkOperationOptions} instance.
+   * @return An {@code ApiFuture} which will complete successfully when all the emails have been
+   *     processed. If the operation is interrupted, the future throws a
+   *     {@link FirebaseAuthException}.
+   * @throws NullPointerException If the emails iterator, settings, listener or options are null.
+   */
+  public ApiFuture<BulkEmailActionLinkResult> generateSignInWithEmailLinksAsync(
+      @NonNull Iterator<String> emails, @NonNull ActionCodeSettings settings,
+      @NonNull EmailActionLinkListener listener, @NonNull BulkOperationOptions options) {
+    return generateEmailActionLinksOp(
+        EmailLinkType.EMAIL_SIGNIN, emails, settings, listener, options).callAsync(firebaseApp);
+  }
+
+  private CallableOperation<BulkEmailActionLinkResult, FirebaseAuthException>
+      generateEmailActionLinksOp(EmailLinkType type, final Iterator<String> emails,
+      ActionCodeSettings settings, final EmailActionLinkListener listener,
+      BulkOperationOptions options) {
+    checkNotNull(emails, "emails must not be null");
+    checkNotNull(listener, "listener must not be null");
+    checkNotNull(options, "options must not be null");
+    if (type == EmailLinkType.EMAIL_SIGNIN) {
+      checkNotNull(settings, "ActionCodeSettings must not be null when generating sign-in links");
+    }
+    final FirebaseUserManager userManager = getUserManager();
+    final String payload = userManager.serializeEmailActionLinkPayload(type, settings);
+    EmailActionLinkGenerator.LinkRequest request = new EmailActionLinkGenerator.LinkRequest() {
+      @Override
+      public String generate(String email) throws FirebaseAuthException {
+        return userManager.getEmailActionLink(payload, email);
+      }
+    };
+    final EmailActionLinkGenerator generator =
+        new EmailActionLinkGenerator(
+            request, ImplFirebaseTrampolines.getExecutor(firebaseApp), options);
+    return new CallableOperation<BulkEmailActionLinkResult, FirebaseAuthException>() {
+      @Override
+      protected BulkEmailActionLinkResult execute() throws FirebaseAuthException {
+        return generator.generate(emails, listener);
+      }
+    };
+  }
+
   /**
    * Creates a new OpenID Connect auth provider config with the attributes contained in the
    * specified {@link OidcProviderConfig.CreateRequest}.
@@ -1280,7 +2099,11 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<OidcProviderConfig, FirebaseAuthException>() {
       @Override
       protected OidcProviderConfig execute() throws FirebaseAuthException {
-        return userManager.createOidcProviderConfig(request);
+        try {
+          return userManager.createOidcProviderConfig(request);
+        } finally {
+          invalidateCachedProviderConfig(request.getProviderId());
+        }
       }
     };
   }
@@ -1324,7 +2147,11 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<OidcProviderConfig, FirebaseAuthException>() {
       @Override
       protected OidcProviderConfig execute() throws FirebaseAuthException {
-        return userManager.updateOidcProviderConfig(request);
+        try {
+          return userManager.updateOidcProviderConfig(request);
+        } finally {
+          invalidateCachedProviderConfig(request.getProviderId());
+        }
       }
     };
   }
@@ -1366,7 +2193,16 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<OidcProviderConfig, FirebaseAuthException>() {
       @Override
       protected OidcProviderConfig execute() throws FirebaseAuthException {
-        return userManager.getOidcProviderConfig(providerId);
+        ProviderConfigCache.Loader<OidcProviderConfig> loader =
+            new ProviderConfigCache.Loader<OidcProviderConfig>() {
+              @Override
+              public OidcProviderConfig load() throws FirebaseAuthException {
+                return userManager.getOidcProviderConfig(providerId);
+              }
+            };
+        return providerConfigCache != null
+            ? providerConfigCache.get(providerId, OidcProviderConfig.class, loader)
+            : loader.load();
       }
     };
   }
@@ -1491,7 +2327,11 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<Void, FirebaseAuthException>() {
       @Override
       protected Void execute() throws FirebaseAuthException {
-        userManager.deleteOidcProviderConfig(providerId);
+        try {
+          userManager.deleteOidcProviderConfig(providerId);
+        } finally {
+          invalidateCachedProviderConfig(providerId);
+        }
         return null;
       }
     };
@@ -1538,7 +2378,11 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<SamlProviderConfig, FirebaseAuthException>() {
       @Override
       protected SamlProviderConfig execute() throws FirebaseAuthException {
-        return userManager.createSamlProviderConfig(request);
+        try {
+          return userManager.createSamlProviderConfig(request);
+        } finally {
+          invalidateCachedProviderConfig(request.getProviderId());
+        }
       }
     };
   }
@@ -1582,7 +2426,11 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<SamlProviderConfig, FirebaseAuthException>() {
       @Override
       protected SamlProviderConfig execute() throws FirebaseAuthException {
-        return userManager.updateSamlProviderConfig(request);
+        try {
+          return userManager.updateSamlProviderConfig(request);
+        } finally {
+          invalidateCachedProviderConfig(request.getProviderId());
+        }
       }
     };
   }
@@ -1624,7 +2472,16 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<SamlProviderConfig, FirebaseAuthException>() {
       @Override
       protected SamlProviderConfig execute() throws FirebaseAuthException {
-        return userManager.getSamlProviderConfig(providerId);
+        ProviderConfigCache.Loader<SamlProviderConfig> loader =
+            new ProviderConfigCache.Loader<SamlProviderConfig>() {
+              @Override
+              public SamlProviderConfig load() throws FirebaseAuthException {
+                return userManager.getSamlProviderConfig(providerId);
+              }
+            };
+        return providerConfigCache != null
+            ? providerConfigCache.get(providerId, SamlProviderConfig.class, loader)
+            : loader.load();
       }
     };
   }
@@ -1749,16 +2606,121 @@ public abstract class AbstractFirebaseAuth {
     return new CallableOperation<Void, FirebaseAuthException>() {
       @Override
       protected Void execute() throws FirebaseAuthException {
-        userManager.deleteSamlProviderConfig(providerId);
+        try {
+          userManager.deleteSamlProviderConfig(providerId);
+        } finally {
+          invalidateCachedProviderConfig(providerId);
+        }
         return null;
       }
     };
   }
 
+  /**
+   * Loads all the OIDC and SAML provider configs of this instance into its provider config cache,
+   * so that subsequent calls to {@link #getOidcProviderConfig(String)} and
+   * {@link #getSamlProviderConfig(String)} are served without contacting the backend. This is
+   * typically called once at startup, before serving sign-in requests.
+   *
+   * <p>The cache is disabled by default. It is enabled by passing the number of seconds (up to
+   * 86400) for which provider configs may be reused to
+   * {@link FirebaseOptions.Builder#setProviderConfigCacheTtlSeconds(long)}. Configs that are
+   * looked up after half that time are refreshed in the background. Cached configs are discarded
+   * whenever they are created, updated or deleted through this instance. Changes made by other
+   * means become visible when the cached configs are refreshed.
+   *
+   * @return The number of provider configs added to the cache.
+   * @throws IllegalStateException If the provider config cache is disabled.
+   * @throws FirebaseAuthException If an error occurs while listing the provider configs.
+   */
+  public int warmUpProviderConfigCache() throws FirebaseAuthException {
+    return warmUpProviderConfigCacheOp().call();
+  }
+
+  /**
+   * Similar to {@link #warmUpProviderConfigCache()} but performs the operation asynchronously.
+   *
+   * @return An {@code ApiFuture} which will complete successfully with the number of provider
+   *     configs added to the cache. If an error occurs while listing the provider configs, the
+   *     future throws a {@link FirebaseAuthException}.
+   * @throws IllegalStateException If the provider config cache is disabled.
+   */
+  public ApiFuture<Integer> warmUpProviderConfigCacheAsync() {
+    return warmUpProviderConfigCacheOp().callAsync(firebaseApp);
+  }
+
+  private CallableOperation<Integer, FirebaseAuthException> warmUpProviderConfigCacheOp() {
+    checkState(providerConfigCache != null, "Provider config cache is not enabled. Call "
+        + "FirebaseOptions.Builder.setProviderConfigCacheTtlSeconds() to enable it.");
+    final FirebaseUserManager userManager = getUserManager();
+    final List<ProviderConfigCache.PageSource> sources = ImmutableList.of(
+        new ProviderConfigCache.PageSource() {
+          @Override
+          public ListProviderConfigsPage<OidcProviderConfig> fetchFirstPage()
+              throws FirebaseAuthException {
+            return new ListProviderConfigsPage.Factory<>(
+                new DefaultOidcProviderConfigSource(userManager)).create();
+          }
+        },
+        new ProviderConfigCache.PageSource() {
+          @Override
+          public ListProviderConfigsPage<SamlProviderConfig> fetchFirstPage()
+              throws FirebaseAuthException {
+            return new ListProviderConfigsPage.Factory<>(
+                new DefaultSamlProviderConfigSource(userManager)).create();
+          }
+        });
+    return new CallableOperation<Integer, FirebaseAuthException>() {
+      @Override
+      protected Integer execute() throws FirebaseAuthException {
+        return providerConfigCache.warmUp(sources);
+      }
+    };
+  }
+
   FirebaseUserManager getUserManager() {
     return this.userManager.get();
   }
 
+  private UserRecord getUpdatedUser(final FirebaseUserManager userManager, final String uid)
+      throws FirebaseAuthException {
+    UserRecordCache.Loader loader = new UserRecordCache.Loader() {
+      @Override
+      public UserRecord load() throws FirebaseAuthException {
+        return userManager.getUserById(uid);
+      }
+    };
+    return userRecordCache != null ? userRecordCache.refresh(uid, loader) : loader.load();
+  }
+
+  private void invalidateCachedUser(String uid) {
+    if (userRecordCache != null) {
+      userRecordCache.invalidate(uid);
+    }
+  }
+
+  private void invalidateCachedProviderConfig(String providerId) {
+    if (providerConfigCache != null) {
+      providerConfigCache.invalidate(providerId);
+    }
+  }
+
+  private void invalidateCachedUsers(Collection<String> uids) {
+    if (userRecordCache != null) {
+      userRecordCache.invalidate(uids);
+    }
+  }
+
+  private void invalidateCachedImportedUsers(List<ImportUserRecord> users) {
+    if (userRecordCache != null) {
+      List<String> uids = new ArrayList<>(users.size());
+      for (ImportUserRecord user : users) {
+        uids.add(user.getUid());
+      }
+      userRecordCache.invalidate(uids);
+    }
+  }
+
   <T> Supplier<T> threadSafeMemoize(final Supplier<T> supplier) {
     return Suppliers.memoize(
         new Supplier<T>() {
@@ -1779,6 +2741,9 @@ public abstract class AbstractFirebaseAuth {
     private Supplier<? extends FirebaseTokenVerifier> idTokenVerifier;
     private Supplier<? extends FirebaseTokenVerifier> cookieVerifier;
     private Supplier<? extends FirebaseUserManager> userManager;
+    private TokenRejectionMetrics tokenRejectionMetrics;
+    private UserRecordCache userRecordCache;
+    private ProviderConfigCache providerConfigCache;
 
     protected abstract T getThis();
 
@@ -1810,11 +2775,50 @@ public abstract class AbstractFirebaseAuth {
       this.tokenFactory = tokenFactory;
       return getThis();
     }
+
+    T setTokenRejectionMetrics(TokenRejectionMetrics tokenRejectionMetrics) {
+      this.tokenRejectionMetrics = tokenRejectionMetrics;
+      return getThis();
+    }
+
+    T setUserRecordCache(@Nullable UserRecordCache userRecordCache) {
+      this.userRecordCache = userRecordCache;
+      return getThis();
+    }
+
+    T setProviderConfigCache(@Nullable ProviderConfigCache providerConfigCache) {
+      this.providerConfigCache = providerConfigCache;
+      return getThis();
+    }
+  }
+
+  @Nullable
+  private static UserRecordCache createUserRecordCache(FirebaseApp app) {
+    FirebaseOptions options = app.getOptions();
+    if (options.getUserCacheTtlSeconds() == 0) {
+      return null;
+    }
+    return new UserRecordCache(
+        options.getUserCacheTtlSeconds(), options.getUserCacheMaxSize(), Clock.SYSTEM);
+  }
+
+  @Nullable
+  private static ProviderConfigCache createProviderConfigCache(FirebaseApp app) {
+    long ttlSeconds = app.getOptions().getProviderConfigCacheTtlSeconds();
+    if (ttlSeconds == 0) {
+      return null;
+    }
+    return new ProviderConfigCache(
+        ttlSeconds, ImplFirebaseTrampolines.getExecutor(app), Clock.SYSTEM);
   }
 
   protected static <T extends Builder<T>> T populateBuilderFromApp(
       Builder<T> builder, final FirebaseApp app, @Nullable final String tenantId) {
+    final TokenRejectionMetrics tokenRejectionMetrics = new TokenRejectionMetrics();
     return builder.setFirebaseApp(app)
+        .setTokenRejectionMetrics(tokenRejectionMetrics)
+        .setUserRecordCache(createUserRecordCache(app))
+        .setProviderConfigCache(createProviderConfigCache(app))
         .setTokenFactory(
             new Supplier<FirebaseTokenFactory>() {
               @Override
@@ -1826,14 +2830,16 @@ public abstract class AbstractFirebaseAuth {
             new Supplier<FirebaseTokenVerifier>() {
               @Override
               public FirebaseTokenVerifier get() {
-                return FirebaseTokenUtils.createIdTokenVerifier(app, Clock.SYSTEM, tenantId);
+                return FirebaseTokenUtils.createIdTokenVerifier(
+                    app, Clock.SYSTEM, tenantId, tokenRejectionMetrics);
               }
             })
         .setCookieVerifier(
             new Supplier<FirebaseTokenVerifier>() {
               @Override
               public FirebaseTokenVerifier get() {
-                return FirebaseTokenUtils.createSessionCookieVerifier(app, Clock.SYSTEM, tenantId);
+                return FirebaseTokenUtils.createSessionCookieVerifier(
+                    app, Clock.SYSTEM, tenantId, tokenRejectionMetrics);
               }
             })
         .setUserManager(
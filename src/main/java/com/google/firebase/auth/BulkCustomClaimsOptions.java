@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.firebase.internal.Nullable;
+import java.util.Iterator;
+
+/**
+ * A set of options that can be passed to the
+ * {@link FirebaseAuth#bulkSetCustomUserClaims(Iterator, BulkCustomClaimsOptions)} API.
+ */
+public final class BulkCustomClaimsOptions {
+
+  static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
+  static final int MAX_CONCURRENT_REQUESTS = 32;
+  static final int DEFAULT_MAX_RETRIES = 5;
+  static final int MAX_RETRIES = 10;
+
+  private static final BulkCustomClaimsOptions DEFAULT = builder().build();
+
+  private final int maxConcurrentRequests;
+  private final int maxRetries;
+  private final FailureListener failureListener;
+
+  private BulkCustomClaimsOptions(Builder builder) {
+    checkArgument(builder.maxConcurrentRequests > 0
+        && builder.maxConcurrentRequests <= MAX_CONCURRENT_REQUESTS,
+        "maxConcurrentRequests must be a positive integer that does not exceed %s",
+        MAX_CONCURRENT_REQUESTS);
+    checkArgument(builder.maxRetries >= 0 && builder.maxRetries <= MAX_RETRIES,
+        "maxRetries must be a non-negative integer that does not exceed %s", MAX_RETRIES);
+    this.maxConcurrentRequests = builder.maxConcurrentRequests;
+    this.maxRetries = builder.maxRetries;
+    this.failureListener = builder.failureListener;
+  }
+
+  int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  int getMaxRetries() {
+    return maxRetries;
+  }
+
+  @Nullable
+  FailureListener getFailureListener() {
+    return failureListener;
+  }
+
+  /**
+   * Returns the default options, which send up to 8 requests at a time, and retry each update up
+   * to 5 times when the backend reports that a quota has been exceeded.
+   */
+  public static BulkCustomClaimsOptions defaults() {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates a new {@link Builder}.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Receives the failed updates of a bulk custom claims operation as they happen, so that they
+   * can be recorded or retried without waiting for the whole operation to complete. Failures are
+   * reported from the threads that run the operation, so listeners should return quickly.
+   */
+  public interface FailureListener {
+
+    /**
+     * Called when the custom claims of a user could not be set.
+     *
+     * @param index The position of the entry in the input.
+     * @param uid The user ID of the entry.
+     * @param error The cause of the failure. This is a {@link FirebaseAuthException} for errors
+     *     reported by the backend, and an {@code IllegalArgumentException} for invalid entries.
+     */
+    void onFailure(int index, String uid, Exception error);
+  }
+
+  public static class Builder {
+
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private FailureListener failureListener;
+
+    private Builder() {}
+
+    /**
+     * Sets the maximum number of update requests sent at the same time. Defaults to 8, and must
+     * not exceed 32. The actual number of requests in flight is reduced when the backend reports
+     * that a quota has been exceeded, and grows back up to this limit as requests succeed.
+     *
+     * @param maxConcurrentRequests A positive integer.
+     * @return This builder.
+     */
+    public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    /**
+     * Sets how many times an update is retried, with exponential backoff, when the backend
+     * reports that a quota has been exceeded. Defaults to 5, and must not exceed 10. Other errors
+     * are not retried.
+     *
+     * @param maxRetries A non-negative integer.
+     * @return This builder.
+     */
+    public Builder setMaxRetries(int maxRetries) {
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    /**
+     * Sets a listener that is notified of each failed update as soon as it fails.
+     *
+     * @param failureListener A {@link FailureListener}, or null.
+     * @return This builder.
+     */
+    public Builder setFailureListener(@Nullable FailureListener failureListener) {
+      this.failureListener = failureListener;
+      return this;
+    }
+
+    /**
+     * Creates a new {@link BulkCustomClaimsOptions} instance.
+     */
+    public BulkCustomClaimsOptions build() {
+      return new BulkCustomClaimsOptions(this);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.internal.NonNull;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Represents the result of the
+ * {@link FirebaseAuth#bulkSetCustomUserClaims(Iterator, BulkCustomClaimsOptions)} API.
+ */
+public final class BulkCustomClaimsResult {
+
+  private final int users;
+  private final ImmutableList<ErrorInfo> errors;
+  private final long retryCount;
+
+  BulkCustomClaimsResult(int users, List<ErrorInfo> errors, long retryCount) {
+    checkArgument(users >= errors.size());
+    this.users = users;
+    this.errors = ImmutableList.copyOf(errors);
+    this.retryCount = retryCount;
+  }
+
+  /**
+   * Returns the number of users whose custom claims were set successfully.
+   *
+   * @return number of users successfully updated (possibly zero).
+   */
+  public int getSuccessCount() {
+    return users - errors.size();
+  }
+
+  /**
+   * Returns the number of users whose custom claims could not be set.
+   *
+   * @return number of users that resulted in failures (possibly zero).
+   */
+  public int getFailureCount() {
+    return errors.size();
+  }
+
+  /**
+   * A list of {@link ErrorInfo} instances describing the failed updates, ordered by the position
+   * of the entries in the input. Length of this list is equal to the return value of
+   * {@link #getFailureCount()}.
+   *
+   * @return A non-null list (possibly empty).
+   */
+  @NonNull
+  public List<ErrorInfo> getErrors() {
+    return errors;
+  }
+
+  /**
+   * Returns the number of update requests that were retried because the backend reported that a
+   * quota had been exceeded.
+   *
+   * @return number of retried requests (possibly zero).
+   */
+  public long getRetryCount() {
+    return retryCount;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import java.util.Iterator;
+
+/**
+ * Represents the result of a bulk email action link generation, such as
+ * {@link FirebaseAuth#generatePasswordResetLinks(Iterator, ActionCodeSettings,
+ * EmailActionLinkListener, BulkOperationOptions)}. The links themselves are reported to the
+ * {@link EmailActionLinkListener} of the operation.
+ */
+public final class BulkEmailActionLinkResult {
+
+  private final int successCount;
+  private final int failureCount;
+
+  BulkEmailActionLinkResult(int successCount, int failureCount) {
+    this.successCount = successCount;
+    this.failureCount = failureCount;
+  }
+
+  /**
+   * Returns the number of links that were generated successfully.
+   *
+   * @return number of generated links (possibly zero).
+   */
+  public int getSuccessCount() {
+    return successCount;
+  }
+
+  /**
+   * Returns the number of emails for which a link could not be generated.
+   *
+   * @return number of failures (possibly zero).
+   */
+  public int getFailureCount() {
+    return failureCount;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A set of options that control how bulk user management operations, such as
+ * {@link FirebaseAuth#getUsers(Collection, BulkOperationOptions)} and
+ * {@link FirebaseAuth#deleteUsers(List, BulkOperationOptions)}, split their input into batches
+ * and send them to the Firebase Auth backend.
+ */
+public final class BulkOperationOptions {
+
+  static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+  static final int MAX_CONCURRENT_REQUESTS = 32;
+
+  private static final BulkOperationOptions DEFAULT = builder().build();
+
+  private final int maxConcurrentRequests;
+  private final double maxRequestsPerSecond;
+
+  private BulkOperationOptions(Builder builder) {
+    checkArgument(builder.maxConcurrentRequests > 0
+        && builder.maxConcurrentRequests <= MAX_CONCURRENT_REQUESTS,
+        "maxConcurrentRequests must be a positive integer that does not exceed %s",
+        MAX_CONCURRENT_REQUESTS);
+    checkArgument(builder.maxRequestsPerSecond >= 0,
+        "maxRequestsPerSecond must not be negative");
+    this.maxConcurrentRequests = builder.maxConcurrentRequests;
+    this.maxRequestsPerSecond = builder.maxRequestsPerSecond;
+  }
+
+  int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  double getMaxRequestsPerSecond() {
+    return maxRequestsPerSecond;
+  }
+
+  /**
+   * Returns the default options, which send up to 4 requests at a time without a rate limit.
+   */
+  public static BulkOperationOptions defaults() {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates a new {@link Builder}.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private double maxRequestsPerSecond;
+
+    private Builder() {}
+
+    /**
+     * Sets the maximum number of batch requests sent at the same time. Defaults to 4, and must
+     * not exceed 32.
+     *
+     * @param maxConcurrentRequests A positive integer.
+     * @return This builder.
+     */
+    public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    /**
+     * Sets the maximum rate at which batch requests are started, across all concurrent requests.
+     * Defaults to 0, which does not limit the request rate.
+     *
+     * @param maxRequestsPerSecond A non-negative number.
+     * @return This builder.
+     */
+    public Builder setMaxRequestsPerSecond(double maxRequestsPerSecond) {
+      this.maxRequestsPerSecond = maxRequestsPerSecond;
+      return this;
+    }
+
+    /**
+     * Creates a new {@link BulkOperationOptions} instance.
+     */
+    public BulkOperationOptions build() {
+      return new BulkOperationOptions(this);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Splits a list of items into batches, and runs a request for each batch with up to
+ * {@link BulkOperationOptions#getMaxConcurrentRequests()} requests in flight. The calling thread
+ * runs requests too, as well as any worker that the executor has not started, so that progress is
+ * made even when the executor is busy or cannot accept any more tasks. Stops starting new requests
+ * after the first failure.
+ */
+final class BulkRequestRunner {
+
+  interface BatchRequest<T, R> {
+    R execute(List<T> batch) throws FirebaseAuthException;
+  }
+
+  private final Executor executor;
+  private final BulkOperationOptions options;
+
+  BulkRequestRunner(Executor executor, BulkOperationOptions options) {
+    this.executor = checkNotNull(executor, "executor must not be null");
+    this.options = checkNotNull(options, "options must not be null");
+  }
+
+  /**
+   * Runs the given request for consecutive batches of up to {@code batchSize} items.
+   *
+   * @return The result of each batch, in the same order as the batches.
+   */
+  <T, R> List<R> run(List<T> items, int batchSize, final BatchRequest<T, R> request)
+      throws FirebaseAuthException {
+    checkArgument(batchSize > 0, "batchSize must be positive");
+    final List<List<T>> batches = Lists.partition(new ArrayList<>(items), batchSize);
+    final int count = batches.size();
+    if (count == 0) {
+      return new ArrayList<>();
+    }
+    final Object[] results = new Object[count];
+    final AtomicInteger nextIndex = new AtomicInteger();
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    final RateLimiter rateLimiter = options.getMaxRequestsPerSecond() > 0
+        ? RateLimiter.create(options.getMaxRequestsPerSecond()) : null;
+    Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        for (int i = nextIndex.getAndIncrement(); i < count; i = nextIndex.getAndIncrement()) {
+          try {
+            if (failure.get() == null) {
+              if (rateLimiter != null) {
+                rateLimiter.acquire();
+              }
+              results[i] = request.execute(batches.get(i));
+            }
+          } catch (FirebaseAuthException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+          }
+        }
+      }
+    };
+
+    try {
+      ParallelTasks.runWorkers(executor, Math.min(options.getMaxConcurrentRequests(), count),
+          worker, new Runnable() {
+            @Override
+            public void run() {
+              // Stops the workers from starting further requests.
+              failure.compareAndSet(null, new InterruptedException());
+            }
+          });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(
+          ErrorCode.CANCELLED, "Interrupted while waiting for batch requests", e, null, null);
+    }
+
+    Exception e = failure.get();
+    if (e instanceof FirebaseAuthException) {
+      throw (FirebaseAuthException) e;
+    } else if (e != null) {
+      throw (RuntimeException) e;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<R> list = (List<R>) Arrays.asList(results);
+    return list;
+  }
+}
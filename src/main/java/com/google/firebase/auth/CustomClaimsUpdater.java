@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.Sleeper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sets the custom claims of a stream of users, one update request per user. Claims are validated
+ * and serialized by the worker that picks up the entry, before a request slot is taken, so that
+ * invalid entries never occupy a slot and are reported as per-user failures. The calling thread
+ * runs any worker that the executor has not started.
+ *
+ * <p>The number of requests in flight adapts to the backend: it starts at
+ * {@link BulkCustomClaimsOptions#getMaxConcurrentRequests()}, is halved whenever the backend
+ * reports that a quota has been exceeded, and grows by one after each run of successful requests
+ * that is as long as the current limit. Updates rejected for quota reasons are retried with
+ * exponential backoff.
+ */
+final class CustomClaimsUpdater {
+
+  static final long INITIAL_BACKOFF_MILLIS = 500;
+  static final long MAX_BACKOFF_MILLIS = 30000;
+
+  interface Updater {
+    void update(String uid, String customAttributes) throws FirebaseAuthException;
+  }
+
+  private final Updater updater;
+  private final JsonFactory jsonFactory;
+  private final Executor executor;
+  private final BulkCustomClaimsOptions options;
+  private final Sleeper sleeper;
+
+  CustomClaimsUpdater(Updater updater, JsonFactory jsonFactory, Executor executor,
+      BulkCustomClaimsOptions options) {
+    this(updater, jsonFactory, executor, options, Sleeper.DEFAULT);
+  }
+
+  @VisibleForTesting
+  CustomClaimsUpdater(Updater updater, JsonFactory jsonFactory, Executor executor,
+      BulkCustomClaimsOptions options, Sleeper sleeper) {
+    this.updater = checkNotNull(updater, "updater must not be null");
+    this.jsonFactory = checkNotNull(jsonFactory, "jsonFactory must not be null");
+    this.executor = checkNotNull(executor, "executor must not be null");
+    this.options = checkNotNull(options, "options must not be null");
+    this.sleeper = checkNotNull(sleeper, "sleeper must not be null");
+  }
+
+  BulkCustomClaimsResult update(
+      Iterator<? extends Map.Entry<String, ? extends Map<String, Object>>> claims)
+      throws FirebaseAuthException {
+    checkNotNull(claims, "claims must not be null");
+    final Run run = new Run(claims);
+    try {
+      ParallelTasks.runWorkers(
+          executor, options.getMaxConcurrentRequests(), run.newWorker(), new Runnable() {
+            @Override
+            public void run() {
+              // Stops the workers from taking further entries.
+              run.failure.compareAndSet(null, new InterruptedException());
+            }
+          });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(
+          ErrorCode.CANCELLED, "Interrupted while setting custom claims", e, null, null);
+    }
+    return run.getResult();
+  }
+
+  /**
+   * An additive-increase, multiplicative-decrease limit on the number of requests in flight.
+   */
+  @VisibleForTesting
+  static final class ConcurrencyLimiter {
+
+    private final int maxLimit;
+
+    // Guarded by this.
+    private int limit;
+    private int active;
+    private int successesSinceIncrease;
+
+    ConcurrencyLimiter(int maxLimit) {
+      checkArgument(maxLimit > 0, "maxLimit must be positive");
+      this.maxLimit = maxLimit;
+      this.limit = maxLimit;
+    }
+
+    synchronized void acquire() throws InterruptedException {
+      while (active >= limit) {
+        wait();
+      }
+      active++;
+    }
+
+    synchronized void release() {
+      active--;
+      notifyAll();
+    }
+
+    synchronized void onSuccess() {
+      if (limit < maxLimit && ++successesSinceIncrease >= limit) {
+        limit++;
+        successesSinceIncrease = 0;
+        notifyAll();
+      }
+    }
+
+    synchronized void onThrottled() {
+      limit = Math.max(1, limit / 2);
+      successesSinceIncrease = 0;
+    }
+
+    synchronized int getLimit() {
+      return limit;
+    }
+  }
+
+  private final class Run {
+
+    private final Iterator<? extends Map.Entry<String, ? extends Map<String, Object>>> claims;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final ConcurrencyLimiter limiter =
+        new ConcurrencyLimiter(options.getMaxConcurrentRequests());
+    private final AtomicLong retries = new AtomicLong();
+
+    // Guarded by this.
+    private int nextIndex;
+    private final List<ErrorInfo> errors = new ArrayList<>();
+
+    Run(Iterator<? extends Map.Entry<String, ? extends Map<String, Object>>> claims) {
+      this.claims = claims;
+    }
+
+    Runnable newWorker() {
+      return new Runnable() {
+        @Override
+        public void run() {
+          updateUsers();
+        }
+      };
+    }
+
+    private void updateUsers() {
+      while (failure.get() == null) {
+        Map.Entry<String, ? extends Map<String, Object>> entry;
+        int index;
+        synchronized (this) {
+          try {
+            if (!claims.hasNext()) {
+              return;
+            }
+            entry = checkNotNull(claims.next(), "claims must not contain null elements");
+          } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            return;
+          }
+          index = nextIndex++;
+        }
+
+        String uid = entry.getKey();
+        String customAttributes;
+        try {
+          UserRecord.checkUid(uid);
+          Map<String, Object> userClaims = entry.getValue();
+          UserRecord.checkCustomClaims(userClaims);
+          customAttributes = UserRecord.serializeCustomClaims(userClaims, jsonFactory);
+        } catch (IllegalArgumentException e) {
+          fail(index, uid, e);
+          continue;
+        }
+
+        try {
+          updateWithRetries(uid, customAttributes);
+        } catch (FirebaseAuthException e) {
+          fail(index, uid, e);
+        } catch (InterruptedException e) {
+          failure.compareAndSet(null, new FirebaseAuthException(
+              ErrorCode.CANCELLED, "Interrupted while setting custom claims", e, null, null));
+          Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    }
+
+    private void updateWithRetries(String uid, String customAttributes)
+        throws FirebaseAuthException, InterruptedException {
+      long backoffMillis = INITIAL_BACKOFF_MILLIS;
+      for (int attempt = 0; ; attempt++) {
+        limiter.acquire();
+        try {
+          updater.update(uid, customAttributes);
+          limiter.onSuccess();
+          return;
+        } catch (FirebaseAuthException e) {
+          if (e.getErrorCode() != ErrorCode.RESOURCE_EXHAUSTED
+              || attempt >= options.getMaxRetries()) {
+            throw e;
+          }
+          limiter.onThrottled();
+        } finally {
+          limiter.release();
+        }
+
+        retries.incrementAndGet();
+        sleeper.sleep(backoffMillis);
+        backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+      }
+    }
+
+    private void fail(int index, String uid, Exception error) {
+      synchronized (this) {
+        errors.add(new ErrorInfo(index, error.getMessage()));
+      }
+      BulkCustomClaimsOptions.FailureListener listener = options.getFailureListener();
+      if (listener != null) {
+        try {
+          listener.onFailure(index, uid, error);
+        } catch (RuntimeException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    }
+
+    synchronized BulkCustomClaimsResult getResult() throws FirebaseAuthException {
+      Exception e = failure.get();
+      if (e instanceof FirebaseAuthException) {
+        throw (FirebaseAuthException) e;
+      } else if (e != null) {
+        throw (RuntimeException) e;
+      }
+
+      Collections.sort(errors, new Comparator<ErrorInfo>() {
+        @Override
+        public int compare(ErrorInfo e1, ErrorInfo e2) {
+          return Integer.compare(e1.getIndex(), e2.getIndex());
+        }
+      });
+      return new BulkCustomClaimsResult(nextIndex, errors, retries.get());
+    }
+  }
+}
@@ -44,6 +44,12 @@ public final class DeleteUsersResult {
     successCount = users - errors.size();
   }
 
+  DeleteUsersResult(int users, List<ErrorInfo> errors) {
+    checkArgument(users >= errors.size());
+    this.errors = ImmutableList.copyOf(errors);
+    this.successCount = users - errors.size();
+  }
+
   /**
    * Returns the number of users that were deleted successfully (possibly zero). Users that did not
    * exist prior to calling {@link FirebaseAuth#deleteUsersAsync(List)} are considered to be
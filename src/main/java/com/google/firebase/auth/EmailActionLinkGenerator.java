@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Generates an email action link for each email of a stream, with up to
+ * {@link BulkOperationOptions#getMaxConcurrentRequests()} requests in flight. Workers pull the
+ * next email from the shared iterator when they become idle, and report each result to an
+ * {@link EmailActionLinkListener} as soon as it is available, so that no links are held in memory.
+ * The calling thread runs any worker that the executor has not started.
+ * Failures to generate individual links are reported to the listener and do not stop the
+ * operation.
+ */
+final class EmailActionLinkGenerator {
+
+  interface LinkRequest {
+    String generate(String email) throws FirebaseAuthException;
+  }
+
+  private final LinkRequest request;
+  private final Executor executor;
+  private final BulkOperationOptions options;
+
+  EmailActionLinkGenerator(LinkRequest request, Executor executor, BulkOperationOptions options) {
+    this.request = checkNotNull(request, "request must not be null");
+    this.executor = checkNotNull(executor, "executor must not be null");
+    this.options = checkNotNull(options, "options must not be null");
+  }
+
+  BulkEmailActionLinkResult generate(Iterator<String> emails, EmailActionLinkListener listener)
+      throws FirebaseAuthException {
+    checkNotNull(emails, "emails must not be null");
+    checkNotNull(listener, "listener must not be null");
+    final Run run = new Run(emails, listener);
+    try {
+      ParallelTasks.runWorkers(
+          executor, options.getMaxConcurrentRequests(), run.newWorker(), new Runnable() {
+            @Override
+            public void run() {
+              // Stops the workers from taking further emails.
+              run.failure.compareAndSet(null, new InterruptedException());
+            }
+          });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(
+          ErrorCode.CANCELLED, "Interrupted while generating email action links", e, null, null);
+    }
+    return run.getResult();
+  }
+
+  private final class Run {
+
+    private final Iterator<String> emails;
+    private final EmailActionLinkListener listener;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger failureCount = new AtomicInteger();
+    private final RateLimiter rateLimiter = options.getMaxRequestsPerSecond() > 0
+        ? RateLimiter.create(options.getMaxRequestsPerSecond()) : null;
+
+    Run(Iterator<String> emails, EmailActionLinkListener listener) {
+      this.emails = emails;
+      this.listener = listener;
+    }
+
+    Runnable newWorker() {
+      return new Runnable() {
+        @Override
+        public void run() {
+          generateLinks();
+        }
+      };
+    }
+
+    private void generateLinks() {
+      while (failure.get() == null) {
+        String email;
+        synchronized (this) {
+          try {
+            if (!emails.hasNext()) {
+              return;
+            }
+            email = emails.next();
+          } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            return;
+          }
+        }
+
+        try {
+          generateLink(email);
+        } catch (RuntimeException e) {
+          // Thrown by the listener.
+          failure.compareAndSet(null, e);
+        }
+      }
+    }
+
+    private void generateLink(String email) {
+      String link;
+      try {
+        checkArgument(!Strings.isNullOrEmpty(email), "email must not be null or empty");
+        if (rateLimiter != null) {
+          rateLimiter.acquire();
+        }
+        link = request.generate(email);
+      } catch (FirebaseAuthException | IllegalArgumentException e) {
+        failureCount.incrementAndGet();
+        listener.onFailure(email, e);
+        return;
+      }
+
+      successCount.incrementAndGet();
+      listener.onLink(email, link);
+    }
+
+    BulkEmailActionLinkResult getResult() throws FirebaseAuthException {
+      Exception e = failure.get();
+      if (e instanceof FirebaseAuthException) {
+        throw (FirebaseAuthException) e;
+      } else if (e != null) {
+        throw (RuntimeException) e;
+      }
+      return new BulkEmailActionLinkResult(successCount.get(), failureCount.get());
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import java.util.Iterator;
+
+/**
+ * Receives the results of a bulk email action link generation, such as
+ * {@link FirebaseAuth#generatePasswordResetLinks(Iterator, ActionCodeSettings,
+ * EmailActionLinkListener, BulkOperationOptions)}, as each link is generated. Results are reported
+ * from the threads that run the operation, in the order in which the requests complete, so
+ * listeners should be thread-safe and return quickly.
+ */
+public interface EmailActionLinkListener {
+
+  /**
+   * Called when a link has been generated.
+   *
+   * @param email The email address from the input.
+   * @param link The generated email action link.
+   */
+  void onLink(String email, String link);
+
+  /**
+   * Called when a link could not be generated.
+   *
+   * @param email The email address from the input.
+   * @param error The cause of the failure. This is a {@link FirebaseAuthException} for errors
+   *     reported by the backend, and an {@code IllegalArgumentException} for invalid emails.
+   */
+  void onFailure(String email, Exception error);
+}
@@ -30,6 +30,7 @@ import com.google.firebase.FirebaseOptions;
 import com.google.firebase.ImplFirebaseTrampolines;
 import com.google.firebase.auth.internal.CryptoSigners;
 import com.google.firebase.auth.internal.FirebaseTokenFactory;
+import com.google.firebase.auth.internal.Utils;
 import com.google.firebase.internal.Nullable;
 
 import java.io.IOException;
@@ -63,7 +64,8 @@ final class FirebaseTokenUtils {
           firebaseApp.getOptions().getJsonFactory(),
           clock,
           CryptoSigners.getCryptoSigner(firebaseApp),
-          tenantId);
+          tenantId,
+          firebaseApp.getOptions().getCustomTokenCacheTtlSeconds());
     } catch (IOException e) {
       throw new IllegalStateException(
           "Failed to initialize FirebaseTokenFactory. Make sure to initialize the SDK "
@@ -75,11 +77,14 @@ final class FirebaseTokenUtils {
   }
 
   static FirebaseTokenVerifierImpl createIdTokenVerifier(FirebaseApp app, Clock clock) {
-    return createIdTokenVerifier(app, clock, null);
+    return createIdTokenVerifier(app, clock, null, null);
   }
 
   static FirebaseTokenVerifierImpl createIdTokenVerifier(
-      FirebaseApp app, Clock clock, @Nullable String tenantId) {
+      FirebaseApp app,
+      Clock clock,
+      @Nullable String tenantId,
+      @Nullable TokenRejectionMetrics rejectionMetrics) {
     String projectId = ImplFirebaseTrampolines.getProjectId(app);
     checkState(!Strings.isNullOrEmpty(projectId),
         "Must initialize FirebaseApp with a project ID to call verifyIdToken()");
@@ -91,21 +96,25 @@ final class FirebaseTokenUtils {
         .setShortName("ID token")
         .setMethod("verifyIdToken()")
         .setDocUrl("https://firebase.google.com/docs/auth/admin/verify-id-tokens")
-        .setJsonFactory(app.getOptions().getJsonFactory())
         .setPublicKeysManager(publicKeysManager)
         .setIdTokenVerifier(idTokenVerifier)
         .setInvalidTokenErrorCode(AuthErrorCode.INVALID_ID_TOKEN)
         .setExpiredTokenErrorCode(AuthErrorCode.EXPIRED_ID_TOKEN)
         .setTenantId(tenantId)
+        .setStacklessRejections(app.getOptions().isStacklessTokenRejections())
+        .setRejectionMetrics(rejectionMetrics)
         .build();
   }
 
   static FirebaseTokenVerifierImpl createSessionCookieVerifier(FirebaseApp app, Clock clock) {
-    return createSessionCookieVerifier(app, clock, null);
+    return createSessionCookieVerifier(app, clock, null, null);
   }
 
   static FirebaseTokenVerifierImpl createSessionCookieVerifier(
-      FirebaseApp app, Clock clock, @Nullable String tenantId) {
+      FirebaseApp app,
+      Clock clock,
+      @Nullable String tenantId,
+      @Nullable TokenRejectionMetrics rejectionMetrics) {
     String projectId = ImplFirebaseTrampolines.getProjectId(app);
     checkState(!Strings.isNullOrEmpty(projectId),
         "Must initialize FirebaseApp with a project ID to call verifySessionCookie()");
@@ -119,10 +128,11 @@ final class FirebaseTokenUtils {
         .setDocUrl("https://firebase.google.com/docs/auth/admin/manage-cookies")
         .setInvalidTokenErrorCode(AuthErrorCode.INVALID_SESSION_COOKIE)
         .setExpiredTokenErrorCode(AuthErrorCode.EXPIRED_SESSION_COOKIE)
-        .setJsonFactory(app.getOptions().getJsonFactory())
         .setPublicKeysManager(publicKeysManager)
         .setIdTokenVerifier(idTokenVerifier)
         .setTenantId(tenantId)
+        .setStacklessRejections(app.getOptions().isStacklessTokenRejections())
+        .setRejectionMetrics(rejectionMetrics)
         .build();
   }
 
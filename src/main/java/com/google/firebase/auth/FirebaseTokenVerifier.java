@@ -16,6 +16,9 @@
 
 package com.google.firebase.auth;
 
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
 /**
  * An interface for verifying Firebase token strings.  Exists mainly to facilitate easy testing
  * and extension/decoration of the token verification functionality.
@@ -31,4 +34,23 @@ interface FirebaseTokenVerifier {
    */
   FirebaseToken verifyToken(String token) throws FirebaseAuthException;
 
+  /**
+   * Verifies a batch of token strings. The default implementation verifies each token in turn
+   * by calling {@link #verifyToken(String)}. Implementations may override this to share work
+   * across the tokens in the batch.
+   *
+   * @param tokens The list of token strings to be verified.
+   * @return A list of results in the same order as the input tokens.
+   */
+  default List<VerifyTokenResult> verifyTokens(List<String> tokens) {
+    ImmutableList.Builder<VerifyTokenResult> results = ImmutableList.builder();
+    for (String token : tokens) {
+      try {
+        results.add(VerifyTokenResult.fromToken(verifyToken(token)));
+      } catch (FirebaseAuthException e) {
+        results.add(VerifyTokenResult.fromException(e));
+      }
+    }
+    return results.build();
+  }
 }
@@ -19,28 +19,35 @@ package com.google.firebase.auth;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.api.client.auth.openidconnect.IdToken;
-import com.google.api.client.auth.openidconnect.IdToken.Payload;
 import com.google.api.client.auth.openidconnect.IdTokenVerifier;
 import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.webtoken.JsonWebSignature.Header;
-import com.google.api.client.util.ArrayMap;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.TokenRejectionMetrics.Reason;
+import com.google.firebase.auth.internal.ParsedJwt;
 import com.google.firebase.auth.internal.Utils;
 import com.google.firebase.internal.Nullable;
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.security.GeneralSecurityException;
 import java.security.PublicKey;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * The default implementation of the {@link FirebaseTokenVerifier} interface. Uses the Google API
- * client's {@code IdToken} API to decode and verify token strings. Can be customized to verify
- * both Firebase ID tokens and session cookies.
+ * The default implementation of the {@link FirebaseTokenVerifier} interface. Uses
+ * {@link ParsedJwt} to decode token strings without materializing the full set of claims until a
+ * token has been accepted. Can be customized to verify both Firebase ID tokens and session
+ * cookies.
+ *
+ * <p>Rejections are counted by reason in a {@link TokenRejectionMetrics} instance. Error messages
+ * that do not depend on the contents of the token are computed once up front. In the stackless
+ * rejection mode, all rejections use such preallocated messages, and the resulting exceptions do
+ * not capture a stack trace, which makes rejecting invalid tokens considerably cheaper.
  */
 final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
 
@@ -48,7 +55,9 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
   private static final String FIREBASE_AUDIENCE =
       "https://identitytoolkit.googleapis.com/google.identity.identitytoolkit.v1.IdentityToolkit";
 
-  private final JsonFactory jsonFactory;
+  // Batches are split into chunks of this size before being handed to the fork-join pool.
+  private static final int BATCH_CHUNK_SIZE = 16;
+
   private final GooglePublicKeysManager publicKeysManager;
   private final IdTokenVerifier idTokenVerifier;
   private final String method;
@@ -58,9 +67,31 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
   private final AuthErrorCode invalidTokenErrorCode;
   private final AuthErrorCode expiredTokenErrorCode;
   private final String tenantId;
+  private final ForkJoinPool batchPool;
+  private final boolean stacklessRejections;
+  private final TokenRejectionMetrics rejectionMetrics;
+
+  // Messages that do not depend on the token contents.
+  private final String verifyTokenMessage;
+  private final String projectIdMatchMessage;
+  private final String malformedMessage;
+  private final String signatureMessage;
+  private final String noKidMessage;
+  private final String customTokenMessage;
+  private final String legacyCustomTokenMessage;
+  private final String noSubjectMessage;
+  private final String emptySubjectMessage;
+  private final String longSubjectMessage;
+  private final String expiredMessage;
+  private final String notYetValidMessage;
+
+  // Messages used instead of the detailed ones in the stackless rejection mode.
+  private final String incorrectAlgorithmMessage;
+  private final String incorrectAudienceMessage;
+  private final String incorrectIssuerMessage;
+  private final String tenantIdMismatchMessage;
 
   private FirebaseTokenVerifierImpl(Builder builder) {
-    this.jsonFactory = checkNotNull(builder.jsonFactory);
     this.publicKeysManager = checkNotNull(builder.publicKeysManager);
     this.idTokenVerifier = checkNotNull(builder.idTokenVerifier);
     checkArgument(!Strings.isNullOrEmpty(builder.method), "method name must be specified");
@@ -73,6 +104,72 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
     this.invalidTokenErrorCode = checkNotNull(builder.invalidTokenErrorCode);
     this.expiredTokenErrorCode = checkNotNull(builder.expiredTokenErrorCode);
     this.tenantId = builder.tenantId;
+    this.batchPool = builder.batchPool != null ? builder.batchPool : ForkJoinPool.commonPool();
+    this.stacklessRejections = builder.stacklessRejections;
+    this.rejectionMetrics = builder.rejectionMetrics != null
+        ? builder.rejectionMetrics : new TokenRejectionMetrics();
+
+    this.verifyTokenMessage = String.format(
+        "See %s for details on how to retrieve %s.",
+        docUrl,
+        articledShortName);
+    this.projectIdMatchMessage = String.format(
+        "Make sure the %s comes from the same Firebase project as the service account used to "
+            + "authenticate this SDK.",
+        shortName);
+    this.malformedMessage = String.format(
+        "Failed to parse Firebase %s. Make sure you passed a string that represents a complete "
+            + "and valid JWT. %s",
+        shortName,
+        verifyTokenMessage);
+    this.signatureMessage = String.format(
+        "Failed to verify the signature of Firebase %s. %s",
+        shortName,
+        verifyTokenMessage);
+    this.noKidMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has no \"kid\" claim.",
+        shortName));
+    this.customTokenMessage = withVerifyTokenMessage(String.format(
+        "%s expects %s, but was given a custom token.",
+        method,
+        articledShortName));
+    this.legacyCustomTokenMessage = withVerifyTokenMessage(String.format(
+        "%s expects %s, but was given a legacy custom token.",
+        method,
+        articledShortName));
+    this.noSubjectMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has no \"sub\" (subject) claim.",
+        shortName));
+    this.emptySubjectMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has an empty string \"sub\" (subject) claim.",
+        shortName));
+    this.longSubjectMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has \"sub\" (subject) claim longer than 128 characters.",
+        shortName));
+    this.expiredMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has expired. Get a fresh %s and try again.",
+        shortName,
+        shortName));
+    this.notYetValidMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s is not yet valid.",
+        shortName));
+    this.incorrectAlgorithmMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has incorrect algorithm. Expected \"%s\".",
+        shortName,
+        RS256));
+    this.incorrectAudienceMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has incorrect \"aud\" (audience) claim. Expected \"%s\". %s",
+        shortName,
+        joinWithComma(idTokenVerifier.getAudience()),
+        projectIdMatchMessage));
+    this.incorrectIssuerMessage = withVerifyTokenMessage(String.format(
+        "Firebase %s has incorrect \"iss\" (issuer) claim. Expected \"%s\". %s",
+        shortName,
+        joinWithComma(idTokenVerifier.getIssuers()),
+        projectIdMatchMessage));
+    this.tenantIdMismatchMessage = String.format(
+        "The tenant ID of the token did not match the expected value ('%s')",
+        tenantId);
   }
 
   /**
@@ -96,16 +193,93 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
   @Override
   public FirebaseToken verifyToken(String token) throws FirebaseAuthException {
     boolean isEmulatorMode = Utils.isEmulatorMode();
-    IdToken idToken = parse(token);
-    checkContents(idToken, isEmulatorMode);
+    ParsedJwt jwt = parse(token);
+    checkContents(jwt, isEmulatorMode);
     if (!isEmulatorMode) {
-      checkSignature(idToken);
+      checkSignature(jwt);
     }
-    FirebaseToken firebaseToken = new FirebaseToken(idToken.getPayload());
+    FirebaseToken firebaseToken = toFirebaseToken(jwt);
     checkTenantId(firebaseToken);
     return firebaseToken;
   }
 
+  /**
+   * Verifies a batch of token strings, applying the same checks as {@link #verifyToken(String)}
+   * to each of them. Public keys are fetched at most once for the whole batch, and the key that
+   * verifies a token is remembered by its key ID (kid), so that the remaining tokens signed with
+   * the same key do not have to be tried against every available key. Parsing and signature
+   * verification are spread across a fork-join pool.
+   *
+   * @param tokens The list of token strings to be verified.
+   * @return A list of results in the same order as the input tokens.
+   */
+  @Override
+  public List<VerifyTokenResult> verifyTokens(List<String> tokens) {
+    final boolean isEmulatorMode = Utils.isEmulatorMode();
+    final String[] input = tokens.toArray(new String[0]);
+    final ParsedJwt[] parsed = new ParsedJwt[input.length];
+    final VerifyTokenResult[] results = new VerifyTokenResult[input.length];
+
+    batchPool.invoke(new BatchAction(new IndexProcessor() {
+      @Override
+      public void process(int index) {
+        try {
+          ParsedJwt jwt = parse(input[index]);
+          checkContents(jwt, isEmulatorMode);
+          parsed[index] = jwt;
+        } catch (FirebaseAuthException e) {
+          results[index] = VerifyTokenResult.fromException(e);
+        }
+      }
+    }, 0, input.length));
+
+    List<PublicKey> keys = null;
+    if (!isEmulatorMode && hasPendingTokens(results)) {
+      try {
+        keys = fetchPublicKeys();
+      } catch (FirebaseAuthException e) {
+        for (int i = 0; i < results.length; i++) {
+          if (results[i] == null) {
+            results[i] = VerifyTokenResult.fromException(e);
+          }
+        }
+        return ImmutableList.copyOf(results);
+      }
+    }
+
+    final List<PublicKey> publicKeys = keys;
+    final ConcurrentMap<String, PublicKey> keysById = new ConcurrentHashMap<>();
+    batchPool.invoke(new BatchAction(new IndexProcessor() {
+      @Override
+      public void process(int index) {
+        if (results[index] != null) {
+          return;
+        }
+        try {
+          ParsedJwt jwt = parsed[index];
+          if (!isEmulatorMode) {
+            checkSignature(jwt, publicKeys, keysById);
+          }
+          FirebaseToken firebaseToken = toFirebaseToken(jwt);
+          checkTenantId(firebaseToken);
+          results[index] = VerifyTokenResult.fromToken(firebaseToken);
+        } catch (FirebaseAuthException e) {
+          results[index] = VerifyTokenResult.fromException(e);
+        }
+      }
+    }, 0, input.length));
+    return ImmutableList.copyOf(results);
+  }
+
+  private static boolean hasPendingTokens(VerifyTokenResult[] results) {
+    for (VerifyTokenResult result : results) {
+      if (result == null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   GooglePublicKeysManager getPublicKeysManager() {
     return publicKeysManager;
   }
@@ -130,6 +304,14 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
     return docUrl;
   }
 
+  boolean isStacklessRejections() {
+    return stacklessRejections;
+  }
+
+  TokenRejectionMetrics getRejectionMetrics() {
+    return rejectionMetrics;
+  }
+
   private String prefixWithIndefiniteArticle(String word) {
     if ("aeiouAEIOU".indexOf(word.charAt(0)) < 0) {
       return "a " + word;
@@ -138,94 +320,141 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
     }
   }
 
-  private IdToken parse(String token) throws FirebaseAuthException {
+  private ParsedJwt parse(String token) throws FirebaseAuthException {
+    try {
+      return ParsedJwt.parse(token);
+    } catch (IllegalArgumentException e) {
+      throw newMalformedException(e);
+    }
+  }
+
+  /**
+   * Decodes the claims of a verified token. Claims that {@link ParsedJwt#parse(String)} does not
+   * check, such as {@code auth_time} and {@code amr}, may still have the wrong type at this point.
+   */
+  private FirebaseToken toFirebaseToken(ParsedJwt jwt) throws FirebaseAuthException {
     try {
-      return IdToken.parse(jsonFactory, token);
-    } catch (IllegalArgumentException | IOException e) {
-      // Old versions of guava throw an IOException for invalid strings, while new versions
-      // might throw an IllegalArgumentException
-      String detailedError = String.format(
-          "Failed to parse Firebase %s. Make sure you passed a string that represents a complete "
-              + "and valid JWT. See %s for details on how to retrieve %s.",
-          shortName,
-          docUrl,
-          articledShortName);
-      throw newException(detailedError, invalidTokenErrorCode, e);
+      return new FirebaseToken(jwt.getClaims());
+    } catch (IllegalArgumentException e) {
+      throw newMalformedException(e);
+    }
+  }
+
+  private FirebaseAuthException newMalformedException(IllegalArgumentException e) {
+    rejectionMetrics.record(Reason.MALFORMED);
+    if (stacklessRejections) {
+      return new StacklessFirebaseAuthException(malformedMessage, invalidTokenErrorCode);
     }
+    return newException(malformedMessage, invalidTokenErrorCode, e);
   }
 
-  private void checkSignature(IdToken token) throws FirebaseAuthException {
+  private void checkSignature(ParsedJwt token) throws FirebaseAuthException {
     if (!isSignatureValid(token)) {
-      String message = String.format(
-          "Failed to verify the signature of Firebase %s. %s",
-          shortName,
-          getVerifyTokenMessage());
-      throw newException(message, invalidTokenErrorCode);
+      throw newSignatureException();
     }
   }
 
-  private void checkContents(final IdToken idToken, boolean isEmulatorMode)
+  private void checkSignature(
+      ParsedJwt token, List<PublicKey> keys, ConcurrentMap<String, PublicKey> keysById)
       throws FirebaseAuthException {
-    final Header header = idToken.getHeader();
-    final Payload payload = idToken.getPayload();
+    String keyId = token.getKeyId();
+    PublicKey knownKey = keysById.get(keyId);
+    if (knownKey != null && isSignatureValid(token, knownKey)) {
+      return;
+    }
+    for (PublicKey key : keys) {
+      if (key != knownKey && isSignatureValid(token, key)) {
+        keysById.putIfAbsent(keyId, key);
+        return;
+      }
+    }
+    throw newSignatureException();
+  }
+
+  private FirebaseAuthException newSignatureException() {
+    return newRejection(Reason.INVALID_SIGNATURE, signatureMessage, invalidTokenErrorCode);
+  }
 
+  private void checkContents(final ParsedJwt jwt, boolean isEmulatorMode)
+      throws FirebaseAuthException {
     final long currentTimeMillis = idTokenVerifier.getClock().currentTimeMillis();
+    final long skewSeconds = idTokenVerifier.getAcceptableTimeSkewSeconds();
+    final String subject = jwt.getSubject();
+    final List<String> audience = jwt.getAudienceAsList();
+    final Long expirationSeconds = jwt.getExpirationTimeSeconds();
+    final Long issuedAtSeconds = jwt.getIssuedAtTimeSeconds();
+    Reason reason = null;
     String errorMessage = null;
     AuthErrorCode errorCode = invalidTokenErrorCode;
 
-    if (!isEmulatorMode && header.getKeyId() == null) {
-      errorMessage = getErrorForTokenWithoutKid(header, payload);
-    } else if (!isEmulatorMode && !RS256.equals(header.getAlgorithm())) {
-      errorMessage = String.format(
-          "Firebase %s has incorrect algorithm. Expected \"%s\" but got \"%s\".",
-          shortName,
-          RS256,
-          header.getAlgorithm());
-    } else if (!idToken.verifyAudience(idTokenVerifier.getAudience())) {
-      errorMessage = String.format(
-          "Firebase %s has incorrect \"aud\" (audience) claim. Expected \"%s\" but got \"%s\". %s",
-          shortName,
-          joinWithComma(idTokenVerifier.getAudience()),
-          joinWithComma(payload.getAudienceAsList()),
-          getProjectIdMatchMessage());
-    } else if (!idToken.verifyIssuer(idTokenVerifier.getIssuers())) {
-      errorMessage = String.format(
-          "Firebase %s has incorrect \"iss\" (issuer) claim. Expected \"%s\" but got \"%s\". %s",
-          shortName,
-          joinWithComma(idTokenVerifier.getIssuers()),
-          payload.getIssuer(),
-          getProjectIdMatchMessage());
-    } else if (payload.getSubject() == null) {
-      errorMessage = String.format(
-          "Firebase %s has no \"sub\" (subject) claim.",
-          shortName);
-    } else if (payload.getSubject().isEmpty()) {
-      errorMessage = String.format(
-          "Firebase %s has an empty string \"sub\" (subject) claim.",
-          shortName);
-    } else if (payload.getSubject().length() > 128) {
-      errorMessage = String.format(
-          "Firebase %s has \"sub\" (subject) claim longer than 128 characters.",
-          shortName);
-    } else if (!idToken.verifyExpirationTime(
-        currentTimeMillis, idTokenVerifier.getAcceptableTimeSkewSeconds())) {
-      errorMessage = String.format(
-          "Firebase %s has expired. Get a fresh %s and try again.",
-          shortName,
-          shortName);
+    if (!isEmulatorMode && jwt.getKeyId() == null) {
+      reason = Reason.MISSING_KEY_ID;
+      errorMessage = getErrorForTokenWithoutKid(jwt);
+    } else if (!isEmulatorMode && !RS256.equals(jwt.getAlgorithm())) {
+      reason = Reason.INCORRECT_ALGORITHM;
+      errorMessage = stacklessRejections ? incorrectAlgorithmMessage : withVerifyTokenMessage(
+          String.format(
+              "Firebase %s has incorrect algorithm. Expected \"%s\" but got \"%s\".",
+              shortName,
+              RS256,
+              jwt.getAlgorithm()));
+    } else if (audience.isEmpty() || !idTokenVerifier.getAudience().containsAll(audience)) {
+      reason = Reason.INCORRECT_AUDIENCE;
+      errorMessage = stacklessRejections ? incorrectAudienceMessage : withVerifyTokenMessage(
+          String.format(
+              "Firebase %s has incorrect \"aud\" (audience) claim. Expected \"%s\" but got "
+                  + "\"%s\". %s",
+              shortName,
+              joinWithComma(idTokenVerifier.getAudience()),
+              joinWithComma(audience),
+              projectIdMatchMessage));
+    } else if (!idTokenVerifier.getIssuers().contains(jwt.getIssuer())) {
+      reason = Reason.INCORRECT_ISSUER;
+      errorMessage = stacklessRejections ? incorrectIssuerMessage : withVerifyTokenMessage(
+          String.format(
+              "Firebase %s has incorrect \"iss\" (issuer) claim. Expected \"%s\" but got "
+                  + "\"%s\". %s",
+              shortName,
+              joinWithComma(idTokenVerifier.getIssuers()),
+              jwt.getIssuer(),
+              projectIdMatchMessage));
+    } else if (subject == null) {
+      reason = Reason.INVALID_SUBJECT;
+      errorMessage = noSubjectMessage;
+    } else if (subject.isEmpty()) {
+      reason = Reason.INVALID_SUBJECT;
+      errorMessage = emptySubjectMessage;
+    } else if (subject.length() > 128) {
+      reason = Reason.INVALID_SUBJECT;
+      errorMessage = longSubjectMessage;
+    } else if (expirationSeconds == null
+        || currentTimeMillis > (expirationSeconds + skewSeconds) * 1000) {
+      reason = Reason.EXPIRED;
+      errorMessage = expiredMessage;
       // Also set the expired error code.
       errorCode = expiredTokenErrorCode;
-    } else if (!idToken.verifyIssuedAtTime(
-        currentTimeMillis, idTokenVerifier.getAcceptableTimeSkewSeconds())) {
-      errorMessage = String.format(
-          "Firebase %s is not yet valid.",
-          shortName);
+    } else if (issuedAtSeconds == null
+        || currentTimeMillis < (issuedAtSeconds - skewSeconds) * 1000) {
+      reason = Reason.NOT_YET_VALID;
+      errorMessage = notYetValidMessage;
+    }
+
+    if (reason != null) {
+      throw newRejection(reason, errorMessage, errorCode);
     }
+  }
+
+  private String withVerifyTokenMessage(String message) {
+    return message + " " + verifyTokenMessage;
+  }
 
-    if (errorMessage != null) {
-      String detailedError = String.format("%s %s", errorMessage, getVerifyTokenMessage());
-      throw newException(detailedError, errorCode);
+  private FirebaseAuthException newRejection(
+      Reason reason, String message, AuthErrorCode errorCode) {
+    rejectionMetrics.record(reason);
+    if (stacklessRejections) {
+      return new StacklessFirebaseAuthException(message, errorCode);
     }
+    return newException(message, errorCode);
   }
 
   private FirebaseAuthException newException(String message, AuthErrorCode errorCode) {
@@ -238,18 +467,11 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
         ErrorCode.INVALID_ARGUMENT, message, cause, null, errorCode);
   }
 
-  private String getVerifyTokenMessage() {
-    return String.format(
-        "See %s for details on how to retrieve %s.",
-        docUrl,
-        articledShortName);
-  }
-
   /**
    * Verifies the cryptographic signature on the FirebaseToken. Can block on a web request to fetch
    * the keys if they have expired.
    */
-  private boolean isSignatureValid(IdToken token) throws FirebaseAuthException {
+  private boolean isSignatureValid(ParsedJwt token) throws FirebaseAuthException {
     for (PublicKey key : fetchPublicKeys()) {
       if (isSignatureValid(token, key)) {
         return true;
@@ -259,8 +481,9 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
     return false;
   }
 
-  private boolean isSignatureValid(IdToken token, PublicKey key) throws FirebaseAuthException {
+  private boolean isSignatureValid(ParsedJwt token, PublicKey key) throws FirebaseAuthException {
     try {
+      // Uses a Signature instance that is already initialized with the key on this thread.
       return token.verifySignature(key);
     } catch (GeneralSecurityException e) {
       // This doesn't happen under usual circumstances. Seems to only happen if the crypto
@@ -287,54 +510,69 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
     }
   }
 
-  private String getErrorForTokenWithoutKid(IdToken.Header header, IdToken.Payload payload) {
-    if (isCustomToken(payload)) {
-      return String.format("%s expects %s, but was given a custom token.",
-          method, articledShortName);
-    } else if (isLegacyCustomToken(header, payload)) {
-      return String.format("%s expects %s, but was given a legacy custom token.",
-          method, articledShortName);
+  private String getErrorForTokenWithoutKid(ParsedJwt jwt) {
+    if (isCustomToken(jwt)) {
+      return customTokenMessage;
+    } else if (isLegacyCustomToken(jwt)) {
+      return legacyCustomTokenMessage;
     }
-    return String.format("Firebase %s has no \"kid\" claim.", shortName);
+    return noKidMessage;
   }
 
   private String joinWithComma(Iterable<String> strings) {
     return Joiner.on(',').join(strings);
   }
 
-  private String getProjectIdMatchMessage() {
-    return String.format(
-        "Make sure the %s comes from the same Firebase project as the service account used to "
-            + "authenticate this SDK.",
-        shortName);
-  }
-
-  private boolean isCustomToken(IdToken.Payload payload) {
-    return FIREBASE_AUDIENCE.equals(payload.getAudience());
+  private boolean isCustomToken(ParsedJwt jwt) {
+    return FIREBASE_AUDIENCE.equals(jwt.getAudience());
   }
 
-  private boolean isLegacyCustomToken(IdToken.Header header, IdToken.Payload payload) {
-    return "HS256".equals(header.getAlgorithm())
-        && new BigDecimal(0).equals(payload.get("v"))
-        && containsLegacyUidField(payload);
-  }
-
-  private boolean containsLegacyUidField(IdToken.Payload payload) {
-    Object dataField = payload.get("d");
-    if (dataField instanceof ArrayMap) {
-      return ((ArrayMap) dataField).get("uid") != null;
-    }
-    return false;
+  private boolean isLegacyCustomToken(ParsedJwt jwt) {
+    return "HS256".equals(jwt.getAlgorithm()) && jwt.hasLegacyCustomTokenClaims();
   }
 
   private void checkTenantId(final FirebaseToken firebaseToken) throws FirebaseAuthException {
     String tokenTenantId = firebaseToken.getTenantId();
     if (this.tenantId != null && !this.tenantId.equals(tokenTenantId)) {
-      String message = String.format(
+      String message = stacklessRejections ? tenantIdMismatchMessage : String.format(
           "The tenant ID ('%s') of the token did not match the expected value ('%s')",
           Strings.nullToEmpty(tokenTenantId),
           tenantId);
-      throw newException(message, AuthErrorCode.TENANT_ID_MISMATCH);
+      throw newRejection(Reason.TENANT_ID_MISMATCH, message, AuthErrorCode.TENANT_ID_MISMATCH);
+    }
+  }
+
+  private interface IndexProcessor {
+    void process(int index);
+  }
+
+  /**
+   * A fork-join action that applies an {@link IndexProcessor} to each index in a range, splitting
+   * the range into chunks of at most {@code BATCH_CHUNK_SIZE} indices.
+   */
+  private static final class BatchAction extends RecursiveAction {
+
+    private final IndexProcessor processor;
+    private final int start;
+    private final int end;
+
+    BatchAction(IndexProcessor processor, int start, int end) {
+      this.processor = processor;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= BATCH_CHUNK_SIZE) {
+        for (int i = start; i < end; i++) {
+          processor.process(i);
+        }
+        return;
+      }
+
+      int mid = (start + end) >>> 1;
+      invokeAll(new BatchAction(processor, start, mid), new BatchAction(processor, mid, end));
     }
   }
 
@@ -344,7 +582,6 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
 
   static final class Builder {
 
-    private JsonFactory jsonFactory;
     private GooglePublicKeysManager publicKeysManager;
     private String method;
     private String shortName;
@@ -353,14 +590,12 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
     private AuthErrorCode invalidTokenErrorCode;
     private AuthErrorCode expiredTokenErrorCode;
     private String tenantId;
+    private ForkJoinPool batchPool;
+    private boolean stacklessRejections;
+    private TokenRejectionMetrics rejectionMetrics;
 
     private Builder() { }
 
-    Builder setJsonFactory(JsonFactory jsonFactory) {
-      this.jsonFactory = jsonFactory;
-      return this;
-    }
-
     Builder setPublicKeysManager(GooglePublicKeysManager publicKeysManager) {
       this.publicKeysManager = publicKeysManager;
       return this;
@@ -401,6 +636,21 @@ final class FirebaseTokenVerifierImpl implements FirebaseTokenVerifier {
       return this;
     }
 
+    Builder setBatchPool(@Nullable ForkJoinPool batchPool) {
+      this.batchPool = batchPool;
+      return this;
+    }
+
+    Builder setStacklessRejections(boolean stacklessRejections) {
+      this.stacklessRejections = stacklessRejections;
+      return this;
+    }
+
+    Builder setRejectionMetrics(@Nullable TokenRejectionMetrics rejectionMetrics) {
+      this.rejectionMetrics = rejectionMetrics;
+      return this;
+    }
+
     FirebaseTokenVerifierImpl build() {
       return new FirebaseTokenVerifierImpl(this);
     }
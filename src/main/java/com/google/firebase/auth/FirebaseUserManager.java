@@ -19,9 +19,12 @@ package com.google.firebase.auth;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.HttpMethods;
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpResponseInterceptor;
 import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.Json;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.util.Key;
 import com.google.common.annotations.VisibleForTesting;
@@ -46,6 +49,7 @@ import com.google.firebase.internal.ApiClientUtils;
 import com.google.firebase.internal.HttpRequestInfo;
 import com.google.firebase.internal.NonNull;
 import com.google.firebase.internal.Nullable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -174,6 +178,12 @@ final class FirebaseUserManager {
     post("/accounts:update", request.getProperties(jsonFactory), GenericJson.class);
   }
 
+  void setCustomUserClaims(String uid, String customAttributes) throws FirebaseAuthException {
+    final Map<String, Object> payload = ImmutableMap.<String, Object>of(
+        "localId", uid, UserRecord.CUSTOM_ATTRIBUTES, customAttributes);
+    post("/accounts:update", payload, GenericJson.class);
+  }
+
   void deleteUser(String uid) throws FirebaseAuthException {
     final Map<String, Object> payload = ImmutableMap.<String, Object>of("localId", uid);
     post("/accounts:delete", payload, GenericJson.class);
@@ -231,6 +241,41 @@ final class FirebaseUserManager {
     return (String) response.get("oobLink");
   }
 
+  /**
+   * Generates an email action link for the given email, using a payload created by
+   * {@link #serializeEmailActionLinkPayload(EmailLinkType, ActionCodeSettings)}. Only the email is
+   * serialized for each request.
+   */
+  String getEmailActionLink(String serializedPayload, String email) throws FirebaseAuthException {
+    String content;
+    try {
+      // The shared payload is a non-empty JSON object. Splices the email in as its first field.
+      content = "{\"email\":" + jsonFactory.toString(email) + "," + serializedPayload.substring(1);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to serialize email", e);
+    }
+    HttpRequestInfo requestInfo = HttpRequestInfo.buildRequest(HttpMethods.POST,
+        userMgtBaseUrl + "/accounts:sendOobCode",
+        ByteArrayContent.fromString(Json.MEDIA_TYPE, content));
+    GenericJson response = httpClient.sendRequest(requestInfo, GenericJson.class);
+    return (String) response.get("oobLink");
+  }
+
+  String serializeEmailActionLinkPayload(EmailLinkType type,
+      @Nullable ActionCodeSettings settings) {
+    ImmutableMap.Builder<String, Object> payload = ImmutableMap.<String, Object>builder()
+        .put("requestType", type.name())
+        .put("returnOobLink", true);
+    if (settings != null) {
+      payload.putAll(settings.getProperties());
+    }
+    try {
+      return jsonFactory.toString(payload.build());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to serialize action code settings", e);
+    }
+  }
+
   private UserRecord lookupUserAccount(
       Map<String, Object> payload, String identifier) throws FirebaseAuthException {
     HttpRequestInfo requestInfo = HttpRequestInfo.buildJsonPostRequest(
@@ -373,13 +418,17 @@ final class FirebaseUserManager {
       this.users = usersBuilder.build();
 
       if (hasPassword) {
-        checkArgument(options != null && options.getHash() != null,
-            "UserImportHash option is required when at least one user has a password. Provide "
-                + "a UserImportHash via UserImportOptions.withHash().");
+        checkHashOption(options);
         this.putAll(options.getProperties());
       }
     }
 
+    static void checkHashOption(UserImportOptions options) {
+      checkArgument(options != null && options.getHash() != null,
+          "UserImportHash option is required when at least one user has a password. Provide "
+              + "a UserImportHash via UserImportOptions.withHash().");
+    }
+
     int getUsersCount() {
       return users.size();
     }
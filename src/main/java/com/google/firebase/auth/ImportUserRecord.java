@@ -51,6 +51,10 @@ public final class ImportUserRecord {
     return ImmutableMap.copyOf(copy);
   }
 
+  String getUid() {
+    return (String) properties.get("localId");
+  }
+
   boolean hasPassword() {
     return this.properties.containsKey("passwordHash");
   }
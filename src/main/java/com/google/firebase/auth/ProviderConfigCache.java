@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.api.client.util.Clock;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A read-through cache of OIDC and SAML provider configs, keyed by provider ID. Each
+ * {@link AbstractFirebaseAuth} instance has its own cache, so the configs of different tenants are
+ * cached separately.
+ *
+ * <p>Entries expire after the TTL. Once an entry is older than half the TTL, the next lookup
+ * returns it and reloads it on the executor, so that configs that are in regular use are replaced
+ * before they expire, and lookups do not wait for the backend. A failed reload leaves the entry in
+ * place until it expires.
+ *
+ * <p>Like {@link UserRecordCache}, configs loaded while an invalidation is in progress are not
+ * cached, so that a reload racing with a write made through this SDK instance cannot put stale
+ * data back into the cache.
+ */
+final class ProviderConfigCache {
+
+  static final long MAX_TTL_SECONDS = 86400;
+  static final long MAX_SIZE = 1000;
+
+  interface Loader<T extends ProviderConfig> {
+    T load() throws FirebaseAuthException;
+  }
+
+  interface PageSource {
+    ListProviderConfigsPage<? extends ProviderConfig> fetchFirstPage()
+        throws FirebaseAuthException;
+  }
+
+  private final long refreshAfterMillis;
+  private final Executor executor;
+  private final Clock clock;
+  private final Cache<String, Entry> configs;
+
+  // Incremented on every invalidation. Guarded by this for writes to configs.
+  private final AtomicLong generation = new AtomicLong();
+
+  ProviderConfigCache(long ttlSeconds, Executor executor, final Clock clock) {
+    checkArgument(ttlSeconds > 0 && ttlSeconds <= MAX_TTL_SECONDS,
+        "ttlSeconds must be a positive number that does not exceed %s", MAX_TTL_SECONDS);
+    this.refreshAfterMillis = TimeUnit.SECONDS.toMillis(ttlSeconds) / 2;
+    this.executor = checkNotNull(executor, "executor must not be null");
+    this.clock = checkNotNull(clock, "clock must not be null");
+    this.configs = CacheBuilder.newBuilder()
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .maximumSize(MAX_SIZE)
+        .ticker(new Ticker() {
+          @Override
+          public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(clock.currentTimeMillis());
+          }
+        })
+        .build();
+  }
+
+  <T extends ProviderConfig> T get(
+      String providerId, Class<T> type, Loader<T> loader) throws FirebaseAuthException {
+    Entry entry = configs.getIfPresent(providerId);
+    if (entry == null || !type.isInstance(entry.config)) {
+      return load(providerId, loader);
+    }
+
+    if (clock.currentTimeMillis() - entry.loadedAtMillis >= refreshAfterMillis) {
+      scheduleRefresh(providerId, entry, loader);
+    }
+    return type.cast(entry.config);
+  }
+
+  /**
+   * Loads all the configs listed by the given sources into the cache, walking the sources
+   * concurrently on the executor and the calling thread. The first error encountered stops all
+   * the walks, and is rethrown once they have all stopped.
+   *
+   * @return The number of configs added to the cache.
+   */
+  int warmUp(List<? extends PageSource> sources) throws FirebaseAuthException {
+    final long loadGeneration = generation.get();
+    final AtomicBoolean stopped = new AtomicBoolean();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (final PageSource source : sources) {
+      tasks.add(new Callable<Integer>() {
+        @Override
+        public Integer call() throws FirebaseAuthException {
+          return walk(source, loadGeneration, stopped);
+        }
+      });
+    }
+
+    List<Integer> counts;
+    try {
+      counts = ParallelTasks.invokeAll(executor, tasks, new Runnable() {
+        @Override
+        public void run() {
+          stopped.set(true);
+        }
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(ErrorCode.CANCELLED,
+          "Interrupted while loading provider configs", e, null, null);
+    } catch (ExecutionException e) {
+      Throwable failure = e.getCause();
+      Throwables.throwIfInstanceOf(failure, FirebaseAuthException.class);
+      Throwables.throwIfUnchecked(failure);
+      throw new IllegalStateException(failure);
+    }
+
+    int count = 0;
+    for (int sourceCount : counts) {
+      count += sourceCount;
+    }
+    return count;
+  }
+
+  synchronized void invalidate(String providerId) {
+    generation.incrementAndGet();
+    configs.invalidate(providerId);
+  }
+
+  long size() {
+    return configs.size();
+  }
+
+  private int walk(PageSource source, long loadGeneration,
+      AtomicBoolean stopped) throws FirebaseAuthException {
+    int count = 0;
+    try {
+      ListProviderConfigsPage<? extends ProviderConfig> page =
+          stopped.get() ? null : source.fetchFirstPage();
+      while (page != null) {
+        long loadedAtMillis = clock.currentTimeMillis();
+        for (ProviderConfig config : page.getValues()) {
+          if (put(config.getProviderId(), config, loadGeneration, loadedAtMillis)) {
+            count++;
+          }
+        }
+        page = stopped.get() ? null : page.getNextPage();
+      }
+    } catch (RuntimeException e) {
+      stopped.set(true);
+      Throwables.throwIfInstanceOf(e.getCause(), FirebaseAuthException.class);
+      throw e;
+    } catch (FirebaseAuthException e) {
+      stopped.set(true);
+      throw e;
+    }
+    return count;
+  }
+
+  private <T extends ProviderConfig> T load(
+      String providerId, Loader<T> loader) throws FirebaseAuthException {
+    long loadGeneration = generation.get();
+    long loadedAtMillis = clock.currentTimeMillis();
+    T config = loader.load();
+    put(providerId, config, loadGeneration, loadedAtMillis);
+    return config;
+  }
+
+  private void scheduleRefresh(
+      final String providerId, final Entry entry, final Loader<?> loader) {
+    if (!entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            load(providerId, loader);
+          } catch (FirebaseAuthException | RuntimeException e) {
+            // Keeps serving the current entry until it expires.
+          } finally {
+            entry.refreshing.set(false);
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      // Executor is shut down or saturated. Tries again on the next lookup.
+      entry.refreshing.set(false);
+    }
+  }
+
+  private synchronized boolean put(
+      String providerId, ProviderConfig config, long loadGeneration, long loadedAtMillis) {
+    if (generation.get() != loadGeneration) {
+      return false;
+    }
+    configs.put(providerId, new Entry(config, loadedAtMillis));
+    return true;
+  }
+
+  private static final class Entry {
+
+    private final ProviderConfig config;
+    private final long loadedAtMillis;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Entry(ProviderConfig config, long loadedAtMillis) {
+      this.config = config;
+      this.loadedAtMillis = loadedAtMillis;
+    }
+  }
+}
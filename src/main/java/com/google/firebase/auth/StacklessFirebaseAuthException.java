@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import com.google.firebase.ErrorCode;
+
+/**
+ * A {@link FirebaseAuthException} that does not capture a stack trace. Thrown when rejecting
+ * invalid tokens in the stackless rejection mode, where the cost of filling in the stack trace
+ * would otherwise dominate the cost of the rejection itself.
+ */
+final class StacklessFirebaseAuthException extends FirebaseAuthException {
+
+  StacklessFirebaseAuthException(String message, AuthErrorCode authErrorCode) {
+    super(ErrorCode.INVALID_ARGUMENT, message, null, null, authErrorCode);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.google.firebase.internal.NonNull;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the ID tokens and session cookies rejected by a {@link FirebaseAuth} instance, grouped by
+ * the reason for rejection. Counters are cumulative for the lifetime of the instance, and are safe
+ * to read while verifications are in progress.
+ */
+public final class TokenRejectionMetrics {
+
+  /**
+   * The reasons for which a token can be rejected during verification.
+   */
+  public enum Reason {
+    /** The token string is not a well-formed JWT. */
+    MALFORMED,
+
+    /** The token does not have a key ID (kid) header, or is a custom token. */
+    MISSING_KEY_ID,
+
+    /** The token is not signed with the RS256 algorithm. */
+    INCORRECT_ALGORITHM,
+
+    /** The token has an unexpected audience (aud) claim. */
+    INCORRECT_AUDIENCE,
+
+    /** The token has an unexpected issuer (iss) claim. */
+    INCORRECT_ISSUER,
+
+    /** The token subject (sub) claim is missing, empty or too long. */
+    INVALID_SUBJECT,
+
+    /** The token has expired. */
+    EXPIRED,
+
+    /** The token has an issued-at (iat) time in the future. */
+    NOT_YET_VALID,
+
+    /** The token signature could not be verified with any of the public keys. */
+    INVALID_SIGNATURE,
+
+    /** The token belongs to a different tenant. */
+    TENANT_ID_MISMATCH
+  }
+
+  private static final Reason[] REASONS = Reason.values();
+
+  private final LongAdder[] counters = new LongAdder[REASONS.length];
+
+  TokenRejectionMetrics() {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = new LongAdder();
+    }
+  }
+
+  void record(Reason reason) {
+    counters[reason.ordinal()].increment();
+  }
+
+  /**
+   * Returns the number of tokens rejected for the given reason.
+   *
+   * @param reason A non-null rejection reason.
+   * @return A non-negative count.
+   */
+  public long getCount(@NonNull Reason reason) {
+    return counters[checkNotNull(reason, "reason must not be null").ordinal()].sum();
+  }
+
+  /**
+   * Returns the total number of rejected tokens across all reasons.
+   */
+  public long getTotalCount() {
+    long total = 0;
+    for (LongAdder counter : counters) {
+      total += counter.sum();
+    }
+    return total;
+  }
+
+  /**
+   * Returns a snapshot of the rejection counts for all reasons.
+   *
+   * @return A non-null, immutable map containing an entry for each {@link Reason}.
+   */
+  @NonNull
+  public Map<Reason, Long> getCounts() {
+    Map<Reason, Long> counts = new EnumMap<>(Reason.class);
+    for (Reason reason : REASONS) {
+      counts.put(reason, counters[reason.ordinal()].sum());
+    }
+    return Maps.immutableEnumMap(counts);
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.firebase.internal.Nullable;
+import java.util.Iterator;
+
+/**
+ * A set of options that can be passed to the
+ * {@link FirebaseAuth#bulkImportUsers(Iterator, UserBulkImportOptions)} API.
+ */
+public final class UserBulkImportOptions {
+
+  static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+  static final int MAX_CONCURRENT_REQUESTS = 32;
+
+  private final UserImportOptions importOptions;
+  private final int chunkSize;
+  private final int maxConcurrentRequests;
+  private final double maxRequestsPerSecond;
+  private final int startIndex;
+  private final CheckpointListener checkpointListener;
+
+  private UserBulkImportOptions(Builder builder) {
+    checkArgument(builder.chunkSize > 0
+        && builder.chunkSize <= FirebaseUserManager.MAX_IMPORT_USERS,
+        "chunkSize must be a positive integer that does not exceed %s",
+        FirebaseUserManager.MAX_IMPORT_USERS);
+    checkArgument(builder.maxConcurrentRequests > 0
+        && builder.maxConcurrentRequests <= MAX_CONCURRENT_REQUESTS,
+        "maxConcurrentRequests must be a positive integer that does not exceed %s",
+        MAX_CONCURRENT_REQUESTS);
+    checkArgument(builder.maxRequestsPerSecond >= 0,
+        "maxRequestsPerSecond must not be negative");
+    checkArgument(builder.startIndex >= 0, "startIndex must not be negative");
+    this.importOptions = builder.importOptions;
+    this.chunkSize = builder.chunkSize;
+    this.maxConcurrentRequests = builder.maxConcurrentRequests;
+    this.maxRequestsPerSecond = builder.maxRequestsPerSecond;
+    this.startIndex = builder.startIndex;
+    this.checkpointListener = builder.checkpointListener;
+  }
+
+  @Nullable
+  UserImportOptions getImportOptions() {
+    return importOptions;
+  }
+
+  int getChunkSize() {
+    return chunkSize;
+  }
+
+  int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  double getMaxRequestsPerSecond() {
+    return maxRequestsPerSecond;
+  }
+
+  int getStartIndex() {
+    return startIndex;
+  }
+
+  @Nullable
+  CheckpointListener getCheckpointListener() {
+    return checkpointListener;
+  }
+
+  /**
+   * Creates a new {@link Builder}.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Receives checkpoints during a bulk import. Chunks may complete out of order, but a checkpoint
+   * is only reported once every user before it has been processed. Checkpoints are reported in
+   * increasing order, from the threads that run the import, so listeners should return quickly.
+   */
+  public interface CheckpointListener {
+
+    /**
+     * Called when all users up to the given index have been processed.
+     *
+     * @param processedCount The number of users processed from the start of the import, including
+     *     the users skipped by {@link Builder#setStartIndex(int)}. Pass this value to
+     *     {@link Builder#setStartIndex(int)} to resume the import from this point.
+     */
+    void onCheckpoint(int processedCount);
+  }
+
+  public static class Builder {
+
+    private UserImportOptions importOptions;
+    private int chunkSize = FirebaseUserManager.MAX_IMPORT_USERS;
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private double maxRequestsPerSecond;
+    private int startIndex;
+    private CheckpointListener checkpointListener;
+
+    private Builder() {}
+
+    /**
+     * Sets the {@link UserImportOptions} applied to every chunk. Required when importing users
+     * with passwords.
+     *
+     * @param importOptions A {@link UserImportOptions} instance, or null.
+     * @return This builder.
+     */
+    public Builder setImportOptions(@Nullable UserImportOptions importOptions) {
+      this.importOptions = importOptions;
+      return this;
+    }
+
+    /**
+     * Sets the number of users uploaded per request. Must not exceed 1000, which is also the
+     * default.
+     *
+     * @param chunkSize A positive integer.
+     * @return This builder.
+     */
+    public Builder setChunkSize(int chunkSize) {
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of chunks uploaded at the same time. Defaults to 4, and must not
+     * exceed 32.
+     *
+     * @param maxConcurrentRequests A positive integer.
+     * @return This builder.
+     */
+    public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    /**
+     * Sets the maximum rate at which chunk upload requests are started, across all concurrent
+     * uploads. Defaults to 0, which does not limit the request rate.
+     *
+     * @param maxRequestsPerSecond A non-negative number.
+     * @return This builder.
+     */
+    public Builder setMaxRequestsPerSecond(double maxRequestsPerSecond) {
+      this.maxRequestsPerSecond = maxRequestsPerSecond;
+      return this;
+    }
+
+    /**
+     * Sets the index of the first user in the import. Use this together with a value reported to
+     * a {@link CheckpointListener} to resume an interrupted import, passing an iterator that
+     * starts at the same user. The index is added to the indices of all reported errors, so that
+     * they always refer to positions in the complete input. Defaults to 0.
+     *
+     * @param startIndex A non-negative integer.
+     * @return This builder.
+     */
+    public Builder setStartIndex(int startIndex) {
+      this.startIndex = startIndex;
+      return this;
+    }
+
+    /**
+     * Sets a listener to be notified as the import progresses.
+     *
+     * @param checkpointListener A {@link CheckpointListener}, or null.
+     * @return This builder.
+     */
+    public Builder setCheckpointListener(@Nullable CheckpointListener checkpointListener) {
+      this.checkpointListener = checkpointListener;
+      return this;
+    }
+
+    /**
+     * Creates a new {@link UserBulkImportOptions} instance.
+     */
+    public UserBulkImportOptions build() {
+      return new UserBulkImportOptions(this);
+    }
+  }
+}
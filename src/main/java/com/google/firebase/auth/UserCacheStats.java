@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+/**
+ * A snapshot of the statistics of the user record cache of a {@link FirebaseAuth} instance. All
+ * counts are cumulative for the lifetime of the instance. When the cache is disabled, all values
+ * are zero.
+ */
+public final class UserCacheStats {
+
+  static final UserCacheStats EMPTY = new UserCacheStats(0, 0, 0, 0, 0, 0, 0);
+
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+  private final long invalidationCount;
+  private final long size;
+  private final long totalHitAgeMillis;
+  private final long maxHitAgeMillis;
+
+  UserCacheStats(long hitCount, long missCount, long evictionCount, long invalidationCount,
+      long size, long totalHitAgeMillis, long maxHitAgeMillis) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.invalidationCount = invalidationCount;
+    this.size = size;
+    this.totalHitAgeMillis = totalHitAgeMillis;
+    this.maxHitAgeMillis = maxHitAgeMillis;
+  }
+
+  /**
+   * Returns the number of lookups served from the cache.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of lookups that were sent to the Firebase Auth backend.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the ratio of lookups served from the cache to all lookups, or 0 if there were no
+   * lookups.
+   */
+  public double getHitRate() {
+    long total = hitCount + missCount;
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * Returns the number of entries removed from the cache because they expired, or to keep the
+   * cache within its size bound.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the number of entries removed from the cache because this instance modified or deleted
+   * the corresponding user.
+   */
+  public long getInvalidationCount() {
+    return invalidationCount;
+  }
+
+  /**
+   * Returns the approximate number of user records currently in the cache.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the average age, in milliseconds, of the user records served from the cache. This is
+   * how long ago, on average, the served data was fetched from the backend.
+   */
+  public long getAverageHitAgeMillis() {
+    return hitCount == 0 ? 0 : totalHitAgeMillis / hitCount;
+  }
+
+  /**
+   * Returns the largest age, in milliseconds, of any user record served from the cache.
+   */
+  public long getMaxHitAgeMillis() {
+    return maxHitAgeMillis;
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import com.google.firebase.internal.NonNull;
+
+/**
+ * Receives the users streamed by
+ * {@link FirebaseAuth#exportUsers(UserExportConsumer, UserExportOptions)}. Users are delivered one
+ * at a time, in the order in which they are listed, on the thread that runs the export.
+ */
+public interface UserExportConsumer {
+
+  /**
+   * Called once for each exported user. Any exception thrown by this method stops the export,
+   * and is propagated to the caller.
+   *
+   * @param user A non-null {@link ExportedUserRecord}.
+   */
+  void accept(@NonNull ExportedUserRecord user);
+}
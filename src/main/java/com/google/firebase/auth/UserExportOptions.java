@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.firebase.internal.Nullable;
+
+/**
+ * A set of additional options that can be passed to
+ * {@link FirebaseAuth#exportUsers(UserExportConsumer, UserExportOptions)}.
+ */
+public class UserExportOptions {
+
+  static final int DEFAULT_PREFETCH_PAGES = 2;
+  static final int MAX_PREFETCH_PAGES = 16;
+
+  private final String pageToken;
+  private final int maxResults;
+  private final int prefetchPages;
+  private final CheckpointListener checkpointListener;
+
+  private UserExportOptions(Builder builder) {
+    checkArgument(!ListUsersPage.END_OF_LIST.equals(builder.pageToken),
+        "pageToken must not be empty");
+    checkArgument(builder.maxResults > 0
+        && builder.maxResults <= FirebaseUserManager.MAX_LIST_USERS_RESULTS,
+        "maxResults must be a positive integer that does not exceed %s",
+        FirebaseUserManager.MAX_LIST_USERS_RESULTS);
+    checkArgument(builder.prefetchPages > 0 && builder.prefetchPages <= MAX_PREFETCH_PAGES,
+        "prefetchPages must be a positive integer that does not exceed %s", MAX_PREFETCH_PAGES);
+    this.pageToken = builder.pageToken;
+    this.maxResults = builder.maxResults;
+    this.prefetchPages = builder.prefetchPages;
+    this.checkpointListener = builder.checkpointListener;
+  }
+
+  @Nullable
+  String getPageToken() {
+    return pageToken;
+  }
+
+  int getMaxResults() {
+    return maxResults;
+  }
+
+  int getPrefetchPages() {
+    return prefetchPages;
+  }
+
+  @Nullable
+  CheckpointListener getCheckpointListener() {
+    return checkpointListener;
+  }
+
+  /**
+   * Creates a new {@link Builder}.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Receives checkpoints during a user export. A checkpoint is reported after all the users of a
+   * page have been handed to the consumer (or written to the output stream), and carries the page
+   * token from which the export can be resumed.
+   */
+  public interface CheckpointListener {
+
+    /**
+     * Called after each page of users has been exported.
+     *
+     * @param nextPageToken The page token to pass to {@link Builder#setPageToken(String)} to
+     *     resume the export after the current page, or null if all users have been exported.
+     */
+    void onCheckpoint(@Nullable String nextPageToken);
+  }
+
+  public static class Builder {
+
+    private String pageToken;
+    private int maxResults = FirebaseUserManager.MAX_LIST_USERS_RESULTS;
+    private int prefetchPages = DEFAULT_PREFETCH_PAGES;
+    private CheckpointListener checkpointListener;
+
+    private Builder() {}
+
+    /**
+     * Sets the page token to start the export from. Use a token previously reported to a
+     * {@link CheckpointListener} to resume an interrupted export. If not set, the export starts
+     * from the first user.
+     *
+     * @param pageToken A non-empty page token string, or null.
+     * @return This builder.
+     */
+    public Builder setPageToken(@Nullable String pageToken) {
+      this.pageToken = pageToken;
+      return this;
+    }
+
+    /**
+     * Sets the number of users to retrieve per request. Must not exceed 1000, which is also the
+     * default.
+     *
+     * @param maxResults A positive integer.
+     * @return This builder.
+     */
+    public Builder setMaxResults(int maxResults) {
+      this.maxResults = maxResults;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of pages that may be fetched ahead of the consumer. Fetching stops
+     * when this many pages are waiting to be consumed, and resumes as the consumer catches up.
+     * Defaults to 2, and must not exceed 16.
+     *
+     * @param prefetchPages A positive integer.
+     * @return This builder.
+     */
+    public Builder setPrefetchPages(int prefetchPages) {
+      this.prefetchPages = prefetchPages;
+      return this;
+    }
+
+    /**
+     * Sets a listener to be notified after each page of users has been exported.
+     *
+     * @param checkpointListener A {@link CheckpointListener}, or null.
+     * @return This builder.
+     */
+    public Builder setCheckpointListener(@Nullable CheckpointListener checkpointListener) {
+      this.checkpointListener = checkpointListener;
+      return this;
+    }
+
+    /**
+     * Creates a new {@link UserExportOptions} instance.
+     */
+    public UserExportOptions build() {
+      return new UserExportOptions(this);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+/**
+ * Represents the result of the
+ * {@link FirebaseAuth#exportUsers(UserExportConsumer, UserExportOptions)} API.
+ */
+public final class UserExportResult {
+
+  private final long userCount;
+  private final int pageCount;
+
+  UserExportResult(long userCount, int pageCount) {
+    this.userCount = userCount;
+    this.pageCount = pageCount;
+  }
+
+  /**
+   * Returns the number of users that were exported (possibly zero).
+   */
+  public long getUserCount() {
+    return userCount;
+  }
+
+  /**
+   * Returns the number of pages of users that were retrieved.
+   */
+  public int getPageCount() {
+    return pageCount;
+  }
+}
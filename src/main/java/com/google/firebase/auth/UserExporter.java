@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.internal.DownloadAccountResponse;
+import com.google.firebase.internal.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams all the users of a project to a consumer or an output stream. A background fetcher
+ * requests the next page as soon as the page token of the current one is known, and hands pages to
+ * the exporting thread through a bounded queue. The fetcher blocks when the queue is full, so at
+ * most {@link UserExportOptions#getPrefetchPages()} pages are held in memory at any time
+ * regardless of how slow the consumer is. If the executor has not started the fetcher by the time
+ * a page is needed, for example because it is saturated, the exporting thread fetches the pages
+ * itself, one at a time.
+ */
+final class UserExporter {
+
+  // How long the exporting thread waits for a page before fetching it itself, if the executor has
+  // not started the fetcher by then.
+  private static final long FETCHER_START_TIMEOUT_MILLIS = 50;
+
+  interface PageSource {
+    DownloadAccountResponse fetch(
+        int maxResults, @Nullable String pageToken) throws FirebaseAuthException;
+  }
+
+  private final PageSource source;
+  private final JsonFactory jsonFactory;
+  private final Executor executor;
+  private final UserExportOptions options;
+
+  /**
+   * Creates a new exporter. The executor runs the page fetcher, and must not run tasks on the
+   * calling thread. Pages are fetched on the calling thread if the executor rejects the fetcher,
+   * or has not started it by the time a page is needed.
+   */
+  UserExporter(
+      PageSource source, JsonFactory jsonFactory, Executor executor, UserExportOptions options) {
+    this.source = checkNotNull(source, "source must not be null");
+    this.jsonFactory = checkNotNull(jsonFactory, "jsonFactory must not be null");
+    this.executor = checkNotNull(executor, "executor must not be null");
+    this.options = checkNotNull(options, "options must not be null");
+  }
+
+  UserExportResult export(final UserExportConsumer consumer) throws FirebaseAuthException {
+    checkNotNull(consumer, "consumer must not be null");
+    try {
+      return run(new PageWriter() {
+        @Override
+        public void write(List<DownloadAccountResponse.User> users) {
+          for (DownloadAccountResponse.User user : users) {
+            consumer.accept(new ExportedUserRecord(user, jsonFactory));
+          }
+        }
+      });
+    } catch (IOException e) {
+      // Not thrown by the consumer page writer.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  UserExportResult export(final OutputStream out) throws FirebaseAuthException, IOException {
+    checkNotNull(out, "output stream must not be null");
+    return run(new PageWriter() {
+      @Override
+      public void write(List<DownloadAccountResponse.User> users) throws IOException {
+        for (DownloadAccountResponse.User user : users) {
+          out.write(jsonFactory.toByteArray(user));
+          out.write('\n');
+        }
+        out.flush();
+      }
+    });
+  }
+
+  private UserExportResult run(PageWriter writer) throws FirebaseAuthException, IOException {
+    BlockingQueue<Page> queue = new ArrayBlockingQueue<>(options.getPrefetchPages());
+    Fetcher fetcher = new Fetcher(queue);
+    FutureTask<Void> fetcherTask = new FutureTask<>(fetcher, null);
+    try {
+      executor.execute(fetcherTask);
+    } catch (RuntimeException e) {
+      // Executor is shut down or saturated. The exporting thread fetches the pages below.
+    }
+
+    UserExportOptions.CheckpointListener listener = options.getCheckpointListener();
+    long userCount = 0;
+    int pageCount = 0;
+    boolean fetchInline = false;
+    try {
+      while (true) {
+        Page page;
+        if (fetchInline) {
+          page = fetcher.fetchPage();
+        } else {
+          page = queue.poll(FETCHER_START_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+          if (page == null) {
+            if (fetcher.claim()) {
+              fetchInline = true;
+              page = fetcher.fetchPage();
+            } else {
+              page = queue.take();
+            }
+          }
+        }
+        if (page.failure != null) {
+          if (page.failure instanceof FirebaseAuthException) {
+            throw (FirebaseAuthException) page.failure;
+          }
+          throw (RuntimeException) page.failure;
+        }
+
+        writer.write(page.users);
+        userCount += page.users.size();
+        pageCount++;
+        if (listener != null) {
+          listener.onCheckpoint(page.nextPageToken);
+        }
+        if (page.nextPageToken == null) {
+          return new UserExportResult(userCount, pageCount);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(
+          ErrorCode.CANCELLED, "Interrupted while exporting users", e, null, null);
+    } finally {
+      // Stops the fetcher if the export ended early, and releases any pages it still holds.
+      fetcherTask.cancel(true);
+    }
+  }
+
+  private interface PageWriter {
+    void write(List<DownloadAccountResponse.User> users) throws IOException;
+  }
+
+  /**
+   * Fetches pages in order. Pages are fetched either by the executor, which hands them to the
+   * exporting thread through the queue, or by the exporting thread itself if it claims the fetcher
+   * before the executor has started it.
+   */
+  private final class Fetcher implements Runnable {
+
+    private final BlockingQueue<Page> queue;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    // Only accessed by the thread that claimed the fetcher.
+    private String pageToken = options.getPageToken();
+
+    Fetcher(BlockingQueue<Page> queue) {
+      this.queue = queue;
+    }
+
+    boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+
+    @Override
+    public void run() {
+      if (!claim()) {
+        // The exporting thread is fetching the pages itself.
+        return;
+      }
+      try {
+        Page page;
+        do {
+          page = fetchPage();
+          queue.put(page);
+        } while (page.nextPageToken != null);
+      } catch (InterruptedException e) {
+        // Export was cancelled by the consumer side.
+      }
+    }
+
+    Page fetchPage() {
+      try {
+        DownloadAccountResponse response = source.fetch(options.getMaxResults(), pageToken);
+        pageToken = Strings.emptyToNull(response.getPageToken());
+        List<DownloadAccountResponse.User> users = response.hasUsers()
+            ? response.getUsers() : ImmutableList.<DownloadAccountResponse.User>of();
+        return new Page(users, pageToken, null);
+      } catch (FirebaseAuthException | RuntimeException e) {
+        return new Page(ImmutableList.<DownloadAccountResponse.User>of(), null, e);
+      }
+    }
+  }
+
+  private static final class Page {
+
+    private final List<DownloadAccountResponse.User> users;
+    private final String nextPageToken;
+    private final Exception failure;
+
+    Page(List<DownloadAccountResponse.User> users, @Nullable String nextPageToken,
+        @Nullable Exception failure) {
+      this.users = users;
+      this.nextPageToken = nextPageToken;
+      this.failure = failure;
+    }
+  }
+}
@@ -44,6 +44,12 @@ public final class UserImportResult {
     this.errors = errorsBuilder.build();
   }
 
+  UserImportResult(int users, List<ErrorInfo> errors) {
+    checkArgument(users >= errors.size());
+    this.users = users;
+    this.errors = ImmutableList.copyOf(errors);
+  }
+
   /**
    * Returns the number of users that were imported successfully.
    *
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.FirebaseUserManager.UserImportRequest;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports a stream of users in chunks, uploading up to
+ * {@link UserBulkImportOptions#getMaxConcurrentRequests()} chunks at a time. Workers pull the next
+ * chunk from the shared iterator when they become idle, so only the chunks being uploaded are held
+ * in memory. The calling thread runs any worker that the executor has not started. Users are
+ * validated as they are read, before the chunk that contains them is uploaded, and no further
+ * chunks are started after an invalid user. Per-user errors of each chunk are rebased to their
+ * position in the complete input, and merged into a single {@link UserImportResult}.
+ */
+final class UserImporter {
+
+  interface ChunkUploader {
+    UserImportResult upload(List<ImportUserRecord> users) throws FirebaseAuthException;
+  }
+
+  private final ChunkUploader uploader;
+  private final Executor executor;
+  private final UserBulkImportOptions options;
+  private final RateLimiter rateLimiter;
+
+  /**
+   * Creates a new importer. The executor runs the upload workers other than the calling thread.
+   */
+  UserImporter(ChunkUploader uploader, Executor executor, UserBulkImportOptions options) {
+    this.uploader = checkNotNull(uploader, "uploader must not be null");
+    this.executor = checkNotNull(executor, "executor must not be null");
+    this.options = checkNotNull(options, "options must not be null");
+    this.rateLimiter = options.getMaxRequestsPerSecond() > 0
+        ? RateLimiter.create(options.getMaxRequestsPerSecond()) : null;
+  }
+
+  UserImportResult importUsers(Iterator<? extends ImportUserRecord> users)
+      throws FirebaseAuthException {
+    checkNotNull(users, "users must not be null");
+    final Run run = new Run(users);
+    try {
+      ParallelTasks.runWorkers(
+          executor, options.getMaxConcurrentRequests(), run.newWorker(), new Runnable() {
+            @Override
+            public void run() {
+              // Stops the workers from starting further uploads.
+              run.failure.compareAndSet(null, new InterruptedException());
+            }
+          });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(
+          ErrorCode.CANCELLED, "Interrupted while importing users", e, null, null);
+    }
+    return run.getResult();
+  }
+
+  private final class Run {
+
+    private final Iterator<? extends ImportUserRecord> users;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    // Guarded by this.
+    private int nextChunk;
+    private int nextCheckpointChunk;
+    private int processedCount = options.getStartIndex();
+    private final BitSet completedChunks = new BitSet();
+    private final List<Integer> chunkSizes = new ArrayList<>();
+    private final List<ErrorInfo> errors = new ArrayList<>();
+
+    Run(Iterator<? extends ImportUserRecord> users) {
+      this.users = users;
+    }
+
+    Runnable newWorker() {
+      return new Runnable() {
+        @Override
+        public void run() {
+          uploadChunks();
+        }
+      };
+    }
+
+    private void uploadChunks() {
+      while (failure.get() == null) {
+        List<ImportUserRecord> chunk = new ArrayList<>(options.getChunkSize());
+        int chunkIndex;
+        synchronized (this) {
+          try {
+            while (chunk.size() < options.getChunkSize() && users.hasNext()) {
+              chunk.add(checkUser(users.next()));
+            }
+          } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            return;
+          }
+          if (chunk.isEmpty()) {
+            return;
+          }
+          chunkIndex = nextChunk++;
+          chunkSizes.add(chunk.size());
+        }
+
+        try {
+          if (rateLimiter != null) {
+            rateLimiter.acquire();
+          }
+          UserImportResult result = uploader.upload(chunk);
+          complete(chunkIndex, result);
+        } catch (FirebaseAuthException | RuntimeException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    }
+
+    /**
+     * Validates a user as it is read, so that no chunk is uploaded once an invalid user has been
+     * found. These are the checks that would otherwise fail while building the upload request.
+     */
+    private ImportUserRecord checkUser(ImportUserRecord user) {
+      checkNotNull(user, "users must not contain null elements");
+      if (user.hasPassword()) {
+        UserImportRequest.checkHashOption(options.getImportOptions());
+      }
+      return user;
+    }
+
+    private synchronized void complete(int chunkIndex, UserImportResult result) {
+      int offset = options.getStartIndex() + chunkIndex * options.getChunkSize();
+      for (ErrorInfo error : result.getErrors()) {
+        errors.add(new ErrorInfo(offset + error.getIndex(), error.getReason()));
+      }
+      completedChunks.set(chunkIndex);
+
+      int checkpoint = processedCount;
+      while (completedChunks.get(nextCheckpointChunk)) {
+        checkpoint += chunkSizes.get(nextCheckpointChunk);
+        nextCheckpointChunk++;
+      }
+      if (checkpoint != processedCount) {
+        processedCount = checkpoint;
+        UserBulkImportOptions.CheckpointListener listener = options.getCheckpointListener();
+        if (listener != null) {
+          listener.onCheckpoint(checkpoint);
+        }
+      }
+    }
+
+    synchronized UserImportResult getResult() throws FirebaseAuthException {
+      Exception e = failure.get();
+      if (e instanceof FirebaseAuthException) {
+        throw (FirebaseAuthException) e;
+      } else if (e != null) {
+        throw (RuntimeException) e;
+      }
+
+      Collections.sort(errors, new Comparator<ErrorInfo>() {
+        @Override
+        public int compare(ErrorInfo e1, ErrorInfo e2) {
+          return Integer.compare(e1.getIndex(), e2.getIndex());
+        }
+      });
+      return new UserImportResult(processedCount - options.getStartIndex(), errors);
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.api.client.util.Clock;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.firebase.internal.Nullable;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A read-through cache of user records, keyed by uid, with secondary indexes by email and phone
+ * number. Index entries only point to a uid, and a lookup through an index is a hit only if the
+ * cached record still has the requested email or phone number, so the indexes never need to be
+ * updated in step with the records.
+ *
+ * <p>Records loaded while an invalidation is in progress are returned to the caller, but not
+ * cached, so that a lookup racing with a write made through this SDK instance cannot put stale
+ * data back into the cache.
+ */
+final class UserRecordCache {
+
+  static final long MAX_TTL_SECONDS = 3600;
+
+  interface Loader {
+    UserRecord load() throws FirebaseAuthException;
+  }
+
+  private final Clock clock;
+  private final Cache<String, Entry> recordsByUid;
+  private final ConcurrentMap<String, String> uidsByEmail = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String> uidsByPhoneNumber = new ConcurrentHashMap<>();
+
+  // Incremented on every invalidation. Guarded by this for writes to recordsByUid.
+  private final AtomicLong generation = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+  private final LongAdder totalHitAgeMillis = new LongAdder();
+  private final AtomicLong maxHitAgeMillis = new AtomicLong();
+
+  UserRecordCache(long ttlSeconds, long maxSize, final Clock clock) {
+    checkArgument(ttlSeconds > 0 && ttlSeconds <= MAX_TTL_SECONDS,
+        "ttlSeconds must be a positive number that does not exceed %s", MAX_TTL_SECONDS);
+    checkArgument(maxSize > 0, "maxSize must be positive");
+    this.clock = checkNotNull(clock, "clock must not be null");
+    this.recordsByUid = CacheBuilder.newBuilder()
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .maximumSize(maxSize)
+        .ticker(new Ticker() {
+          @Override
+          public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(clock.currentTimeMillis());
+          }
+        })
+        .removalListener(new RemovalListener<String, Entry>() {
+          @Override
+          public void onRemoval(RemovalNotification<String, Entry> notification) {
+            if (notification.getCause() == RemovalCause.SIZE
+                || notification.getCause() == RemovalCause.EXPIRED) {
+              evictions.increment();
+            }
+            Entry entry = notification.getValue();
+            if (entry != null) {
+              removeIndexes(entry.record);
+            }
+          }
+        })
+        .build();
+  }
+
+  UserRecord getByUid(String uid, Loader loader) throws FirebaseAuthException {
+    Entry entry = recordsByUid.getIfPresent(uid);
+    return entry != null ? hit(entry) : load(loader);
+  }
+
+  UserRecord getByEmail(String email, Loader loader) throws FirebaseAuthException {
+    String key = normalizeEmail(email);
+    Entry entry = lookup(uidsByEmail, key);
+    if (entry != null && entry.record.getEmail() != null
+        && key.equals(normalizeEmail(entry.record.getEmail()))) {
+      return hit(entry);
+    }
+    return load(loader);
+  }
+
+  UserRecord getByPhoneNumber(String phoneNumber, Loader loader) throws FirebaseAuthException {
+    Entry entry = lookup(uidsByPhoneNumber, phoneNumber);
+    if (entry != null && phoneNumber.equals(entry.record.getPhoneNumber())) {
+      return hit(entry);
+    }
+    return load(loader);
+  }
+
+  /**
+   * Loads a record that is known to have changed, and caches it unless an invalidation happened
+   * while loading.
+   */
+  UserRecord refresh(String uid, Loader loader) throws FirebaseAuthException {
+    invalidate(uid);
+    return load(loader);
+  }
+
+  synchronized void invalidate(String uid) {
+    generation.incrementAndGet();
+    invalidations.increment();
+    recordsByUid.invalidate(uid);
+  }
+
+  synchronized void invalidate(Collection<String> uids) {
+    generation.incrementAndGet();
+    invalidations.add(uids.size());
+    recordsByUid.invalidateAll(uids);
+  }
+
+  UserCacheStats getStats() {
+    return new UserCacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+        recordsByUid.size(), totalHitAgeMillis.sum(), maxHitAgeMillis.get());
+  }
+
+  @Nullable
+  private Entry lookup(ConcurrentMap<String, String> index, String key) {
+    String uid = index.get(key);
+    return uid != null ? recordsByUid.getIfPresent(uid) : null;
+  }
+
+  private UserRecord hit(Entry entry) {
+    long age = Math.max(0, clock.currentTimeMillis() - entry.loadedAtMillis);
+    hits.increment();
+    totalHitAgeMillis.add(age);
+    long max = maxHitAgeMillis.get();
+    while (age > max && !maxHitAgeMillis.compareAndSet(max, age)) {
+      max = maxHitAgeMillis.get();
+    }
+    return entry.record;
+  }
+
+  private UserRecord load(Loader loader) throws FirebaseAuthException {
+    misses.increment();
+    long loadGeneration = generation.get();
+    long loadedAtMillis = clock.currentTimeMillis();
+    UserRecord record = loader.load();
+    put(record, loadGeneration, loadedAtMillis);
+    return record;
+  }
+
+  private synchronized void put(UserRecord record, long loadGeneration, long loadedAtMillis) {
+    if (generation.get() != loadGeneration) {
+      return;
+    }
+
+    // Adds the indexes after the record, so that they are not removed by the notification for a
+    // replaced entry of the same user.
+    recordsByUid.put(record.getUid(), new Entry(record, loadedAtMillis));
+    if (record.getEmail() != null) {
+      uidsByEmail.put(normalizeEmail(record.getEmail()), record.getUid());
+    }
+    if (record.getPhoneNumber() != null) {
+      uidsByPhoneNumber.put(record.getPhoneNumber(), record.getUid());
+    }
+  }
+
+  private void removeIndexes(UserRecord record) {
+    if (record.getEmail() != null) {
+      uidsByEmail.remove(normalizeEmail(record.getEmail()), record.getUid());
+    }
+    if (record.getPhoneNumber() != null) {
+      uidsByPhoneNumber.remove(record.getPhoneNumber(), record.getUid());
+    }
+  }
+
+  private static String normalizeEmail(String email) {
+    return email.toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Entry {
+
+    private final UserRecord record;
+    private final long loadedAtMillis;
+
+    Entry(UserRecord record, long loadedAtMillis) {
+      this.record = record;
+      this.loadedAtMillis = loadedAtMillis;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.internal.NonNull;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Represents the result of the {@link FirebaseAuth#verifyIdTokensAsync(Collection)} API.
+ */
+public final class VerifyIdTokensResult {
+
+  private final List<VerifyTokenResult> results;
+  private final int successCount;
+
+  VerifyIdTokensResult(List<VerifyTokenResult> results) {
+    this.results = ImmutableList.copyOf(results);
+    int successCount = 0;
+    for (VerifyTokenResult result : this.results) {
+      if (result.isSuccessful()) {
+        successCount++;
+      }
+    }
+    this.successCount = successCount;
+  }
+
+  /**
+   * A list of {@link VerifyTokenResult} instances, one for each token passed to the API. The
+   * order of this list matches the iteration order of the input collection.
+   *
+   * @return A non-null list (possibly empty).
+   */
+  @NonNull
+  public List<VerifyTokenResult> getResults() {
+    return results;
+  }
+
+  /**
+   * Returns the number of tokens that were verified successfully (possibly zero).
+   */
+  public int getSuccessCount() {
+    return successCount;
+  }
+
+  /**
+   * Returns the number of tokens that failed verification (possibly zero).
+   */
+  public int getFailureCount() {
+    return results.size() - successCount;
+  }
+}
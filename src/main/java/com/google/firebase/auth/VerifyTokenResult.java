@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.firebase.internal.Nullable;
+
+/**
+ * The result of verifying an individual token as part of a batch. See
+ * {@link VerifyIdTokensResult} for more details.
+ */
+public final class VerifyTokenResult {
+
+  private final FirebaseToken token;
+  private final FirebaseAuthException exception;
+
+  private VerifyTokenResult(FirebaseToken token, FirebaseAuthException exception) {
+    this.token = token;
+    this.exception = exception;
+  }
+
+  /**
+   * Returns the decoded token if the verification was successful. Otherwise returns null.
+   *
+   * @return A {@link FirebaseToken} or null.
+   */
+  @Nullable
+  public FirebaseToken getToken() {
+    return token;
+  }
+
+  /**
+   * Returns an exception if the verification failed. Otherwise returns null.
+   *
+   * @return A {@link FirebaseAuthException} or null.
+   */
+  @Nullable
+  public FirebaseAuthException getException() {
+    return exception;
+  }
+
+  /**
+   * Returns whether the token was verified successfully or not. When this method returns true,
+   * {@link #getToken()} is guaranteed to return a non-null value. When this method returns false
+   * {@link #getException()} is guaranteed to return a non-null value.
+   *
+   * @return A boolean indicating success of the verification.
+   */
+  public boolean isSuccessful() {
+    return token != null;
+  }
+
+  static VerifyTokenResult fromToken(FirebaseToken token) {
+    checkNotNull(token, "token must not be null");
+    return new VerifyTokenResult(token, null);
+  }
+
+  static VerifyTokenResult fromException(FirebaseAuthException exception) {
+    checkNotNull(exception, "exception must not be null");
+    return new VerifyTokenResult(null, exception);
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-thread pools of JCA {@code Signature} and {@code KeyFactory} instances, and a shared cache
+ * of decoded public keys, used by all the token signing and verification code paths of the SDK.
+ *
+ * <p>Looking up JCA engines goes through the provider registry, and initializing a
+ * {@code Signature} with a key repeats the key validation done by the provider. This class
+ * avoids repeating both for every token by keeping, on each thread, the {@code Signature}
+ * instances most recently initialized with each key, and handing them out already initialized.
+ * Since {@code sign()} and {@code verify()} reset an instance to its initialized state, callers
+ * can use the returned instance right away. Callers must {@link #discard(String, Key)} an
+ * instance after any error, since its state is then unknown.
+ */
+public final class CryptoPools {
+
+  // Public keys are rotated every few hours, so a handful of entries per thread is enough to
+  // cover the current and next keys of all the token types.
+  @VisibleForTesting
+  static final int MAX_SIGNATURES_PER_THREAD = 8;
+
+  private static final int MAX_PUBLIC_KEYS = 256;
+
+  private static final ThreadLocal<ThreadState> STATE = new ThreadLocal<ThreadState>() {
+    @Override
+    protected ThreadState initialValue() {
+      return new ThreadState();
+    }
+  };
+
+  private static final Cache<Object, PublicKey> PUBLIC_KEYS = CacheBuilder.newBuilder()
+      .maximumSize(MAX_PUBLIC_KEYS)
+      .build();
+
+  private CryptoPools() { }
+
+  /**
+   * Decodes a public key from its external representation. See
+   * {@link #getPublicKey(Object, KeyDecoder)}.
+   */
+  public interface KeyDecoder {
+    PublicKey decode() throws GeneralSecurityException;
+  }
+
+  /**
+   * Returns a {@code Signature} instance of the given algorithm, owned by the calling thread, and
+   * initialized for verification with the given key.
+   */
+  public static Signature getVerifier(
+      String algorithm, PublicKey key) throws GeneralSecurityException {
+    return getSignature(algorithm, key);
+  }
+
+  /**
+   * Returns a {@code Signature} instance of the given algorithm, owned by the calling thread, and
+   * initialized for signing with the given key.
+   */
+  public static Signature getSigner(
+      String algorithm, PrivateKey key) throws GeneralSecurityException {
+    return getSignature(algorithm, key);
+  }
+
+  /**
+   * Removes the {@code Signature} instance of the given algorithm and key from the pool of the
+   * calling thread, so that the next lookup creates a new one.
+   */
+  public static void discard(String algorithm, Key key) {
+    STATE.get().signatures.remove(new SignatureKey(algorithm, key));
+  }
+
+  /**
+   * Returns a {@code KeyFactory} instance of the given algorithm, owned by the calling thread.
+   */
+  public static KeyFactory getKeyFactory(String algorithm) throws NoSuchAlgorithmException {
+    Map<String, KeyFactory> keyFactories = STATE.get().keyFactories;
+    KeyFactory keyFactory = keyFactories.get(algorithm);
+    if (keyFactory == null) {
+      keyFactory = KeyFactory.getInstance(algorithm);
+      keyFactories.put(algorithm, keyFactory);
+    }
+    return keyFactory;
+  }
+
+  /**
+   * Returns the public key identified by the given ID, decoding it with the given decoder if it
+   * is not cached yet. The ID must implement value equality over the full external representation
+   * of the key, such as a JWK or an encoded certificate.
+   */
+  public static PublicKey getPublicKey(
+      Object id, KeyDecoder decoder) throws GeneralSecurityException {
+    checkNotNull(id, "id must not be null");
+    PublicKey key = PUBLIC_KEYS.getIfPresent(id);
+    if (key == null) {
+      // Concurrent misses may decode the same key more than once, which is harmless.
+      key = checkNotNull(decoder.decode(), "decoded key must not be null");
+      PUBLIC_KEYS.put(id, key);
+    }
+    return key;
+  }
+
+  @VisibleForTesting
+  static int getPooledSignatureCount() {
+    return STATE.get().signatures.size();
+  }
+
+  @VisibleForTesting
+  static void clearPublicKeys() {
+    PUBLIC_KEYS.invalidateAll();
+  }
+
+  private static Signature getSignature(
+      String algorithm, Key key) throws GeneralSecurityException {
+    checkNotNull(algorithm, "algorithm must not be null");
+    checkNotNull(key, "key must not be null");
+    SignatureKey signatureKey = new SignatureKey(algorithm, key);
+    Map<SignatureKey, Signature> signatures = STATE.get().signatures;
+    Signature signature = signatures.get(signatureKey);
+    if (signature == null) {
+      signature = Signature.getInstance(algorithm);
+      if (key instanceof PrivateKey) {
+        signature.initSign((PrivateKey) key);
+      } else {
+        signature.initVerify((PublicKey) key);
+      }
+      signatures.put(signatureKey, signature);
+    }
+    return signature;
+  }
+
+  private static final class ThreadState {
+
+    private final Map<String, KeyFactory> keyFactories = new HashMap<>();
+
+    private final Map<SignatureKey, Signature> signatures =
+        new LinkedHashMap<SignatureKey, Signature>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<SignatureKey, Signature> eldest) {
+            return size() > MAX_SIGNATURES_PER_THREAD;
+          }
+        };
+  }
+
+  /**
+   * Identifies a pooled {@code Signature} by algorithm and key instance. Keys are compared by
+   * identity, which is sufficient since the key managers of the SDK hand out the same instances
+   * until the keys are refreshed.
+   */
+  private static final class SignatureKey {
+
+    private final String algorithm;
+    private final Key key;
+
+    SignatureKey(String algorithm, Key key) {
+      this.algorithm = algorithm;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SignatureKey)) {
+        return false;
+      }
+      SignatureKey other = (SignatureKey) o;
+      return key == other.key && algorithm.equals(other.algorithm);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * algorithm.hashCode() + System.identityHashCode(key);
+    }
+  }
+}
@@ -19,6 +19,8 @@ package com.google.firebase.auth.internal;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.internal.NonNull;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents an  object that can be used to cryptographically sign data. Mainly used for signing
@@ -38,6 +40,23 @@ interface CryptoSigner {
   @NonNull
   byte[] sign(@NonNull byte[] payload) throws FirebaseAuthException;
 
+  /**
+   * Signs each of the given payloads. The default implementation signs the payloads one at a time.
+   * Implementations may override this to sign multiple payloads concurrently.
+   *
+   * @param payloads Data to be signed
+   * @return Signatures as byte arrays, in the same order as the payloads
+   * @throws FirebaseAuthException If an error occurs while signing any of the payloads
+   */
+  @NonNull
+  default List<byte[]> signAll(@NonNull List<byte[]> payloads) throws FirebaseAuthException {
+    List<byte[]> signatures = new ArrayList<>(payloads.size());
+    for (byte[] payload : payloads) {
+      signatures.add(sign(payload));
+    }
+    return signatures;
+  }
+
   /**
    * Returns the client email of the service account used to sign payloads.
    *
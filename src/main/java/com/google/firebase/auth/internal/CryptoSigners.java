@@ -18,6 +18,8 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.ErrorCode;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseException;
 import com.google.firebase.ImplFirebaseTrampolines;
@@ -28,14 +30,26 @@ import com.google.firebase.internal.ApiClientUtils;
 import com.google.firebase.internal.ErrorHandlingHttpClient;
 import com.google.firebase.internal.HttpRequestInfo;
 import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.ParallelTasks;
 import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A set of {@link CryptoSigner} implementations and utilities for interacting with them.
  */
 public class CryptoSigners {
 
+  private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
   private static final String METADATA_SERVICE_URL =
       "http://metadata.google.internal/computeMetadata/v1/instance/service-accounts/default/email";
 
@@ -44,18 +58,50 @@ public class CryptoSigners {
   /**
    * A {@link CryptoSigner} implementation that uses service account credentials or equivalent
    * crypto-capable credentials for signing data.
+   *
+   * <p>When the private key of the service account is available, signs data locally using a
+   * {@code Signature} instance from the {@link CryptoPools} of each thread, and signs batches of
+   * payloads in parallel.
    */
   static class ServiceAccountCryptoSigner implements CryptoSigner {
 
     private final ServiceAccountSigner signer;
+    private final PrivateKey privateKey;
 
     ServiceAccountCryptoSigner(@NonNull ServiceAccountSigner signer) {
       this.signer = checkNotNull(signer);
+      PrivateKey privateKey = null;
+      if (signer instanceof ServiceAccountCredentials) {
+        privateKey = ((ServiceAccountCredentials) signer).getPrivateKey();
+      }
+      this.privateKey = privateKey;
     }
 
     @Override
     public byte[] sign(byte[] payload) {
-      return signer.sign(payload);
+      if (privateKey == null) {
+        return signer.sign(payload);
+      }
+
+      try {
+        Signature signature = CryptoPools.getSigner(SIGNATURE_ALGORITHM, privateKey);
+        signature.update(payload);
+        return signature.sign();
+      } catch (GeneralSecurityException e) {
+        // Discard the instance, since its state is unknown at this point.
+        CryptoPools.discard(SIGNATURE_ALGORITHM, privateKey);
+        throw new ServiceAccountSigner.SigningException("Failed to sign the given bytes", e);
+      }
+    }
+
+    @Override
+    public List<byte[]> signAll(List<byte[]> payloads) throws FirebaseAuthException {
+      if (privateKey == null) {
+        return CryptoSigner.super.signAll(payloads);
+      }
+
+      return signConcurrently(
+          this, payloads, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
     }
 
     @Override
@@ -74,15 +120,28 @@ public class CryptoSigners {
     private static final String IAM_SIGN_BLOB_URL =
         "https://iamcredentials.googleapis.com/v1/projects/-/serviceAccounts/%s:signBlob";
 
+    // Upper bound on the number of signBlob requests in flight for a single call to signAll().
+    static final int MAX_CONCURRENT_REQUESTS = 10;
+
     private final String serviceAccount;
+    private final Executor executor;
     private final ErrorHandlingHttpClient<FirebaseAuthException> httpClient;
 
     IAMCryptoSigner(
         @NonNull HttpRequestFactory requestFactory,
         @NonNull JsonFactory jsonFactory,
         @NonNull String serviceAccount) {
+      this(requestFactory, jsonFactory, serviceAccount, MoreExecutors.directExecutor());
+    }
+
+    IAMCryptoSigner(
+        @NonNull HttpRequestFactory requestFactory,
+        @NonNull JsonFactory jsonFactory,
+        @NonNull String serviceAccount,
+        @NonNull Executor executor) {
       checkArgument(!Strings.isNullOrEmpty(serviceAccount));
       this.serviceAccount = serviceAccount;
+      this.executor = checkNotNull(executor);
       this.httpClient = new ErrorHandlingHttpClient<>(
           requestFactory,
           jsonFactory,
@@ -103,6 +162,15 @@ public class CryptoSigners {
       return BaseEncoding.base64().decode((String) parsed.get("signedBlob"));
     }
 
+    /**
+     * Signs the given payloads by making up to {@link #MAX_CONCURRENT_REQUESTS} concurrent
+     * signBlob calls. The IAM service does not support signing multiple blobs in one request.
+     */
+    @Override
+    public List<byte[]> signAll(List<byte[]> payloads) throws FirebaseAuthException {
+      return signConcurrently(this, payloads, executor, MAX_CONCURRENT_REQUESTS);
+    }
+
     @Override
     public String getAccount() {
       return serviceAccount;
@@ -141,6 +209,63 @@ public class CryptoSigners {
     }
   }
 
+  /**
+   * Signs the given payloads using up to {@code maxConcurrency} threads, including the calling
+   * thread. Worker tasks are handed to the executor, and pick up payloads until none are left. The
+   * calling thread signs payloads too, and runs any worker that the executor has not started, so
+   * that progress is made even when the executor is busy or cannot accept any more tasks. Stops
+   * signing further payloads after the first failure.
+   */
+  static List<byte[]> signConcurrently(
+      final CryptoSigner signer,
+      final List<byte[]> payloads,
+      Executor executor,
+      int maxConcurrency) throws FirebaseAuthException {
+    final int count = payloads.size();
+    final byte[][] signatures = new byte[count][];
+    if (count == 0) {
+      return Arrays.asList(signatures);
+    }
+    final AtomicInteger nextIndex = new AtomicInteger();
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        for (int i = nextIndex.getAndIncrement(); i < count; i = nextIndex.getAndIncrement()) {
+          try {
+            if (failure.get() == null) {
+              signatures[i] = signer.sign(payloads.get(i));
+            }
+          } catch (FirebaseAuthException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+          }
+        }
+      }
+    };
+
+    try {
+      ParallelTasks.runWorkers(executor, Math.min(maxConcurrency, count), worker, new Runnable() {
+        @Override
+        public void run() {
+          // Stops the workers from signing further payloads.
+          failure.compareAndSet(null, new InterruptedException());
+        }
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(
+          ErrorCode.CANCELLED, "Interrupted while signing payloads", e, null, null);
+    }
+
+    Exception e = failure.get();
+    if (e instanceof FirebaseAuthException) {
+      throw (FirebaseAuthException) e;
+    } else if (e != null) {
+      throw (RuntimeException) e;
+    }
+    return Arrays.asList(signatures);
+  }
+
   /**
    * Initializes a {@link CryptoSigner} instance for the given Firebase app. Follows the protocol
    * documented at go/firebase-admin-sign.
@@ -159,12 +284,13 @@ public class CryptoSigners {
 
     HttpRequestFactory requestFactory = ApiClientUtils.newAuthorizedRequestFactory(firebaseApp);
     JsonFactory jsonFactory = firebaseApp.getOptions().getJsonFactory();
+    Executor executor = ImplFirebaseTrampolines.getExecutor(firebaseApp);
 
     // If the SDK was initialized with a service account email, use it with the IAM service
     // to sign bytes.
     String serviceAccountId = firebaseApp.getOptions().getServiceAccountId();
     if (!Strings.isNullOrEmpty(serviceAccountId)) {
-      return new IAMCryptoSigner(requestFactory, jsonFactory, serviceAccountId);
+      return new IAMCryptoSigner(requestFactory, jsonFactory, serviceAccountId, executor);
     }
 
     // If the SDK was initialized with some other credential type that supports signing
@@ -176,7 +302,7 @@ public class CryptoSigners {
     // Attempt to discover a service account email from the local Metadata service. Use it
     // with the IAM service to sign bytes.
     serviceAccountId = discoverServiceAccountId(firebaseApp);
-    return new IAMCryptoSigner(requestFactory, jsonFactory, serviceAccountId);
+    return new IAMCryptoSigner(requestFactory, jsonFactory, serviceAccountId, executor);
   }
 
   private static String discoverServiceAccountId(FirebaseApp firebaseApp) throws IOException {
@@ -27,31 +27,65 @@ import com.google.api.client.util.Clock;
 import com.google.api.client.util.StringUtils;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.internal.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides helper methods to simplify the creation of Firebase custom auth tokens.
  *
  * <p>This class is designed to hide underlying implementation details from a Firebase developer.
+ *
+ * <p>Can optionally cache the tokens it creates for a short period of time, so that repeated
+ * requests for the same UID and developer claims do not have to be signed again.
  */
 public class FirebaseTokenFactory {
 
+  // Tokens are valid for an hour. Caching them for longer than this would hand out tokens that
+  // are close to expiry.
+  static final long MAX_TOKEN_CACHE_TTL_SECONDS = 600;
+  static final long MAX_TOKEN_CACHE_SIZE = 10000;
+
   private final JsonFactory jsonFactory;
   private final Clock clock;
   private final CryptoSigner signer;
   private final String tenantId;
+  private final Cache<String, String> tokenCache;
 
   public FirebaseTokenFactory(
       JsonFactory jsonFactory, Clock clock, CryptoSigner signer, @Nullable String tenantId) {
+    this(jsonFactory, clock, signer, tenantId, 0);
+  }
+
+  /**
+   * Creates a new token factory that caches the tokens it creates for the specified duration.
+   * A duration of 0 disables caching.
+   */
+  public FirebaseTokenFactory(
+      JsonFactory jsonFactory,
+      Clock clock,
+      CryptoSigner signer,
+      @Nullable String tenantId,
+      long tokenCacheTtlSeconds) {
+    checkArgument(tokenCacheTtlSeconds >= 0 && tokenCacheTtlSeconds <= MAX_TOKEN_CACHE_TTL_SECONDS,
+        "tokenCacheTtlSeconds must be between 0 and %s", MAX_TOKEN_CACHE_TTL_SECONDS);
     this.jsonFactory = checkNotNull(jsonFactory);
     this.clock = checkNotNull(clock);
     this.signer = checkNotNull(signer);
     this.tenantId = tenantId;
+    this.tokenCache = tokenCacheTtlSeconds > 0
+        ? newTokenCache(clock, tokenCacheTtlSeconds) : null;
   }
 
   @VisibleForTesting
@@ -65,6 +99,75 @@ public class FirebaseTokenFactory {
 
   public String createSignedCustomAuthTokenForUser(
       String uid, Map<String, Object> developerClaims) throws FirebaseAuthException {
+    String cacheKey = null;
+    if (tokenCache != null) {
+      cacheKey = getCacheKey(uid, developerClaims);
+      String cachedToken = tokenCache.getIfPresent(cacheKey);
+      if (cachedToken != null) {
+        return cachedToken;
+      }
+    }
+
+    String content = encodeCustomToken(uid, developerClaims);
+    byte[] contentBytes = StringUtils.getBytesUtf8(content);
+    String token = appendSignature(content, signer.sign(contentBytes));
+    if (cacheKey != null) {
+      tokenCache.put(cacheKey, token);
+    }
+    return token;
+  }
+
+  /**
+   * Creates a custom token for each of the given UIDs. All tokens are encoded before any of them
+   * is signed, so that invalid arguments are reported without making any signing calls. Signing
+   * is delegated to {@link CryptoSigner#signAll(List)}, which may sign the tokens concurrently.
+   *
+   * @param claimsByUid A map of UIDs to developer claims. Claims may be null.
+   * @return A map of UIDs to custom tokens, in the iteration order of the input map.
+   */
+  public Map<String, String> createSignedCustomAuthTokens(
+      Map<String, Map<String, Object>> claimsByUid) throws FirebaseAuthException {
+    Map<String, String> tokens = new LinkedHashMap<>();
+    List<String> pendingUids = new ArrayList<>();
+    List<String> pendingCacheKeys = new ArrayList<>();
+    List<String> pendingContents = new ArrayList<>();
+    List<byte[]> payloads = new ArrayList<>();
+    for (Map.Entry<String, Map<String, Object>> entry : claimsByUid.entrySet()) {
+      String uid = entry.getKey();
+      String cacheKey = null;
+      if (tokenCache != null) {
+        cacheKey = getCacheKey(uid, entry.getValue());
+        String cachedToken = tokenCache.getIfPresent(cacheKey);
+        if (cachedToken != null) {
+          tokens.put(uid, cachedToken);
+          continue;
+        }
+      }
+
+      String content = encodeCustomToken(uid, entry.getValue());
+      // Placeholder that preserves the input order until the token is signed.
+      tokens.put(uid, content);
+      pendingUids.add(uid);
+      pendingCacheKeys.add(cacheKey);
+      pendingContents.add(content);
+      payloads.add(StringUtils.getBytesUtf8(content));
+    }
+
+    if (!payloads.isEmpty()) {
+      List<byte[]> signatures = signer.signAll(payloads);
+      for (int i = 0; i < signatures.size(); i++) {
+        String token = appendSignature(pendingContents.get(i), signatures.get(i));
+        tokens.put(pendingUids.get(i), token);
+        if (tokenCache != null) {
+          tokenCache.put(pendingCacheKeys.get(i), token);
+        }
+      }
+    }
+    return ImmutableMap.copyOf(tokens);
+  }
+
+  private String encodeCustomToken(
+      String uid, Map<String, Object> developerClaims) {
     checkArgument(!Strings.isNullOrEmpty(uid), "Uid must be provided.");
     checkArgument(uid.length() <= 128, "Uid must be shorter than 128 characters.");
 
@@ -97,16 +200,11 @@ public class FirebaseTokenFactory {
       payload.setDeveloperClaims(jsonObject);
     }
 
-    return signPayload(header, payload);
+    return encodePayload(header, payload);
   }
 
-  private String signPayload(
-      JsonWebSignature.Header header,
-      FirebaseCustomAuthToken.Payload payload) throws FirebaseAuthException {
-    String content = encodePayload(header, payload);
-    byte[] contentBytes = StringUtils.getBytesUtf8(content);
-    String signature = Base64.encodeBase64URLSafeString(signer.sign(contentBytes));
-    return content + "." + signature;
+  private String appendSignature(String content, byte[] signature) {
+    return content + "." + Base64.encodeBase64URLSafeString(signature);
   }
 
   private String encodePayload(
@@ -120,4 +218,37 @@ public class FirebaseTokenFactory {
           "Failed to encode JWT with the given claims: " + e.getMessage(), e);
     }
   }
+
+  /**
+   * Returns a key that identifies the token for the given UID and claims. The claims are
+   * serialized, so that later changes to the caller's map do not affect cached entries. The UID
+   * is length-prefixed to keep keys unambiguous.
+   */
+  private String getCacheKey(String uid, Map<String, Object> developerClaims) {
+    checkArgument(!Strings.isNullOrEmpty(uid), "Uid must be provided.");
+    String prefix = uid.length() + ":" + uid;
+    if (developerClaims == null) {
+      return prefix;
+    }
+
+    try {
+      return prefix + jsonFactory.toString(developerClaims);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(
+          "Failed to encode JWT with the given claims: " + e.getMessage(), e);
+    }
+  }
+
+  private static Cache<String, String> newTokenCache(final Clock clock, long ttlSeconds) {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .maximumSize(MAX_TOKEN_CACHE_SIZE)
+        .ticker(new Ticker() {
+          @Override
+          public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(clock.currentTimeMillis());
+          }
+        })
+        .build();
+  }
 }
@@ -0,0 +1,468 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth.internal;
+
+import com.google.api.client.util.ArrayMap;
+import com.google.api.client.util.Data;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small, strict, pull-style JSON reader over a range of UTF-8 bytes. Used to decode JWT headers
+ * and payloads without going through the reflection-based {@code JsonFactory} stack. Malformed
+ * input results in an {@code IllegalArgumentException}.
+ *
+ * <p>Values returned by {@link #readValue()} use the same types as the Google API client's
+ * {@code GenericJson}: strings, booleans, {@code BigDecimal} numbers, {@code ArrayMap} objects,
+ * {@code ArrayList} arrays, and {@code Data.NULL_OBJECT}-style null sentinels.
+ */
+final class JsonTokenReader {
+
+  // Bounds the nesting of objects and arrays, so that untrusted input cannot exhaust the stack.
+  private static final int MAX_DEPTH = 64;
+
+  private final byte[] buffer;
+  private final int limit;
+  private int pos;
+  private int depth;
+
+  JsonTokenReader(byte[] buffer, int offset, int length) {
+    this.buffer = buffer;
+    this.pos = offset;
+    this.limit = offset + length;
+  }
+
+  void beginObject() {
+    expect('{');
+  }
+
+  /**
+   * Returns true if the current object has more members. Consumes the separating comma, or the
+   * closing brace when the object is exhausted.
+   */
+  boolean hasNextMember(boolean first) {
+    char c = peekChar();
+    if (c == '}') {
+      pos++;
+      return false;
+    }
+    if (!first) {
+      expect(',');
+    }
+    return true;
+  }
+
+  /**
+   * Reads the next member name and the following colon. Returns the index of the name in the
+   * given candidates, or -1 if it does not match any of them. Does not allocate unless the name
+   * contains escape sequences.
+   */
+  int nextName(byte[][] candidates) {
+    skipWhitespace();
+    int start = pos;
+    int end = scanString();
+    int index = -1;
+    if (containsEscape(start + 1, end)) {
+      byte[] decoded = decodeString(start + 1, end).getBytes(StandardCharsets.UTF_8);
+      index = indexOf(candidates, decoded, 0, decoded.length);
+    } else {
+      index = indexOf(candidates, buffer, start + 1, end - start - 1);
+    }
+    expect(':');
+    return index;
+  }
+
+  /** Reads the next member name and the following colon. */
+  String nextName() {
+    skipWhitespace();
+    int start = pos;
+    int end = scanString();
+    String name = decodeString(start + 1, end);
+    expect(':');
+    return name;
+  }
+
+  boolean peekNull() {
+    return peekChar() == 'n';
+  }
+
+  boolean peekString() {
+    return peekChar() == '"';
+  }
+
+  boolean peekArray() {
+    return peekChar() == '[';
+  }
+
+  boolean peekObject() {
+    return peekChar() == '{';
+  }
+
+  boolean peekNumber() {
+    char c = peekChar();
+    return c == '-' || (c >= '0' && c <= '9');
+  }
+
+  void nextNull() {
+    skipWhitespace();
+    expectLiteral("null");
+  }
+
+  String nextString() {
+    if (!peekString()) {
+      throw new MalformedJwtException("Expected a string at position " + pos);
+    }
+    int start = pos;
+    int end = scanString();
+    return decodeString(start + 1, end);
+  }
+
+  /** Reads an integral number that fits in a long. */
+  long nextLong() {
+    String text = nextNumberText();
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException e) {
+      // Integral values written with exponents or trailing zeros (e.g. 1e3, 10.0).
+      try {
+        return toDecimal(text).longValueExact();
+      } catch (ArithmeticException ex) {
+        throw new MalformedJwtException("Expected an integral number but got " + text, ex);
+      }
+    }
+  }
+
+  /** Reads a number of any magnitude and precision. */
+  BigDecimal nextDecimal() {
+    return toDecimal(nextNumberText());
+  }
+
+  /**
+   * Reads a number that conforms to the JSON grammar, and returns its textual representation.
+   */
+  String nextNumberText() {
+    skipWhitespace();
+    int start = pos;
+    if (pos < limit && buffer[pos] == '-') {
+      pos++;
+    }
+    if (pos < limit && buffer[pos] == '0') {
+      pos++;
+    } else {
+      skipDigits(start);
+    }
+    if (pos < limit && buffer[pos] == '.') {
+      pos++;
+      skipDigits(start);
+    }
+    if (pos < limit && (buffer[pos] == 'e' || buffer[pos] == 'E')) {
+      pos++;
+      if (pos < limit && (buffer[pos] == '+' || buffer[pos] == '-')) {
+        pos++;
+      }
+      skipDigits(start);
+    }
+    return new String(buffer, start, pos - start, StandardCharsets.US_ASCII);
+  }
+
+  void beginArray() {
+    expect('[');
+  }
+
+  /**
+   * Returns true if the current array has more elements. Consumes the separating comma, or the
+   * closing bracket when the array is exhausted.
+   */
+  boolean hasNextElement(boolean first) {
+    char c = peekChar();
+    if (c == ']') {
+      pos++;
+      return false;
+    }
+    if (!first) {
+      expect(',');
+    }
+    return true;
+  }
+
+  /** Skips the next value of any type. */
+  void skipValue() {
+    char c = peekChar();
+    switch (c) {
+      case '{':
+        enterContainer();
+        beginObject();
+        for (boolean first = true; hasNextMember(first); first = false) {
+          skipWhitespace();
+          scanString();
+          expect(':');
+          skipValue();
+        }
+        depth--;
+        break;
+      case '[':
+        enterContainer();
+        beginArray();
+        for (boolean first = true; hasNextElement(first); first = false) {
+          skipValue();
+        }
+        depth--;
+        break;
+      case '"':
+        scanString();
+        break;
+      case 't':
+        expectLiteral("true");
+        break;
+      case 'f':
+        expectLiteral("false");
+        break;
+      case 'n':
+        expectLiteral("null");
+        break;
+      default:
+        nextNumberText();
+        break;
+    }
+  }
+
+  /**
+   * Reads the next value of any type into {@code GenericJson}-compatible objects.
+   */
+  Object readValue() {
+    char c = peekChar();
+    switch (c) {
+      case '{':
+        enterContainer();
+        ArrayMap<String, Object> map = ArrayMap.create();
+        beginObject();
+        for (boolean first = true; hasNextMember(first); first = false) {
+          String name = nextName();
+          map.put(name, readValue());
+        }
+        depth--;
+        return map;
+      case '[':
+        enterContainer();
+        List<Object> list = new ArrayList<>();
+        beginArray();
+        for (boolean first = true; hasNextElement(first); first = false) {
+          list.add(readValue());
+        }
+        depth--;
+        return list;
+      case '"':
+        return nextString();
+      case 't':
+        expectLiteral("true");
+        return Boolean.TRUE;
+      case 'f':
+        expectLiteral("false");
+        return Boolean.FALSE;
+      case 'n':
+        expectLiteral("null");
+        return Data.nullOf(Object.class);
+      default:
+        return nextDecimal();
+    }
+  }
+
+  /** Verifies that there is nothing but whitespace left in the input. */
+  void endDocument() {
+    skipWhitespace();
+    if (pos != limit) {
+      throw new MalformedJwtException("Unexpected trailing content at position " + pos);
+    }
+  }
+
+  private char peekChar() {
+    skipWhitespace();
+    if (pos >= limit) {
+      throw new MalformedJwtException("Unexpected end of JSON input");
+    }
+    return (char) buffer[pos];
+  }
+
+  private void expect(char c) {
+    if (peekChar() != c) {
+      throw new MalformedJwtException("Expected '" + c + "' at position " + pos);
+    }
+    pos++;
+  }
+
+  private void enterContainer() {
+    if (++depth > MAX_DEPTH) {
+      throw new MalformedJwtException("JSON nesting exceeds " + MAX_DEPTH + " levels");
+    }
+  }
+
+  private void skipDigits(int numberStart) {
+    int start = pos;
+    while (pos < limit && buffer[pos] >= '0' && buffer[pos] <= '9') {
+      pos++;
+    }
+    if (start == pos) {
+      throw new MalformedJwtException("Malformed number at position " + numberStart);
+    }
+  }
+
+  private void expectLiteral(String literal) {
+    int length = literal.length();
+    if (limit - pos < length) {
+      throw new MalformedJwtException("Unexpected end of JSON input");
+    }
+    for (int i = 0; i < length; i++) {
+      if (buffer[pos + i] != literal.charAt(i)) {
+        throw new MalformedJwtException("Expected " + literal + " at position " + pos);
+      }
+    }
+    pos += length;
+  }
+
+  private void skipWhitespace() {
+    while (pos < limit) {
+      byte b = buffer[pos];
+      if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+        return;
+      }
+      pos++;
+    }
+  }
+
+  /**
+   * Advances past a string literal starting at the current position, and returns the index of
+   * the closing quote.
+   */
+  private int scanString() {
+    if (pos >= limit || buffer[pos] != '"') {
+      throw new MalformedJwtException("Expected a string at position " + pos);
+    }
+    pos++;
+    while (pos < limit) {
+      byte b = buffer[pos];
+      if (b == '"') {
+        int end = pos;
+        pos++;
+        return end;
+      } else if (b == '\\') {
+        pos += 2;
+      } else if (b >= 0 && b < 0x20) {
+        throw new MalformedJwtException("Unescaped control character at position " + pos);
+      } else {
+        pos++;
+      }
+    }
+    throw new MalformedJwtException("Unterminated string");
+  }
+
+  private boolean containsEscape(int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (buffer[i] == '\\') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String decodeString(int start, int end) {
+    if (!containsEscape(start, end)) {
+      return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    StringBuilder builder = new StringBuilder(end - start);
+    int segmentStart = start;
+    int i = start;
+    while (i < end) {
+      if (buffer[i] != '\\') {
+        i++;
+        continue;
+      }
+      builder.append(new String(buffer, segmentStart, i - segmentStart, StandardCharsets.UTF_8));
+      char escaped = (char) buffer[i + 1];
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          builder.append(escaped);
+          break;
+        case 'b':
+          builder.append('\b');
+          break;
+        case 'f':
+          builder.append('\f');
+          break;
+        case 'n':
+          builder.append('\n');
+          break;
+        case 'r':
+          builder.append('\r');
+          break;
+        case 't':
+          builder.append('\t');
+          break;
+        case 'u':
+          if (i + 6 > end) {
+            throw new MalformedJwtException("Invalid unicode escape sequence");
+          }
+          try {
+            builder.append((char) Integer.parseInt(
+                new String(buffer, i + 2, 4, StandardCharsets.US_ASCII), 16));
+          } catch (NumberFormatException e) {
+            throw new MalformedJwtException("Invalid unicode escape sequence", e);
+          }
+          i += 4;
+          break;
+        default:
+          throw new MalformedJwtException("Invalid escape sequence: \\" + escaped);
+      }
+      i += 2;
+      segmentStart = i;
+    }
+    builder.append(new String(buffer, segmentStart, end - segmentStart, StandardCharsets.UTF_8));
+    return builder.toString();
+  }
+
+  private static int indexOf(byte[][] candidates, byte[] source, int offset, int length) {
+    for (int i = 0; i < candidates.length; i++) {
+      byte[] candidate = candidates[i];
+      if (candidate.length == length && regionMatches(candidate, source, offset)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean regionMatches(byte[] candidate, byte[] source, int offset) {
+    for (int i = 0; i < candidate.length; i++) {
+      if (candidate[i] != source[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static BigDecimal toDecimal(String text) {
+    try {
+      return new BigDecimal(text);
+    } catch (NumberFormatException e) {
+      // The text is grammatically valid, but the exponent does not fit in an int.
+      throw new MalformedJwtException("Number out of range: " + text, e);
+    }
+  }
+}
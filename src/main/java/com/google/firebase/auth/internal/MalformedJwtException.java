@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth.internal;
+
+/**
+ * Thrown by {@link ParsedJwt} when a token string is not a well-formed JWT. Does not capture a
+ * stack trace, since the message already identifies the problem and malformed tokens are a
+ * common, untrusted input.
+ */
+final class MalformedJwtException extends IllegalArgumentException {
+
+  MalformedJwtException(String message) {
+    super(message);
+  }
+
+  MalformedJwtException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
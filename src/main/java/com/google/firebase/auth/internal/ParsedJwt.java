@@ -0,0 +1,483 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.api.client.util.Data;
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.internal.Nullable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON Web Token decoded just far enough to run the checks performed by the token verifiers.
+ *
+ * <p>Parsing streams the Base64URL-decoded header and payload through a {@link JsonTokenReader}
+ * into per-thread scratch buffers, and only retains the handful of claims needed for validation.
+ * The full claims map is built on demand by {@link #getClaims()}, which callers should only
+ * invoke once the token has been accepted. The signed content and signature bytes are likewise
+ * decoded into scratch buffers at verification time.
+ *
+ * <p>Instances hold no reference to the scratch buffers, and may therefore be handed between
+ * threads.
+ */
+public final class ParsedJwt {
+
+  private static final String RS256_ALGORITHM = "SHA256withRSA";
+
+  private static final byte[][] HEADER_NAMES = names("alg", "kid");
+  private static final int HEADER_ALG = 0;
+  private static final int HEADER_KID = 1;
+
+  private static final byte[][] PAYLOAD_NAMES = names("iss", "sub", "aud", "iat", "exp", "v", "d");
+  private static final int PAYLOAD_ISS = 0;
+  private static final int PAYLOAD_SUB = 1;
+  private static final int PAYLOAD_AUD = 2;
+  private static final int PAYLOAD_IAT = 3;
+  private static final int PAYLOAD_EXP = 4;
+  private static final int PAYLOAD_V = 5;
+  private static final int PAYLOAD_D = 6;
+
+  private static final byte[][] UID_NAME = names("uid");
+
+  // Registered claims that the Google API client decodes into typed fields. The claims map must
+  // use the same types so that FirebaseToken behaves exactly as before.
+  private static final Map<String, Class<?>> TYPED_CLAIMS;
+
+  static {
+    Map<String, Class<?>> typed = new HashMap<>();
+    for (String name : new String[] {"exp", "nbf", "iat", "auth_time"}) {
+      typed.put(name, Long.class);
+    }
+    for (String name : new String[] {"iss", "jti", "typ", "sub", "azp", "nonce", "at_hash",
+        "acr"}) {
+      typed.put(name, String.class);
+    }
+    typed.put("amr", ArrayList.class);
+    TYPED_CLAIMS = Collections.unmodifiableMap(typed);
+  }
+
+  private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+    @Override
+    protected Scratch initialValue() {
+      return new Scratch();
+    }
+  };
+
+  private final String token;
+  private final int headerEnd;
+  private final int payloadEnd;
+
+  private final String algorithm;
+  private final String keyId;
+  private final String issuer;
+  private final String subject;
+  private final Object audience;
+  private final Long issuedAtSeconds;
+  private final Long expirationSeconds;
+  private final BigDecimal legacyVersion;
+  private final boolean legacyUidPresent;
+
+  private ParsedJwt(String token, int headerEnd, int payloadEnd, HeaderFields header,
+      PayloadFields payload) {
+    this.token = token;
+    this.headerEnd = headerEnd;
+    this.payloadEnd = payloadEnd;
+    this.algorithm = header.algorithm;
+    this.keyId = header.keyId;
+    this.issuer = payload.issuer;
+    this.subject = payload.subject;
+    this.audience = payload.audience;
+    this.issuedAtSeconds = payload.issuedAtSeconds;
+    this.expirationSeconds = payload.expirationSeconds;
+    this.legacyVersion = payload.legacyVersion;
+    this.legacyUidPresent = payload.legacyUidPresent;
+  }
+
+  /**
+   * Parses the given compact-serialized JWS string.
+   *
+   * @param token A JWT string.
+   * @return A parsed token.
+   * @throws IllegalArgumentException If the string is not a well-formed JWT.
+   */
+  public static ParsedJwt parse(String token) {
+    checkNotNull(token);
+    int headerEnd = token.indexOf('.');
+    checkFormat(headerEnd != -1);
+    int payloadEnd = token.indexOf('.', headerEnd + 1);
+    checkFormat(payloadEnd != -1);
+    checkFormat(token.indexOf('.', payloadEnd + 1) == -1);
+
+    Scratch scratch = SCRATCH.get();
+    int length = scratch.decode(token, 0, headerEnd);
+    HeaderFields header = readHeader(new JsonTokenReader(scratch.decoded, 0, length));
+    length = scratch.decode(token, headerEnd + 1, payloadEnd);
+    PayloadFields payload = readPayload(new JsonTokenReader(scratch.decoded, 0, length));
+    // Make sure the signature segment is well-formed, so that it can be decoded later.
+    scratch.decode(token, payloadEnd + 1, token.length());
+    return new ParsedJwt(token, headerEnd, payloadEnd, header, payload);
+  }
+
+  @Nullable
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  @Nullable
+  public String getKeyId() {
+    return keyId;
+  }
+
+  @Nullable
+  public String getIssuer() {
+    return issuer;
+  }
+
+  @Nullable
+  public String getSubject() {
+    return subject;
+  }
+
+  /** Returns the audience claim, which is either a string, a list of strings, or null. */
+  @Nullable
+  public Object getAudience() {
+    return audience;
+  }
+
+  /** Returns the audience claim as a list, which is empty if the claim is absent. */
+  @SuppressWarnings("unchecked")
+  public List<String> getAudienceAsList() {
+    if (audience == null) {
+      return ImmutableList.of();
+    } else if (audience instanceof String) {
+      return ImmutableList.of((String) audience);
+    }
+    return (List<String>) audience;
+  }
+
+  @Nullable
+  public Long getIssuedAtTimeSeconds() {
+    return issuedAtSeconds;
+  }
+
+  @Nullable
+  public Long getExpirationTimeSeconds() {
+    return expirationSeconds;
+  }
+
+  /**
+   * Returns true if the payload has the shape of a legacy Firebase custom token: a {@code v} claim
+   * equal to 0, and a {@code d} object containing a {@code uid}.
+   */
+  public boolean hasLegacyCustomTokenClaims() {
+    return legacyUidPresent && BigDecimal.ZERO.equals(legacyVersion);
+  }
+
+  /**
+   * Verifies the RS256 token signature with the given key, using a {@code Signature} instance
+   * from the {@link CryptoPools} of the calling thread.
+   *
+   * @return true if the signature is valid, and false otherwise.
+   * @throws GeneralSecurityException If the key cannot be used.
+   */
+  public boolean verifySignature(PublicKey key) throws GeneralSecurityException {
+    Signature signature = CryptoPools.getVerifier(RS256_ALGORITHM, key);
+    try {
+      return verifySignature(signature);
+    } catch (SignatureException e) {
+      // Malformed signature bytes; treat the same as a signature mismatch. Discard the instance,
+      // since its state is unknown at this point.
+      CryptoPools.discard(RS256_ALGORITHM, key);
+      return false;
+    } catch (GeneralSecurityException | RuntimeException e) {
+      CryptoPools.discard(RS256_ALGORITHM, key);
+      throw e;
+    }
+  }
+
+  private boolean verifySignature(Signature signature) throws GeneralSecurityException {
+    Scratch scratch = SCRATCH.get();
+    int signatureLength = scratch.decode(token, payloadEnd + 1, token.length());
+    byte[] content = scratch.signedContent(token, payloadEnd);
+    signature.update(content, 0, payloadEnd);
+    return signature.verify(scratch.decoded, 0, signatureLength);
+  }
+
+  /**
+   * Decodes all the claims in the payload. Registered claims that the Google API client models as
+   * typed fields ({@code exp}, {@code iat}, {@code sub} and so on) are decoded into the same
+   * types; all other values use the {@code GenericJson} representation.
+   */
+  public Map<String, Object> getClaims() {
+    Scratch scratch = SCRATCH.get();
+    int length = scratch.decode(token, headerEnd + 1, payloadEnd);
+    JsonTokenReader reader = new JsonTokenReader(scratch.decoded, 0, length);
+    Map<String, Object> claims = new HashMap<>();
+    reader.beginObject();
+    for (boolean first = true; reader.hasNextMember(first); first = false) {
+      String name = reader.nextName();
+      Class<?> type = TYPED_CLAIMS.get(name);
+      if (type == null) {
+        claims.put(name, reader.readValue());
+      } else if (reader.peekNull()) {
+        reader.nextNull();
+        claims.put(name, Data.nullOf(type));
+      } else if (type == Long.class) {
+        claims.put(name, reader.nextLong());
+      } else if (type == String.class) {
+        claims.put(name, reader.nextString());
+      } else {
+        claims.put(name, readStringList(reader));
+      }
+    }
+    reader.endDocument();
+    return claims;
+  }
+
+  private static HeaderFields readHeader(JsonTokenReader reader) {
+    HeaderFields header = new HeaderFields();
+    reader.beginObject();
+    for (boolean first = true; reader.hasNextMember(first); first = false) {
+      switch (reader.nextName(HEADER_NAMES)) {
+        case HEADER_ALG:
+          header.algorithm = readOptionalString(reader);
+          break;
+        case HEADER_KID:
+          header.keyId = readOptionalString(reader);
+          break;
+        default:
+          reader.skipValue();
+          break;
+      }
+    }
+    reader.endDocument();
+    return header;
+  }
+
+  private static PayloadFields readPayload(JsonTokenReader reader) {
+    PayloadFields payload = new PayloadFields();
+    reader.beginObject();
+    for (boolean first = true; reader.hasNextMember(first); first = false) {
+      switch (reader.nextName(PAYLOAD_NAMES)) {
+        case PAYLOAD_ISS:
+          payload.issuer = readOptionalString(reader);
+          break;
+        case PAYLOAD_SUB:
+          payload.subject = readOptionalString(reader);
+          break;
+        case PAYLOAD_AUD:
+          payload.audience = readAudience(reader);
+          break;
+        case PAYLOAD_IAT:
+          payload.issuedAtSeconds = readOptionalLong(reader);
+          break;
+        case PAYLOAD_EXP:
+          payload.expirationSeconds = readOptionalLong(reader);
+          break;
+        case PAYLOAD_V:
+          if (reader.peekNumber()) {
+            payload.legacyVersion = reader.nextDecimal();
+          } else {
+            reader.skipValue();
+          }
+          break;
+        case PAYLOAD_D:
+          payload.legacyUidPresent = readLegacyUidPresent(reader);
+          break;
+        default:
+          reader.skipValue();
+          break;
+      }
+    }
+    reader.endDocument();
+    return payload;
+  }
+
+  private static String readOptionalString(JsonTokenReader reader) {
+    if (reader.peekNull()) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+
+  private static Long readOptionalLong(JsonTokenReader reader) {
+    if (reader.peekNull()) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextLong();
+  }
+
+  private static Object readAudience(JsonTokenReader reader) {
+    if (reader.peekNull()) {
+      reader.nextNull();
+      return null;
+    } else if (reader.peekString()) {
+      return reader.nextString();
+    }
+    return readStringList(reader);
+  }
+
+  private static List<String> readStringList(JsonTokenReader reader) {
+    List<String> values = new ArrayList<>();
+    reader.beginArray();
+    for (boolean first = true; reader.hasNextElement(first); first = false) {
+      values.add(reader.nextString());
+    }
+    return values;
+  }
+
+  private static boolean readLegacyUidPresent(JsonTokenReader reader) {
+    if (!reader.peekObject()) {
+      reader.skipValue();
+      return false;
+    }
+    boolean found = false;
+    reader.beginObject();
+    for (boolean first = true; reader.hasNextMember(first); first = false) {
+      if (reader.nextName(UID_NAME) == 0 && !reader.peekNull()) {
+        found = true;
+      }
+      reader.skipValue();
+    }
+    return found;
+  }
+
+  private static void checkFormat(boolean condition) {
+    if (!condition) {
+      throw new MalformedJwtException("JWT must consist of exactly three segments");
+    }
+  }
+
+  private static byte[][] names(String... names) {
+    byte[][] result = new byte[names.length][];
+    for (int i = 0; i < names.length; i++) {
+      result[i] = names[i].getBytes(StandardCharsets.UTF_8);
+    }
+    return result;
+  }
+
+  private static final class HeaderFields {
+    private String algorithm;
+    private String keyId;
+  }
+
+  private static final class PayloadFields {
+    private String issuer;
+    private String subject;
+    private Object audience;
+    private Long issuedAtSeconds;
+    private Long expirationSeconds;
+    private BigDecimal legacyVersion;
+    private boolean legacyUidPresent;
+  }
+
+  /**
+   * Per-thread buffers that are grown as needed and reused across tokens.
+   */
+  private static final class Scratch {
+
+    private static final int[] BASE64_VALUES = new int[128];
+
+    static {
+      Arrays.fill(BASE64_VALUES, -1);
+      String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+      for (int i = 0; i < alphabet.length(); i++) {
+        BASE64_VALUES[alphabet.charAt(i)] = i;
+      }
+      // Accept both the URL-safe and the standard alphabets.
+      BASE64_VALUES['-'] = 62;
+      BASE64_VALUES['+'] = 62;
+      BASE64_VALUES['_'] = 63;
+      BASE64_VALUES['/'] = 63;
+    }
+
+    private byte[] decoded = new byte[1024];
+    private byte[] content = new byte[1024];
+
+    /**
+     * Base64-decodes the characters in {@code [start, end)} of the given string into
+     * {@link #decoded}, and returns the number of decoded bytes.
+     */
+    int decode(String source, int start, int end) {
+      while (end > start && source.charAt(end - 1) == '=') {
+        end--;
+      }
+      int chars = end - start;
+      if (chars % 4 == 1) {
+        throw new MalformedJwtException("Invalid Base64 input length");
+      }
+      int length = chars / 4 * 3 + Math.max(0, chars % 4 - 1);
+      if (decoded.length < length) {
+        decoded = new byte[Math.max(length, decoded.length * 2)];
+      }
+
+      int out = 0;
+      int bits = 0;
+      int count = 0;
+      for (int i = start; i < end; i++) {
+        char c = source.charAt(i);
+        int value = c < 128 ? BASE64_VALUES[c] : -1;
+        if (value < 0) {
+          throw new MalformedJwtException("Invalid Base64 character: " + c);
+        }
+        bits = (bits << 6) | value;
+        count++;
+        if (count == 4) {
+          decoded[out++] = (byte) (bits >> 16);
+          decoded[out++] = (byte) (bits >> 8);
+          decoded[out++] = (byte) bits;
+          bits = 0;
+          count = 0;
+        }
+      }
+      if (count == 3) {
+        decoded[out++] = (byte) (bits >> 10);
+        decoded[out++] = (byte) (bits >> 2);
+      } else if (count == 2) {
+        decoded[out++] = (byte) (bits >> 4);
+      }
+      return out;
+    }
+
+    /**
+     * Copies the first {@code length} (ASCII) characters of the token into a byte buffer.
+     */
+    byte[] signedContent(String token, int length) {
+      if (content.length < length) {
+        content = new byte[Math.max(length, content.length * 2)];
+      }
+      for (int i = 0; i < length; i++) {
+        content[i] = (byte) token.charAt(i);
+      }
+      return content;
+    }
+  }
+}
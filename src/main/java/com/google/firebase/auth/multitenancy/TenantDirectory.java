@@ -0,0 +1,500 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.auth.multitenancy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.ImplFirebaseTrampolines;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.internal.ListTenantsResponse;
+import com.google.firebase.auth.multitenancy.ListTenantsPage.TenantSource;
+import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-memory directory of all the tenants of a project, which can be used to look up tenants by
+ * ID and by a set of application-defined attributes, such as an email domain derived from the
+ * tenant display name. Obtain instances from {@link TenantManager#loadTenantDirectory(Options)}.
+ *
+ * <p>Lookups read an immutable snapshot of the directory, and never block or make network calls.
+ * Updates build a new snapshot and swap it in. The directory is updated when tenants are created,
+ * updated or deleted through the {@link TenantManager} it was obtained from, and is fully reloaded
+ * at the configured refresh interval to pick up changes made elsewhere.
+ *
+ * <p>Instances of this class are thread-safe.
+ */
+public final class TenantDirectory {
+
+  /**
+   * Computes the value under which a tenant is indexed. See {@link Options.Builder#addIndex}.
+   */
+  public interface Attribute {
+
+    /**
+     * Returns the attribute value of the given tenant, or null if the tenant should not be
+     * indexed.
+     */
+    @Nullable
+    String getValue(@NonNull Tenant tenant);
+  }
+
+  private static final Logger logger = LoggerFactory.getLogger(TenantDirectory.class);
+
+  private final TenantSource source;
+  private final Options options;
+  private final FirebaseApp app;
+  private final Object lock = new Object();
+
+  private volatile Contents contents;
+
+  // Guarded by lock. Records the writes made while reloads are in progress, so that they can be
+  // replayed on top of the reloaded tenants.
+  private List<Tenant> pendingWrites;
+  private List<String> pendingWriteIds;
+  private int reloadsInProgress;
+  private ScheduledFuture<?> refreshTask;
+  private boolean closed;
+
+  TenantDirectory(TenantSource source, Options options, FirebaseApp app) {
+    this.source = checkNotNull(source, "source must not be null");
+    this.options = checkNotNull(options, "options must not be null");
+    this.app = checkNotNull(app, "app must not be null");
+    this.contents = new Contents(ImmutableMap.<String, Tenant>of(), options.indexes);
+  }
+
+  /**
+   * Returns the tenant with the given ID.
+   *
+   * @param tenantId A non-empty tenant ID string.
+   * @return A {@link Tenant} instance, or null if the directory does not contain the tenant.
+   */
+  @Nullable
+  public Tenant getTenant(@NonNull String tenantId) {
+    checkArgument(!Strings.isNullOrEmpty(tenantId), "Tenant ID must not be null or empty.");
+    return contents.tenants.get(tenantId);
+  }
+
+  /**
+   * Returns the tenants whose attribute in the given index has the given value. Values are
+   * compared exactly, so callers should normalize them the same way as the index
+   * {@link Attribute}.
+   *
+   * @param index The name of an index added to the {@link Options} of this directory.
+   * @param value A non-null attribute value.
+   * @return A non-null, immutable list of tenants, which is empty if no tenants match.
+   * @throws IllegalArgumentException If the index does not exist.
+   */
+  @NonNull
+  public List<Tenant> findTenants(@NonNull String index, @NonNull String value) {
+    ImmutableMap<String, ImmutableList<Tenant>> tenantsByValue = contents.indexes.get(index);
+    checkArgument(tenantsByValue != null, "Unknown index: %s", index);
+    ImmutableList<Tenant> tenants =
+        tenantsByValue.get(checkNotNull(value, "value must not be null"));
+    return tenants != null ? tenants : ImmutableList.<Tenant>of();
+  }
+
+  /**
+   * Returns all the tenants in the directory.
+   *
+   * @return A non-null, immutable collection of tenants.
+   */
+  @NonNull
+  public Collection<Tenant> getTenants() {
+    return contents.tenants.values();
+  }
+
+  /**
+   * Returns the number of tenants in the directory.
+   */
+  public int size() {
+    return contents.tenants.size();
+  }
+
+  /**
+   * Reloads all the tenants of the project, and replaces the contents of the directory with them
+   * once they have been loaded. Lookups continue to use the current contents in the meantime.
+   *
+   * @throws FirebaseAuthException If an error occurs while listing the tenants.
+   */
+  public void reload() throws FirebaseAuthException {
+    int replayFrom;
+    synchronized (lock) {
+      if (reloadsInProgress++ == 0) {
+        pendingWrites = new ArrayList<>();
+        pendingWriteIds = new ArrayList<>();
+      }
+      replayFrom = pendingWriteIds.size();
+    }
+
+    try {
+      Map<String, Tenant> tenants = loadAll();
+      synchronized (lock) {
+        for (int i = replayFrom; i < pendingWriteIds.size(); i++) {
+          Tenant tenant = pendingWrites.get(i);
+          if (tenant != null) {
+            tenants.put(tenant.getTenantId(), tenant);
+          } else {
+            tenants.remove(pendingWriteIds.get(i));
+          }
+        }
+        contents = new Contents(tenants, options.indexes);
+      }
+    } finally {
+      synchronized (lock) {
+        if (--reloadsInProgress == 0) {
+          pendingWrites = null;
+          pendingWriteIds = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops the periodic reloading of the directory. The directory can still be used for lookups,
+   * and can be reloaded explicitly, but is no longer updated by the {@link TenantManager}.
+   */
+  public void close() {
+    synchronized (lock) {
+      closed = true;
+      if (refreshTask != null) {
+        refreshTask.cancel(false);
+        refreshTask = null;
+      }
+    }
+  }
+
+  boolean isClosed() {
+    synchronized (lock) {
+      return closed;
+    }
+  }
+
+  void scheduleRefresh() {
+    if (options.refreshIntervalMillis == 0) {
+      return;
+    }
+
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      refreshTask = ImplFirebaseTrampolines.schedule(app, new Runnable() {
+        @Override
+        public void run() {
+          // Reloads on the app executor, so as not to hold up the scheduler thread.
+          ImplFirebaseTrampolines.submitCallable(app, Executors.callable(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                reload();
+              } catch (FirebaseAuthException | RuntimeException e) {
+                // Keeps the current contents until the next refresh.
+              } finally {
+                scheduleRefresh();
+              }
+            }
+          }));
+        }
+      }, options.refreshIntervalMillis);
+    }
+  }
+
+  /**
+   * Applies a write made through the {@link TenantManager}. A null tenant indicates that the
+   * tenant has been deleted. The write has already been made on the backend at this point, so
+   * errors thrown by the index attributes are logged rather than propagated to the caller. The
+   * directory then keeps its current contents until the next reload.
+   */
+  void onTenantChanged(String tenantId, @Nullable Tenant tenant) {
+    synchronized (lock) {
+      if (pendingWrites != null) {
+        pendingWrites.add(tenant);
+        pendingWriteIds.add(tenantId);
+      }
+      try {
+        contents = contents.with(tenantId, tenant, options.indexes);
+      } catch (RuntimeException e) {
+        logger.warn("Failed to update the tenant directory for tenant {}", tenantId, e);
+      }
+    }
+  }
+
+  /**
+   * Loads all the tenants, fetching each page on the app executor while the previous page is
+   * being indexed.
+   */
+  private Map<String, Tenant> loadAll() throws FirebaseAuthException {
+    Map<String, Tenant> tenants = new LinkedHashMap<>();
+    ListTenantsResponse page = source.fetch(FirebaseTenantClient.MAX_LIST_TENANTS_RESULTS, null);
+    while (page != null) {
+      FutureTask<ListTenantsResponse> next = null;
+      if (!ListTenantsPage.END_OF_LIST.equals(page.getPageToken())) {
+        next = prefetch(page.getPageToken());
+      }
+      for (Tenant tenant : page.getTenants()) {
+        tenants.put(tenant.getTenantId(), tenant);
+      }
+      page = next != null ? await(next) : null;
+    }
+    return tenants;
+  }
+
+  private FutureTask<ListTenantsResponse> prefetch(final String pageToken) {
+    FutureTask<ListTenantsResponse> task = new FutureTask<>(
+        new Callable<ListTenantsResponse>() {
+          @Override
+          public ListTenantsResponse call() throws FirebaseAuthException {
+            return source.fetch(FirebaseTenantClient.MAX_LIST_TENANTS_RESULTS, pageToken);
+          }
+        });
+    ParallelTasks.submit(ImplFirebaseTrampolines.getExecutor(app), task);
+    return task;
+  }
+
+  private static ListTenantsResponse await(
+      FutureTask<ListTenantsResponse> task) throws FirebaseAuthException {
+    try {
+      return ParallelTasks.await(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseAuthException(
+          ErrorCode.CANCELLED, "Interrupted while loading tenants", e, null, null);
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), FirebaseAuthException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * An immutable snapshot of the tenants of a directory, and their indexes. Each index maps
+   * attribute values to the tenants that have them, in directory order.
+   */
+  private static final class Contents {
+
+    private final ImmutableMap<String, Tenant> tenants;
+    private final ImmutableMap<String, ImmutableMap<String, ImmutableList<Tenant>>> indexes;
+
+    Contents(Map<String, Tenant> tenants, Map<String, Attribute> attributes) {
+      this.tenants = ImmutableMap.copyOf(tenants);
+      ImmutableMap.Builder<String, ImmutableMap<String, ImmutableList<Tenant>>> indexes =
+          ImmutableMap.builder();
+      for (Map.Entry<String, Attribute> attribute : attributes.entrySet()) {
+        ImmutableListMultimap.Builder<String, Tenant> index = ImmutableListMultimap.builder();
+        for (Tenant tenant : this.tenants.values()) {
+          String value = attribute.getValue().getValue(tenant);
+          if (value != null) {
+            index.put(value, tenant);
+          }
+        }
+        ImmutableMap.Builder<String, ImmutableList<Tenant>> tenantsByValue =
+            ImmutableMap.builder();
+        for (Map.Entry<String, Collection<Tenant>> entry : index.build().asMap().entrySet()) {
+          tenantsByValue.put(entry.getKey(), ImmutableList.copyOf(entry.getValue()));
+        }
+        indexes.put(attribute.getKey(), tenantsByValue.build());
+      }
+      this.indexes = indexes.build();
+    }
+
+    private Contents(ImmutableMap<String, Tenant> tenants,
+        ImmutableMap<String, ImmutableMap<String, ImmutableList<Tenant>>> indexes) {
+      this.tenants = tenants;
+      this.indexes = indexes;
+    }
+
+    /**
+     * Returns a copy of these contents, in which the tenant with the given ID is replaced by the
+     * given tenant, or removed if it is null. Only the attributes of the affected tenant are
+     * evaluated, and the index entries of all the other tenants are reused.
+     */
+    Contents with(String tenantId, @Nullable Tenant tenant, Map<String, Attribute> attributes) {
+      Tenant previous = tenants.get(tenantId);
+      Map<String, Tenant> newTenants = new LinkedHashMap<>(tenants);
+      if (tenant != null) {
+        newTenants.put(tenantId, tenant);
+      } else if (previous == null) {
+        return this;
+      } else {
+        newTenants.remove(tenantId);
+      }
+
+      ImmutableMap.Builder<String, ImmutableMap<String, ImmutableList<Tenant>>> newIndexes =
+          ImmutableMap.builder();
+      for (Map.Entry<String, Attribute> attribute : attributes.entrySet()) {
+        Map<String, ImmutableList<Tenant>> tenantsByValue =
+            new LinkedHashMap<>(indexes.get(attribute.getKey()));
+        String value = tenant != null ? attribute.getValue().getValue(tenant) : null;
+        String previousValue = previous != null ? attribute.getValue().getValue(previous) : null;
+        if (previousValue != null && !previousValue.equals(value)) {
+          removeTenant(tenantsByValue, previousValue, tenantId);
+        }
+        if (value != null) {
+          tenantsByValue.put(value, withTenant(tenantsByValue.get(value), tenant));
+        }
+        newIndexes.put(attribute.getKey(), ImmutableMap.copyOf(tenantsByValue));
+      }
+      return new Contents(ImmutableMap.copyOf(newTenants), newIndexes.build());
+    }
+
+    /**
+     * Returns a copy of the given list, in which the tenant with the same ID as the given tenant
+     * is replaced by it, or to which it is appended.
+     */
+    private static ImmutableList<Tenant> withTenant(
+        @Nullable List<Tenant> current, Tenant tenant) {
+      ImmutableList.Builder<Tenant> result = ImmutableList.builder();
+      boolean replaced = false;
+      if (current != null) {
+        for (Tenant existing : current) {
+          if (existing.getTenantId().equals(tenant.getTenantId())) {
+            result.add(tenant);
+            replaced = true;
+          } else {
+            result.add(existing);
+          }
+        }
+      }
+      if (!replaced) {
+        result.add(tenant);
+      }
+      return result.build();
+    }
+
+    private static void removeTenant(
+        Map<String, ImmutableList<Tenant>> tenantsByValue, String value, String tenantId) {
+      List<Tenant> current = tenantsByValue.get(value);
+      if (current == null) {
+        return;
+      }
+      ImmutableList.Builder<Tenant> result = ImmutableList.builder();
+      for (Tenant existing : current) {
+        if (!existing.getTenantId().equals(tenantId)) {
+          result.add(existing);
+        }
+      }
+      ImmutableList<Tenant> remaining = result.build();
+      if (remaining.isEmpty()) {
+        tenantsByValue.remove(value);
+      } else {
+        tenantsByValue.put(value, remaining);
+      }
+    }
+  }
+
+  /**
+   * A set of options that control which attributes a {@link TenantDirectory} indexes, and how
+   * often it is reloaded.
+   */
+  public static final class Options {
+
+    static final long DEFAULT_REFRESH_INTERVAL_SECONDS = 600;
+    static final long MIN_REFRESH_INTERVAL_SECONDS = 60;
+
+    private final Map<String, Attribute> indexes;
+    private final long refreshIntervalMillis;
+
+    private Options(Builder builder) {
+      checkArgument(builder.refreshIntervalSeconds == 0
+          || builder.refreshIntervalSeconds >= MIN_REFRESH_INTERVAL_SECONDS,
+          "refreshIntervalSeconds must be 0 or at least %s", MIN_REFRESH_INTERVAL_SECONDS);
+      this.indexes = ImmutableMap.copyOf(builder.indexes);
+      this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(builder.refreshIntervalSeconds);
+    }
+
+    /**
+     * Returns the default options, which do not index any attributes, and reload the directory
+     * every 10 minutes.
+     */
+    public static Options defaults() {
+      return builder().build();
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     */
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    public static final class Builder {
+
+      private final Map<String, Attribute> indexes = new LinkedHashMap<>();
+      private long refreshIntervalSeconds = DEFAULT_REFRESH_INTERVAL_SECONDS;
+
+      private Builder() {}
+
+      /**
+       * Adds an index, which can be queried with {@link TenantDirectory#findTenants}. For
+       * example, an index of email domains can be defined by an {@link Attribute} that derives
+       * the domain from the tenant display name.
+       *
+       * @param name A non-empty index name, which is unique among the indexes of the directory.
+       * @param attribute The non-null {@link Attribute} to index tenants by.
+       * @return This builder.
+       */
+      public Builder addIndex(@NonNull String name, @NonNull Attribute attribute) {
+        checkArgument(!Strings.isNullOrEmpty(name), "Index name must not be null or empty.");
+        checkArgument(!indexes.containsKey(name), "Duplicate index name: %s", name);
+        indexes.put(name, checkNotNull(attribute, "attribute must not be null"));
+        return this;
+      }
+
+      /**
+       * Sets how often the directory reloads all the tenants of the project. Defaults to 10
+       * minutes. Must be at least 60 seconds, or 0 to only reload the directory on demand.
+       *
+       * @param refreshIntervalSeconds A refresh interval in seconds.
+       * @return This builder.
+       */
+      public Builder setRefreshIntervalSeconds(long refreshIntervalSeconds) {
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+        return this;
+      }
+
+      /**
+       * Creates a new {@link Options} instance.
+       */
+      public Options build() {
+        return new Options(this);
+      }
+    }
+  }
+}
@@ -35,7 +35,9 @@ import com.google.firebase.internal.CallableOperation;
 import com.google.firebase.internal.NonNull;
 import com.google.firebase.internal.Nullable;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This class can be used to perform a variety of tenant-related operations, including creating,
@@ -46,6 +48,7 @@ public final class TenantManager {
   private final FirebaseApp firebaseApp;
   private final FirebaseTenantClient tenantClient;
   private final Map<String, TenantAwareFirebaseAuth> tenantAwareAuths;
+  private final List<TenantDirectory> directories = new CopyOnWriteArrayList<>();
 
   /**
    * Creates a new {@link TenantManager} instance. For internal use only. Use
@@ -211,7 +214,9 @@ public final class TenantManager {
     return new CallableOperation<Tenant, FirebaseAuthException>() {
       @Override
       protected Tenant execute() throws FirebaseAuthException {
-        return tenantClient.createTenant(request);
+        Tenant tenant = tenantClient.createTenant(request);
+        notifyDirectories(tenant.getTenantId(), tenant);
+        return tenant;
       }
     };
   }
@@ -250,7 +255,9 @@ public final class TenantManager {
     return new CallableOperation<Tenant, FirebaseAuthException>() {
       @Override
       protected Tenant execute() throws FirebaseAuthException {
-        return tenantClient.updateTenant(request);
+        Tenant tenant = tenantClient.updateTenant(request);
+        notifyDirectories(tenant.getTenantId(), tenant);
+        return tenant;
       }
     };
   }
@@ -285,8 +292,71 @@ public final class TenantManager {
       @Override
       protected Void execute() throws FirebaseAuthException {
         tenantClient.deleteTenant(tenantId);
+        notifyDirectories(tenantId, null);
         return null;
       }
     };
   }
+
+  /**
+   * Loads all the tenants of the project into a new {@link TenantDirectory}, which can be used to
+   * look up tenants by ID and by the attributes indexed according to the given options, without
+   * making network calls. Tenants created, updated and deleted through this {@link TenantManager}
+   * are reflected in the directory right away, and the directory is periodically reloaded to pick
+   * up changes made elsewhere, until it is closed.
+   *
+   * @param options A non-null {@link TenantDirectory.Options} instance.
+   * @return A loaded {@link TenantDirectory} instance.
+   * @throws FirebaseAuthException If an error occurs while listing the tenants.
+   */
+  public TenantDirectory loadTenantDirectory(
+      @NonNull TenantDirectory.Options options) throws FirebaseAuthException {
+    return loadTenantDirectoryOp(options).call();
+  }
+
+  /**
+   * Similar to {@link #loadTenantDirectory(TenantDirectory.Options)} but performs the operation
+   * asynchronously.
+   *
+   * @param options A non-null {@link TenantDirectory.Options} instance.
+   * @return An {@code ApiFuture} which will complete successfully with a loaded
+   *     {@link TenantDirectory} instance. If an error occurs while listing the tenants, the future
+   *     throws a {@link FirebaseAuthException}.
+   */
+  public ApiFuture<TenantDirectory> loadTenantDirectoryAsync(
+      @NonNull TenantDirectory.Options options) {
+    return loadTenantDirectoryOp(options).callAsync(firebaseApp);
+  }
+
+  private CallableOperation<TenantDirectory, FirebaseAuthException> loadTenantDirectoryOp(
+      final TenantDirectory.Options options) {
+    checkNotNull(options, "Options must not be null.");
+    final TenantSource tenantSource = new DefaultTenantSource(tenantClient);
+    return new CallableOperation<TenantDirectory, FirebaseAuthException>() {
+      @Override
+      protected TenantDirectory execute() throws FirebaseAuthException {
+        TenantDirectory directory = new TenantDirectory(tenantSource, options, firebaseApp);
+        // Registered before loading, so that writes made during the load are not lost.
+        directories.add(directory);
+        try {
+          directory.reload();
+        } catch (FirebaseAuthException | RuntimeException e) {
+          directories.remove(directory);
+          throw e;
+        }
+        directory.scheduleRefresh();
+        return directory;
+      }
+    };
+  }
+
+  private void notifyDirectories(String tenantId, @Nullable Tenant tenant) {
+    for (TenantDirectory directory : directories) {
+      if (directory.isClosed()) {
+        directories.remove(directory);
+      } else {
+        directory.onTenantChanged(tenantId, tenant);
+      }
+    }
+  }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs groups of tasks concurrently on an executor and the calling thread. All the tasks but the
+ * first are handed to the executor, and the calling thread then runs, in order, each task that the
+ * executor has not started yet before waiting for it. Progress therefore never depends on the
+ * executor having a free thread, which matters when the caller itself runs on the same executor,
+ * like the asynchronous operations of the SDK do.
+ */
+public final class ParallelTasks {
+
+  private ParallelTasks() { }
+
+  /**
+   * Runs the given tasks, and waits for all of them to complete.
+   *
+   * <p>If the calling thread is interrupted while waiting, {@code onInterrupt} is called so that
+   * the running tasks can stop early, and the remaining tasks are still waited for before the
+   * {@code InterruptedException} is thrown. Tasks that have not started by then are run on the
+   * calling thread, and are expected to return right away once {@code onInterrupt} is called.
+   *
+   * @param executor The executor to run tasks on.
+   * @param tasks The tasks to run.
+   * @param onInterrupt Called once if the calling thread is interrupted.
+   * @return The results of the tasks, in the same order as the tasks.
+   * @throws ExecutionException With the failure of the first task that failed, in task order.
+   * @throws InterruptedException If the calling thread is interrupted.
+   */
+  public static <T> List<T> invokeAll(Executor executor, List<? extends Callable<T>> tasks,
+      Runnable onInterrupt) throws ExecutionException, InterruptedException {
+    checkNotNull(executor, "executor must not be null");
+    checkNotNull(tasks, "tasks must not be null");
+    return invokeAll(Collections.nCopies(tasks.size(), executor), tasks, onInterrupt);
+  }
+
+  /**
+   * Runs the given tasks like {@link #invokeAll(Executor, List, Runnable)}, but hands each task to
+   * the executor at the same position in {@code executors}. The first executor is not used, since
+   * the first task always runs on the calling thread.
+   *
+   * @param executors The executors to run the tasks on, one per task.
+   * @param tasks The tasks to run.
+   * @param onInterrupt Called once if the calling thread is interrupted.
+   * @return The results of the tasks, in the same order as the tasks.
+   * @throws ExecutionException With the failure of the first task that failed, in task order.
+   * @throws InterruptedException If the calling thread is interrupted.
+   */
+  public static <T> List<T> invokeAll(List<? extends Executor> executors,
+      List<? extends Callable<T>> tasks, Runnable onInterrupt)
+      throws ExecutionException, InterruptedException {
+    checkNotNull(executors, "executors must not be null");
+    checkNotNull(tasks, "tasks must not be null");
+    checkNotNull(onInterrupt, "onInterrupt must not be null");
+    checkArgument(executors.size() == tasks.size(), "executors and tasks must have the same size");
+    List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      FutureTask<T> future = new FutureTask<>(checkNotNull(task, "tasks must not be null"));
+      if (!futures.isEmpty()) {
+        submit(executors.get(futures.size()), future);
+      }
+      futures.add(future);
+    }
+
+    InterruptedException interrupted = null;
+    ExecutionException failure = null;
+    List<T> results = new ArrayList<>(futures.size());
+    for (FutureTask<T> future : futures) {
+      // No-op if the task has already been started by the executor.
+      future.run();
+      T result = null;
+      try {
+        if (interrupted == null) {
+          try {
+            result = future.get();
+          } catch (InterruptedException e) {
+            interrupted = e;
+            onInterrupt.run();
+          }
+        }
+        if (interrupted != null) {
+          result = Uninterruptibles.getUninterruptibly(future);
+        }
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+      results.add(result);
+    }
+
+    if (interrupted != null) {
+      throw interrupted;
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return results;
+  }
+
+  /**
+   * Hands a task to the executor, to be collected later with {@link #await(FutureTask)}. If the
+   * executor is null, shut down or saturated, the task is left for {@code await()} to run on the
+   * calling thread instead.
+   *
+   * @param executor The executor to run the task on, or null to always run it on the caller.
+   * @param task The task to run.
+   */
+  public static void submit(@Nullable Executor executor, FutureTask<?> task) {
+    checkNotNull(task, "task must not be null");
+    if (executor != null) {
+      try {
+        executor.execute(task);
+      } catch (RuntimeException e) {
+        // Executor is shut down or saturated. The calling thread runs the task in await().
+      }
+    }
+  }
+
+  /**
+   * Waits for a task handed out by {@link #submit(Executor, FutureTask)}, first running it on the
+   * calling thread if the executor has not started it yet.
+   *
+   * @param task The task to wait for.
+   * @return The result of the task.
+   * @throws ExecutionException If the task failed.
+   * @throws InterruptedException If the calling thread is interrupted.
+   */
+  public static <T> T await(FutureTask<T> task) throws ExecutionException, InterruptedException {
+    // No-op if the task has already been started by the executor.
+    task.run();
+    return task.get();
+  }
+
+  /**
+   * Runs the given number of copies of a worker that takes its work from a shared source, such
+   * as an iterator or a counter, until none is left. See
+   * {@link #invokeAll(Executor, List, Runnable)}. Workers are expected to record their own
+   * failures, and unchecked exceptions thrown by them are rethrown as-is.
+   *
+   * @param executor The executor to run workers on.
+   * @param count The number of workers, including the calling thread.
+   * @param worker The worker to run.
+   * @param onInterrupt Called once if the calling thread is interrupted.
+   * @throws InterruptedException If the calling thread is interrupted.
+   */
+  public static void runWorkers(Executor executor, int count, Runnable worker,
+      Runnable onInterrupt) throws InterruptedException {
+    checkArgument(count > 0, "count must be positive");
+    checkNotNull(worker, "worker must not be null");
+    try {
+      invokeAll(executor, Collections.nCopies(count, Executors.callable(worker)), onInterrupt);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
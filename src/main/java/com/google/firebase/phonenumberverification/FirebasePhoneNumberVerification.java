@@ -75,6 +75,17 @@ public final class FirebasePhoneNumberVerification {
     return this.tokenVerifier.verifyToken(phoneNumberVerificationJwt);
   }
 
+  /**
+   * Returns the counters of the cache of public keys used to verify tokens. The cache is shared by
+   * all the {@link FirebasePhoneNumberVerification} instances of the process, so the counters
+   * cover the tokens verified by all of them.
+   *
+   * @return A non-null {@link FirebasePhoneNumberVerificationKeyMetrics} snapshot.
+   */
+  public FirebasePhoneNumberVerificationKeyMetrics getKeyMetrics() {
+    return new FirebasePhoneNumberVerificationKeyMetrics(this.tokenVerifier.getKeyCacheCounts());
+  }
+
   private static class FirebasePhoneNumberVerificationService
       extends FirebaseService<FirebasePhoneNumberVerification> {
     FirebasePhoneNumberVerificationService(FirebaseApp app) {
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.phonenumberverification;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.google.firebase.internal.NonNull;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A snapshot of the counters of the public key cache used to verify Firebase Phone Number
+ * Verification tokens. The key cache is shared by all the {@link FirebasePhoneNumberVerification}
+ * instances of the process, and the counters are therefore cumulative across all of them.
+ */
+public final class FirebasePhoneNumberVerificationKeyMetrics {
+
+  /**
+   * The events counted by the key cache.
+   */
+  public enum Event {
+    /** The public keys were fetched from the backend. */
+    FETCHED,
+
+    /** An attempt to fetch the public keys failed. */
+    FETCH_FAILED,
+
+    /** A fetch was started in the background, ahead of the expiry of the cached keys. */
+    BACKGROUND_REFRESH,
+
+    /** A fetch was started because a token referred to a key ID that is not in the cache. */
+    UNKNOWN_KEY_REFRESH,
+
+    /** A fetch for an unknown key ID was skipped, since the keys were fetched very recently. */
+    RATE_LIMITED,
+
+    /** Expired keys were used, since the backend could not be reached to fetch new ones. */
+    SERVED_STALE
+  }
+
+  private final Map<Event, Long> counts;
+
+  FirebasePhoneNumberVerificationKeyMetrics(Map<Event, Long> counts) {
+    EnumMap<Event, Long> copy = new EnumMap<>(Event.class);
+    for (Event event : Event.values()) {
+      Long count = counts.get(event);
+      copy.put(event, count != null ? count : 0L);
+    }
+    this.counts = Maps.immutableEnumMap(copy);
+  }
+
+  /**
+   * Returns the number of times the given event has occurred.
+   *
+   * @param event A non-null event.
+   * @return A non-negative count.
+   */
+  public long getCount(@NonNull Event event) {
+    return counts.get(checkNotNull(event, "event must not be null"));
+  }
+
+  /**
+   * Returns the counts of all events.
+   *
+   * @return A non-null, immutable map containing an entry for each {@link Event}.
+   */
+  @NonNull
+  public Map<Event, Long> getCounts() {
+    return counts;
+  }
+}
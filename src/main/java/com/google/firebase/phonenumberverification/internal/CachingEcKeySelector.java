@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.phonenumberverification.internal;
+
+import com.google.firebase.auth.internal.CryptoPools;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.crypto.utils.ECChecks;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link JWSVerificationKeySelector} that decodes the EC public keys of the selected JWKs through
+ * the shared public key cache of {@link CryptoPools}, so that each JWK is converted to a Java key
+ * once, rather than on every token verification.
+ */
+final class CachingEcKeySelector extends JWSVerificationKeySelector<SecurityContext> {
+
+  CachingEcKeySelector(JWSAlgorithm algorithm, JWKSource<SecurityContext> keySource) {
+    super(algorithm, keySource);
+  }
+
+  @Override
+  public List<Key> selectJWSKeys(
+      JWSHeader header, SecurityContext context) throws KeySourceException {
+    if (!isAllowed(header.getAlgorithm())) {
+      return Collections.emptyList();
+    }
+    JWKMatcher matcher = createJWKMatcher(header);
+    if (matcher == null) {
+      return Collections.emptyList();
+    }
+
+    List<JWK> jwks = getJWKSource().get(new JWKSelector(matcher), context);
+    List<Key> keys = new ArrayList<>(jwks.size());
+    for (JWK jwk : jwks) {
+      if (jwk instanceof ECKey) {
+        keys.add(toPublicKey((ECKey) jwk));
+      }
+    }
+    return keys;
+  }
+
+  private static PublicKey toPublicKey(final ECKey jwk) throws KeySourceException {
+    try {
+      return CryptoPools.getPublicKey(jwk, new CryptoPools.KeyDecoder() {
+        @Override
+        public PublicKey decode() throws GeneralSecurityException {
+          ECParameterSpec spec = jwk.getCurve().toECParameterSpec();
+          if (spec == null) {
+            throw new InvalidKeySpecException("Unsupported curve: " + jwk.getCurve());
+          }
+          ECPublicKeySpec keySpec = new ECPublicKeySpec(
+              new ECPoint(jwk.getX().decodeToBigInteger(), jwk.getY().decodeToBigInteger()), spec);
+          ECPublicKey key = (ECPublicKey) CryptoPools.getKeyFactory("EC").generatePublic(keySpec);
+          if (!ECChecks.isPointOnCurve(key, spec)) {
+            throw new InvalidKeySpecException("EC public key is not on the " + jwk.getCurve());
+          }
+          return key;
+        }
+      });
+    } catch (GeneralSecurityException e) {
+      throw new KeySourceException("Invalid EC JWK: " + e.getMessage(), e);
+    }
+  }
+}
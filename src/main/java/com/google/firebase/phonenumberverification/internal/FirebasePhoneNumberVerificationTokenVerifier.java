@@ -25,16 +25,15 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.ImplFirebaseTrampolines;
 import com.google.firebase.phonenumberverification.FirebasePhoneNumberVerificationErrorCode;
 import com.google.firebase.phonenumberverification.FirebasePhoneNumberVerificationException;
+import com.google.firebase.phonenumberverification.FirebasePhoneNumberVerificationKeyMetrics;
 import com.google.firebase.phonenumberverification.FirebasePhoneNumberVerificationToken;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JOSEObjectType;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
 import com.nimbusds.jose.proc.BadJOSEException;
 import com.nimbusds.jose.proc.JWSKeySelector;
-import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
@@ -43,6 +42,7 @@ import com.nimbusds.jwt.proc.ExpiredJWTException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.text.ParseException;
+import java.util.Map;
 
 /**
  * Internal class to verify Firebase Phone Number Verification tokens.
@@ -197,19 +197,29 @@ public class FirebasePhoneNumberVerificationTokenVerifier {
     try {
       JWKSource<SecurityContext> keySource = createKeySource();
       JWSKeySelector<SecurityContext> keySelector =
-          new JWSVerificationKeySelector<>(JWSAlgorithm.ES256, keySource);
+          new CachingEcKeySelector(JWSAlgorithm.ES256, keySource);
       processor.setJWSKeySelector(keySelector);
+      processor.setJWSVerifierFactory(new PooledEs256VerifierFactory());
     } catch (MalformedURLException e) {
       throw new IllegalStateException("Invalid JWKS URL", e);
     }
     return processor;
   }
 
+  /**
+   * Returns the counters of the public key cache, which is shared by all the verifiers of the
+   * process.
+   */
+  public Map<FirebasePhoneNumberVerificationKeyMetrics.Event, Long> getKeyCacheCounts() {
+    try {
+      return SharedJwkSetCache.forUrl(URI.create(FPNV_JWKS_URL).toURL()).getCounts();
+    } catch (MalformedURLException e) {
+      throw new IllegalStateException("Invalid JWKS URL", e);
+    }
+  }
+
   protected JWKSource<SecurityContext> createKeySource() throws MalformedURLException {
-    return JWKSourceBuilder
-        .create(URI.create(FPNV_JWKS_URL).toURL())
-        .retrying(true)
-        .build();
+    return SharedJwkSetCache.forUrl(URI.create(FPNV_JWKS_URL).toURL());
   }
 
   private String getProjectId(FirebaseApp app) {
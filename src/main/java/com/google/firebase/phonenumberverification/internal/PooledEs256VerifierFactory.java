@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.phonenumberverification.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.firebase.auth.internal.CryptoPools;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.impl.ECDSA;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.util.Base64URL;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECPublicKey;
+import java.util.Set;
+
+/**
+ * A {@link JWSVerifierFactory} for ES256 signatures, which verifies signatures with the
+ * {@code Signature} instances pooled per thread by {@link CryptoPools}, instead of looking up and
+ * initializing a new instance for each token like the default Nimbus verifiers do.
+ *
+ * <p>Performs the same checks as the Nimbus {@code ECDSAVerifier}: the key must be on the curve of
+ * the algorithm, the signature must be of the expected length and not trivially forged, and
+ * tokens with critical header parameters are rejected.
+ */
+final class PooledEs256VerifierFactory implements JWSVerifierFactory {
+
+  private static final String ALGORITHM = "SHA256withECDSA";
+  private static final Set<JWSAlgorithm> SUPPORTED_ALGORITHMS = ImmutableSet.of(JWSAlgorithm.ES256);
+
+  private final JCAContext jcaContext = new JCAContext();
+
+  @Override
+  public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+    if (!JWSAlgorithm.ES256.equals(header.getAlgorithm())) {
+      throw new JOSEException("Unsupported JWS algorithm: " + header.getAlgorithm());
+    }
+    if (!(key instanceof ECPublicKey)) {
+      throw new JOSEException("Key must be an ECPublicKey");
+    }
+    ECPublicKey publicKey = (ECPublicKey) key;
+    if (!JWSAlgorithm.ES256.equals(ECDSA.resolveAlgorithm(publicKey))) {
+      throw new JOSEException("Key is not on the curve of the ES256 algorithm");
+    }
+    return new Verifier(publicKey);
+  }
+
+  @Override
+  public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+    return SUPPORTED_ALGORITHMS;
+  }
+
+  @Override
+  public JCAContext getJCAContext() {
+    return jcaContext;
+  }
+
+  private final class Verifier implements JWSVerifier {
+
+    private final ECPublicKey publicKey;
+
+    Verifier(ECPublicKey publicKey) {
+      this.publicKey = publicKey;
+    }
+
+    @Override
+    public boolean verify(
+        JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+      if (!JWSAlgorithm.ES256.equals(header.getAlgorithm())) {
+        throw new JOSEException("Unsupported JWS algorithm: " + header.getAlgorithm());
+      }
+      if (header.getCriticalParams() != null && !header.getCriticalParams().isEmpty()) {
+        return false;
+      }
+
+      byte[] jwsSignature = signature.decode();
+      try {
+        ECDSA.ensureLegalSignature(jwsSignature, JWSAlgorithm.ES256);
+      } catch (JOSEException e) {
+        return false;
+      }
+
+      byte[] derSignature;
+      try {
+        derSignature = ECDSA.transcodeSignatureToDER(jwsSignature);
+      } catch (JOSEException e) {
+        return false;
+      }
+
+      Signature verifier;
+      try {
+        verifier = CryptoPools.getVerifier(ALGORITHM, publicKey);
+      } catch (GeneralSecurityException e) {
+        throw new JOSEException("Invalid EC public key: " + e.getMessage(), e);
+      }
+      try {
+        verifier.update(signingInput);
+        return verifier.verify(derSignature);
+      } catch (SignatureException e) {
+        // Discard the instance, since its state is unknown at this point.
+        CryptoPools.discard(ALGORITHM, publicKey);
+        return false;
+      }
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+      return SUPPORTED_ALGORITHMS;
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+      return jcaContext;
+    }
+  }
+}
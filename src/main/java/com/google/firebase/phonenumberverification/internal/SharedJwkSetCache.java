@@ -0,0 +1,337 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.phonenumberverification.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.api.client.util.Clock;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.firebase.phonenumberverification.FirebasePhoneNumberVerificationKeyMetrics.Event;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A JWK set fetched from a remote URL, and shared by all the token verifiers of the process that
+ * use the same URL.
+ *
+ * <p>Keys are indexed by key ID. Once the keys are older than the refresh-ahead age, the next
+ * lookup returns them, and starts fetching new keys on a background thread. Lookups only fetch
+ * keys inline when no keys have been fetched yet, when the keys have expired, or when a token
+ * refers to an unknown key ID. The latter are rate-limited, so that tokens with made-up key IDs
+ * cannot trigger a fetch per token. When the backend cannot be reached, expired keys continue to
+ * be used for a limited time, and failed fetches are retried at most once per
+ * {@link #MIN_FETCH_INTERVAL_MILLIS}. Lookups in between fail fast when there are no usable keys.
+ */
+final class SharedJwkSetCache implements JWKSource<SecurityContext> {
+
+  static final long REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(4);
+  static final long EXPIRE_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  static final long STALE_IF_ERROR_MILLIS = TimeUnit.HOURS.toMillis(1);
+  static final long MIN_FETCH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private static final ConcurrentMap<String, SharedJwkSetCache> INSTANCES =
+      new ConcurrentHashMap<>();
+
+  interface Fetcher {
+    JWKSet fetch() throws IOException, ParseException;
+  }
+
+  private final Fetcher fetcher;
+  private final Executor executor;
+  private final Clock clock;
+  private final Map<Event, LongAdder> counters = new EnumMap<>(Event.class);
+  private final AtomicBoolean refreshingInBackground = new AtomicBoolean();
+  private final Object refreshLock = new Object();
+
+  private volatile Snapshot snapshot;
+
+  // Guarded by refreshLock.
+  private long lastFetchMillis;
+  private boolean fetched;
+  private KeySourceException lastFetchError;
+
+  @VisibleForTesting
+  SharedJwkSetCache(Fetcher fetcher, Executor executor, Clock clock) {
+    this.fetcher = checkNotNull(fetcher, "fetcher must not be null");
+    this.executor = checkNotNull(executor, "executor must not be null");
+    this.clock = checkNotNull(clock, "clock must not be null");
+    for (Event event : Event.values()) {
+      counters.put(event, new LongAdder());
+    }
+  }
+
+  /**
+   * Returns the cache for the given URL, creating it on first use.
+   */
+  static SharedJwkSetCache forUrl(URL url) {
+    String key = url.toString();
+    SharedJwkSetCache cache = INSTANCES.get(key);
+    if (cache == null) {
+      SharedJwkSetCache newCache = new SharedJwkSetCache(
+          new UrlFetcher(url), RefreshExecutorHolder.EXECUTOR, Clock.SYSTEM);
+      cache = INSTANCES.putIfAbsent(key, newCache);
+      if (cache == null) {
+        cache = newCache;
+      }
+    }
+    return cache;
+  }
+
+  @Override
+  public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+    Snapshot current = getSnapshot();
+    List<JWK> keys = current.select(selector.getMatcher());
+    if (keys.isEmpty() && hasKeyIds(selector.getMatcher())) {
+      Snapshot refreshed = refreshForUnknownKey(current);
+      if (refreshed != current) {
+        keys = refreshed.select(selector.getMatcher());
+      }
+    }
+    return keys;
+  }
+
+  Map<Event, Long> getCounts() {
+    ImmutableMap.Builder<Event, Long> counts = ImmutableMap.builder();
+    for (Map.Entry<Event, LongAdder> entry : counters.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().sum());
+    }
+    return counts.build();
+  }
+
+  private Snapshot getSnapshot() throws KeySourceException {
+    Snapshot current = snapshot;
+    if (current != null) {
+      long age = clock.currentTimeMillis() - current.fetchedAtMillis;
+      if (age < EXPIRE_AFTER_MILLIS) {
+        if (age >= REFRESH_AHEAD_MILLIS) {
+          scheduleRefresh(current);
+        }
+        return current;
+      }
+    }
+
+    synchronized (refreshLock) {
+      Snapshot latest = snapshot;
+      if (latest != current) {
+        // Refreshed by another thread while this thread was waiting.
+        return latest;
+      }
+
+      long now = clock.currentTimeMillis();
+      boolean canServeStale = current != null
+          && now - current.fetchedAtMillis < EXPIRE_AFTER_MILLIS + STALE_IF_ERROR_MILLIS;
+      if (lastFetchError != null && now - lastFetchMillis < MIN_FETCH_INTERVAL_MILLIS) {
+        // A fetch failed very recently. Retries are limited to one per MIN_FETCH_INTERVAL_MILLIS.
+        if (canServeStale) {
+          record(Event.SERVED_STALE);
+          return current;
+        }
+        throw new KeySourceException(
+            "Failed to fetch the public keys recently, not retrying yet: "
+                + lastFetchError.getMessage(), lastFetchError);
+      }
+      try {
+        return fetch();
+      } catch (KeySourceException e) {
+        if (canServeStale) {
+          record(Event.SERVED_STALE);
+          return current;
+        }
+        throw e;
+      }
+    }
+  }
+
+  private Snapshot refreshForUnknownKey(Snapshot current) throws KeySourceException {
+    synchronized (refreshLock) {
+      Snapshot latest = snapshot;
+      if (latest != current) {
+        return latest;
+      }
+      if (fetched && clock.currentTimeMillis() - lastFetchMillis < MIN_FETCH_INTERVAL_MILLIS) {
+        record(Event.RATE_LIMITED);
+        return current;
+      }
+      record(Event.UNKNOWN_KEY_REFRESH);
+      return fetch();
+    }
+  }
+
+  private void scheduleRefresh(final Snapshot current) {
+    if (!refreshingInBackground.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            synchronized (refreshLock) {
+              if (snapshot == current) {
+                record(Event.BACKGROUND_REFRESH);
+                fetch();
+              }
+            }
+          } catch (KeySourceException e) {
+            // Keeps using the current keys. Lookups fetch inline once they expire.
+          } finally {
+            refreshingInBackground.set(false);
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      // Executor is saturated. Tries again on the next lookup.
+      refreshingInBackground.set(false);
+    }
+  }
+
+  // Must be called while holding refreshLock.
+  private Snapshot fetch() throws KeySourceException {
+    lastFetchMillis = clock.currentTimeMillis();
+    fetched = true;
+    JWKSet keySet;
+    try {
+      keySet = fetcher.fetch();
+    } catch (IOException | ParseException | RuntimeException e) {
+      record(Event.FETCH_FAILED);
+      lastFetchError = new KeySourceException(
+          "Failed to fetch the public keys: " + e.getMessage(), e);
+      throw lastFetchError;
+    }
+
+    lastFetchError = null;
+    Snapshot fresh = new Snapshot(keySet, lastFetchMillis);
+    snapshot = fresh;
+    record(Event.FETCHED);
+    return fresh;
+  }
+
+  private void record(Event event) {
+    counters.get(event).increment();
+  }
+
+  private static boolean hasKeyIds(JWKMatcher matcher) {
+    Set<String> keyIds = matcher.getKeyIDs();
+    return keyIds != null && !keyIds.isEmpty() && !keyIds.contains(null);
+  }
+
+  private static final class Snapshot {
+
+    private final JWKSet keySet;
+    private final ImmutableListMultimap<String, JWK> keysById;
+    private final long fetchedAtMillis;
+
+    Snapshot(JWKSet keySet, long fetchedAtMillis) {
+      this.keySet = keySet;
+      this.fetchedAtMillis = fetchedAtMillis;
+      ImmutableListMultimap.Builder<String, JWK> keysById = ImmutableListMultimap.builder();
+      for (JWK key : keySet.getKeys()) {
+        if (key.getKeyID() != null) {
+          keysById.put(key.getKeyID(), key);
+        }
+      }
+      this.keysById = keysById.build();
+    }
+
+    List<JWK> select(JWKMatcher matcher) {
+      if (!hasKeyIds(matcher)) {
+        return new JWKSelector(matcher).select(keySet);
+      }
+
+      List<JWK> keys = new ArrayList<>();
+      for (String keyId : matcher.getKeyIDs()) {
+        for (JWK key : keysById.get(keyId)) {
+          if (matcher.matches(key)) {
+            keys.add(key);
+          }
+        }
+      }
+      return keys;
+    }
+  }
+
+  private static final class UrlFetcher implements Fetcher {
+
+    private final URL url;
+    private final ResourceRetriever retriever = new DefaultResourceRetriever(
+        JWKSourceBuilder.DEFAULT_HTTP_CONNECT_TIMEOUT,
+        JWKSourceBuilder.DEFAULT_HTTP_READ_TIMEOUT,
+        JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+
+    UrlFetcher(URL url) {
+      this.url = url;
+    }
+
+    @Override
+    public JWKSet fetch() throws IOException, ParseException {
+      String content;
+      try {
+        content = retriever.retrieveResource(url).getContent();
+      } catch (IOException e) {
+        // Retries once, like the retrying key sources of Nimbus.
+        content = retriever.retrieveResource(url).getContent();
+      }
+      return JWKSet.parse(content);
+    }
+  }
+
+  private static final class RefreshExecutorHolder {
+
+    // A single daemon thread, which is stopped when there is nothing to refresh.
+    private static final Executor EXECUTOR = newRefreshExecutor();
+
+    private static ThreadPoolExecutor newRefreshExecutor() {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(
+          1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactoryBuilder()
+              .setNameFormat("firebase-phone-number-verification-keys")
+              .setDaemon(true)
+              .build());
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+}
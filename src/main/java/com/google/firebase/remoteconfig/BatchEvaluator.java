@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Throwables;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.Nullable;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates a stream of contexts on a fork-join pool and the calling thread. Workers pull chunks
+ * of contexts from the shared iterator when they become idle, and hand each context to the task
+ * as soon as it is evaluated, so that neither the contexts nor the results are held in memory.
+ * The calling thread runs any worker that the pool has not started.
+ * The first exception thrown by the iterator or the task stops the evaluation, and is rethrown to
+ * the caller.
+ */
+final class BatchEvaluator {
+
+  static final int CHUNK_SIZE = 64;
+
+  interface Task {
+    void evaluate(long index, @Nullable KeysAndValues context);
+  }
+
+  private final Iterator<KeysAndValues> contexts;
+  private final Task task;
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  // Guarded by this.
+  private long nextIndex;
+
+  BatchEvaluator(Iterator<KeysAndValues> contexts, Task task) {
+    this.contexts = checkNotNull(contexts, "contexts must not be null");
+    this.task = checkNotNull(task, "task must not be null");
+  }
+
+  /**
+   * Evaluates all the contexts, with up to the parallelism of the pool plus one threads.
+   *
+   * @return The number of contexts evaluated.
+   */
+  long run(ForkJoinPool pool) throws FirebaseRemoteConfigException {
+    checkNotNull(pool, "pool must not be null");
+    try {
+      ParallelTasks.runWorkers(pool, pool.getParallelism() + 1, this::evaluateChunks,
+          () -> failure.compareAndSet(null, new InterruptedException()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseRemoteConfigException(
+          ErrorCode.CANCELLED, "Interrupted while evaluating contexts", e, null, null);
+    }
+
+    Throwable e = failure.get();
+    if (e != null) {
+      Throwables.throwIfUnchecked(e);
+      throw new IllegalStateException(e);
+    }
+    synchronized (this) {
+      return nextIndex;
+    }
+  }
+
+  private void evaluateChunks() {
+    KeysAndValues[] chunk = new KeysAndValues[CHUNK_SIZE];
+    while (failure.get() == null) {
+      int size = 0;
+      long startIndex;
+      synchronized (this) {
+        startIndex = nextIndex;
+        try {
+          while (size < CHUNK_SIZE && contexts.hasNext()) {
+            chunk[size++] = contexts.next();
+          }
+        } catch (RuntimeException | Error e) {
+          failure.compareAndSet(null, e);
+          return;
+        }
+        nextIndex += size;
+      }
+      if (size == 0) {
+        return;
+      }
+
+      try {
+        for (int i = 0; i < size && failure.get() == null; i++) {
+          task.evaluate(startIndex + i, chunk[i]);
+          chunk[i] = null;
+        }
+      } catch (RuntimeException | Error e) {
+        failure.compareAndSet(null, e);
+        return;
+      }
+    }
+  }
+}
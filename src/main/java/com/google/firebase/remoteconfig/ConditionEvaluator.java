@@ -20,31 +20,98 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.firebase.internal.NonNull;
 import com.google.firebase.internal.Nullable;
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 final class ConditionEvaluator {
   private static final int MAX_CONDITION_RECURSION_DEPTH = 10;
+  private static final int MAX_SEMANTIC_VERSION_LENGTH = 5;
+  private static final int INVALID_SEMANTIC_VERSION = Integer.MIN_VALUE;
   private static final Logger logger = LoggerFactory.getLogger(ConditionEvaluator.class);
-  private static final BigInteger MICRO_PERCENT_MODULO = BigInteger.valueOf(100_000_000L);
   private static final Pattern SEMVER_PATTERN =  Pattern.compile("^[0-9]+(?:\\.[0-9]+){0,4}$");
 
+  static final String RANDOMIZATION_ID_KEY = "randomizationId";
+
+  private static final CompiledCondition TRUE = evaluation -> true;
+  private static final CompiledCondition FALSE = evaluation -> false;
+
+  /**
+   * A condition compiled into a predicate over the evaluation context. Target values are parsed,
+   * and regular expressions compiled, once when the condition is compiled, so that evaluating a
+   * compiled condition does not depend on the size of the template.
+   */
+  interface CompiledCondition {
+    boolean evaluate(@NonNull Evaluation evaluation);
+  }
+
+  /**
+   * The state of a single evaluation of a set of conditions against a context. Percent conditions
+   * that share a seed share the same micro-percentile, which is computed once per evaluation.
+   * Instances are not thread safe.
+   */
+  static final class Evaluation {
+
+    private final KeysAndValues context;
+    private String[] percentileSeeds;
+    private long[] percentiles;
+    private int percentileCount;
+
+    Evaluation(@NonNull KeysAndValues context) {
+      this.context = checkNotNull(context);
+    }
+
+    @Nullable
+    String get(String key) {
+      return context.get(key);
+    }
+
+    /**
+     * Returns the micro-percentile of the randomization ID of the context for the given seed, or
+     * -1 if the context does not have a randomization ID.
+     */
+    long getMicroPercentile(String seed, byte[] seedPrefix) {
+      for (int i = 0; i < percentileCount; i++) {
+        if (percentileSeeds[i].equals(seed)) {
+          return percentiles[i];
+        }
+      }
+
+      long percentile;
+      String randomizationId = context.get(RANDOMIZATION_ID_KEY);
+      if (randomizationId == null) {
+        logger.warn("Percentage operation must not be performed without randomizationId");
+        percentile = -1;
+      } else {
+        percentile = MicroPercentiles.getMicroPercentile(seedPrefix, randomizationId);
+      }
+
+      if (percentileSeeds == null) {
+        percentileSeeds = new String[4];
+        percentiles = new long[4];
+      } else if (percentileCount == percentileSeeds.length) {
+        percentileSeeds = Arrays.copyOf(percentileSeeds, percentileCount * 2);
+        percentiles = Arrays.copyOf(percentiles, percentileCount * 2);
+      }
+      percentileSeeds[percentileCount] = seed;
+      percentiles[percentileCount] = percentile;
+      percentileCount++;
+      return percentile;
+    }
+  }
+
   /**
    * Evaluates server conditions and assigns a boolean value to each condition.
    *
@@ -60,287 +127,382 @@ final class ConditionEvaluator {
     if (context == null || conditions.isEmpty()) {
       return ImmutableMap.of();
     }
-    KeysAndValues evaluationContext =
-        context != null ? context : new KeysAndValues.Builder().build();
-
-    Map<String, Boolean> evaluatedConditions =
-        conditions.stream()
-            .collect(
-                toImmutableMap(
-                    ServerCondition::getName,
-                    condition ->
-                        evaluateCondition(
-                            condition.getCondition(), evaluationContext, /* nestingLevel= */ 0)));
-
-    return evaluatedConditions;
+
+    Evaluation evaluation = new Evaluation(context);
+    return conditions.stream()
+        .collect(
+            toImmutableMap(
+                ServerCondition::getName,
+                condition -> compile(condition.getCondition()).evaluate(evaluation)));
+  }
+
+  /**
+   * Compiles a condition into a predicate that can be evaluated against any number of contexts.
+   *
+   * @param condition The condition to compile.
+   * @return The compiled condition.
+   */
+  @NonNull
+  static CompiledCondition compile(@NonNull OneOfCondition condition) {
+    checkNotNull(condition, "Condition must not be null.");
+    return compileCondition(condition, /* nestingLevel= */ 0);
+  }
+
+  /**
+   * Adds the keys of the context that the given condition reads to the given set. Percent
+   * conditions read the randomization ID of the context.
+   *
+   * @param condition The condition to inspect.
+   * @param keys The set to add the keys to.
+   */
+  static void collectContextKeys(@NonNull OneOfCondition condition, @NonNull Set<String> keys) {
+    checkNotNull(condition, "Condition must not be null.");
+    collectContextKeys(condition, keys, /* nestingLevel= */ 0);
+  }
+
+  private static void collectContextKeys(
+      OneOfCondition condition, Set<String> keys, int nestingLevel) {
+    if (nestingLevel > MAX_CONDITION_RECURSION_DEPTH) {
+      // Compiled to a condition that is never met.
+      return;
+    }
+
+    List<OneOfCondition> subConditions = null;
+    if (condition.getOrCondition() != null) {
+      subConditions = condition.getOrCondition().getConditions();
+    } else if (condition.getAndCondition() != null) {
+      subConditions = condition.getAndCondition().getConditions();
+    } else if (condition.getCustomSignal() != null) {
+      String customSignalKey = condition.getCustomSignal().getCustomSignalKey();
+      if (customSignalKey != null) {
+        keys.add(customSignalKey);
+      }
+    } else if (condition.getPercent() != null) {
+      keys.add(RANDOMIZATION_ID_KEY);
+    }
+
+    if (subConditions != null) {
+      for (OneOfCondition subCondition : subConditions) {
+        collectContextKeys(subCondition, keys, nestingLevel + 2);
+      }
+    }
   }
 
-  private boolean evaluateCondition(
-      OneOfCondition condition, KeysAndValues context, int nestingLevel) {
+  private static CompiledCondition compileCondition(OneOfCondition condition, int nestingLevel) {
     if (nestingLevel > MAX_CONDITION_RECURSION_DEPTH) {
       logger.warn("Maximum condition recursion depth exceeded.");
-      return false;
+      return FALSE;
     }
 
     if (condition.getOrCondition() != null) {
-      return evaluateOrCondition(condition.getOrCondition(), context, nestingLevel + 1);
+      CompiledCondition[] subConditions =
+          compileConditions(condition.getOrCondition().getConditions(), nestingLevel + 2);
+      return evaluation -> {
+        for (CompiledCondition subCondition : subConditions) {
+          if (subCondition.evaluate(evaluation)) {
+            return true;
+          }
+        }
+        return false;
+      };
     } else if (condition.getAndCondition() != null) {
-      return evaluateAndCondition(condition.getAndCondition(), context, nestingLevel + 1);
+      CompiledCondition[] subConditions =
+          compileConditions(condition.getAndCondition().getConditions(), nestingLevel + 2);
+      return evaluation -> {
+        for (CompiledCondition subCondition : subConditions) {
+          if (!subCondition.evaluate(evaluation)) {
+            return false;
+          }
+        }
+        return true;
+      };
     } else if (condition.isTrue() != null) {
-      return true;
+      return TRUE;
     } else if (condition.isFalse() != null) {
-      return false;
+      return FALSE;
     } else if (condition.getCustomSignal() != null) {
-      return evaluateCustomSignalCondition(condition.getCustomSignal(), context);
+      return compileCustomSignalCondition(condition.getCustomSignal());
     } else if (condition.getPercent() != null) {
-      return evaluatePercentCondition(condition.getPercent(), context);
+      return compilePercentCondition(condition.getPercent());
     }
     logger.atWarn().log("Received invalid condition for evaluation.");
-    return false;
+    return FALSE;
   }
 
-  private boolean evaluateOrCondition(
-      OrCondition condition, KeysAndValues context, int nestingLevel) {
-    return condition.getConditions().stream()
-        .anyMatch(subCondition -> evaluateCondition(subCondition, context, nestingLevel + 1));
-  }
-
-  private boolean evaluateAndCondition(
-      AndCondition condition, KeysAndValues context, int nestingLevel) {
-    return condition.getConditions().stream()
-        .allMatch(subCondition -> evaluateCondition(subCondition, context, nestingLevel + 1));
+  private static CompiledCondition[] compileConditions(
+      List<OneOfCondition> conditions, int nestingLevel) {
+    CompiledCondition[] compiled = new CompiledCondition[conditions.size()];
+    for (int i = 0; i < compiled.length; i++) {
+      compiled[i] = compileCondition(conditions.get(i), nestingLevel);
+    }
+    return compiled;
   }
 
-  private boolean evaluateCustomSignalCondition(
-      CustomSignalCondition condition, KeysAndValues context) {
+  private static CompiledCondition compileCustomSignalCondition(CustomSignalCondition condition) {
     CustomSignalOperator customSignalOperator = condition.getCustomSignalOperator();
     String customSignalKey = condition.getCustomSignalKey();
-    ImmutableList<String> targetCustomSignalValues =
-        ImmutableList.copyOf(condition.getTargetCustomSignalValues());
+    List<String> targetCustomSignalValues = condition.getTargetCustomSignalValues();
 
     if (targetCustomSignalValues.isEmpty()) {
       logger.warn(
           String.format(
               "Values must be assigned to all custom signal fields. Operator:%s, Key:%s, Values:%s",
               customSignalOperator, customSignalKey, targetCustomSignalValues));
-      return false;
-    }
-
-    String customSignalValue = context.get(customSignalKey);
-    if (customSignalValue == null) {
-      return false;
+      return FALSE;
     }
 
+    Predicate<String> matcher;
     switch (customSignalOperator) {
       // String operations.
       case STRING_CONTAINS:
-        return compareStrings(
-            targetCustomSignalValues,
-            customSignalValue,
-            (customSignal, targetSignal) -> customSignal.contains(targetSignal));
+        matcher = compileStrings(targetCustomSignalValues, String::contains);
+        break;
       case STRING_DOES_NOT_CONTAIN:
-        return !compareStrings(
-            targetCustomSignalValues,
-            customSignalValue,
-            (customSignal, targetSignal) -> customSignal.contains(targetSignal));
+        matcher = compileStrings(targetCustomSignalValues, String::contains).negate();
+        break;
       case STRING_EXACTLY_MATCHES:
-        return compareStrings(
-            targetCustomSignalValues,
-            customSignalValue,
-            (customSignal, targetSignal) -> customSignal.equals(targetSignal));
+        matcher = compileStrings(targetCustomSignalValues, String::equals);
+        break;
       case STRING_CONTAINS_REGEX:
-        return compareStrings(
-            targetCustomSignalValues,
-            customSignalValue,
-            (customSignal, targetSignal) -> compareStringRegex(customSignal, targetSignal));
+        matcher = compileStringRegex(targetCustomSignalValues);
+        break;
 
       // Numeric operations.
       case NUMERIC_LESS_THAN:
-        return compareNumbers(targetCustomSignalValues, customSignalValue, (result) -> result < 0);
+        matcher = compileNumber(targetCustomSignalValues, (result) -> result < 0);
+        break;
       case NUMERIC_LESS_EQUAL:
-        return compareNumbers(targetCustomSignalValues, customSignalValue, (result) -> result <= 0);
+        matcher = compileNumber(targetCustomSignalValues, (result) -> result <= 0);
+        break;
       case NUMERIC_EQUAL:
-        return compareNumbers(targetCustomSignalValues, customSignalValue, (result) -> result == 0);
+        matcher = compileNumber(targetCustomSignalValues, (result) -> result == 0);
+        break;
       case NUMERIC_NOT_EQUAL:
-        return compareNumbers(targetCustomSignalValues, customSignalValue, (result) -> result != 0);
+        matcher = compileNumber(targetCustomSignalValues, (result) -> result != 0);
+        break;
       case NUMERIC_GREATER_THAN:
-        return compareNumbers(targetCustomSignalValues, customSignalValue, (result) -> result > 0);
+        matcher = compileNumber(targetCustomSignalValues, (result) -> result > 0);
+        break;
       case NUMERIC_GREATER_EQUAL:
-        return compareNumbers(targetCustomSignalValues, customSignalValue, (result) -> result >= 0);
+        matcher = compileNumber(targetCustomSignalValues, (result) -> result >= 0);
+        break;
 
       // Semantic operations.
       case SEMANTIC_VERSION_EQUAL:
-        return compareSemanticVersions(
-            targetCustomSignalValues, customSignalValue, (result) -> result == 0);
+        matcher = compileSemanticVersion(targetCustomSignalValues, (result) -> result == 0);
+        break;
       case SEMANTIC_VERSION_GREATER_EQUAL:
-        return compareSemanticVersions(
-            targetCustomSignalValues, customSignalValue, (result) -> result >= 0);
+        matcher = compileSemanticVersion(targetCustomSignalValues, (result) -> result >= 0);
+        break;
       case SEMANTIC_VERSION_GREATER_THAN:
-        return compareSemanticVersions(
-            targetCustomSignalValues, customSignalValue, (result) -> result > 0);
+        matcher = compileSemanticVersion(targetCustomSignalValues, (result) -> result > 0);
+        break;
       case SEMANTIC_VERSION_LESS_EQUAL:
-        return compareSemanticVersions(
-            targetCustomSignalValues, customSignalValue, (result) -> result <= 0);
+        matcher = compileSemanticVersion(targetCustomSignalValues, (result) -> result <= 0);
+        break;
       case SEMANTIC_VERSION_LESS_THAN:
-        return compareSemanticVersions(
-            targetCustomSignalValues, customSignalValue, (result) -> result < 0);
+        matcher = compileSemanticVersion(targetCustomSignalValues, (result) -> result < 0);
+        break;
       case SEMANTIC_VERSION_NOT_EQUAL:
-        return compareSemanticVersions(
-            targetCustomSignalValues, customSignalValue, (result) -> result != 0);
+        matcher = compileSemanticVersion(targetCustomSignalValues, (result) -> result != 0);
+        break;
       default:
-        return false;
+        return FALSE;
     }
-  }
 
-  private boolean evaluatePercentCondition(PercentCondition condition, KeysAndValues context) {
-    if (!context.containsKey("randomizationId")) {
-      logger.warn("Percentage operation must not be performed without randomizationId");
-      return false;
+    if (matcher == null) {
+      return FALSE;
     }
+    return evaluation -> {
+      String customSignalValue = evaluation.get(customSignalKey);
+      return customSignalValue != null && matcher.test(customSignalValue);
+    };
+  }
 
+  private static CompiledCondition compilePercentCondition(PercentCondition condition) {
     PercentConditionOperator operator = condition.getPercentConditionOperator();
-
     // The micro-percent interval to be used with the BETWEEN operator.
     MicroPercentRange microPercentRange = condition.getMicroPercentRange();
-    int microPercentUpperBound =
+    long microPercentUpperBound =
         microPercentRange != null ? microPercentRange.getMicroPercentUpperBound() : 0;
-    int microPercentLowerBound =
+    long microPercentLowerBound =
         microPercentRange != null ? microPercentRange.getMicroPercentLowerBound() : 0;
     // The limit of percentiles to target in micro-percents when using the
     // LESS_OR_EQUAL and GREATER_THAN operators. The value must be in the range [0
     // and 100000000].
-    int microPercent = condition.getMicroPercent();
-    BigInteger microPercentile =
-        getMicroPercentile(condition.getSeed(), context.get("randomizationId"));
+    long microPercent = condition.getMicroPercent();
+    String seed = condition.getSeed() != null ? condition.getSeed() : "";
+    byte[] seedPrefix = MicroPercentiles.encodeSeedPrefix(seed);
+
     switch (operator) {
       case LESS_OR_EQUAL:
-        return microPercentile.compareTo(BigInteger.valueOf(microPercent)) <= 0;
+        return evaluation -> {
+          long microPercentile = evaluation.getMicroPercentile(seed, seedPrefix);
+          return microPercentile >= 0 && microPercentile <= microPercent;
+        };
       case GREATER_THAN:
-        return microPercentile.compareTo(BigInteger.valueOf(microPercent)) > 0;
+        return evaluation -> {
+          long microPercentile = evaluation.getMicroPercentile(seed, seedPrefix);
+          return microPercentile >= 0 && microPercentile > microPercent;
+        };
       case BETWEEN:
-        return microPercentile.compareTo(BigInteger.valueOf(microPercentLowerBound)) > 0
-            && microPercentile.compareTo(BigInteger.valueOf(microPercentUpperBound)) <= 0;
+        return evaluation -> {
+          long microPercentile = evaluation.getMicroPercentile(seed, seedPrefix);
+          return microPercentile >= 0
+              && microPercentile > microPercentLowerBound
+              && microPercentile <= microPercentUpperBound;
+        };
       case UNSPECIFIED:
       default:
-        return false;
+        return FALSE;
     }
   }
 
-  private BigInteger getMicroPercentile(String seed, String randomizationId) {
-    String seedPrefix = seed != null && !seed.isEmpty() ? seed + "." : "";
-    String stringToHash = seedPrefix + randomizationId;
-    BigInteger hash = hashSeededRandomizationId(stringToHash);
-    BigInteger microPercentile = hash.mod(MICRO_PERCENT_MODULO);
-
-    return microPercentile;
+  private static Predicate<String> compileStrings(
+      List<String> targetValues, BiPredicate<String, String> compareFunction) {
+    String[] targets = targetValues.toArray(new String[0]);
+    return customSignal -> {
+      for (String target : targets) {
+        if (compareFunction.test(customSignal, target)) {
+          return true;
+        }
+      }
+      return false;
+    };
   }
 
-  private BigInteger hashSeededRandomizationId(String seededRandomizationId) {
-    try {
-      // Create a SHA-256 hash.
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] hashBytes = digest.digest(seededRandomizationId.getBytes(StandardCharsets.UTF_8));
-
-      // Convert the hash bytes to a BigInteger
-      return new BigInteger(1, hashBytes);
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("SHA-256 algorithm not found", e);
-      throw new RuntimeException("SHA-256 algorithm not found", e);
+  private static Predicate<String> compileStringRegex(List<String> targetValues) {
+    // Target values that are not valid regular expressions never match.
+    List<Pattern> patterns = new ArrayList<>(targetValues.size());
+    for (String targetValue : targetValues) {
+      try {
+        patterns.add(Pattern.compile(targetValue));
+      } catch (PatternSyntaxException e) {
+        logger.warn("Invalid regular expression in custom signal condition: {}", targetValue);
+      }
     }
-  }
-
-  private boolean compareStrings(
-      ImmutableList<String> targetValues,
-      String customSignal,
-      BiPredicate<String, String> compareFunction) {
-    return targetValues.stream()
-        .anyMatch(targetValue -> compareFunction.test(customSignal, targetValue));
-  }
-
-  private boolean compareStringRegex(String customSignal, String targetSignal) {
-    try {
-      return Pattern.compile(targetSignal).matcher(customSignal).matches();
-    } catch (PatternSyntaxException e) {
+    Pattern[] targets = patterns.toArray(new Pattern[0]);
+    return customSignal -> {
+      for (Pattern target : targets) {
+        if (target.matcher(customSignal).matches()) {
+          return true;
+        }
+      }
       return false;
-    }
+    };
   }
 
-  private boolean compareNumbers(
-      ImmutableList<String> targetValues, String customSignal, IntPredicate compareFunction) {
+  @Nullable
+  private static Predicate<String> compileNumber(
+      List<String> targetValues, IntPredicate compareFunction) {
     if (targetValues.size() != 1) {
       logger.warn(
           String.format(
               "Target values must contain 1 element for numeric operations. Target Value: %s",
               targetValues));
-      return false;
+      return null;
     }
 
+    double targetValue;
     try {
-      double customSignalDouble = Double.parseDouble(customSignal);
-      double targetValue = Double.parseDouble(targetValues.get(0));
-      int comparisonResult = Double.compare(customSignalDouble, targetValue);
-      return compareFunction.test(comparisonResult);
+      targetValue = Double.parseDouble(targetValues.get(0));
     } catch (NumberFormatException e) {
-      logger.warn(
-          "Error parsing numeric values: customSignal=%s, targetValue=%s",
-          customSignal, targetValues.get(0), e);
-      return false;
+      logger.warn("Error parsing numeric target value: {}", targetValues.get(0));
+      return null;
     }
+    return customSignal -> {
+      double customSignalDouble;
+      try {
+        customSignalDouble = Double.parseDouble(customSignal);
+      } catch (NumberFormatException e) {
+        logger.warn("Error parsing numeric custom signal value: {}", customSignal);
+        return false;
+      }
+      return compareFunction.test(Double.compare(customSignalDouble, targetValue));
+    };
   }
 
-  private boolean compareSemanticVersions(
-      ImmutableList<String> targetValues, String customSignal, IntPredicate compareFunction) {
+  @Nullable
+  private static Predicate<String> compileSemanticVersion(
+      List<String> targetValues, IntPredicate compareFunction) {
     if (targetValues.size() != 1) {
       logger.warn(String.format("Target values must contain 1 element for semantic operation."));
-      return false;
+      return null;
     }
 
-    String targetValueString = targetValues.get(0);
-    if (!validateSemanticVersion(targetValueString) || !validateSemanticVersion(customSignal)) {
-      return false;
+    int[] targetVersion = parseSemanticVersion(targetValues.get(0));
+    if (targetVersion == null) {
+      return null;
     }
-
-    List<Integer> targetVersion = parseSemanticVersion(targetValueString);
-    List<Integer> customSignalVersion = parseSemanticVersion(customSignal);
-
-    int maxLength = 5;
-    if (targetVersion.size() > maxLength || customSignalVersion.size() > maxLength) {
-      logger.warn(
-          "Semantic version max length(%s) exceeded. Target: %s, Custom Signal: %s",
-          maxLength, targetValueString, customSignal);
-      return false;
-    }
-
-    int comparison = compareSemanticVersions(customSignalVersion, targetVersion);
-    return compareFunction.test(comparison);
+    return customSignal -> {
+      int comparison = compareSemanticVersion(customSignal, targetVersion);
+      return comparison != INVALID_SEMANTIC_VERSION && compareFunction.test(comparison);
+    };
   }
 
-  private int compareSemanticVersions(List<Integer> version1, List<Integer> version2) {
-    int maxLength = Math.max(version1.size(), version2.size());
-    int version1Size = version1.size();
-    int version2Size = version2.size();
-
-    for (int i = 0; i < maxLength; i++) {
-      // Default to 0 if segment is missing
-      int v1 = i < version1Size ? version1.get(i) : 0;
-      int v2 = i < version2Size ? version2.get(i) : 0;
-
-      int comparison = Integer.compare(v1, v2);
-      if (comparison != 0) {
-        return comparison;
+  @Nullable
+  private static int[] parseSemanticVersion(String versionString) {
+    if (!SEMVER_PATTERN.matcher(versionString).matches()) {
+      return null;
+    }
+    String[] segments = versionString.split("\\.");
+    int[] version = new int[segments.length];
+    try {
+      for (int i = 0; i < segments.length; i++) {
+        version[i] = Integer.parseInt(segments[i]);
       }
+    } catch (NumberFormatException e) {
+      return null;
     }
-    // Versions are equal
-    return 0;
+    return version;
   }
 
-  private List<Integer> parseSemanticVersion(String versionString) {
-    return Arrays.stream(versionString.split("\\."))
-        .map(Integer::parseInt)
-        .collect(Collectors.toList());
-  }
+  /**
+   * Compares a semantic version string to a parsed version, validating the string in the same
+   * pass. Missing segments are treated as 0.
+   *
+   * @return A negative number, zero, or a positive number if the version string is less than,
+   *     equal to, or greater than the target version, or {@code INVALID_SEMANTIC_VERSION} if the
+   *     string is not a valid semantic version.
+   */
+  private static int compareSemanticVersion(String version, int[] targetVersion) {
+    int length = version.length();
+    int comparison = 0;
+    int segment = 0;
+    int index = 0;
+    while (true) {
+      if (segment == MAX_SEMANTIC_VERSION_LENGTH) {
+        return INVALID_SEMANTIC_VERSION;
+      }
+      int start = index;
+      long value = 0;
+      while (index < length && version.charAt(index) >= '0' && version.charAt(index) <= '9') {
+        value = value * 10 + (version.charAt(index) - '0');
+        if (value > Integer.MAX_VALUE) {
+          return INVALID_SEMANTIC_VERSION;
+        }
+        index++;
+      }
+      if (index == start) {
+        return INVALID_SEMANTIC_VERSION;
+      }
+      if (comparison == 0) {
+        int target = segment < targetVersion.length ? targetVersion[segment] : 0;
+        comparison = Long.compare(value, target);
+      }
+      segment++;
+      if (index == length) {
+        break;
+      }
+      if (version.charAt(index) != '.') {
+        return INVALID_SEMANTIC_VERSION;
+      }
+      index++;
+    }
 
-  private boolean validateSemanticVersion(String version) {
-    return SEMVER_PATTERN.matcher(version).matches();
+    for (int i = segment; comparison == 0 && i < targetVersion.length; i++) {
+      comparison = Integer.compare(0, targetVersion[i]);
+    }
+    return comparison;
   }
 }
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
+import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
+import com.google.firebase.remoteconfig.ConditionEvaluator.CompiledCondition;
+import com.google.firebase.remoteconfig.ConditionEvaluator.Evaluation;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.ParameterValueResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A server template compiled for evaluation. Conditions are compiled into predicates, each
+ * parameter is reduced to the conditions it has values for in template order, and all the
+ * resulting {@link Value} instances are created up front. Since values are immutable, they are
+ * shared by all the configs produced by the plan.
+ *
+ * <p>Evaluation is lazy. A config resolves a parameter when it is first read, and evaluates a
+ * condition when a parameter first depends on it, so that the cost of an evaluation depends on
+ * the number of keys read rather than on the size of the template. The columnar encoding used by
+ * {@link #evaluateRow(KeysAndValues)} is only built when it is first needed.
+ *
+ * <p>Plans compiled with an evaluation cache memoize the configs of the contexts they evaluate,
+ * keyed by the values of the context keys that the conditions read. Since a config only depends on
+ * those values, contexts that agree on them share the same config, which is resolved eagerly and
+ * never changes. Templates with percent conditions depend on the randomization ID, which is
+ * usually unique per context, so they are not memoized. The cache belongs to the plan, and is
+ * discarded with it when a new template is loaded.
+ */
+final class EvaluationPlan {
+
+  private static final Logger logger = LoggerFactory.getLogger(EvaluationPlan.class);
+
+  private static final byte UNKNOWN = 0;
+  private static final byte MATCHED = 1;
+  private static final byte NOT_MATCHED = 2;
+
+  // Marks memoized parameters that resolve to the in-app default. Compared by identity.
+  private static final Value IN_APP_DEFAULT = new Value(ValueSource.DEFAULT);
+
+  private final ServerTemplateData templateData;
+  private final boolean hasConditions;
+  private final CompiledCondition[] conditions;
+  private final ImmutableMap<String, Value> defaultValues;
+  private final ImmutableMap<String, CompiledParameter> parameters;
+
+  // Null if configs are not memoized.
+  private final String[] contextKeys;
+  private final Cache<List<String>, ServerConfig> configCache;
+
+  // Built on first use, since only columnar evaluation needs it.
+  private final Supplier<ColumnarEncoding> columnarEncoding =
+      Suppliers.memoize(this::buildColumnarEncoding);
+
+  private EvaluationPlan(
+      ServerTemplateData templateData,
+      CompiledCondition[] conditions,
+      ImmutableMap<String, Value> defaultValues,
+      ImmutableMap<String, CompiledParameter> parameters,
+      @Nullable String[] contextKeys,
+      long evaluationCacheSize) {
+    this.templateData = templateData;
+    this.hasConditions = !templateData.getServerConditions().isEmpty();
+    this.conditions = conditions;
+    this.defaultValues = defaultValues;
+    this.parameters = parameters;
+    this.contextKeys = contextKeys;
+    this.configCache = contextKeys != null
+        ? CacheBuilder.newBuilder().maximumSize(evaluationCacheSize).build() : null;
+  }
+
+  private ColumnarEncoding buildColumnarEncoding() {
+    ImmutableList.Builder<String> keys = ImmutableList.builder();
+    List<Value> values = new ArrayList<>();
+    Map<Value, Integer> valueIndexes = new IdentityHashMap<>();
+    List<Integer> defaultRow = new ArrayList<>();
+    int[][] conditionalValueIndexes = new int[parameters.size()][];
+    for (Map.Entry<String, CompiledParameter> entry : parameters.entrySet()) {
+      CompiledParameter parameter = entry.getValue();
+      Value inAppDefault = defaultValues.get(entry.getKey());
+      int[] indexes = new int[parameter.conditionalValues.length];
+      for (int i = 0; i < indexes.length; i++) {
+        indexes[i] = indexOf(parameter.conditionalValues[i], inAppDefault, values, valueIndexes);
+      }
+      conditionalValueIndexes[parameter.index] = indexes;
+      keys.add(entry.getKey());
+      defaultRow.add(indexOf(parameter.defaultValue, inAppDefault, values, valueIndexes));
+    }
+    for (Map.Entry<String, Value> entry : defaultValues.entrySet()) {
+      if (!parameters.containsKey(entry.getKey())) {
+        keys.add(entry.getKey());
+        defaultRow.add(indexOf(entry.getValue(), null, values, valueIndexes));
+      }
+    }
+    return new ColumnarEncoding(new EvaluationSchema(keys.build(), values),
+        Ints.toArray(defaultRow), conditionalValueIndexes);
+  }
+
+  private static int indexOf(@Nullable Value value, @Nullable Value inAppDefault,
+      List<Value> values, Map<Value, Integer> valueIndexes) {
+    if (value == null) {
+      if (inAppDefault == null) {
+        return EvaluationSchema.NO_VALUE;
+      }
+      value = inAppDefault;
+    }
+    Integer index = valueIndexes.get(value);
+    if (index == null) {
+      index = values.size();
+      values.add(value);
+      valueIndexes.put(value, index);
+    }
+    return index;
+  }
+
+  /**
+   * Compiles the given template data, and the default config of the template.
+   *
+   * @param templateData The template data to compile.
+   * @param defaultConfig The in-app default values of the template.
+   * @return The compiled plan.
+   */
+  @NonNull
+  static EvaluationPlan compile(
+      @NonNull ServerTemplateData templateData, @NonNull KeysAndValues defaultConfig) {
+    return compile(templateData, defaultConfig, 0);
+  }
+
+  /**
+   * Compiles the given template data, and the default config of the template, into a plan that
+   * memoizes up to the given number of configs.
+   *
+   * @param templateData The template data to compile.
+   * @param defaultConfig The in-app default values of the template.
+   * @param evaluationCacheSize The maximum number of configs to memoize, or 0 to evaluate each
+   *     context separately.
+   * @return The compiled plan.
+   */
+  @NonNull
+  static EvaluationPlan compile(@NonNull ServerTemplateData templateData,
+      @NonNull KeysAndValues defaultConfig, long evaluationCacheSize) {
+    checkNotNull(templateData, "Template data must not be null.");
+    checkNotNull(defaultConfig, "Default config must not be null.");
+    checkArgument(evaluationCacheSize >= 0, "Evaluation cache size must not be negative.");
+
+    // Duplicate condition names resolve to the first condition with the name, which is the one
+    // that takes precedence.
+    Map<String, Integer> conditionIndexes = new HashMap<>();
+    List<CompiledCondition> conditions = new ArrayList<>();
+    Set<String> contextKeys = new LinkedHashSet<>();
+    for (ServerCondition condition : templateData.getServerConditions()) {
+      if (!conditionIndexes.containsKey(condition.getName())) {
+        conditionIndexes.put(condition.getName(), conditions.size());
+        conditions.add(ConditionEvaluator.compile(condition.getCondition()));
+        ConditionEvaluator.collectContextKeys(condition.getCondition(), contextKeys);
+      }
+    }
+    boolean memoize = evaluationCacheSize > 0
+        && !contextKeys.contains(ConditionEvaluator.RANDOMIZATION_ID_KEY);
+
+    ImmutableMap.Builder<String, Value> defaultValues = ImmutableMap.builder();
+    for (Map.Entry<String, String> entry : defaultConfig.keysAndValues.entrySet()) {
+      defaultValues.put(entry.getKey(), new Value(ValueSource.DEFAULT, entry.getValue()));
+    }
+
+    ImmutableMap.Builder<String, CompiledParameter> parameters = ImmutableMap.builder();
+    int parameterIndex = 0;
+    for (Map.Entry<String, Parameter> entry : templateData.getParameters().entrySet()) {
+      if (entry.getValue() == null) {
+        logger.warn(String.format("Parameter value is not assigned for %s", entry.getKey()));
+        continue;
+      }
+      parameters.put(entry.getKey(), compileParameter(
+          entry.getKey(), parameterIndex++, entry.getValue(), conditionIndexes));
+    }
+
+    return new EvaluationPlan(
+        templateData,
+        conditions.toArray(new CompiledCondition[0]),
+        defaultValues.build(),
+        parameters.build(),
+        memoize ? contextKeys.toArray(new String[0]) : null,
+        evaluationCacheSize);
+  }
+
+  @NonNull
+  ServerTemplateData getTemplateData() {
+    return templateData;
+  }
+
+  /**
+   * Evaluates the template against the given context. Parameters are resolved when they are
+   * first read from the returned config, and conditions when a parameter first depends on them.
+   *
+   * <p>If the plan memoizes configs, returns the config shared by all the contexts with the same
+   * values for the keys read by the conditions instead.
+   *
+   * @param context The evaluation context, or null to ignore all conditions.
+   * @return The evaluated config.
+   */
+  @NonNull
+  ServerConfig evaluate(@Nullable KeysAndValues context) {
+    checkArgument(hasConditions, "List of conditions must not be empty.");
+    if (configCache == null || context == null) {
+      return new ServerConfig(new LazyResolver(context));
+    }
+
+    String[] fingerprint = new String[contextKeys.length];
+    for (int i = 0; i < fingerprint.length; i++) {
+      fingerprint[i] = context.get(contextKeys[i]);
+    }
+    List<String> cacheKey = Arrays.asList(fingerprint);
+    ServerConfig config = configCache.getIfPresent(cacheKey);
+    if (config == null) {
+      // Concurrent misses may resolve the same config more than once, which is harmless.
+      config = resolveAll(context);
+      configCache.put(cacheKey, config);
+    }
+    return config;
+  }
+
+  @VisibleForTesting
+  long getCachedConfigCount() {
+    return configCache != null ? configCache.size() : 0;
+  }
+
+  @NonNull
+  EvaluationSchema getSchema() {
+    return columnarEncoding.get().schema;
+  }
+
+  /**
+   * Evaluates the template against the given context into a row of value indexes, as described
+   * by {@link #getSchema()}. Unlike {@link #evaluate(KeysAndValues)}, all the parameters are
+   * resolved eagerly.
+   *
+   * @param context The evaluation context, or null to ignore all conditions.
+   * @return A new row.
+   */
+  @NonNull
+  int[] evaluateRow(@Nullable KeysAndValues context) {
+    checkArgument(hasConditions, "List of conditions must not be empty.");
+    ColumnarEncoding encoding = columnarEncoding.get();
+    int[] row = encoding.defaultRow.clone();
+    if (context != null) {
+      ConditionMatcher matcher = new ConditionMatcher(new Evaluation(context));
+      for (CompiledParameter parameter : parameters.values()) {
+        int match = matcher.match(parameter);
+        if (match >= 0) {
+          row[parameter.index] = encoding.conditionalValueIndexes[parameter.index][match];
+        }
+      }
+    }
+    return row;
+  }
+
+  private ServerConfig resolveAll(KeysAndValues context) {
+    ConditionMatcher matcher = new ConditionMatcher(new Evaluation(context));
+    Value[] values = new Value[parameters.size()];
+    for (CompiledParameter parameter : parameters.values()) {
+      int match = matcher.match(parameter);
+      Value value = match >= 0 ? parameter.conditionalValues[match] : parameter.defaultValue;
+      values[parameter.index] = value != null ? value : IN_APP_DEFAULT;
+    }
+
+    return new ServerConfig(key -> {
+      CompiledParameter parameter = parameters.get(key);
+      Value value = parameter != null ? values[parameter.index] : IN_APP_DEFAULT;
+      return value != IN_APP_DEFAULT ? value : defaultValues.get(key);
+    });
+  }
+
+  private static CompiledParameter compileParameter(
+      String name, int parameterIndex, Parameter parameter, Map<String, Integer> conditionIndexes) {
+    // Orders the conditional values of the parameter by the precedence of their conditions.
+    ParameterValue[] valuesByCondition = new ParameterValue[conditionIndexes.size()];
+    for (Map.Entry<String, ParameterValue> entry : parameter.getConditionalValues().entrySet()) {
+      Integer index = conditionIndexes.get(entry.getKey());
+      if (index != null) {
+        valuesByCondition[index] = entry.getValue();
+      }
+    }
+
+    List<Integer> indexes = new ArrayList<>();
+    List<Value> values = new ArrayList<>();
+    for (int i = 0; i < valuesByCondition.length; i++) {
+      if (valuesByCondition[i] == null) {
+        continue;
+      }
+      ParameterValueResponse response = valuesByCondition[i].toParameterValueResponse();
+      if (response.isUseInAppDefault()) {
+        logger.warn(
+            String.format("Conditional value of %s is set to use in app default.", name));
+        values.add(null);
+      } else {
+        values.add(new Value(ValueSource.REMOTE, response.getValue()));
+      }
+      indexes.add(i);
+    }
+
+    int[] indexArray = new int[indexes.size()];
+    for (int i = 0; i < indexArray.length; i++) {
+      indexArray[i] = indexes.get(i);
+    }
+    return new CompiledParameter(
+        parameterIndex, indexArray, values.toArray(new Value[0]),
+        compileDefaultValue(name, parameter));
+  }
+
+  @Nullable
+  private static Value compileDefaultValue(String name, Parameter parameter) {
+    ParameterValue defaultValue = parameter.getDefaultValue();
+    if (defaultValue == null) {
+      logger.warn(String.format("Default parameter value for %s is not set.", name));
+      return null;
+    }
+
+    ParameterValueResponse defaultValueResponse = defaultValue.toParameterValueResponse();
+    if (defaultValueResponse != null && defaultValueResponse.isUseInAppDefault()) {
+      logger.info(String.format("Default value for %s is set to use in app default.", name));
+      return null;
+    }
+    return new Value(ValueSource.REMOTE, defaultValueResponse.getValue());
+  }
+
+  /**
+   * Evaluates the conditions of a single context, each at most once.
+   */
+  private final class ConditionMatcher {
+
+    private final Evaluation evaluation;
+    private byte[] states;
+
+    ConditionMatcher(Evaluation evaluation) {
+      this.evaluation = evaluation;
+    }
+
+    /**
+     * Returns the position of the first conditional value of the parameter whose condition
+     * matches, or -1 if none does.
+     */
+    int match(CompiledParameter parameter) {
+      int[] parameterConditions = parameter.conditionIndexes;
+      for (int i = 0; i < parameterConditions.length; i++) {
+        if (isMatched(parameterConditions[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private boolean isMatched(int index) {
+      if (states == null) {
+        states = new byte[conditions.length];
+      }
+      byte state = states[index];
+      if (state == UNKNOWN) {
+        state = conditions[index].evaluate(evaluation) ? MATCHED : NOT_MATCHED;
+        states[index] = state;
+      }
+      return state == MATCHED;
+    }
+  }
+
+  /**
+   * Resolves the values of a single config. Resolved parameters and evaluated conditions are
+   * memoized, so that each is computed at most once per config.
+   */
+  private final class LazyResolver implements ServerConfig.Resolver {
+
+    private final ConditionMatcher matcher;
+    private Value[] values;
+
+    LazyResolver(@Nullable KeysAndValues context) {
+      this.matcher = context != null ? new ConditionMatcher(new Evaluation(context)) : null;
+    }
+
+    @Override
+    public synchronized Value resolve(String key) {
+      CompiledParameter parameter = parameters.get(key);
+      if (parameter == null) {
+        return defaultValues.get(key);
+      }
+
+      if (values == null) {
+        values = new Value[parameters.size()];
+      }
+      Value value = values[parameter.index];
+      if (value == null) {
+        value = resolve(parameter);
+        if (value == null) {
+          value = IN_APP_DEFAULT;
+        }
+        values[parameter.index] = value;
+      }
+      return value != IN_APP_DEFAULT ? value : defaultValues.get(key);
+    }
+
+    @Nullable
+    private Value resolve(CompiledParameter parameter) {
+      int match = matcher != null ? matcher.match(parameter) : -1;
+      // Null if the matching value uses the in-app default.
+      return match >= 0 ? parameter.conditionalValues[match] : parameter.defaultValue;
+    }
+  }
+
+  private static final class CompiledParameter {
+
+    private final int index;
+    private final int[] conditionIndexes;
+    private final Value[] conditionalValues;
+    private final Value defaultValue;
+
+    CompiledParameter(
+        int index, int[] conditionIndexes, Value[] conditionalValues, Value defaultValue) {
+      this.index = index;
+      this.conditionIndexes = conditionIndexes;
+      this.conditionalValues = conditionalValues;
+      this.defaultValue = defaultValue;
+    }
+  }
+
+  /**
+   * Columnar encoding of the configs. Parameters come first, in the order of their indexes,
+   * followed by the keys that only have in-app defaults.
+   */
+  private static final class ColumnarEncoding {
+
+    private final EvaluationSchema schema;
+    private final int[] defaultRow;
+    private final int[][] conditionalValueIndexes;
+
+    ColumnarEncoding(
+        EvaluationSchema schema, int[] defaultRow, int[][] conditionalValueIndexes) {
+      this.schema = schema;
+      this.defaultRow = defaultRow;
+      this.conditionalValueIndexes = conditionalValueIndexes;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.firebase.internal.NonNull;
+import java.util.List;
+
+/**
+ * Describes the rows produced by
+ * {@link ServerTemplate#evaluateAllColumnar(java.util.Iterator, java.util.concurrent.ForkJoinPool,
+ * ServerTemplate.ColumnarListener)}. Each row is an array with one element per key of the schema,
+ * holding the index of the value of the key in the schema, or {@link #NO_VALUE} if the key has no
+ * value. Values are shared by all the rows, so a row takes 4 bytes per key regardless of the size
+ * of the values.
+ */
+public final class EvaluationSchema {
+
+  /**
+   * Index of keys that have no value in a row. {@link ServerConfig} returns the static default
+   * value for such keys.
+   */
+  public static final int NO_VALUE = -1;
+
+  private final ImmutableList<String> keys;
+  private final ImmutableMap<String, Integer> keyIndexes;
+  private final ImmutableList<String> values;
+  private final ImmutableList<ValueSource> valueSources;
+
+  EvaluationSchema(List<String> keys, List<Value> values) {
+    this.keys = ImmutableList.copyOf(keys);
+    ImmutableMap.Builder<String, Integer> keyIndexes = ImmutableMap.builder();
+    for (int i = 0; i < keys.size(); i++) {
+      keyIndexes.put(keys.get(i), i);
+    }
+    this.keyIndexes = keyIndexes.build();
+    ImmutableList.Builder<String> valueStrings = ImmutableList.builder();
+    ImmutableList.Builder<ValueSource> valueSources = ImmutableList.builder();
+    for (Value value : values) {
+      valueStrings.add(value.asString());
+      valueSources.add(value.getSource());
+    }
+    this.values = valueStrings.build();
+    this.valueSources = valueSources.build();
+  }
+
+  /**
+   * Gets the keys of the rows, in column order.
+   *
+   * @return An immutable list of keys.
+   */
+  @NonNull
+  public List<String> getKeys() {
+    return keys;
+  }
+
+  /**
+   * Gets the column of the given key.
+   *
+   * @param key The name of a parameter.
+   * @return The index of the key, or -1 if the key is not in the schema.
+   */
+  public int getKeyIndex(@NonNull String key) {
+    Integer index = keyIndexes.get(key);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Gets the distinct values referenced by the rows, as strings.
+   *
+   * @return An immutable list of values.
+   */
+  @NonNull
+  public List<String> getValues() {
+    return values;
+  }
+
+  /**
+   * Gets the source of each of the values returned by {@link #getValues()}.
+   *
+   * @return An immutable list of value sources.
+   */
+  @NonNull
+  public List<ValueSource> getValueSources() {
+    return valueSources;
+  }
+
+  /**
+   * Gets the value of a key in the given row.
+   *
+   * @param row A row produced with this schema.
+   * @param key The name of a parameter.
+   * @return The value of the key as a string, or an empty string if the key has no value.
+   */
+  @NonNull
+  public String getString(@NonNull int[] row, @NonNull String key) {
+    checkArgument(row.length == keys.size(), "Row does not match the schema.");
+    int keyIndex = getKeyIndex(key);
+    if (keyIndex < 0 || row[keyIndex] == NO_VALUE) {
+      return "";
+    }
+    return values.get(row[keyIndex]);
+  }
+}
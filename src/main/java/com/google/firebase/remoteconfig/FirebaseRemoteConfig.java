@@ -16,15 +16,29 @@
 
 package com.google.firebase.remoteconfig;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.api.core.ApiFuture;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.ImplFirebaseTrampolines;
 import com.google.firebase.internal.CallableOperation;
 import com.google.firebase.internal.FirebaseService;
 import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class is the entry point for all server-side Firebase Remote Config actions.
@@ -106,7 +120,7 @@ public final class FirebaseRemoteConfig {
    * template or config.
    */
   public ServerTemplateImpl.Builder serverTemplateBuilder() {
-    return new ServerTemplateImpl.Builder(this.remoteConfigClient);
+    return new ServerTemplateImpl.Builder(this.remoteConfigClient, this.app);
   }
 
   /**
@@ -217,6 +231,42 @@ public final class FirebaseRemoteConfig {
     return getTemplateAtVersionOp(versionNumberString).callAsync(app);
   }
 
+  /**
+   * Gets the templates of the given versions, such as the versions returned by
+   * {@link ListVersionsPage#iterateAll(int)}, in the same order. The {@code Iterator} instances
+   * produced by the returned {@code Iterable} read versions as needed, and keep up to the given
+   * number of template requests in flight ahead of the current template on threads managed by the
+   * SDK, so that long histories can be walked without waiting for each request in turn. It is safe
+   * to abandon the iterators at any time.
+   *
+   * <p>Errors encountered while getting templates are thrown from {@code next()} as a
+   * {@code RuntimeException}, with the {@link FirebaseRemoteConfigException} as the cause.
+   *
+   * @param versions The versions to get the templates of.
+   * @param maxConcurrentRequests The maximum number of requests in flight, which must be between
+   *     1 and 16.
+   * @return An {@code Iterable} over the templates of the versions.
+   * @throws IllegalArgumentException If the number of requests is out of range.
+   */
+  @NonNull
+  public Iterable<Template> getTemplatesAtVersions(
+          @NonNull final Iterable<Version> versions, final int maxConcurrentRequests) {
+    checkNotNull(versions, "versions must not be null");
+    checkArgument(maxConcurrentRequests > 0
+            && maxConcurrentRequests <= TemplateHistoryIterator.MAX_CONCURRENT_REQUESTS,
+        "maxConcurrentRequests must be a positive integer that does not exceed %s",
+        TemplateHistoryIterator.MAX_CONCURRENT_REQUESTS);
+    final FirebaseRemoteConfigClient remoteConfigClient = getRemoteConfigClient();
+    final Executor executor = ImplFirebaseTrampolines.getExecutor(app);
+    return new Iterable<Template>() {
+      @Override
+      public Iterator<Template> iterator() {
+        return new TemplateHistoryIterator(versions.iterator(),
+            remoteConfigClient::getTemplateAtVersion, executor, maxConcurrentRequests);
+      }
+    };
+  }
+
   private CallableOperation<Template, FirebaseRemoteConfigException> getTemplateAtVersionOp(
           final String versionNumber) {
     final FirebaseRemoteConfigClient remoteConfigClient = getRemoteConfigClient();
@@ -452,7 +502,8 @@ public final class FirebaseRemoteConfig {
     final FirebaseRemoteConfigClient remoteConfigClient = getRemoteConfigClient();
     final ListVersionsPage.DefaultVersionSource source =
             new ListVersionsPage.DefaultVersionSource(remoteConfigClient);
-    final ListVersionsPage.Factory factory = new ListVersionsPage.Factory(source, options);
+    final ListVersionsPage.Factory factory =
+            new ListVersionsPage.Factory(source, options, ImplFirebaseTrampolines.getExecutor(app));
     return new CallableOperation<ListVersionsPage, FirebaseRemoteConfigException>() {
       @Override
       protected ListVersionsPage execute() throws FirebaseRemoteConfigException {
@@ -461,6 +512,96 @@ public final class FirebaseRemoteConfig {
     };
   }
 
+  /**
+   * Receives the versions listed by
+   * {@link #listAllVersions(Collection, ListVersionsOptions, VersionListener)}.
+   */
+  public interface VersionListener {
+
+    /**
+     * Called with each version of each project. Called concurrently for different projects, and
+     * in list order for the versions of a single project.
+     *
+     * @param app The app of the project the version belongs to.
+     * @param version The version.
+     */
+    void onVersion(@NonNull FirebaseApp app, @NonNull Version version);
+  }
+
+  /**
+   * Lists all the template versions of several projects concurrently. The version history of each
+   * project is walked on a thread managed by its app, except for the first project, which is
+   * walked on the calling thread, and the next pages of each history are requested ahead of time
+   * like {@link ListVersionsPage#iterateAll(int)}. The first error encountered stops all the
+   * walks, and is rethrown by this method once they have all stopped.
+   *
+   * @param instances The {@link FirebaseRemoteConfig} instances of the projects to list.
+   * @param options List version options applied to each project, or null to list all versions.
+   * @param listener The listener to report versions to.
+   * @return The number of versions listed across all the projects.
+   * @throws FirebaseRemoteConfigException If an error occurs while listing versions, or if the
+   *     calling thread is interrupted.
+   */
+  public static long listAllVersions(@NonNull Collection<FirebaseRemoteConfig> instances,
+          @Nullable ListVersionsOptions options, @NonNull VersionListener listener)
+          throws FirebaseRemoteConfigException {
+    checkNotNull(instances, "instances must not be null");
+    checkNotNull(listener, "listener must not be null");
+    final AtomicBoolean failed = new AtomicBoolean();
+    List<Executor> executors = new ArrayList<>();
+    List<Callable<Long>> tasks = new ArrayList<>();
+    for (final FirebaseRemoteConfig instance : ImmutableList.copyOf(instances)) {
+      executors.add(ImplFirebaseTrampolines.getExecutor(instance.app));
+      tasks.add(() -> instance.walkVersions(options, listener, failed));
+    }
+
+    List<Long> counts;
+    try {
+      counts = ParallelTasks.invokeAll(executors, tasks, () -> failed.set(true));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FirebaseRemoteConfigException(
+          ErrorCode.CANCELLED, "Interrupted while listing versions", e, null, null);
+    } catch (ExecutionException e) {
+      Throwable failure = e.getCause();
+      Throwables.throwIfInstanceOf(failure, FirebaseRemoteConfigException.class);
+      Throwables.throwIfUnchecked(failure);
+      throw new IllegalStateException(failure);
+    }
+
+    long count = 0;
+    for (long projectCount : counts) {
+      count += projectCount;
+    }
+    return count;
+  }
+
+  private long walkVersions(@Nullable ListVersionsOptions options, VersionListener listener,
+          AtomicBoolean failed) throws FirebaseRemoteConfigException {
+    long count = 0;
+    try {
+      ListVersionsPage page = listVersionsOp(options).call();
+      Iterator<Version> versions =
+          page.iterateAll(ListVersionsPage.DEFAULT_PREFETCH_PAGES).iterator();
+      while (!failed.get() && versions.hasNext()) {
+        listener.onVersion(app, versions.next());
+        count++;
+      }
+    } catch (RuntimeException e) {
+      failed.set(true);
+      // Errors of the prefetched pages are wrapped by the iterator. Other runtime exceptions,
+      // such as those thrown by the listener, may have no cause.
+      if (e.getCause() != null) {
+        Throwables.throwIfInstanceOf(e.getCause(), FirebaseRemoteConfigException.class);
+      }
+      throw e;
+    } catch (FirebaseRemoteConfigException e) {
+      failed.set(true);
+      throw e;
+    }
+    return count;
+  }
+
   @VisibleForTesting
   FirebaseRemoteConfigClient getRemoteConfigClient() {
     return remoteConfigClient;
@@ -16,6 +16,7 @@
 
 package com.google.firebase.remoteconfig;
 
+import com.google.firebase.internal.Nullable;
 import com.google.firebase.remoteconfig.internal.TemplateResponse.ListVersionsResponse;
 
 /**
@@ -42,5 +43,16 @@ interface FirebaseRemoteConfigClient {
           ListVersionsOptions options) throws FirebaseRemoteConfigException;
   
   String getServerTemplate() throws FirebaseRemoteConfigException;
+
+  /**
+   * Gets the current server template, unless its ETag matches the given one.
+   *
+   * @param etag The ETag of the template held by the caller, or null to fetch unconditionally.
+   * @return The template, or null if the server reports that it has not been modified.
+   * @throws FirebaseRemoteConfigException If an error occurs while getting the template.
+   */
+  @Nullable
+  ServerTemplateData getServerTemplateData(
+      @Nullable String etag) throws FirebaseRemoteConfigException;
 }
 
@@ -22,8 +22,9 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpResponseInterceptor;
-import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
@@ -36,9 +37,9 @@ import com.google.firebase.internal.ApiClientUtils;
 import com.google.firebase.internal.ErrorHandlingHttpClient;
 import com.google.firebase.internal.HttpRequestInfo;
 import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
 import com.google.firebase.internal.SdkUtils;
 import com.google.firebase.remoteconfig.internal.RemoteConfigServiceErrorResponse;
-import com.google.firebase.remoteconfig.internal.ServerTemplateResponse;
 import com.google.firebase.remoteconfig.internal.TemplateResponse;
 
 import java.io.IOException;
@@ -69,6 +70,7 @@ final class FirebaseRemoteConfigClientImpl implements FirebaseRemoteConfigClient
   private final String serverRemoteConfigUrl;
   private final HttpRequestFactory requestFactory;
   private final JsonFactory jsonFactory;
+  private final RemoteConfigErrorHandler errorHandler;
   private final ErrorHandlingHttpClient<FirebaseRemoteConfigException> httpClient;
 
   private FirebaseRemoteConfigClientImpl(Builder builder) {
@@ -78,7 +80,7 @@ final class FirebaseRemoteConfigClientImpl implements FirebaseRemoteConfigClient
     this.requestFactory = checkNotNull(builder.requestFactory);
     this.jsonFactory = checkNotNull(builder.jsonFactory);
     HttpResponseInterceptor responseInterceptor = builder.responseInterceptor;
-    RemoteConfigErrorHandler errorHandler = new RemoteConfigErrorHandler(this.jsonFactory);
+    this.errorHandler = new RemoteConfigErrorHandler(this.jsonFactory);
     this.httpClient = new ErrorHandlingHttpClient<>(requestFactory, jsonFactory, errorHandler)
             .setInterceptor(responseInterceptor);
   }
@@ -108,21 +110,40 @@ final class FirebaseRemoteConfigClientImpl implements FirebaseRemoteConfigClient
     HttpRequestInfo request = HttpRequestInfo.buildGetRequest(remoteConfigUrl)
             .addAllHeaders(COMMON_HEADERS);
     IncomingHttpResponse response = httpClient.send(request);
-    TemplateResponse templateResponse = httpClient.parse(response, TemplateResponse.class);
-    Template template = new Template(templateResponse);
+    Template template = parseTemplate(response);
     return template.setETag(getETag(response));
   }
 
   @Override
   public String getServerTemplate() throws FirebaseRemoteConfigException {
+    return getServerTemplateData(null).toJSON();
+  }
+
+  @Override
+  public ServerTemplateData getServerTemplateData(
+      @Nullable String etag) throws FirebaseRemoteConfigException {
     HttpRequestInfo request =
         HttpRequestInfo.buildGetRequest(serverRemoteConfigUrl).addAllHeaders(COMMON_HEADERS);
-    IncomingHttpResponse response = httpClient.send(request);
-    ServerTemplateResponse templateResponse = httpClient.parse(response, 
-                                ServerTemplateResponse.class);
-    ServerTemplateData serverTemplateData = new ServerTemplateData(templateResponse);
-    serverTemplateData.setETag(getETag(response));
-    return serverTemplateData.toJSON(); 
+    if (!Strings.isNullOrEmpty(etag)) {
+      request.addHeader("If-None-Match", etag);
+    }
+
+    IncomingHttpResponse response;
+    try {
+      response = httpClient.send(request);
+    } catch (FirebaseRemoteConfigException e) {
+      if (!Strings.isNullOrEmpty(etag) && isNotModified(e)) {
+        return null;
+      }
+      throw e;
+    }
+    ServerTemplateData serverTemplateData;
+    try (JsonParser parser = jsonFactory.createJsonParser(response.getContent())) {
+      serverTemplateData = TemplateJsonReader.readServerTemplate(parser);
+    } catch (IOException e) {
+      throw errorHandler.handleParseException(e, response);
+    }
+    return serverTemplateData.setETag(getETag(response));
   }
 
   @Override
@@ -134,8 +155,7 @@ final class FirebaseRemoteConfigClientImpl implements FirebaseRemoteConfigClient
             .addAllHeaders(COMMON_HEADERS)
             .addParameter("versionNumber", versionNumber);
     IncomingHttpResponse response = httpClient.send(request);
-    TemplateResponse templateResponse = httpClient.parse(response, TemplateResponse.class);
-    Template template = new Template(templateResponse);
+    Template template = parseTemplate(response);
     return template.setETag(getETag(response));
   }
 
@@ -144,15 +164,14 @@ final class FirebaseRemoteConfigClientImpl implements FirebaseRemoteConfigClient
                                   boolean forcePublish) throws FirebaseRemoteConfigException {
     checkArgument(template != null, "Template must not be null.");
     HttpRequestInfo request = HttpRequestInfo.buildRequest("PUT", remoteConfigUrl,
-            new JsonHttpContent(jsonFactory, template.toTemplateResponse(false)))
+            TemplateJsonWriter.newContent(jsonFactory, template, false))
             .addAllHeaders(COMMON_HEADERS)
             .addHeader("If-Match", forcePublish ? "*" : template.getETag());
     if (validateOnly) {
       request.addParameter("validateOnly", true);
     }
     IncomingHttpResponse response = httpClient.send(request);
-    TemplateResponse templateResponse = httpClient.parse(response, TemplateResponse.class);
-    Template publishedTemplate = new Template(templateResponse);
+    Template publishedTemplate = parseTemplate(response);
     if (validateOnly) {
       // validating a template returns an etag with the suffix -0 means that the provided template
       // was successfully validated. We set the etag back to the original etag of the template
@@ -171,8 +190,7 @@ final class FirebaseRemoteConfigClientImpl implements FirebaseRemoteConfigClient
             .buildJsonPostRequest(remoteConfigUrl + ":rollback", content)
             .addAllHeaders(COMMON_HEADERS);
     IncomingHttpResponse response = httpClient.send(request);
-    TemplateResponse templateResponse = httpClient.parse(response, TemplateResponse.class);
-    Template template = new Template(templateResponse);
+    Template template = parseTemplate(response);
     return template.setETag(getETag(response));
   }
 
@@ -187,6 +205,21 @@ final class FirebaseRemoteConfigClientImpl implements FirebaseRemoteConfigClient
     return httpClient.sendAndParse(request, TemplateResponse.ListVersionsResponse.class);
   }
 
+  private Template parseTemplate(
+      IncomingHttpResponse response) throws FirebaseRemoteConfigException {
+    try (JsonParser parser = jsonFactory.createJsonParser(response.getContent())) {
+      return TemplateJsonReader.readTemplate(parser);
+    } catch (IOException e) {
+      throw errorHandler.handleParseException(e, response);
+    }
+  }
+
+  private static boolean isNotModified(FirebaseRemoteConfigException e) {
+    IncomingHttpResponse response = e.getHttpResponse();
+    return response != null
+        && response.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED;
+  }
+
   private String getETag(IncomingHttpResponse response) {
     List<String> etagList = (List<String>) response.getHeaders().get("etag");
     checkState(etagList != null && !etagList.isEmpty(),
@@ -16,16 +16,26 @@
 
 package com.google.firebase.remoteconfig;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.api.gax.paging.Page;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
 import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
+import com.google.firebase.internal.ParallelTasks;
 import com.google.firebase.remoteconfig.internal.TemplateResponse;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Represents a page of {@link Version} instances. Provides methods for iterating
@@ -35,17 +45,21 @@ import java.util.NoSuchElementException;
 public final class ListVersionsPage implements Page<Version> {
 
   static final String END_OF_LIST = "";
+  static final int DEFAULT_PREFETCH_PAGES = 2;
+  static final int MAX_PREFETCH_PAGES = 16;
 
   private final VersionsResultBatch currentBatch;
   private final VersionSource source;
   private final ListVersionsOptions listVersionsOptions;
+  private final Executor executor;
 
   private ListVersionsPage(
           @NonNull VersionsResultBatch currentBatch, @NonNull VersionSource source,
-          @NonNull ListVersionsOptions listVersionsOptions) {
+          @NonNull ListVersionsOptions listVersionsOptions, @Nullable Executor executor) {
     this.currentBatch = checkNotNull(currentBatch);
     this.source = checkNotNull(source);
     this.listVersionsOptions = listVersionsOptions;
+    this.executor = executor;
   }
 
   /**
@@ -67,15 +81,9 @@ public final class ListVersionsPage implements Page<Version> {
   @Override
   public ListVersionsPage getNextPage() {
     if (hasNextPage()) {
-      ListVersionsOptions options;
-      if (listVersionsOptions != null) {
-        options = listVersionsOptions.toBuilder().setPageToken(currentBatch.getNextPageToken())
-                .build();
-      } else {
-        options = ListVersionsOptions.builder().setPageToken(currentBatch.getNextPageToken())
-                .build();
-      }
-      Factory factory = new Factory(source, options);
+      ListVersionsOptions options =
+              withPageToken(listVersionsOptions, currentBatch.getNextPageToken());
+      Factory factory = new Factory(source, options, executor);
       try {
         return factory.create();
       } catch (FirebaseRemoteConfigException e) {
@@ -122,6 +130,43 @@ public final class ListVersionsPage implements Page<Version> {
     return new VersionIterable(this);
   }
 
+  /**
+   * Returns an {@code Iterable} over all the versions in the current Firebase project, starting
+   * from this page, like {@link #iterateAll()}. The {@code Iterator} instances produced by the
+   * returned {@code Iterable} request the following pages ahead of time on a thread managed by the
+   * SDK, so that the next page is usually available by the time the current one is consumed. Each
+   * iterator holds at most the given number of pages ahead of the current one. It is safe to
+   * abandon the iterators at any time, in which case the pages that are already requested are
+   * discarded.
+   *
+   * <p>Errors encountered while loading pages are thrown from {@code hasNext()} as a
+   * {@code RuntimeException}, with the {@link FirebaseRemoteConfigException} as the cause.
+   *
+   * @param prefetchPages The maximum number of pages to load ahead, which must be between 1 and
+   *     16.
+   * @return a new {@code Iterable<Version>} instance.
+   * @throws IllegalArgumentException If the number of pages is out of range.
+   */
+  @NonNull
+  public Iterable<Version> iterateAll(final int prefetchPages) {
+    checkArgument(prefetchPages > 0 && prefetchPages <= MAX_PREFETCH_PAGES,
+            "prefetchPages must be a positive integer that does not exceed %s",
+            MAX_PREFETCH_PAGES);
+    return new Iterable<Version>() {
+      @Override
+      public Iterator<Version> iterator() {
+        return new PrefetchingVersionIterator(ListVersionsPage.this, prefetchPages);
+      }
+    };
+  }
+
+  private static ListVersionsOptions withPageToken(
+          @Nullable ListVersionsOptions options, String pageToken) {
+    ListVersionsOptions.Builder builder =
+            options != null ? options.toBuilder() : ListVersionsOptions.builder();
+    return builder.setPageToken(pageToken).build();
+  }
+
   private static class VersionIterable implements Iterable<Version> {
 
     private final ListVersionsPage startingPage;
@@ -184,6 +229,108 @@ public final class ListVersionsPage implements Page<Version> {
     }
   }
 
+  /**
+   * An {@code Iterator} that loads pages ahead of the versions it returns. Each page is requested
+   * as soon as the token of the previous page is known, until the configured number of pages is
+   * held ahead of the current one. The iterator itself is not thread-safe, but the pages are
+   * loaded concurrently with it.
+   */
+  private static final class PrefetchingVersionIterator implements Iterator<Version> {
+
+    private final VersionSource source;
+    private final ListVersionsOptions listVersionsOptions;
+    private final Executor executor;
+    private final int prefetchPages;
+
+    // Pages that are requested but not yet consumed, in order. Guarded by this.
+    private final Deque<FutureTask<VersionsResultBatch>> pages = new ArrayDeque<>();
+    // Token of the page after the last requested one. Null while that page is being loaded, and
+    // after a failure. Guarded by this.
+    private String nextPageToken;
+
+    private List<Version> batch;
+    private int index = 0;
+
+    PrefetchingVersionIterator(ListVersionsPage startingPage, int prefetchPages) {
+      this.source = startingPage.source;
+      this.listVersionsOptions = startingPage.listVersionsOptions;
+      this.executor = startingPage.executor;
+      this.prefetchPages = prefetchPages;
+      this.batch = ImmutableList.copyOf(startingPage.getValues());
+      this.nextPageToken = startingPage.getNextPageToken();
+      prefetch();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (index == batch.size()) {
+        FutureTask<VersionsResultBatch> task;
+        synchronized (this) {
+          task = pages.poll();
+        }
+        if (task == null) {
+          return false;
+        }
+        batch = await(task).getVersions();
+        index = 0;
+        prefetch();
+      }
+      return true;
+    }
+
+    @Override
+    public Version next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return batch.get(index++);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("remove operation not supported");
+    }
+
+    private void prefetch() {
+      final String pageToken;
+      FutureTask<VersionsResultBatch> task;
+      synchronized (this) {
+        if (nextPageToken == null || END_OF_LIST.equals(nextPageToken)
+                || pages.size() >= prefetchPages) {
+          return;
+        }
+        pageToken = nextPageToken;
+        nextPageToken = null;
+        task = new FutureTask<>(() -> fetch(pageToken));
+        pages.add(task);
+      }
+
+      ParallelTasks.submit(executor, task);
+    }
+
+    private VersionsResultBatch fetch(String pageToken) throws FirebaseRemoteConfigException {
+      VersionsResultBatch result = source.fetch(withPageToken(listVersionsOptions, pageToken));
+      synchronized (this) {
+        nextPageToken = result.getNextPageToken();
+      }
+      prefetch();
+      return result;
+    }
+
+    private static VersionsResultBatch await(FutureTask<VersionsResultBatch> task) {
+      try {
+        return ParallelTasks.await(task);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(new FirebaseRemoteConfigException(
+                ErrorCode.CANCELLED, "Interrupted while listing versions"));
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new RuntimeException(e.getCause());
+      }
+    }
+  }
+
   static final class VersionsResultBatch {
 
     private final List<Version> versions;
@@ -250,19 +397,31 @@ public final class ListVersionsPage implements Page<Version> {
 
     private final VersionSource source;
     private final ListVersionsOptions listVersionsOptions;
+    private final Executor executor;
 
     Factory(@NonNull VersionSource source) {
       this(source, null);
     }
 
     Factory(@NonNull VersionSource source, @NonNull ListVersionsOptions listVersionsOptions) {
+      this(source, listVersionsOptions, null);
+    }
+
+    /**
+     * Creates a factory whose pages load subsequent pages on the given executor when iterated
+     * with {@link ListVersionsPage#iterateAll(int)}. Without an executor, pages are loaded on the
+     * iterating thread.
+     */
+    Factory(@NonNull VersionSource source, @Nullable ListVersionsOptions listVersionsOptions,
+            @Nullable Executor executor) {
       this.source = checkNotNull(source, "source must not be null");
       this.listVersionsOptions = listVersionsOptions;
+      this.executor = executor;
     }
 
     ListVersionsPage create() throws FirebaseRemoteConfigException {
       VersionsResultBatch batch = source.fetch(listVersionsOptions);
-      return new ListVersionsPage(batch, source, listVersionsOptions);
+      return new ListVersionsPage(batch, source, listVersionsOptions, executor);
     }
   }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.firebase.internal.NonNull;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Maps randomization IDs to micro-percentiles for percent conditions. The micro-percentile of an
+ * ID is the SHA-256 hash of {@code seed + "." + randomizationId}, read as an unsigned big-endian
+ * integer, modulo 100,000,000. When the seed is empty, the ID is hashed on its own.
+ *
+ * <p>Each thread reuses its own digest and buffers, and the modulo is computed with long
+ * arithmetic over the digest bytes, so that computing a percentile does not allocate for ASCII
+ * IDs.
+ */
+final class MicroPercentiles {
+
+  static final long MICRO_PERCENT_MODULO = 100_000_000L;
+
+  private static final int SHA256_LENGTH = 32;
+  private static final int MAX_BUFFERED_ID_LENGTH = 256;
+
+  private static final ThreadLocal<HashState> STATE = new ThreadLocal<HashState>() {
+    @Override
+    protected HashState initialValue() {
+      return new HashState();
+    }
+  };
+
+  private MicroPercentiles() { }
+
+  /**
+   * Encodes the hash prefix for the given seed. Percent conditions compute it once, when they
+   * are compiled.
+   */
+  @NonNull
+  static byte[] encodeSeedPrefix(String seed) {
+    String seedPrefix = seed != null && !seed.isEmpty() ? seed + "." : "";
+    return seedPrefix.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the micro-percentile of the given randomization ID, in the range
+   * [0, 100,000,000).
+   *
+   * @param seedPrefix The encoded seed prefix, as returned by {@link #encodeSeedPrefix(String)}.
+   * @param randomizationId The randomization ID of the evaluation context.
+   */
+  static long getMicroPercentile(@NonNull byte[] seedPrefix, @NonNull String randomizationId) {
+    checkNotNull(seedPrefix);
+    checkNotNull(randomizationId);
+    HashState state = STATE.get();
+    MessageDigest digest = state.digest;
+    digest.update(seedPrefix);
+    int length = encodeAscii(randomizationId, state.buffer);
+    if (length >= 0) {
+      digest.update(state.buffer, 0, length);
+    } else {
+      digest.update(randomizationId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    byte[] hash = state.hash;
+    try {
+      digest.digest(hash, 0, SHA256_LENGTH);
+    } catch (DigestException e) {
+      digest.reset();
+      throw new IllegalStateException("Failed to compute SHA-256 digest", e);
+    }
+
+    // Horner's method over the big-endian digest. Partial results are less than the modulo, so
+    // they never exceed 2^35 before the reduction.
+    long remainder = 0;
+    for (byte b : hash) {
+      remainder = ((remainder << 8) | (b & 0xff)) % MICRO_PERCENT_MODULO;
+    }
+    return remainder;
+  }
+
+  /**
+   * Writes the given string into the buffer if it is short and only contains ASCII characters,
+   * in which case its UTF-8 encoding is the same as its characters.
+   *
+   * @return The number of bytes written, or -1 if the string was not written.
+   */
+  private static int encodeAscii(String value, byte[] buffer) {
+    int length = value.length();
+    if (length > buffer.length) {
+      return -1;
+    }
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        return -1;
+      }
+      buffer[i] = (byte) c;
+    }
+    return length;
+  }
+
+  private static final class HashState {
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[MAX_BUFFERED_ID_LENGTH];
+    private final byte[] hash = new byte[SHA256_LENGTH];
+
+    HashState() {
+      try {
+        this.digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 algorithm not found", e);
+      }
+    }
+  }
+}
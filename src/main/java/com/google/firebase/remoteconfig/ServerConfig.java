@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.base.Strings;
 import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
 
 import java.util.Map;
 
@@ -27,10 +28,25 @@ import java.util.Map;
  * Represents the configuration produced by evaluating a server template.
  */
 public final class ServerConfig {
-  private final Map<String, Value> configValues;
+  private static final Value STATIC_VALUE = new Value(ValueSource.STATIC);
+
+  private final Resolver resolver;
+
+  /**
+   * Resolves the value of a key, or returns null if the key has no value. May be called
+   * concurrently.
+   */
+  interface Resolver {
+    @Nullable
+    Value resolve(@NonNull String key);
+  }
 
   ServerConfig(Map<String, Value> configValues) {
-    this.configValues = configValues;
+    this(configValues::get);
+  }
+
+  ServerConfig(Resolver resolver) {
+    this.resolver = resolver;
   }
 
   /**
@@ -94,9 +110,7 @@ public final class ServerConfig {
 
   private Value getValue(String key) {
     checkArgument(!Strings.isNullOrEmpty(key), "Server config key cannot be null or empty.");
-    if (configValues.containsKey(key)) {
-      return configValues.get(key);
-    }
-    return new Value(ValueSource.STATIC);
+    Value value = resolver.resolve(key);
+    return value != null ? value : STATIC_VALUE;
   }
 }
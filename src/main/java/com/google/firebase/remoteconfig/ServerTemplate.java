@@ -17,6 +17,13 @@
 package com.google.firebase.remoteconfig;
 
 import com.google.api.core.ApiFuture;
+import com.google.common.collect.ImmutableMap;
+import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public interface ServerTemplate {
   public interface Builder {
@@ -24,9 +31,88 @@ public interface ServerTemplate {
     Builder defaultConfig(KeysAndValues config);
 
     Builder cachedTemplate(String templateJson);
-    
+
+    /**
+     * Sets a file to persist the template in. Each new version of the template loaded by the
+     * built instance is written to the file, replacing the previous one atomically. If no
+     * {@link #cachedTemplate(String)} is set, the built instance starts with the template stored
+     * in the file, if any, and when created from {@link FirebaseRemoteConfig}, fetches the
+     * latest template in the background, so that new processes can serve without waiting for
+     * the backend. The file is only meant to be read by this SDK.
+     *
+     * <p>The default implementation throws {@code UnsupportedOperationException}.
+     *
+     * @param file The file to store the template in.
+     * @return This builder.
+     * @throws UnsupportedOperationException If the builder does not support template files.
+     */
+    default Builder templateFile(@NonNull Path file) {
+      throw new UnsupportedOperationException("Template files are not supported.");
+    }
+
+    /**
+     * Enables memoization of evaluated configs. The built instance keeps up to the given number
+     * of configs, keyed by the values of the context keys that the conditions of the template
+     * read, and returns the same config for all the contexts that agree on them. This helps when
+     * many contexts repeat the same custom signals. Templates with percent conditions depend on
+     * the randomization ID of each context, and are always evaluated separately. The memoized
+     * configs are discarded whenever a new template is loaded. Disabled by default.
+     *
+     * <p>The default implementation throws {@code UnsupportedOperationException}.
+     *
+     * @param maxSize The maximum number of configs to keep, or 0 to disable memoization.
+     * @return This builder.
+     * @throws IllegalArgumentException If the size is negative.
+     * @throws UnsupportedOperationException If the builder does not support memoization.
+     */
+    default Builder evaluationCacheSize(long maxSize) {
+      throw new UnsupportedOperationException("Evaluation caching is not supported.");
+    }
+
     ServerTemplate build();
   }
+
+  /**
+   * Receives the configs produced by {@link #evaluateAll(Iterator, ForkJoinPool, ConfigListener)}.
+   * Called concurrently from multiple threads, in no particular order.
+   */
+  interface ConfigListener {
+
+    /**
+     * Called with the config evaluated for a context.
+     *
+     * @param index The position of the context in the input.
+     * @param context The context, which may be null.
+     * @param config The config evaluated for the context.
+     */
+    void onConfig(long index, @Nullable KeysAndValues context, @NonNull ServerConfig config);
+  }
+
+  /**
+   * Receives the rows produced by
+   * {@link #evaluateAllColumnar(Iterator, ForkJoinPool, ColumnarListener)}. Rows are reported
+   * concurrently from multiple threads, in no particular order.
+   */
+  interface ColumnarListener {
+
+    /**
+     * Called once, before any row is reported, with the schema that describes the rows.
+     *
+     * @param schema The schema of the rows.
+     */
+    void onSchema(@NonNull EvaluationSchema schema);
+
+    /**
+     * Called with the row evaluated for a context.
+     *
+     * @param index The position of the context in the input.
+     * @param context The context, which may be null.
+     * @param row The value indexes of the config evaluated for the context. The listener owns the
+     *     array.
+     */
+    void onRow(long index, @Nullable KeysAndValues context, @NonNull int[] row);
+  }
+
   /**
   * Process the template data with a condition evaluator 
   * based on the provided context. 
@@ -41,5 +127,114 @@ public interface ServerTemplate {
   */
   ApiFuture<Void> load() throws FirebaseRemoteConfigException;
 
+  /**
+   * Starts refreshing the template periodically in the background, on the executor of the
+   * {@link com.google.firebase.FirebaseApp} the template was created from. Each refresh sends the
+   * ETag of the cached template, so that the backend only returns the template when it has
+   * changed, and the cached template is only replaced when a new version is received. The
+   * interval is varied by up to 10% between refreshes, so that many instances started at the
+   * same time do not refresh in lockstep. Failed refreshes are counted in
+   * {@link #getRefreshMetrics()}, and do not stop the auto-refresh. Replaces any auto-refresh
+   * started earlier. Auto-refresh stops when {@link #stopAutoRefresh()} is called, or when the
+   * app is deleted.
+   *
+   * <p>The default implementation throws {@code UnsupportedOperationException}.
+   *
+   * @param interval The interval between refreshes, which must be at least one minute.
+   * @param unit The unit of the interval.
+   * @throws IllegalArgumentException If the interval is shorter than one minute.
+   * @throws IllegalStateException If the template was not created from a
+   *     {@link FirebaseRemoteConfig} instance.
+   * @throws UnsupportedOperationException If the implementation does not support auto-refresh.
+   */
+  default void startAutoRefresh(long interval, @NonNull TimeUnit unit) {
+    throw new UnsupportedOperationException("Auto-refresh is not supported.");
+  }
+
+  /**
+   * Stops the auto-refresh started by {@link #startAutoRefresh(long, TimeUnit)}. Does nothing
+   * if auto-refresh is not running, which is always the case for the default implementation.
+   */
+  default void stopAutoRefresh() {
+  }
+
+  /**
+   * Returns a snapshot of the refresh counters and timestamps of this template. The default
+   * implementation returns a snapshot in which the template has never been refreshed.
+   *
+   * @return A non-null {@link ServerTemplateRefreshMetrics} instance.
+   */
+  @NonNull
+  default ServerTemplateRefreshMetrics getRefreshMetrics() {
+    return new ServerTemplateRefreshMetrics(
+        ImmutableMap.<ServerTemplateRefreshMetrics.Event, Long>of(), 0, 0,
+        System.currentTimeMillis());
+  }
+
+  /**
+   * Evaluates the template against each of the given contexts, using the common fork-join pool.
+   * See {@link #evaluateAll(Iterator, ForkJoinPool, ConfigListener)}.
+   */
+  default long evaluateAll(@NonNull Iterator<KeysAndValues> contexts,
+      @NonNull ConfigListener listener) throws FirebaseRemoteConfigException {
+    return evaluateAll(contexts, ForkJoinPool.commonPool(), listener);
+  }
+
+  /**
+   * Evaluates the template against each of the given contexts, in parallel on the given pool and
+   * the calling thread. All the contexts are evaluated against the template loaded when the call
+   * starts, even if the template is reloaded in the meantime. Contexts are read from the iterator
+   * as they are needed, and configs are reported to the listener as soon as they are evaluated,
+   * so that large batches can be evaluated in constant memory. The iterator may contain null
+   * contexts, which are evaluated like {@link #evaluate()}.
+   *
+   * <p>The first exception thrown by the iterator or the listener stops the evaluation, and is
+   * rethrown by this method.
+   *
+   * <p>The default implementation evaluates the contexts in turn on the calling thread, by calling
+   * {@link #evaluate(KeysAndValues)}. Implementations may override this to use the pool.
+   *
+   * @param contexts The contexts to evaluate.
+   * @param pool The pool to evaluate the contexts on.
+   * @param listener The listener to report configs to.
+   * @return The number of contexts read from the iterator.
+   * @throws FirebaseRemoteConfigException If no template is loaded, or if the calling thread is
+   *     interrupted.
+   */
+  default long evaluateAll(@NonNull Iterator<KeysAndValues> contexts, @NonNull ForkJoinPool pool,
+      @NonNull ConfigListener listener) throws FirebaseRemoteConfigException {
+    long index = 0;
+    while (contexts.hasNext()) {
+      KeysAndValues context = contexts.next();
+      ServerConfig config = context != null ? evaluate(context) : evaluate();
+      listener.onConfig(index++, context, config);
+    }
+    return index;
+  }
+
+  /**
+   * Evaluates the template against each of the given contexts like
+   * {@link #evaluateAll(Iterator, ForkJoinPool, ConfigListener)}, but reports each config as a
+   * compact row of value indexes instead of a {@link ServerConfig}. All the parameters are
+   * resolved for each context.
+   *
+   * <p>The default implementation throws {@code UnsupportedOperationException}, since the schema
+   * depends on how the implementation stores the template.
+   *
+   * @param contexts The contexts to evaluate.
+   * @param pool The pool to evaluate the contexts on.
+   * @param listener The listener to report the schema and the rows to.
+   * @return The number of contexts read from the iterator.
+   * @throws FirebaseRemoteConfigException If no template is loaded, or if the calling thread is
+   *     interrupted.
+   * @throws UnsupportedOperationException If the implementation does not support columnar
+   *     evaluation.
+   */
+  default long evaluateAllColumnar(@NonNull Iterator<KeysAndValues> contexts,
+      @NonNull ForkJoinPool pool, @NonNull ColumnarListener listener)
+      throws FirebaseRemoteConfigException {
+    throw new UnsupportedOperationException("Columnar evaluation is not supported.");
+  }
+
   String toJson();
 }
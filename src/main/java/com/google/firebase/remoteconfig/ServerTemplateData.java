@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
 import com.google.common.base.Strings;
 import com.google.firebase.ErrorCode;
 import com.google.firebase.internal.ApiClientUtils;
@@ -89,10 +90,8 @@ final class ServerTemplateData {
     checkArgument(!Strings.isNullOrEmpty(json), "JSON String must not be null or empty.");
     // using the default json factory as no rpc calls are made here
     JsonFactory jsonFactory = ApiClientUtils.getDefaultJsonFactory();
-    try {
-      ServerTemplateResponse serverTemplateResponse =
-          jsonFactory.createJsonParser(json).parseAndClose(ServerTemplateResponse.class);
-      return new ServerTemplateData(serverTemplateResponse);
+    try (JsonParser parser = jsonFactory.createJsonParser(json)) {
+      return TemplateJsonReader.readServerTemplate(parser);
     } catch (IOException e) {
       throw new FirebaseRemoteConfigException(
           ErrorCode.INVALID_ARGUMENT, "Unable to parse JSON string.");
@@ -16,35 +16,85 @@
 
 package com.google.firebase.remoteconfig;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.api.client.util.Clock;
 import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutures;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.ImplFirebaseTrampolines;
 import com.google.firebase.internal.Nullable;
-import com.google.firebase.remoteconfig.internal.TemplateResponse.ParameterValueResponse;
+import com.google.firebase.remoteconfig.ServerTemplateRefreshMetrics.Event;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
-
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public final class ServerTemplateImpl implements ServerTemplate {
 
+  private static final Logger logger = LoggerFactory.getLogger(ServerTemplateImpl.class);
+
+  @VisibleForTesting
+  static final long MIN_AUTO_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  @VisibleForTesting
+  static final double AUTO_REFRESH_JITTER = 0.1;
+
   private final KeysAndValues defaultConfig;
   private FirebaseRemoteConfigClient client;
-  private AtomicReference<ServerTemplateData> cache;
+  private AtomicReference<EvaluationPlan> cache;
   private final AtomicReference<String> cachedTemplate; 
-  private static final Logger logger = LoggerFactory.getLogger(ServerTemplate.class);
+  private final FirebaseApp app;
+  private final Clock clock;
+  private final long evaluationCacheSize;
+  private final ServerTemplateStore store;
+
+  private final Map<Event, LongAdder> refreshCounts = new EnumMap<>(Event.class);
+  private volatile long lastRefreshMillis;
+  private volatile long lastUpdateMillis;
+
+  // Guarded by this. The generation is incremented whenever auto-refresh is started or stopped,
+  // so that refreshes scheduled by an earlier call do not schedule any more refreshes.
+  private long autoRefreshGeneration;
+  private long autoRefreshIntervalMillis;
+  private ScheduledFuture<?> autoRefreshFuture;
 
   public static class Builder implements ServerTemplate.Builder {
     private KeysAndValues defaultConfig;
     private String cachedTemplate;
     private FirebaseRemoteConfigClient client;
+    private FirebaseApp app;
+    private Path templateFile;
+    private long evaluationCacheSize;
+    private Clock clock = Clock.SYSTEM;
 
     Builder(FirebaseRemoteConfigClient remoteConfigClient) {
+      this(remoteConfigClient, null);
+    }
+
+    Builder(FirebaseRemoteConfigClient remoteConfigClient, @Nullable FirebaseApp app) {
       this.client = remoteConfigClient;
+      this.app = app;
+    }
+
+    @VisibleForTesting
+    Builder clock(Clock clock) {
+      this.clock = checkNotNull(clock);
+      return this;
     }
 
     @Override
@@ -59,9 +109,26 @@ public final class ServerTemplateImpl implements ServerTemplate {
       return this;
     }
 
+    @Override
+    public Builder templateFile(Path file) {
+      this.templateFile = checkNotNull(file, "file must not be null");
+      return this;
+    }
+
+    @Override
+    public Builder evaluationCacheSize(long maxSize) {
+      checkArgument(maxSize >= 0, "maxSize must not be negative");
+      this.evaluationCacheSize = maxSize;
+      return this;
+    }
+
     @Override
     public ServerTemplate build() {
-      return new ServerTemplateImpl(this);
+      ServerTemplateImpl template = new ServerTemplateImpl(this);
+      if (templateFile != null && cachedTemplate == null && app != null) {
+        template.refreshInBackground();
+      }
+      return template;
     }
   }
 
@@ -69,11 +136,26 @@ public final class ServerTemplateImpl implements ServerTemplate {
     this.defaultConfig = builder.defaultConfig;
     this.cachedTemplate = new AtomicReference<>(builder.cachedTemplate);
     this.client = builder.client;
+    this.app = builder.app;
+    this.clock = builder.clock;
+    this.evaluationCacheSize = builder.evaluationCacheSize;
+    this.store =
+        builder.templateFile != null ? new ServerTemplateStore(builder.templateFile) : null;
     this.cache = new AtomicReference<>(null); 
+    for (Event event : Event.values()) {
+      refreshCounts.put(event, new LongAdder());
+    }
 
     String initialTemplate = this.cachedTemplate.get();
+    if (initialTemplate == null && store != null) {
+      ServerTemplateData storedTemplate = store.read();
+      if (storedTemplate != null) {
+        this.cache.set(compile(storedTemplate));
+      }
+      return;
+    }
     try {
-      this.cache.set(ServerTemplateData.fromJSON(initialTemplate));
+      this.cache.set(compile(ServerTemplateData.fromJSON(initialTemplate)));
     } catch (FirebaseRemoteConfigException e) {
       throw new IllegalArgumentException("Unable to parse JSON string.", e);
     }
@@ -82,27 +164,7 @@ public final class ServerTemplateImpl implements ServerTemplate {
   @Override
   public ServerConfig evaluate(@Nullable KeysAndValues context)
       throws FirebaseRemoteConfigException {
-    ServerTemplateData cachedData = this.cache.get();
-    if (cachedData == null) {
-      throw new FirebaseRemoteConfigException(ErrorCode.FAILED_PRECONDITION,
-          "No Remote Config Server template in cache. Call load() before calling evaluate().");
-    }
-
-    Map<String, Value> configValues = new HashMap<>();
-    ImmutableMap<String, String> defaultConfigValues = defaultConfig.keysAndValues;
-    // Initializes configValue objects with default values.
-    for (String configName : defaultConfigValues.keySet()) {
-      configValues.put(configName, new Value(ValueSource.DEFAULT,
-          defaultConfigValues.get(configName)));
-    }
-
-    ConditionEvaluator conditionEvaluator = new ConditionEvaluator();
-    ImmutableMap<String, Boolean> evaluatedCondition = ImmutableMap.copyOf(
-        conditionEvaluator.evaluateConditions(cachedData.getServerConditions(), context));
-    ImmutableMap<String, Parameter> parameters = ImmutableMap.copyOf(cachedData.getParameters());
-    mergeDerivedConfigValues(evaluatedCondition, parameters, configValues);
-
-    return new ServerConfig(configValues);
+    return getPlan().evaluate(context);
   }
 
   @Override
@@ -110,86 +172,220 @@ public final class ServerTemplateImpl implements ServerTemplate {
     return evaluate(null);
   }
 
+  @Override
+  public long evaluateAll(Iterator<KeysAndValues> contexts, ForkJoinPool pool,
+      final ConfigListener listener) throws FirebaseRemoteConfigException {
+    checkNotNull(listener, "listener must not be null");
+    final EvaluationPlan plan = getPlan();
+    return new BatchEvaluator(contexts,
+        (index, context) -> listener.onConfig(index, context, plan.evaluate(context)))
+        .run(pool);
+  }
+
+  @Override
+  public long evaluateAllColumnar(Iterator<KeysAndValues> contexts, ForkJoinPool pool,
+      final ColumnarListener listener) throws FirebaseRemoteConfigException {
+    checkNotNull(listener, "listener must not be null");
+    final EvaluationPlan plan = getPlan();
+    BatchEvaluator evaluator = new BatchEvaluator(contexts,
+        (index, context) -> listener.onRow(index, context, plan.evaluateRow(context)));
+    listener.onSchema(plan.getSchema());
+    return evaluator.run(pool);
+  }
+
   @Override
   public ApiFuture<Void> load() throws FirebaseRemoteConfigException {
-    String serverTemplate = client.getServerTemplate();
-    this.cachedTemplate.set(serverTemplate);
-    this.cache.set(ServerTemplateData.fromJSON(serverTemplate));
+    refresh();
     return ApiFutures.immediateFuture(null);
   }
 
-  // Add getters or other methods as needed
-  public KeysAndValues getDefaultConfig() {
-    return defaultConfig;
+  @Override
+  public void startAutoRefresh(long interval, TimeUnit unit) {
+    checkNotNull(unit, "unit must not be null");
+    long intervalMillis = unit.toMillis(interval);
+    checkArgument(intervalMillis >= MIN_AUTO_REFRESH_INTERVAL_MILLIS,
+        "interval must be at least %s milliseconds", MIN_AUTO_REFRESH_INTERVAL_MILLIS);
+    checkState(app != null,
+        "Auto-refresh is only available for templates created from FirebaseRemoteConfig.");
+    synchronized (this) {
+      cancelAutoRefresh();
+      autoRefreshIntervalMillis = intervalMillis;
+      scheduleAutoRefresh(autoRefreshGeneration);
+    }
   }
 
-  public String getCachedTemplate() {
-    return cachedTemplate.get();
+  @Override
+  public synchronized void stopAutoRefresh() {
+    cancelAutoRefresh();
   }
 
   @Override
-  public String toJson() {
-    ServerTemplateData currentCache = this.cache.get();
-    if (currentCache == null) {
-      return "{}"; 
+  public ServerTemplateRefreshMetrics getRefreshMetrics() {
+    Map<Event, Long> counts = new EnumMap<>(Event.class);
+    for (Map.Entry<Event, LongAdder> entry : refreshCounts.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().sum());
     }
-    return currentCache.toJSON();
+    return new ServerTemplateRefreshMetrics(
+        counts, lastRefreshMillis, lastUpdateMillis, clock.currentTimeMillis());
   }
 
-  private void mergeDerivedConfigValues(ImmutableMap<String, Boolean> evaluatedCondition,
-      ImmutableMap<String, Parameter> parameters, Map<String, Value> configValues) {
-    for (String parameterName : parameters.keySet()) {
-      Parameter parameter = parameters.get(parameterName);
-      if (parameter == null) {
-        logger.warn(String.format("Parameter value is not assigned for %s", parameterName));
-        continue;
-      }
+  /**
+   * Fetches the template unless the backend reports that the cached one is still current, in
+   * which case the response is not parsed, and the cached template is kept as is.
+   *
+   * @return Whether a new version of the template was applied.
+   */
+  @VisibleForTesting
+  boolean refresh() throws FirebaseRemoteConfigException {
+    EvaluationPlan current = cache.get();
+    String etag = current != null ? current.getTemplateData().getETag() : null;
+    ServerTemplateData templateData;
+    try {
+      templateData = client.getServerTemplateData(etag);
+    } catch (FirebaseRemoteConfigException | RuntimeException e) {
+      refreshCounts.get(Event.FAILED).increment();
+      throw e;
+    }
 
-      ImmutableMap<String, ParameterValue> conditionalValues = ImmutableMap.copyOf(
-          parameter.getConditionalValues());
-      ParameterValue derivedValue = null;
-
-      // Iterates in order over condition list. If there is a value associated
-      // with a condition, this checks if the condition is true.
-      for (String conditionName : evaluatedCondition.keySet()) {
-        boolean conditionEvaluation = evaluatedCondition.get(conditionName);
-        if (conditionalValues.containsKey(conditionName) && conditionEvaluation) {
-          derivedValue = conditionalValues.get(conditionName);
-          break;
-        }
-      }
+    long now = clock.currentTimeMillis();
+    if (templateData == null) {
+      lastRefreshMillis = now;
+      refreshCounts.get(Event.NOT_MODIFIED).increment();
+      return false;
+    }
 
-      if (derivedValue != null && derivedValue.toParameterValueResponse().isUseInAppDefault()) {
-        logger.warn(
-            String.format("Derived value found for %s but parameter is set to use in app default.",
-                parameterName));
-        continue;
+    EvaluationPlan plan = compile(templateData);
+    lastRefreshMillis = now;
+    // Loses against a concurrent refresh that has already replaced the plan, which is at least
+    // as recent as this one. The template is then neither applied nor counted as an update.
+    if (!cache.compareAndSet(current, plan)) {
+      return false;
+    }
+    cachedTemplate.set(templateData.toJSON());
+    if (store != null) {
+      try {
+        store.write(templateData);
+      } catch (IOException e) {
+        logger.warn("Failed to write the Remote Config server template to {}",
+            store.getFile(), e);
       }
+    }
+    lastUpdateMillis = now;
+    refreshCounts.get(Event.UPDATED).increment();
+    return true;
+  }
 
-      if (derivedValue != null) {
-        String parameterValue = derivedValue.toParameterValueResponse().getValue();
-        Value value = new Value(ValueSource.REMOTE, parameterValue);
-        configValues.put(parameterName, value);
-        continue;
-      }
+  @VisibleForTesting
+  synchronized boolean isAutoRefreshing() {
+    return autoRefreshIntervalMillis > 0;
+  }
 
-      ParameterValue defaultValue = parameter.getDefaultValue();
-      if (defaultValue == null) {
-        logger.warn(String.format("Default parameter value for %s is not set.",
-            parameterName));
-        continue;
-      }
+  @VisibleForTesting
+  static long jitter(long intervalMillis, double random) {
+    return intervalMillis + (long) ((random * 2 - 1) * AUTO_REFRESH_JITTER * intervalMillis);
+  }
+
+  // Guarded by this.
+  private void cancelAutoRefresh() {
+    autoRefreshGeneration++;
+    autoRefreshIntervalMillis = 0;
+    if (autoRefreshFuture != null) {
+      autoRefreshFuture.cancel(false);
+      autoRefreshFuture = null;
+    }
+  }
+
+  // Guarded by this.
+  private void scheduleAutoRefresh(final long generation) {
+    long delayMillis = jitter(autoRefreshIntervalMillis, ThreadLocalRandom.current().nextDouble());
+    try {
+      autoRefreshFuture = ImplFirebaseTrampolines.schedule(
+          app, () -> runAutoRefresh(generation), delayMillis);
+    } catch (RuntimeException e) {
+      // The app has been deleted.
+      cancelAutoRefresh();
+    }
+  }
+
+  private void refreshInBackground() {
+    try {
+      ImplFirebaseTrampolines.submitCallable(app, () -> {
+        refreshQuietly();
+        return null;
+      });
+    } catch (RuntimeException e) {
+      logger.warn("Failed to start loading the Remote Config server template", e);
+    }
+  }
+
+  private void refreshQuietly() {
+    try {
+      refresh();
+    } catch (FirebaseRemoteConfigException | RuntimeException e) {
+      logger.warn("Failed to refresh the Remote Config server template", e);
+    }
+  }
 
-      ParameterValueResponse defaultValueResponse = defaultValue.toParameterValueResponse();
-      if (defaultValueResponse != null && defaultValueResponse.isUseInAppDefault()) {
-        logger.info(String.format("Default value for %s is set to use in app default.",
-            parameterName));
-        continue;
+  private void runAutoRefresh(final long generation) {
+    try {
+      // Fetches on the app executor, so that slow responses do not hold up the scheduler.
+      ImplFirebaseTrampolines.submitCallable(app, () -> {
+        refreshQuietly();
+        synchronized (ServerTemplateImpl.this) {
+          if (generation == autoRefreshGeneration) {
+            scheduleAutoRefresh(generation);
+          }
+        }
+        return null;
+      });
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        if (generation == autoRefreshGeneration) {
+          cancelAutoRefresh();
+        }
       }
+    }
+  }
 
-      String parameterDefaultValue = defaultValue.toParameterValueResponse().getValue();
-      Value value = new Value(ValueSource.REMOTE, parameterDefaultValue);
-      configValues.put(parameterName, value);
+  // Add getters or other methods as needed
+  public KeysAndValues getDefaultConfig() {
+    return defaultConfig;
+  }
+
+  public String getCachedTemplate() {
+    String template = cachedTemplate.get();
+    if (template == null) {
+      // Templates read from a template file are only serialized on demand.
+      EvaluationPlan plan = cache.get();
+      return plan != null ? plan.getTemplateData().toJSON() : null;
     }
+    return template;
+  }
+
+  @Override
+  public String toJson() {
+    EvaluationPlan currentCache = this.cache.get();
+    if (currentCache == null) {
+      return "{}"; 
+    }
+    return currentCache.getTemplateData().toJSON();
+  }
+
+  @VisibleForTesting
+  EvaluationPlan getPlan() throws FirebaseRemoteConfigException {
+    EvaluationPlan plan = this.cache.get();
+    if (plan == null) {
+      throw new FirebaseRemoteConfigException(ErrorCode.FAILED_PRECONDITION,
+          "No Remote Config Server template in cache. Call load() before calling evaluate().");
+    }
+    return plan;
+  }
+
+  // Compiles templates once when they are loaded, so that evaluate() does not repeat the work for
+  // every context.
+  private EvaluationPlan compile(ServerTemplateData templateData) {
+    KeysAndValues config =
+        defaultConfig != null ? defaultConfig : new KeysAndValues.Builder().build();
+    return EvaluationPlan.compile(templateData, config, evaluationCacheSize);
   }
 }
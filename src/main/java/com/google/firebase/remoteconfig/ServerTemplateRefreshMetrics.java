@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.google.firebase.internal.NonNull;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A snapshot of the refresh counters and timestamps of a {@link ServerTemplate}. Covers the
+ * refreshes made by {@link ServerTemplate#load()} as well as the background refreshes started by
+ * {@link ServerTemplate#startAutoRefresh(long, java.util.concurrent.TimeUnit)}.
+ */
+public final class ServerTemplateRefreshMetrics {
+
+  /**
+   * The events counted by a server template.
+   */
+  public enum Event {
+    /** A new version of the template was fetched and applied. */
+    UPDATED,
+
+    /** The backend reported that the cached template is still current. */
+    NOT_MODIFIED,
+
+    /** An attempt to refresh the template failed. */
+    FAILED
+  }
+
+  private final Map<Event, Long> counts;
+  private final long lastRefreshMillis;
+  private final long lastUpdateMillis;
+  private final long nowMillis;
+
+  ServerTemplateRefreshMetrics(
+      Map<Event, Long> counts, long lastRefreshMillis, long lastUpdateMillis, long nowMillis) {
+    EnumMap<Event, Long> copy = new EnumMap<>(Event.class);
+    for (Event event : Event.values()) {
+      Long count = counts.get(event);
+      copy.put(event, count != null ? count : 0L);
+    }
+    this.counts = Maps.immutableEnumMap(copy);
+    this.lastRefreshMillis = lastRefreshMillis;
+    this.lastUpdateMillis = lastUpdateMillis;
+    this.nowMillis = nowMillis;
+  }
+
+  /**
+   * Returns the number of times the given event has occurred.
+   *
+   * @param event A non-null event.
+   * @return A non-negative count.
+   */
+  public long getCount(@NonNull Event event) {
+    return counts.get(checkNotNull(event, "event must not be null"));
+  }
+
+  /**
+   * Returns the counts of all events.
+   *
+   * @return A non-null, immutable map containing an entry for each {@link Event}.
+   */
+  @NonNull
+  public Map<Event, Long> getCounts() {
+    return counts;
+  }
+
+  /**
+   * Returns the time of the last successful refresh, whether or not it found a new version of
+   * the template.
+   *
+   * @return Milliseconds since the epoch, or 0 if the template has never been refreshed.
+   */
+  public long getLastRefreshTimeMillis() {
+    return lastRefreshMillis;
+  }
+
+  /**
+   * Returns the time at which a new version of the template was last applied.
+   *
+   * @return Milliseconds since the epoch, or 0 if the template has never been updated.
+   */
+  public long getLastUpdateTimeMillis() {
+    return lastUpdateMillis;
+  }
+
+  /**
+   * Returns how long ago the template was last confirmed to be current, as of the time this
+   * snapshot was taken.
+   *
+   * @return A non-negative number of milliseconds, or -1 if the template has never been
+   *     refreshed.
+   */
+  public long getStalenessMillis() {
+    return lastRefreshMillis == 0 ? -1 : Math.max(0, nowMillis - lastRefreshMillis);
+  }
+}
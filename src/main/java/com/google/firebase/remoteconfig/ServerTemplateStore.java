@@ -0,0 +1,520 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+import com.google.firebase.internal.ApiClientUtils;
+import com.google.firebase.internal.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists server templates to a local file, so that new processes can start evaluating the last
+ * template fetched by an earlier process without waiting for the backend.
+ *
+ * <p>Templates are written with their ETag, after a header that identifies the format. The
+ * template is stored as the JSON document of the REST API, encoded as a compact stream of binary
+ * tokens rather than as text. Each distinct field name and scalar is written once, and referred to
+ * by index afterwards. Reading the file skips lexing and unescaping JSON text, but the tokens are
+ * still mapped onto the template model the same way as a response from the backend, by
+ * {@link TemplateJsonReader}. Files can only be read back by this class.
+ *
+ * <p>Each write goes to a temporary file in the same directory, which then replaces the store
+ * file, so that readers never see a partially written template.
+ */
+final class ServerTemplateStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(ServerTemplateStore.class);
+
+  // "FRCT"
+  private static final int MAGIC = 0x46524354;
+  private static final int FORMAT_VERSION = 1;
+  private static final JsonFactory TEXT_JSON_FACTORY = ApiClientUtils.getDefaultJsonFactory();
+
+  // Tokens of the binary encoding.
+  private static final int START_ARRAY = 1;
+  private static final int END_ARRAY = 2;
+  private static final int START_OBJECT = 3;
+  private static final int END_OBJECT = 4;
+  private static final int FIELD_NAME = 5;
+  private static final int VALUE_STRING = 6;
+  private static final int VALUE_NUMBER_INT = 7;
+  private static final int VALUE_NUMBER_FLOAT = 8;
+  private static final int VALUE_TRUE = 9;
+  private static final int VALUE_FALSE = 10;
+  private static final int VALUE_NULL = 11;
+
+  private static final int MAX_STRING_LENGTH = 64 * 1024 * 1024;
+
+  private final Path file;
+
+  ServerTemplateStore(Path file) {
+    this.file = checkNotNull(file, "file must not be null").toAbsolutePath();
+  }
+
+  Path getFile() {
+    return file;
+  }
+
+  /**
+   * Reads the stored template.
+   *
+   * @return The template, or null if the file does not exist, or cannot be read.
+   */
+  @Nullable
+  ServerTemplateData read() {
+    try (InputStream stream = new BufferedInputStream(Files.newInputStream(file))) {
+      DataInputStream in = new DataInputStream(stream);
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        logger.warn("Ignoring Remote Config template file in an unknown format: {}", file);
+        return null;
+      }
+      return TemplateJsonReader.readServerTemplate(new Parser(in));
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to read Remote Config template file: {}", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Replaces the stored template with the given one.
+   */
+  synchronized void write(ServerTemplateData templateData) throws IOException {
+    Path directory = file.getParent();
+    if (directory != null) {
+      Files.createDirectories(directory);
+    }
+    Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel));
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        JsonGenerator generator = new Generator(out);
+        generator.serialize(templateData.toServerTemplateResponse(true));
+        generator.flush();
+        channel.force(true);
+      }
+      try {
+        Files.move(temp, file,
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static final class Generator extends JsonGenerator {
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    Generator(OutputStream out) {
+      this.out = new DataOutputStream(out);
+    }
+
+    @Override
+    public JsonFactory getFactory() {
+      return TEXT_JSON_FACTORY;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+      out.writeByte(START_ARRAY);
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+      out.writeByte(END_ARRAY);
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+      out.writeByte(START_OBJECT);
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+      out.writeByte(END_OBJECT);
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+      writeToken(FIELD_NAME, name);
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+      out.writeByte(VALUE_NULL);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+      writeToken(VALUE_STRING, value);
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+      out.writeByte(state ? VALUE_TRUE : VALUE_FALSE);
+    }
+
+    @Override
+    public void writeNumber(int v) throws IOException {
+      writeToken(VALUE_NUMBER_INT, Integer.toString(v));
+    }
+
+    @Override
+    public void writeNumber(long v) throws IOException {
+      writeToken(VALUE_NUMBER_INT, Long.toString(v));
+    }
+
+    @Override
+    public void writeNumber(BigInteger v) throws IOException {
+      writeToken(VALUE_NUMBER_INT, v.toString());
+    }
+
+    @Override
+    public void writeNumber(float v) throws IOException {
+      writeToken(VALUE_NUMBER_FLOAT, Float.toString(v));
+    }
+
+    @Override
+    public void writeNumber(double v) throws IOException {
+      writeToken(VALUE_NUMBER_FLOAT, Double.toString(v));
+    }
+
+    @Override
+    public void writeNumber(BigDecimal v) throws IOException {
+      writeToken(VALUE_NUMBER_FLOAT, v.toString());
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+      boolean isInteger = encodedValue.indexOf('.') < 0
+          && encodedValue.indexOf('e') < 0 && encodedValue.indexOf('E') < 0;
+      writeToken(isInteger ? VALUE_NUMBER_INT : VALUE_NUMBER_FLOAT, encodedValue);
+    }
+
+    private void writeToken(int token, String text) throws IOException {
+      out.writeByte(token);
+      Integer index = strings.get(text);
+      if (index != null) {
+        writeVarInt(index + 1);
+        return;
+      }
+
+      strings.put(text, strings.size());
+      byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(0);
+      writeVarInt(bytes.length);
+      out.write(bytes);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+        out.writeByte((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      out.writeByte(value);
+    }
+  }
+
+  private static final class Parser extends JsonParser {
+
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+
+    // Field names of the enclosing objects, so that getCurrentName() can report the name of
+    // the object or array being started or ended.
+    private final Deque<String> names = new ArrayDeque<>();
+
+    private JsonToken currentToken;
+    private String currentName;
+    private String currentText;
+
+    Parser(InputStream in) {
+      this.in = new DataInputStream(in);
+    }
+
+    // Set on the GenericJson objects created by the parser, which format themselves as text.
+    @Override
+    public JsonFactory getFactory() {
+      return TEXT_JSON_FACTORY;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+      if (currentToken == JsonToken.START_OBJECT || currentToken == JsonToken.START_ARRAY) {
+        names.push(currentName != null ? currentName : "");
+        currentName = null;
+      } else if (currentToken == JsonToken.END_OBJECT || currentToken == JsonToken.END_ARRAY) {
+        currentName = null;
+      }
+
+      int token = in.read();
+      if (token < 0) {
+        currentToken = null;
+        currentText = null;
+        return null;
+      }
+      currentText = null;
+      switch (token) {
+        case START_ARRAY:
+          currentToken = JsonToken.START_ARRAY;
+          break;
+        case END_ARRAY:
+          currentToken = JsonToken.END_ARRAY;
+          popName();
+          break;
+        case START_OBJECT:
+          currentToken = JsonToken.START_OBJECT;
+          break;
+        case END_OBJECT:
+          currentToken = JsonToken.END_OBJECT;
+          popName();
+          break;
+        case FIELD_NAME:
+          currentToken = JsonToken.FIELD_NAME;
+          currentText = readString();
+          currentName = currentText;
+          break;
+        case VALUE_STRING:
+          currentToken = JsonToken.VALUE_STRING;
+          currentText = readString();
+          break;
+        case VALUE_NUMBER_INT:
+          currentToken = JsonToken.VALUE_NUMBER_INT;
+          currentText = readString();
+          break;
+        case VALUE_NUMBER_FLOAT:
+          currentToken = JsonToken.VALUE_NUMBER_FLOAT;
+          currentText = readString();
+          break;
+        case VALUE_TRUE:
+          currentToken = JsonToken.VALUE_TRUE;
+          break;
+        case VALUE_FALSE:
+          currentToken = JsonToken.VALUE_FALSE;
+          break;
+        case VALUE_NULL:
+          currentToken = JsonToken.VALUE_NULL;
+          break;
+        default:
+          throw new IOException("Unknown token: " + token);
+      }
+      return currentToken;
+    }
+
+    @Override
+    public JsonToken getCurrentToken() {
+      return currentToken;
+    }
+
+    @Override
+    public String getCurrentName() {
+      return currentName;
+    }
+
+    @Override
+    public JsonParser skipChildren() throws IOException {
+      if (currentToken != JsonToken.START_OBJECT && currentToken != JsonToken.START_ARRAY) {
+        return this;
+      }
+      int depth = 1;
+      while (depth > 0) {
+        JsonToken token = nextToken();
+        if (token == null) {
+          throw new EOFException("Unexpected end of document");
+        } else if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+          depth++;
+        } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+          depth--;
+        }
+      }
+      return this;
+    }
+
+    @Override
+    public String getText() {
+      if (currentText != null) {
+        return currentText;
+      } else if (currentToken == null) {
+        return null;
+      }
+      switch (currentToken) {
+        case START_ARRAY:
+          return "[";
+        case END_ARRAY:
+          return "]";
+        case START_OBJECT:
+          return "{";
+        case END_OBJECT:
+          return "}";
+        case VALUE_TRUE:
+          return "true";
+        case VALUE_FALSE:
+          return "false";
+        case VALUE_NULL:
+          return "null";
+        default:
+          return null;
+      }
+    }
+
+    @Override
+    public byte getByteValue() throws IOException {
+      return Byte.parseByte(getNumberText());
+    }
+
+    @Override
+    public short getShortValue() throws IOException {
+      return Short.parseShort(getNumberText());
+    }
+
+    @Override
+    public int getIntValue() throws IOException {
+      return Integer.parseInt(getNumberText());
+    }
+
+    @Override
+    public float getFloatValue() throws IOException {
+      return Float.parseFloat(getNumberText());
+    }
+
+    @Override
+    public long getLongValue() throws IOException {
+      return Long.parseLong(getNumberText());
+    }
+
+    @Override
+    public double getDoubleValue() throws IOException {
+      return Double.parseDouble(getNumberText());
+    }
+
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException {
+      return new BigInteger(getNumberText());
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() throws IOException {
+      return new BigDecimal(getNumberText());
+    }
+
+    private String getNumberText() throws IOException {
+      if (currentToken != JsonToken.VALUE_NUMBER_INT
+          && currentToken != JsonToken.VALUE_NUMBER_FLOAT) {
+        throw new IOException("Current token is not a number: " + currentToken);
+      }
+      return currentText;
+    }
+
+    private void popName() throws IOException {
+      if (names.isEmpty()) {
+        throw new IOException("Unbalanced end of object or array");
+      }
+      String name = names.pop();
+      currentName = name.isEmpty() ? null : name;
+    }
+
+    private String readString() throws IOException {
+      int index = readVarInt();
+      if (index > 0) {
+        if (index > strings.size()) {
+          throw new IOException("Invalid string reference: " + index);
+        }
+        return strings.get(index - 1);
+      }
+
+      int length = readVarInt();
+      if (length > MAX_STRING_LENGTH) {
+        throw new IOException("Invalid string length: " + length);
+      }
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      String value = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(value);
+      return value;
+    }
+
+    private int readVarInt() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = in.readUnsignedByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          if (value < 0) {
+            throw new IOException("Invalid length or reference");
+          }
+          return value;
+        }
+      }
+      throw new IOException("Malformed varint");
+    }
+  }
+}
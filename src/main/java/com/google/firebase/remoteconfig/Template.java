@@ -20,6 +20,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.JsonParser;
 import com.google.common.base.Strings;
 import com.google.firebase.ErrorCode;
 import com.google.firebase.internal.ApiClientUtils;
@@ -27,6 +29,7 @@ import com.google.firebase.internal.NonNull;
 import com.google.firebase.remoteconfig.internal.TemplateResponse;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -102,10 +105,8 @@ public final class Template {
     checkArgument(!Strings.isNullOrEmpty(json), "JSON String must not be null or empty.");
     // using the default json factory as no rpc calls are made here
     JsonFactory jsonFactory = ApiClientUtils.getDefaultJsonFactory();
-    try {
-      TemplateResponse templateResponse = jsonFactory.createJsonParser(json)
-              .parseAndClose(TemplateResponse.class);
-      return new Template(templateResponse);
+    try (JsonParser parser = jsonFactory.createJsonParser(json)) {
+      return TemplateJsonReader.readTemplate(parser);
     } catch (IOException e) {
       throw new FirebaseRemoteConfigException(ErrorCode.INVALID_ARGUMENT,
               "Unable to parse JSON string.");
@@ -221,11 +222,13 @@ public final class Template {
    */
   public String toJSON() {
     JsonFactory jsonFactory = ApiClientUtils.getDefaultJsonFactory();
-    try {
-      return jsonFactory.toString(this.toTemplateResponse(true));
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = jsonFactory.createJsonGenerator(writer)) {
+      TemplateJsonWriter.writeTemplate(generator, this, true);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
+    return writer.toString();
   }
 
   Template setETag(String etag) {
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Throwables;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.NonNull;
+import com.google.firebase.internal.Nullable;
+import com.google.firebase.internal.ParallelTasks;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Loads the templates of a sequence of versions, with up to a fixed number of requests in flight,
+ * and returns them in the order of the versions. Versions are read from the source iterator as
+ * request slots become free, so that the iterator holds a bounded number of templates regardless
+ * of the length of the history. Instances are not thread-safe.
+ */
+final class TemplateHistoryIterator implements Iterator<Template> {
+
+  static final int MAX_CONCURRENT_REQUESTS = 16;
+
+  interface TemplateSource {
+    @NonNull
+    Template fetch(@NonNull String versionNumber) throws FirebaseRemoteConfigException;
+  }
+
+  private final Iterator<Version> versions;
+  private final TemplateSource source;
+  private final Executor executor;
+  private final int maxConcurrentRequests;
+  private final Deque<FutureTask<Template>> pending = new ArrayDeque<>();
+
+  TemplateHistoryIterator(@NonNull Iterator<Version> versions, @NonNull TemplateSource source,
+      @Nullable Executor executor, int maxConcurrentRequests) {
+    checkArgument(maxConcurrentRequests > 0 && maxConcurrentRequests <= MAX_CONCURRENT_REQUESTS,
+        "maxConcurrentRequests must be a positive integer that does not exceed %s",
+        MAX_CONCURRENT_REQUESTS);
+    this.versions = checkNotNull(versions, "versions must not be null");
+    this.source = checkNotNull(source, "source must not be null");
+    this.executor = executor;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  @Override
+  public boolean hasNext() {
+    fill();
+    return !pending.isEmpty();
+  }
+
+  @Override
+  public Template next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Template template = await(pending.poll());
+    fill();
+    return template;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("remove operation not supported");
+  }
+
+  private void fill() {
+    while (pending.size() < maxConcurrentRequests && versions.hasNext()) {
+      Version version = checkNotNull(versions.next(), "version must not be null");
+      final String versionNumber = version.getVersionNumber();
+      FutureTask<Template> task = new FutureTask<>(() -> source.fetch(versionNumber));
+      ParallelTasks.submit(executor, task);
+      pending.add(task);
+    }
+  }
+
+  private static Template await(FutureTask<Template> task) {
+    try {
+      return ParallelTasks.await(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(new FirebaseRemoteConfigException(
+          ErrorCode.CANCELLED, "Interrupted while getting templates"));
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+import com.google.common.base.Strings;
+import com.google.firebase.remoteconfig.internal.ServerTemplateResponse.ServerConditionResponse;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.ConditionResponse;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.ExperimentValueResponse;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.ParameterValueResponse;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.PersonalizationValueResponse;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.RolloutValueResponse;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.VersionResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads Remote Config templates from JSON in a single pass, building the template model directly
+ * from the token stream instead of going through the response DTOs of the REST API. Parameters
+ * and their values, which make up the bulk of large templates, are built as they are read, so
+ * that no intermediate copy of them is held in memory. Small objects of a fixed shape, like
+ * versions and conditions, are read with the DTO mapping, and converted right away. Like the DTO
+ * mapping, null parameters and parameter values are read as empty ones.
+ */
+final class TemplateJsonReader {
+
+  private TemplateJsonReader() { }
+
+  static Template readTemplate(JsonParser parser) throws IOException {
+    Map<String, Parameter> parameters = new HashMap<>();
+    List<Condition> conditions = new ArrayList<>();
+    Map<String, ParameterGroup> parameterGroups = new HashMap<>();
+    Version version = null;
+    String etag = null;
+    startDocument(parser);
+    while (nextField(parser)) {
+      String field = parser.getText();
+      if (parser.nextToken() == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      switch (field) {
+        case "parameters":
+          readParameters(parser, parameters);
+          break;
+        case "conditions":
+          startArray(parser);
+          while (nextElement(parser)) {
+            conditions.add(new Condition(parser.parse(ConditionResponse.class)));
+          }
+          break;
+        case "parameterGroups":
+          readParameterGroups(parser, parameterGroups);
+          break;
+        case "version":
+          version = new Version(parser.parse(VersionResponse.class));
+          break;
+        case "etag":
+          etag = readString(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new Template(etag)
+        .setParameters(parameters)
+        .setConditions(conditions)
+        .setParameterGroups(parameterGroups)
+        .setVersion(version);
+  }
+
+  static ServerTemplateData readServerTemplate(JsonParser parser) throws IOException {
+    Map<String, Parameter> parameters = new HashMap<>();
+    List<ServerCondition> conditions = new ArrayList<>();
+    Map<String, ParameterGroup> parameterGroups = new HashMap<>();
+    Version version = null;
+    String etag = null;
+    startDocument(parser);
+    while (nextField(parser)) {
+      String field = parser.getText();
+      if (parser.nextToken() == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      switch (field) {
+        case "parameters":
+          readParameters(parser, parameters);
+          break;
+        case "conditions":
+          startArray(parser);
+          while (nextElement(parser)) {
+            conditions.add(new ServerCondition(parser.parse(ServerConditionResponse.class)));
+          }
+          break;
+        case "parameterGroups":
+          readParameterGroups(parser, parameterGroups);
+          break;
+        case "version":
+          version = new Version(parser.parse(VersionResponse.class));
+          break;
+        case "etag":
+          etag = readString(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new ServerTemplateData(etag)
+        .setParameters(parameters)
+        .setServerConditions(conditions)
+        .setParameterGroups(parameterGroups)
+        .setVersion(version);
+  }
+
+  private static void readParameterGroups(
+      JsonParser parser, Map<String, ParameterGroup> parameterGroups) throws IOException {
+    startObject(parser);
+    while (nextField(parser)) {
+      final String name = parser.getText();
+      ParameterGroup group = new ParameterGroup();
+      Map<String, Parameter> parameters = new HashMap<>();
+      if (parser.nextToken() == JsonToken.VALUE_NULL) {
+        parameterGroups.put(name, group);
+        continue;
+      }
+      startObject(parser);
+      while (nextField(parser)) {
+        String field = parser.getText();
+        if (parser.nextToken() == JsonToken.VALUE_NULL) {
+          continue;
+        }
+        if (field.equals("description")) {
+          group.setDescription(readString(parser));
+        } else if (field.equals("parameters")) {
+          readParameters(parser, parameters);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      parameterGroups.put(name, group.setParameters(parameters));
+    }
+  }
+
+  private static void readParameters(
+      JsonParser parser, Map<String, Parameter> parameters) throws IOException {
+    startObject(parser);
+    while (nextField(parser)) {
+      String name = parser.getText();
+      parser.nextToken();
+      parameters.put(name, readParameter(parser));
+    }
+  }
+
+  private static Parameter readParameter(JsonParser parser) throws IOException {
+    Parameter parameter = new Parameter();
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+      return parameter;
+    }
+    Map<String, ParameterValue> conditionalValues = new HashMap<>();
+    startObject(parser);
+    while (nextField(parser)) {
+      String field = parser.getText();
+      if (parser.nextToken() == JsonToken.VALUE_NULL && !field.equals("defaultValue")) {
+        continue;
+      }
+      switch (field) {
+        case "defaultValue":
+          parameter.setDefaultValue(readParameterValue(parser));
+          break;
+        case "description":
+          parameter.setDescription(readString(parser));
+          break;
+        case "conditionalValues":
+          startObject(parser);
+          while (nextField(parser)) {
+            String condition = parser.getText();
+            parser.nextToken();
+            conditionalValues.put(condition, readParameterValue(parser));
+          }
+          break;
+        case "valueType":
+          String valueType = readString(parser);
+          if (!Strings.isNullOrEmpty(valueType)) {
+            parameter.setValueType(ParameterValueType.valueOf(valueType));
+          }
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return parameter.setConditionalValues(conditionalValues);
+  }
+
+  private static ParameterValue readParameterValue(JsonParser parser) throws IOException {
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+      return ParameterValue.of(null);
+    }
+    String value = null;
+    boolean useInAppDefault = false;
+    // Only allocated for the rarer rollout, personalization and experiment values.
+    ParameterValueResponse response = null;
+    startObject(parser);
+    while (nextField(parser)) {
+      String field = parser.getText();
+      if (parser.nextToken() == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      switch (field) {
+        case "value":
+          value = readString(parser);
+          break;
+        case "useInAppDefault":
+          useInAppDefault = readBoolean(parser);
+          break;
+        case "rolloutValue":
+          response = response != null ? response : new ParameterValueResponse();
+          response.setRolloutValue(parser.parse(RolloutValueResponse.class));
+          break;
+        case "personalizationValue":
+          response = response != null ? response : new ParameterValueResponse();
+          response.setPersonalizationValue(parser.parse(PersonalizationValueResponse.class));
+          break;
+        case "experimentValue":
+          response = response != null ? response : new ParameterValueResponse();
+          response.setExperimentValue(parser.parse(ExperimentValueResponse.class));
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+
+    if (response != null) {
+      response.setValue(value);
+      if (useInAppDefault) {
+        response.setUseInAppDefault(true);
+      }
+      return ParameterValue.fromParameterValueResponse(response);
+    }
+    return useInAppDefault ? ParameterValue.inAppDefault() : ParameterValue.of(value);
+  }
+
+  private static String readString(JsonParser parser) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+      throw new IOException("Expected a string but found: " + token);
+    }
+    return parser.getText();
+  }
+
+  private static boolean readBoolean(JsonParser parser) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+      return token == JsonToken.VALUE_TRUE;
+    } else if (token == JsonToken.VALUE_STRING) {
+      return Boolean.parseBoolean(parser.getText());
+    }
+    throw new IOException("Expected a boolean but found: " + token);
+  }
+
+  private static void startDocument(JsonParser parser) throws IOException {
+    if (parser.getCurrentToken() == null) {
+      parser.nextToken();
+    }
+    startObject(parser);
+  }
+
+  private static void startObject(JsonParser parser) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token != JsonToken.START_OBJECT) {
+      throw new IOException("Expected an object but found: " + token);
+    }
+  }
+
+  private static void startArray(JsonParser parser) throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token != JsonToken.START_ARRAY) {
+      throw new IOException("Expected an array but found: " + token);
+    }
+  }
+
+  /**
+   * Advances to the name of the next field of the current object.
+   *
+   * @return False once the end of the object is reached.
+   */
+  private static boolean nextField(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.FIELD_NAME) {
+      return true;
+    } else if (token == JsonToken.END_OBJECT) {
+      return false;
+    }
+    throw new IOException("Expected a field name but found: " + token);
+  }
+
+  /**
+   * Advances to the next non-null element of the current array.
+   *
+   * @return False once the end of the array is reached.
+   */
+  private static boolean nextElement(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    while (token == JsonToken.VALUE_NULL) {
+      token = parser.nextToken();
+    }
+    if (token == null) {
+      throw new IOException("Unexpected end of document");
+    }
+    return token != JsonToken.END_ARRAY;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import com.google.api.client.http.AbstractHttpContent;
+import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes Remote Config templates as JSON directly from the template model, producing the same
+ * document as serializing {@link Template#toTemplateResponse(boolean)}, without building the
+ * response DTOs first.
+ */
+final class TemplateJsonWriter {
+
+  private TemplateJsonWriter() { }
+
+  /**
+   * Returns HTTP content that streams the given template to the request body, in place of a
+   * {@link JsonHttpContent} wrapping its response DTO.
+   */
+  static AbstractHttpContent newContent(
+      final JsonFactory jsonFactory, final Template template, final boolean includeAll) {
+    return new AbstractHttpContent(Json.MEDIA_TYPE) {
+      @Override
+      public void writeTo(OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createJsonGenerator(out, StandardCharsets.UTF_8);
+        writeTemplate(generator, template, includeAll);
+        generator.flush();
+      }
+    };
+  }
+
+  static void writeTemplate(
+      JsonGenerator generator, Template template, boolean includeAll) throws IOException {
+    // Fields are written in the order of their names, like the DTO serializer does.
+    generator.writeStartObject();
+    generator.writeFieldName("conditions");
+    generator.writeStartArray();
+    for (Condition condition : template.getConditions()) {
+      generator.writeStartObject();
+      writeStringField(generator, "expression", condition.getExpression());
+      writeStringField(generator, "name", condition.getName());
+      if (condition.getTagColor() != null) {
+        writeStringField(generator, "tagColor", condition.getTagColor().getColor());
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    if (includeAll) {
+      writeStringField(generator, "etag", template.getETag());
+    }
+    generator.writeFieldName("parameterGroups");
+    generator.writeStartObject();
+    for (Map.Entry<String, ParameterGroup> entry : template.getParameterGroups().entrySet()) {
+      generator.writeFieldName(entry.getKey());
+      generator.writeStartObject();
+      writeStringField(generator, "description", entry.getValue().getDescription());
+      generator.writeFieldName("parameters");
+      writeParameters(generator, entry.getValue().getParameters());
+      generator.writeEndObject();
+    }
+    generator.writeEndObject();
+    generator.writeFieldName("parameters");
+    writeParameters(generator, template.getParameters());
+    if (template.getVersion() != null) {
+      generator.writeFieldName("version");
+      generator.serialize(template.getVersion().toVersionResponse(includeAll));
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeParameters(
+      JsonGenerator generator, Map<String, Parameter> parameters) throws IOException {
+    generator.writeStartObject();
+    for (Map.Entry<String, Parameter> entry : parameters.entrySet()) {
+      final Parameter parameter = entry.getValue();
+      generator.writeFieldName(entry.getKey());
+      generator.writeStartObject();
+      generator.writeFieldName("conditionalValues");
+      generator.writeStartObject();
+      for (Map.Entry<String, ParameterValue> value : parameter.getConditionalValues().entrySet()) {
+        generator.writeFieldName(value.getKey());
+        writeParameterValue(generator, value.getValue());
+      }
+      generator.writeEndObject();
+      if (parameter.getDefaultValue() != null) {
+        generator.writeFieldName("defaultValue");
+        writeParameterValue(generator, parameter.getDefaultValue());
+      }
+      writeStringField(generator, "description", parameter.getDescription());
+      if (parameter.getValueType() != null) {
+        writeStringField(generator, "valueType", parameter.getValueType().getValueType());
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeParameterValue(
+      JsonGenerator generator, ParameterValue value) throws IOException {
+    if (value instanceof ParameterValue.Explicit) {
+      generator.writeStartObject();
+      writeStringField(generator, "value", ((ParameterValue.Explicit) value).getValue());
+      generator.writeEndObject();
+    } else if (value instanceof ParameterValue.InAppDefault) {
+      generator.writeStartObject();
+      generator.writeFieldName("useInAppDefault");
+      generator.writeBoolean(true);
+      generator.writeEndObject();
+    } else {
+      generator.serialize(value.toParameterValueResponse());
+    }
+  }
+
+  private static void writeStringField(
+      JsonGenerator generator, String name, String value) throws IOException {
+    if (value != null) {
+      generator.writeFieldName(name);
+      generator.writeString(value);
+    }
+  }
+}
@@ -18,6 +18,7 @@ package com.google.firebase.remoteconfig;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.firebase.internal.NonNull;
 
@@ -30,7 +31,7 @@ import org.slf4j.LoggerFactory;
  * types.
  */
 class Value {
-  private static final Logger logger = LoggerFactory.getLogger(Value.class);
+  private static final Logger DEFAULT_LOGGER = LoggerFactory.getLogger(Value.class);
   private static final boolean DEFAULT_VALUE_FOR_BOOLEAN = false;
   private static final String DEFAULT_VALUE_FOR_STRING = "";
   private static final long DEFAULT_VALUE_FOR_LONG = 0;
@@ -40,6 +41,18 @@ class Value {
 
   private final ValueSource source;
   private final String value;
+  private final Logger logger;
+
+  // Typed forms of the value, parsed on first use and then reused, along with parse failures, so
+  // that failures are only logged once. Values are shared by all the configs evaluated from a
+  // template, and concurrent first reads may parse the value more than once, which is harmless.
+  // Each volatile flag is written after its field, and publishes it.
+  private boolean booleanValue;
+  private volatile boolean booleanParsed;
+  private long longValue;
+  private volatile boolean longParsed;
+  private double doubleValue;
+  private volatile boolean doubleParsed;
 
   /**
    * Creates a new {@link Value} object.
@@ -48,9 +61,15 @@ class Value {
    * @param value  Indicates a parameter value.
    */
   Value(@NonNull ValueSource source, String value) {
+    this(source, value, DEFAULT_LOGGER);
+  }
+
+  @VisibleForTesting
+  Value(@NonNull ValueSource source, String value, @NonNull Logger logger) {
     checkNotNull(source, "Value source cannot be null.");
     this.source = source;
     this.value = value;
+    this.logger = checkNotNull(logger);
   }
 
   /**
@@ -84,7 +103,11 @@ class Value {
     if (source == ValueSource.STATIC) {
       return DEFAULT_VALUE_FOR_BOOLEAN;
     }
-    return BOOLEAN_TRUTHY_VALUES.contains(value.toLowerCase());
+    if (!booleanParsed) {
+      booleanValue = BOOLEAN_TRUTHY_VALUES.contains(value.toLowerCase());
+      booleanParsed = true;
+    }
+    return booleanValue;
   }
 
   /**
@@ -97,12 +120,11 @@ class Value {
     if (source == ValueSource.STATIC) {
       return DEFAULT_VALUE_FOR_LONG;
     }
-    try {
-      return Long.parseLong(value);
-    } catch (NumberFormatException e) {
-      logger.warn("Unable to convert {} to long type.", value);
-      return DEFAULT_VALUE_FOR_LONG;
+    if (!longParsed) {
+      longValue = parseLong();
+      longParsed = true;
     }
+    return longValue;
   }
 
   /**
@@ -115,12 +137,11 @@ class Value {
     if (source == ValueSource.STATIC) {
       return DEFAULT_VALUE_FOR_DOUBLE;
     }
-    try {
-      return Double.parseDouble(this.value);
-    } catch (NumberFormatException e) {
-      logger.warn("Unable to convert {} to double type.", value);
-      return DEFAULT_VALUE_FOR_DOUBLE;
+    if (!doubleParsed) {
+      doubleValue = parseDouble();
+      doubleParsed = true;
     }
+    return doubleValue;
   }
 
   /**
@@ -132,4 +153,22 @@ class Value {
   ValueSource getSource() {
     return source;
   }
+
+  private long parseLong() {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      logger.warn("Unable to convert {} to long type.", value);
+      return DEFAULT_VALUE_FOR_LONG;
+    }
+  }
+
+  private double parseDouble() {
+    try {
+      return Double.parseDouble(this.value);
+    } catch (NumberFormatException e) {
+      logger.warn("Unable to convert {} to double type.", value);
+      return DEFAULT_VALUE_FOR_DOUBLE;
+    }
+  }
 }
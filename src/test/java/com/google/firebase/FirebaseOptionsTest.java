@@ -17,6 +17,7 @@
 package com.google.firebase;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
@@ -89,6 +90,12 @@ public class FirebaseOptionsTest {
             .setReadTimeout(60000)
             .setWriteTimeout(90000)
             .setFirestoreOptions(firestoreOptions)
+            .setLightweight(true)
+            .setStacklessTokenRejections(true)
+            .setCustomTokenCacheTtlSeconds(600)
+            .setUserCacheTtlSeconds(3600)
+            .setUserCacheMaxSize(100)
+            .setProviderConfigCacheTtlSeconds(86400)
             .build();
     assertEquals(FIREBASE_DB_URL, firebaseOptions.getDatabaseUrl());
     assertEquals(FIREBASE_STORAGE_BUCKET, firebaseOptions.getStorageBucket());
@@ -100,6 +107,12 @@ public class FirebaseOptionsTest {
     assertEquals(60000, firebaseOptions.getReadTimeout());
     assertEquals(90000, firebaseOptions.getWriteTimeout());
     assertSame(firestoreOptions, firebaseOptions.getFirestoreOptions());
+    assertTrue(firebaseOptions.isLightweight());
+    assertTrue(firebaseOptions.isStacklessTokenRejections());
+    assertEquals(600, firebaseOptions.getCustomTokenCacheTtlSeconds());
+    assertEquals(3600, firebaseOptions.getUserCacheTtlSeconds());
+    assertEquals(100, firebaseOptions.getUserCacheMaxSize());
+    assertEquals(86400, firebaseOptions.getProviderConfigCacheTtlSeconds());
 
     GoogleCredentials credentials = firebaseOptions.getCredentials();
     assertNotNull(credentials);
@@ -130,6 +143,12 @@ public class FirebaseOptionsTest {
         ServiceAccount.EDITOR.getEmail(),
         ((ServiceAccountCredentials) credentials).getClientEmail());
     assertNull(firebaseOptions.getFirestoreOptions());
+    assertFalse(firebaseOptions.isLightweight());
+    assertFalse(firebaseOptions.isStacklessTokenRejections());
+    assertEquals(0, firebaseOptions.getCustomTokenCacheTtlSeconds());
+    assertEquals(0, firebaseOptions.getUserCacheTtlSeconds());
+    assertEquals(10000, firebaseOptions.getUserCacheMaxSize());
+    assertEquals(0, firebaseOptions.getProviderConfigCacheTtlSeconds());
   }
 
   @Test
@@ -193,6 +212,23 @@ public class FirebaseOptionsTest {
     assertEquals(ALL_VALUES_OPTIONS.getReadTimeout(), allValuesOptionsCopy.getReadTimeout());
     assertSame(ALL_VALUES_OPTIONS.getFirestoreOptions(),
         allValuesOptionsCopy.getFirestoreOptions());
+
+    FirebaseOptions lightweightCopy = ALL_VALUES_OPTIONS.toBuilder()
+        .setLightweight(true)
+        .setStacklessTokenRejections(true)
+        .setCustomTokenCacheTtlSeconds(60)
+        .setUserCacheTtlSeconds(60)
+        .setUserCacheMaxSize(100)
+        .setProviderConfigCacheTtlSeconds(3600)
+        .build()
+        .toBuilder()
+        .build();
+    assertTrue(lightweightCopy.isLightweight());
+    assertTrue(lightweightCopy.isStacklessTokenRejections());
+    assertEquals(60, lightweightCopy.getCustomTokenCacheTtlSeconds());
+    assertEquals(60, lightweightCopy.getUserCacheTtlSeconds());
+    assertEquals(100, lightweightCopy.getUserCacheMaxSize());
+    assertEquals(3600, lightweightCopy.getProviderConfigCacheTtlSeconds());
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -219,6 +255,46 @@ public class FirebaseOptionsTest {
             .build();
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void createOptionsWithNegativeCustomTokenCacheTtl() {
+    FirebaseOptions.builder()
+        .setCredentials(TestUtils.getCertCredential(ServiceAccount.EDITOR.asStream()))
+        .setCustomTokenCacheTtlSeconds(-1)
+        .build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createOptionsWithTooLongCustomTokenCacheTtl() {
+    FirebaseOptions.builder()
+        .setCredentials(TestUtils.getCertCredential(ServiceAccount.EDITOR.asStream()))
+        .setCustomTokenCacheTtlSeconds(601)
+        .build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createOptionsWithTooLongUserCacheTtl() {
+    FirebaseOptions.builder()
+        .setCredentials(TestUtils.getCertCredential(ServiceAccount.EDITOR.asStream()))
+        .setUserCacheTtlSeconds(3601)
+        .build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createOptionsWithInvalidUserCacheMaxSize() {
+    FirebaseOptions.builder()
+        .setCredentials(TestUtils.getCertCredential(ServiceAccount.EDITOR.asStream()))
+        .setUserCacheMaxSize(0)
+        .build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createOptionsWithTooLongProviderConfigCacheTtl() {
+    FirebaseOptions.builder()
+        .setCredentials(TestUtils.getCertCredential(ServiceAccount.EDITOR.asStream()))
+        .setProviderConfigCacheTtlSeconds(86401)
+        .build();
+  }
+
   @Test
   public void testNotEquals() throws IOException {
     GoogleCredentials credentials = GoogleCredentials.fromStream(ServiceAccount.EDITOR.asStream());
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.firebase.testing.ServiceAccount;
+import com.google.firebase.testing.TestUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class SharedSchedulerTest {
+
+  private final TestThreadManager threadManager = new TestThreadManager();
+
+  @After
+  public void tearDown() {
+    TestOnlyImplFirebaseTrampolines.clearInstancesForTest();
+  }
+
+  @Test
+  public void testAppsShareScheduler() throws Exception {
+    int instances = SharedScheduler.getInstanceCount();
+    FirebaseApp app1 = initializeApp("app1");
+    FirebaseApp app2 = initializeApp("app2");
+
+    ScheduledFuture<String> future1 = app1.schedule(newCallable("app1"), 10);
+    ScheduledFuture<String> future2 = app2.schedule(newCallable("app2"), 10);
+
+    assertEquals("app1", future1.get(5, TimeUnit.SECONDS));
+    assertEquals("app2", future2.get(5, TimeUnit.SECONDS));
+    assertEquals(instances + 1, SharedScheduler.getInstanceCount());
+    assertEquals(2, threadManager.executors.size());
+
+    app1.delete();
+    assertEquals(instances + 1, SharedScheduler.getInstanceCount());
+    app2.delete();
+    assertEquals(instances, SharedScheduler.getInstanceCount());
+  }
+
+  @Test
+  public void testDeleteCancelsPendingTasks() throws Exception {
+    FirebaseApp app1 = initializeApp("app1");
+    FirebaseApp app2 = initializeApp("app2");
+    final AtomicInteger runs = new AtomicInteger();
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+    };
+
+    ScheduledFuture<?> pending = app1.schedule(task, TimeUnit.HOURS.toMillis(1));
+    ScheduledFuture<?> other = app2.schedule(task, 10);
+    app1.delete();
+
+    assertTrue(pending.isCancelled());
+    other.get(5, TimeUnit.SECONDS);
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  public void testPeriodicTasks() throws Exception {
+    FirebaseApp app = initializeApp("app");
+    ScheduledExecutorService scheduler = app.getScheduledExecutorService();
+    final CountDownLatch fixedRateRuns = new CountDownLatch(3);
+    final CountDownLatch fixedDelayRuns = new CountDownLatch(3);
+    Runnable fixedRateTask = new Runnable() {
+      @Override
+      public void run() {
+        fixedRateRuns.countDown();
+      }
+    };
+    Runnable fixedDelayTask = new Runnable() {
+      @Override
+      public void run() {
+        fixedDelayRuns.countDown();
+      }
+    };
+
+    ScheduledFuture<?> fixedRate = scheduler.scheduleAtFixedRate(
+        fixedRateTask, 0, 5, TimeUnit.MILLISECONDS);
+    final ScheduledFuture<?> fixedDelay = scheduler.scheduleWithFixedDelay(
+        fixedDelayTask, 0, 5, TimeUnit.MILLISECONDS);
+
+    assertTrue(fixedRateRuns.await(5, TimeUnit.SECONDS));
+    assertTrue(fixedDelayRuns.await(5, TimeUnit.SECONDS));
+    assertFalse(fixedRate.isDone());
+    assertTrue(fixedRate.cancel(false));
+    app.delete();
+    assertTrue(fixedDelay.isCancelled());
+    assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAwaitTerminationWaitsForRunningTasks() throws Exception {
+    FirebaseApp app = initializeApp("app");
+    ScheduledExecutorService scheduler = app.getScheduledExecutorService();
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    scheduler.execute(new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    ScheduledFuture<?> pending = scheduler.schedule(newCallable("pending"), 1, TimeUnit.HOURS);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    scheduler.shutdownNow();
+
+    assertTrue(pending.isCancelled());
+    assertFalse(scheduler.isTerminated());
+    assertFalse(scheduler.awaitTermination(10, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(scheduler.isTerminated());
+  }
+
+  @Test
+  public void testTasksOfAppRunSequentially() throws Exception {
+    FirebaseApp app = initializeApp("app");
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(10);
+    ScheduledExecutorService scheduler = app.getScheduledExecutorService();
+    for (int i = 0; i < 10; i++) {
+      scheduler.execute(new Runnable() {
+        @Override
+        public void run() {
+          int current = running.incrementAndGet();
+          if (current > maxRunning.get()) {
+            maxRunning.set(current);
+          }
+          try {
+            Thread.sleep(5);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          running.decrementAndGet();
+          done.countDown();
+        }
+      });
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, maxRunning.get());
+    app.delete();
+    assertTrue(scheduler.isShutdown());
+  }
+
+  private FirebaseApp initializeApp(String name) {
+    FirebaseOptions options = FirebaseOptions.builder()
+        .setCredentials(TestUtils.getCertCredential(ServiceAccount.EDITOR.asStream()))
+        .setThreadManager(threadManager)
+        .setLightweight(true)
+        .build();
+    return FirebaseApp.initializeApp(options, name);
+  }
+
+  private static Callable<String> newCallable(final String result) {
+    return new Callable<String>() {
+      @Override
+      public String call() {
+        return result;
+      }
+    };
+  }
+
+  private static class TestThreadManager extends ThreadManager {
+
+    private final List<ExecutorService> executors =
+        Collections.synchronizedList(new ArrayList<ExecutorService>());
+
+    @Override
+    protected ExecutorService getExecutor(FirebaseApp app) {
+      ExecutorService executor = Executors.newCachedThreadPool(getThreadFactory());
+      executors.add(executor);
+      return executor;
+    }
+
+    @Override
+    protected void releaseExecutor(FirebaseApp app, ExecutorService executor) {
+      executor.shutdownNow();
+    }
+
+    @Override
+    protected ThreadFactory getThreadFactory() {
+      return Executors.defaultThreadFactory();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class BulkRequestRunnerTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testResultsInBatchOrder() throws Exception {
+    BulkRequestRunner runner = new BulkRequestRunner(executor, BulkOperationOptions.defaults());
+
+    List<Integer> results = runner.run(range(25), 10,
+        new BulkRequestRunner.BatchRequest<Integer, Integer>() {
+          @Override
+          public Integer execute(List<Integer> batch) {
+            return batch.get(0) * 1000 + batch.size();
+          }
+        });
+
+    assertEquals(ImmutableList.of(10, 10010, 20005), results);
+  }
+
+  @Test
+  public void testEmptyInput() throws Exception {
+    BulkRequestRunner runner = new BulkRequestRunner(executor, BulkOperationOptions.defaults());
+
+    List<Integer> results = runner.run(ImmutableList.<Integer>of(), 10,
+        new BulkRequestRunner.BatchRequest<Integer, Integer>() {
+          @Override
+          public Integer execute(List<Integer> batch) {
+            fail("No requests should be made");
+            return null;
+          }
+        });
+
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  public void testConcurrencyIsBounded() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    BulkOperationOptions options = BulkOperationOptions.builder()
+        .setMaxConcurrentRequests(3)
+        .build();
+    BulkRequestRunner runner = new BulkRequestRunner(executor, options);
+
+    runner.run(range(40), 1, new BulkRequestRunner.BatchRequest<Integer, Integer>() {
+      @Override
+      public Integer execute(List<Integer> batch) {
+        int current = inFlight.incrementAndGet();
+        synchronized (maxInFlight) {
+          maxInFlight.set(Math.max(maxInFlight.get(), current));
+        }
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+        return batch.get(0);
+      }
+    });
+
+    assertTrue(maxInFlight.get() <= 3);
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.INTERNAL, "test error", null, null, null);
+    final AtomicInteger calls = new AtomicInteger();
+    BulkOperationOptions options = BulkOperationOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .build();
+    BulkRequestRunner runner = new BulkRequestRunner(executor, options);
+
+    try {
+      runner.run(range(10), 1, new BulkRequestRunner.BatchRequest<Integer, Integer>() {
+        @Override
+        public Integer execute(List<Integer> batch) throws FirebaseAuthException {
+          if (calls.incrementAndGet() == 3) {
+            throw error;
+          }
+          return batch.get(0);
+        }
+      });
+      fail("No error thrown for failing request");
+    } catch (FirebaseAuthException e) {
+      assertSame(error, e);
+    }
+
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void testRejectingExecutor() throws Exception {
+    ExecutorService shutdown = Executors.newSingleThreadExecutor();
+    shutdown.shutdown();
+    BulkRequestRunner runner = new BulkRequestRunner(shutdown, BulkOperationOptions.defaults());
+
+    List<Integer> results = runner.run(range(5), 2,
+        new BulkRequestRunner.BatchRequest<Integer, Integer>() {
+          @Override
+          public Integer execute(List<Integer> batch) {
+            return batch.size();
+          }
+        });
+
+    assertEquals(ImmutableList.of(2, 2, 1), results);
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    int[] invalidConcurrency = {0, BulkOperationOptions.MAX_CONCURRENT_REQUESTS + 1};
+    for (int concurrency : invalidConcurrency) {
+      try {
+        BulkOperationOptions.builder().setMaxConcurrentRequests(concurrency).build();
+        fail("No error thrown for invalid maxConcurrentRequests: " + concurrency);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+
+    try {
+      BulkOperationOptions.builder().setMaxRequestsPerSecond(-1).build();
+      fail("No error thrown for negative maxRequestsPerSecond");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  private static List<Integer> range(int count) {
+    List<Integer> items = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      items.add(i);
+    }
+    return items;
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.Sleeper;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.ApiClientUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class CustomClaimsUpdaterTest {
+
+  private static final JsonFactory JSON_FACTORY = ApiClientUtils.getDefaultJsonFactory();
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final RecordingSleeper sleeper = new RecordingSleeper();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSetClaims() throws Exception {
+    final Map<String, String> updates = new ConcurrentHashMap<>();
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) {
+        updates.put(uid, customAttributes);
+      }
+    };
+    List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      entries.add(entry("uid" + i, ImmutableMap.<String, Object>of("level", i)));
+    }
+    entries.add(entry("uid20", null));
+
+    BulkCustomClaimsResult result = newUpdater(updater, BulkCustomClaimsOptions.defaults())
+        .update(entries.iterator());
+
+    assertEquals(21, result.getSuccessCount());
+    assertEquals(0, result.getFailureCount());
+    assertEquals(0, result.getRetryCount());
+    assertEquals(21, updates.size());
+    assertEquals("{\"level\":7}", updates.get("uid7"));
+    assertEquals("{}", updates.get("uid20"));
+  }
+
+  @Test
+  public void testInvalidEntriesAreReported() throws Exception {
+    final List<String> updated = Collections.synchronizedList(new ArrayList<String>());
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) {
+        updated.add(uid);
+      }
+    };
+    final List<String> reported = new ArrayList<>();
+    BulkCustomClaimsOptions options = BulkCustomClaimsOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .setFailureListener(new BulkCustomClaimsOptions.FailureListener() {
+          @Override
+          public void onFailure(int index, String uid, Exception error) {
+            assertTrue(error instanceof IllegalArgumentException);
+            reported.add(index + ":" + uid);
+          }
+        })
+        .build();
+    List<Map.Entry<String, Map<String, Object>>> entries = ImmutableList.of(
+        entry("uid0", ImmutableMap.<String, Object>of("admin", true)),
+        entry("uid1", ImmutableMap.<String, Object>of("sub", "reserved")),
+        entry("", ImmutableMap.<String, Object>of("admin", true)),
+        entry("uid3", ImmutableMap.<String, Object>of("key", Strings.repeat("a", 1000))),
+        entry("uid4", ImmutableMap.<String, Object>of("admin", false)));
+
+    BulkCustomClaimsResult result = newUpdater(updater, options).update(entries.iterator());
+
+    assertEquals(2, result.getSuccessCount());
+    assertEquals(3, result.getFailureCount());
+    assertEquals(1, result.getErrors().get(0).getIndex());
+    assertEquals("Claim 'sub' is reserved and cannot be set",
+        result.getErrors().get(0).getReason());
+    assertEquals(2, result.getErrors().get(1).getIndex());
+    assertEquals(3, result.getErrors().get(2).getIndex());
+    assertEquals(ImmutableList.of("uid0", "uid4"), updated);
+    assertEquals(ImmutableList.of("1:uid1", "2:", "3:uid3"), reported);
+  }
+
+  @Test
+  public void testLongUidIsReported() throws Exception {
+    final List<String> updated = Collections.synchronizedList(new ArrayList<String>());
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) {
+        updated.add(uid);
+      }
+    };
+    String longUid = Strings.repeat("a", 129);
+    List<Map.Entry<String, Map<String, Object>>> entries = ImmutableList.of(
+        entry(Strings.repeat("a", 128), ImmutableMap.<String, Object>of("admin", true)),
+        entry(longUid, ImmutableMap.<String, Object>of("admin", true)));
+
+    BulkCustomClaimsResult result = newUpdater(updater, BulkCustomClaimsOptions.defaults())
+        .update(entries.iterator());
+
+    assertEquals(1, result.getSuccessCount());
+    assertEquals(1, result.getFailureCount());
+    assertEquals(1, result.getErrors().get(0).getIndex());
+    assertEquals("UID cannot be longer than 128 characters",
+        result.getErrors().get(0).getReason());
+    assertEquals(ImmutableList.of(Strings.repeat("a", 128)), updated);
+  }
+
+  @Test
+  public void testCallerRunsOnSameSingleThreadExecutor() throws Exception {
+    final AtomicInteger updates = new AtomicInteger();
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) {
+        updates.incrementAndGet();
+      }
+    };
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      final CustomClaimsUpdater claimsUpdater = new CustomClaimsUpdater(
+          updater, JSON_FACTORY, single, BulkCustomClaimsOptions.defaults(), sleeper);
+      final List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        entries.add(entry("uid" + i, ImmutableMap.<String, Object>of("admin", true)));
+      }
+      Future<BulkCustomClaimsResult> future = single.submit(
+          new Callable<BulkCustomClaimsResult>() {
+            @Override
+            public BulkCustomClaimsResult call() throws Exception {
+              return claimsUpdater.update(entries.iterator());
+            }
+          });
+
+      assertEquals(20, future.get(10, TimeUnit.SECONDS).getSuccessCount());
+      assertEquals(20, updates.get());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testQuotaErrorsAreRetried() throws Exception {
+    final AtomicInteger calls = new AtomicInteger();
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) throws FirebaseAuthException {
+        if (calls.incrementAndGet() <= 3) {
+          throw quotaError();
+        }
+      }
+    };
+
+    BulkCustomClaimsResult result = newUpdater(updater, BulkCustomClaimsOptions.defaults())
+        .update(ImmutableList.of(entry("uid1", null)).iterator());
+
+    assertEquals(1, result.getSuccessCount());
+    assertEquals(3, result.getRetryCount());
+    assertEquals(4, calls.get());
+    assertEquals(ImmutableList.of(500L, 1000L, 2000L), sleeper.sleeps);
+  }
+
+  @Test
+  public void testRetriesExhausted() throws Exception {
+    final AtomicInteger calls = new AtomicInteger();
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) throws FirebaseAuthException {
+        calls.incrementAndGet();
+        throw quotaError();
+      }
+    };
+    BulkCustomClaimsOptions options = BulkCustomClaimsOptions.builder()
+        .setMaxRetries(2)
+        .build();
+
+    BulkCustomClaimsResult result = newUpdater(updater, options)
+        .update(ImmutableList.of(entry("uid1", null)).iterator());
+
+    assertEquals(1, result.getFailureCount());
+    assertEquals("quota exceeded", result.getErrors().get(0).getReason());
+    assertEquals(2, result.getRetryCount());
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void testOtherErrorsAreNotRetried() throws Exception {
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.NOT_FOUND, "user not found", null, null, AuthErrorCode.USER_NOT_FOUND);
+    final AtomicInteger calls = new AtomicInteger();
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) throws FirebaseAuthException {
+        calls.incrementAndGet();
+        if (uid.equals("missing")) {
+          throw error;
+        }
+      }
+    };
+    final List<Exception> reported = new ArrayList<>();
+    BulkCustomClaimsOptions options = BulkCustomClaimsOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .setFailureListener(new BulkCustomClaimsOptions.FailureListener() {
+          @Override
+          public void onFailure(int index, String uid, Exception error) {
+            reported.add(error);
+          }
+        })
+        .build();
+    List<Map.Entry<String, Map<String, Object>>> entries = ImmutableList.of(
+        entry("uid0", null), entry("missing", null), entry("uid2", null));
+
+    BulkCustomClaimsResult result = newUpdater(updater, options).update(entries.iterator());
+
+    assertEquals(2, result.getSuccessCount());
+    assertEquals(1, result.getErrors().get(0).getIndex());
+    assertEquals(3, calls.get());
+    assertEquals(0, result.getRetryCount());
+    assertEquals(ImmutableList.<Exception>of(error), reported);
+  }
+
+  @Test
+  public void testConcurrencyIsBounded() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) {
+        int current = inFlight.incrementAndGet();
+        synchronized (maxInFlight) {
+          maxInFlight.set(Math.max(maxInFlight.get(), current));
+        }
+        try {
+          Thread.sleep(2);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      }
+    };
+    BulkCustomClaimsOptions options = BulkCustomClaimsOptions.builder()
+        .setMaxConcurrentRequests(3)
+        .build();
+    List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      entries.add(entry("uid" + i, null));
+    }
+
+    BulkCustomClaimsResult result = newUpdater(updater, options).update(entries.iterator());
+
+    assertEquals(40, result.getSuccessCount());
+    assertTrue(maxInFlight.get() <= 3);
+  }
+
+  @Test
+  public void testConcurrencyLimiter() throws Exception {
+    CustomClaimsUpdater.ConcurrencyLimiter limiter = new CustomClaimsUpdater.ConcurrencyLimiter(8);
+    assertEquals(8, limiter.getLimit());
+
+    limiter.onThrottled();
+    assertEquals(4, limiter.getLimit());
+    limiter.onThrottled();
+    limiter.onThrottled();
+    limiter.onThrottled();
+    assertEquals(1, limiter.getLimit());
+
+    limiter.onSuccess();
+    assertEquals(2, limiter.getLimit());
+    limiter.onSuccess();
+    assertEquals(2, limiter.getLimit());
+    limiter.onSuccess();
+    assertEquals(3, limiter.getLimit());
+
+    for (int i = 0; i < 100; i++) {
+      limiter.onSuccess();
+    }
+    assertEquals(8, limiter.getLimit());
+  }
+
+  @Test
+  public void testIteratorFailure() throws Exception {
+    final RuntimeException error = new RuntimeException("test error");
+    Iterator<Map.Entry<String, Map<String, Object>>> entries =
+        new Iterator<Map.Entry<String, Map<String, Object>>>() {
+          private int count;
+
+          @Override
+          public boolean hasNext() {
+            return true;
+          }
+
+          @Override
+          public Map.Entry<String, Map<String, Object>> next() {
+            if (++count > 3) {
+              throw error;
+            }
+            return entry("uid" + count, null);
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+    CustomClaimsUpdater.Updater updater = new CustomClaimsUpdater.Updater() {
+      @Override
+      public void update(String uid, String customAttributes) {
+      }
+    };
+
+    try {
+      newUpdater(updater, BulkCustomClaimsOptions.defaults()).update(entries);
+      fail("No error thrown for failing iterator");
+    } catch (RuntimeException e) {
+      assertSame(error, e);
+    }
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    int[] invalidConcurrency = {0, BulkCustomClaimsOptions.MAX_CONCURRENT_REQUESTS + 1};
+    for (int concurrency : invalidConcurrency) {
+      try {
+        BulkCustomClaimsOptions.builder().setMaxConcurrentRequests(concurrency).build();
+        fail("No error thrown for invalid maxConcurrentRequests: " + concurrency);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+
+    int[] invalidRetries = {-1, BulkCustomClaimsOptions.MAX_RETRIES + 1};
+    for (int retries : invalidRetries) {
+      try {
+        BulkCustomClaimsOptions.builder().setMaxRetries(retries).build();
+        fail("No error thrown for invalid maxRetries: " + retries);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  private CustomClaimsUpdater newUpdater(
+      CustomClaimsUpdater.Updater updater, BulkCustomClaimsOptions options) {
+    return new CustomClaimsUpdater(updater, JSON_FACTORY, executor, options, sleeper);
+  }
+
+  private static Map.Entry<String, Map<String, Object>> entry(
+      String uid, Map<String, Object> claims) {
+    return Maps.immutableEntry(uid, claims);
+  }
+
+  private static FirebaseAuthException quotaError() {
+    return new FirebaseAuthException(
+        ErrorCode.RESOURCE_EXHAUSTED, "quota exceeded", null, null, null);
+  }
+
+  private static class RecordingSleeper implements Sleeper {
+
+    private final List<Long> sleeps = Collections.synchronizedList(new ArrayList<Long>());
+
+    @Override
+    public void sleep(long millis) {
+      sleeps.add(millis);
+    }
+  }
+}
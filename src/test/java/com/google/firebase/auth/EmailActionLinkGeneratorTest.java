@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class EmailActionLinkGeneratorTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testGenerateLinks() throws Exception {
+    EmailActionLinkGenerator generator = new EmailActionLinkGenerator(
+        new EmailActionLinkGenerator.LinkRequest() {
+          @Override
+          public String generate(String email) {
+            return "https://link/" + email;
+          }
+        }, executor, BulkOperationOptions.defaults());
+    RecordingListener listener = new RecordingListener();
+
+    BulkEmailActionLinkResult result = generator.generate(emails(50).iterator(), listener);
+
+    assertEquals(50, result.getSuccessCount());
+    assertEquals(0, result.getFailureCount());
+    assertEquals(50, listener.links.size());
+    assertEquals("https://link/user7@example.com", listener.links.get("user7@example.com"));
+  }
+
+  @Test
+  public void testFailuresAreReported() throws Exception {
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.NOT_FOUND, "user not found", null, null, AuthErrorCode.USER_NOT_FOUND);
+    EmailActionLinkGenerator generator = new EmailActionLinkGenerator(
+        new EmailActionLinkGenerator.LinkRequest() {
+          @Override
+          public String generate(String email) throws FirebaseAuthException {
+            if (email.startsWith("missing")) {
+              throw error;
+            }
+            return "https://link/" + email;
+          }
+        }, executor, BulkOperationOptions.defaults());
+    RecordingListener listener = new RecordingListener();
+    List<String> input = new ArrayList<>();
+    input.add("user@example.com");
+    input.add("missing@example.com");
+    input.add(null);
+
+    BulkEmailActionLinkResult result = generator.generate(input.iterator(), listener);
+
+    assertEquals(1, result.getSuccessCount());
+    assertEquals(2, result.getFailureCount());
+    assertSame(error, listener.errors.get("missing@example.com"));
+    assertTrue(listener.errors.get("null") instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testConcurrencyIsBounded() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    BulkOperationOptions options = BulkOperationOptions.builder()
+        .setMaxConcurrentRequests(3)
+        .build();
+    EmailActionLinkGenerator generator = new EmailActionLinkGenerator(
+        new EmailActionLinkGenerator.LinkRequest() {
+          @Override
+          public String generate(String email) {
+            int current = inFlight.incrementAndGet();
+            synchronized (maxInFlight) {
+              maxInFlight.set(Math.max(maxInFlight.get(), current));
+            }
+            try {
+              Thread.sleep(2);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } finally {
+              inFlight.decrementAndGet();
+            }
+            return "https://link/" + email;
+          }
+        }, executor, options);
+
+    BulkEmailActionLinkResult result =
+        generator.generate(emails(40).iterator(), new RecordingListener());
+
+    assertEquals(40, result.getSuccessCount());
+    assertTrue(maxInFlight.get() <= 3);
+  }
+
+  @Test
+  public void testListenerFailureStopsGeneration() throws Exception {
+    final AtomicInteger calls = new AtomicInteger();
+    final RuntimeException error = new RuntimeException("test error");
+    BulkOperationOptions options = BulkOperationOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .build();
+    EmailActionLinkGenerator generator = new EmailActionLinkGenerator(
+        new EmailActionLinkGenerator.LinkRequest() {
+          @Override
+          public String generate(String email) {
+            calls.incrementAndGet();
+            return "https://link/" + email;
+          }
+        }, executor, options);
+
+    try {
+      generator.generate(emails(10).iterator(), new RecordingListener() {
+        @Override
+        public void onLink(String email, String link) {
+          throw error;
+        }
+      });
+      fail("No error thrown for failing listener");
+    } catch (RuntimeException e) {
+      assertSame(error, e);
+    }
+
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testRejectingExecutor() throws Exception {
+    ExecutorService shutdown = Executors.newSingleThreadExecutor();
+    shutdown.shutdown();
+    EmailActionLinkGenerator generator = new EmailActionLinkGenerator(
+        new EmailActionLinkGenerator.LinkRequest() {
+          @Override
+          public String generate(String email) {
+            return "https://link/" + email;
+          }
+        }, shutdown, BulkOperationOptions.defaults());
+
+    BulkEmailActionLinkResult result =
+        generator.generate(emails(5).iterator(), new RecordingListener());
+
+    assertEquals(5, result.getSuccessCount());
+  }
+
+  @Test
+  public void testCallerRunsOnSameSingleThreadExecutor() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      final EmailActionLinkGenerator generator = new EmailActionLinkGenerator(
+          new EmailActionLinkGenerator.LinkRequest() {
+            @Override
+            public String generate(String email) {
+              return "https://link/" + email;
+            }
+          }, single, BulkOperationOptions.defaults());
+      Future<BulkEmailActionLinkResult> future = single.submit(
+          new Callable<BulkEmailActionLinkResult>() {
+            @Override
+            public BulkEmailActionLinkResult call() throws Exception {
+              return generator.generate(emails(20).iterator(), new RecordingListener());
+            }
+          });
+
+      assertEquals(20, future.get(10, TimeUnit.SECONDS).getSuccessCount());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  private static List<String> emails(int count) {
+    ImmutableList.Builder<String> emails = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      emails.add("user" + i + "@example.com");
+    }
+    return emails.build();
+  }
+
+  private static class RecordingListener implements EmailActionLinkListener {
+
+    private final Map<String, String> links = new ConcurrentHashMap<>();
+    private final Map<String, Exception> errors = new ConcurrentHashMap<>();
+
+    @Override
+    public void onLink(String email, String link) {
+      links.put(email, link);
+    }
+
+    @Override
+    public void onFailure(String email, Exception error) {
+      errors.put(String.valueOf(email), error);
+    }
+  }
+}
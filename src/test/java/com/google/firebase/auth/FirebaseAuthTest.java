@@ -32,6 +32,7 @@ import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.api.core.ApiFuture;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.firebase.ErrorCode;
 
@@ -378,6 +379,44 @@ public class FirebaseAuthTest {
     }
   }
 
+  @Test
+  public void testVerifyIdTokens() throws Exception {
+    MockTokenVerifier tokenVerifier = MockTokenVerifier.fromUid("testUser");
+    FirebaseAuth auth = getAuthForIdTokenVerification(tokenVerifier);
+
+    VerifyIdTokensResult result = auth.verifyIdTokens(ImmutableList.of("token1", "token2"));
+
+    assertEquals(2, result.getSuccessCount());
+    assertEquals(0, result.getFailureCount());
+    assertEquals("testUser", result.getResults().get(0).getToken().getUid());
+    assertEquals("token2", tokenVerifier.getLastTokenString());
+  }
+
+  @Test
+  public void testVerifyIdTokensFailure() throws Exception {
+    MockTokenVerifier tokenVerifier = MockTokenVerifier.fromException(testException);
+    FirebaseAuth auth = getAuthForIdTokenVerification(tokenVerifier);
+
+    VerifyIdTokensResult result = auth.verifyIdTokensAsync(ImmutableList.of("token")).get();
+
+    assertEquals(0, result.getSuccessCount());
+    assertEquals(1, result.getFailureCount());
+    assertSame(testException, result.getResults().get(0).getException());
+  }
+
+  @Test
+  public void testVerifyIdTokensWithEmptyString() {
+    MockTokenVerifier tokenVerifier = MockTokenVerifier.fromUid("uid");
+    FirebaseAuth auth = getAuthForIdTokenVerification(tokenVerifier);
+
+    try {
+      auth.verifyIdTokens(ImmutableList.of("token", ""));
+      fail("No error thrown for empty id token");
+    } catch (IllegalArgumentException expected) {
+      assertNull(tokenVerifier.getLastTokenString());
+    }
+  }
+
   @Test
   public void testDefaultSessionCookieVerifier() {
     FirebaseApp.initializeApp(firebaseOptions);
@@ -390,6 +429,20 @@ public class FirebaseAuthTest {
     assertEquals("session cookie", shortName);
   }
 
+  @Test
+  public void testTokenRejectionMetricsSharedByVerifiers() {
+    FirebaseApp.initializeApp(firebaseOptions);
+    FirebaseAuth auth = FirebaseAuth.getInstance();
+
+    TokenRejectionMetrics metrics = auth.getTokenRejectionMetrics();
+
+    assertNotNull(metrics);
+    assertSame(metrics,
+        ((FirebaseTokenVerifierImpl) auth.getIdTokenVerifier(false)).getRejectionMetrics());
+    assertSame(metrics,
+        ((FirebaseTokenVerifierImpl) auth.getSessionCookieVerifier(false)).getRejectionMetrics());
+  }
+
   @Test
   public void testSessionCookieVerifierInitializedOnDemand() throws Exception {
     FirebaseTokenVerifier tokenVerifier = MockTokenVerifier.fromUid("cookieUser");
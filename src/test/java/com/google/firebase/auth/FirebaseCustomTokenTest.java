@@ -39,7 +39,9 @@ import com.google.firebase.internal.ApiClientUtils;
 import com.google.firebase.testing.MultiRequestMockHttpTransport;
 import com.google.firebase.testing.ServiceAccount;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
@@ -87,6 +89,65 @@ public class FirebaseCustomTokenTest {
     assertTrue(ServiceAccount.EDITOR.verifySignature(parsedToken));
   }
 
+  @Test
+  public void testCreateCustomTokens() throws Exception {
+    FirebaseOptions options = FirebaseOptions.builder()
+        .setCredentials(ServiceAccountCredentials.fromStream(ServiceAccount.EDITOR.asStream()))
+        .build();
+    FirebaseApp app = FirebaseApp.initializeApp(options);
+    FirebaseAuth auth = FirebaseAuth.getInstance(app);
+
+    Map<String, String> tokens = auth.createCustomTokensAsync(
+        ImmutableList.of("user1", "user2", "user3")).get();
+
+    assertEquals(ImmutableList.of("user1", "user2", "user3"),
+        ImmutableList.copyOf(tokens.keySet()));
+    for (Map.Entry<String, String> entry : tokens.entrySet()) {
+      FirebaseCustomAuthToken parsedToken = FirebaseCustomAuthToken.parse(
+          new GsonFactory(), entry.getValue());
+      assertEquals(entry.getKey(), parsedToken.getPayload().getUid());
+      assertNull(parsedToken.getPayload().getDeveloperClaims());
+      assertTrue(ServiceAccount.EDITOR.verifySignature(parsedToken));
+    }
+  }
+
+  @Test
+  public void testCreateCustomTokensWithDeveloperClaims() throws Exception {
+    FirebaseOptions options = FirebaseOptions.builder()
+        .setCredentials(ServiceAccountCredentials.fromStream(ServiceAccount.EDITOR.asStream()))
+        .build();
+    FirebaseApp app = FirebaseApp.initializeApp(options);
+    FirebaseAuth auth = FirebaseAuth.getInstance(app);
+    Map<String, Map<String, Object>> claimsByUid = new LinkedHashMap<>();
+    claimsByUid.put("user1", MapBuilder.of("claim", "value"));
+    claimsByUid.put("user2", null);
+
+    Map<String, String> tokens = auth.createCustomTokens(claimsByUid);
+
+    FirebaseCustomAuthToken parsedToken = FirebaseCustomAuthToken.parse(
+        new GsonFactory(), tokens.get("user1"));
+    assertEquals("value", parsedToken.getPayload().getDeveloperClaims().get("claim"));
+    assertTrue(ServiceAccount.EDITOR.verifySignature(parsedToken));
+    parsedToken = FirebaseCustomAuthToken.parse(new GsonFactory(), tokens.get("user2"));
+    assertNull(parsedToken.getPayload().getDeveloperClaims());
+  }
+
+  @Test
+  public void testCreateCustomTokensWithEmptyUid() throws Exception {
+    FirebaseOptions options = FirebaseOptions.builder()
+        .setCredentials(ServiceAccountCredentials.fromStream(ServiceAccount.EDITOR.asStream()))
+        .build();
+    FirebaseApp app = FirebaseApp.initializeApp(options);
+    FirebaseAuth auth = FirebaseAuth.getInstance(app);
+
+    try {
+      auth.createCustomTokens(ImmutableList.of("user1", ""));
+      fail("No error thrown for empty uid");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
   @Test
   public void testCreateCustomTokenWithoutServiceAccountCredentials() throws Exception {
     MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
@@ -18,6 +18,8 @@ package com.google.firebase.auth;
 
 import static junit.framework.TestCase.assertNotNull;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -68,6 +70,7 @@ public class FirebaseTokenUtilsTest {
     assertEquals("an ID token", idTokenVerifier.getArticledShortName());
     assertEquals("https://firebase.google.com/docs/auth/admin/verify-id-tokens",
         idTokenVerifier.getDocUrl());
+    assertFalse(idTokenVerifier.isStacklessRejections());
     verifyPublicKeysManager(idTokenVerifier.getPublicKeysManager(),
         "https://www.googleapis.com/robot/v1/metadata/x509/"
             + "securetoken@system.gserviceaccount.com");
@@ -94,6 +97,24 @@ public class FirebaseTokenUtilsTest {
         "https://securetoken.google.com/test-project-id");
   }
 
+  @Test
+  public void testCreateIdTokenVerifierWithStacklessRejections() {
+    FirebaseApp app = FirebaseApp.initializeApp(FirebaseOptions.builder()
+        .setCredentials(MOCK_CREDENTIALS)
+        .setProjectId(TEST_PROJECT_ID)
+        .setStacklessTokenRejections(true)
+        .build());
+    TokenRejectionMetrics metrics = new TokenRejectionMetrics();
+
+    FirebaseTokenVerifierImpl idTokenVerifier =
+        FirebaseTokenUtils.createIdTokenVerifier(app, CLOCK, null, metrics);
+
+    assertTrue(idTokenVerifier.isStacklessRejections());
+    assertSame(metrics, idTokenVerifier.getRejectionMetrics());
+    assertNotSame(metrics, FirebaseTokenUtils.createIdTokenVerifier(app, CLOCK)
+        .getRejectionMetrics());
+  }
+
   @Test
   public void testCreateIdTokenVerifierWithoutProjectId() {
     FirebaseApp app = FirebaseApp.initializeApp(FirebaseOptions.builder()
@@ -23,7 +23,9 @@ import static com.google.firebase.auth.FirebaseTokenVerifierImplTestUtils.fullyP
 import static com.google.firebase.auth.FirebaseTokenVerifierImplTestUtils.newPublicKeysManager;
 import static com.google.firebase.auth.FirebaseTokenVerifierImplTestUtils.newTestTokenVerifier;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -32,12 +34,19 @@ import com.google.api.client.http.LowLevelHttpRequest;
 import com.google.api.client.json.webtoken.JsonWebSignature;
 import com.google.api.client.json.webtoken.JsonWebToken.Payload;
 import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.firebase.ErrorCode;
 import com.google.firebase.testing.ServiceAccount;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -54,6 +63,10 @@ public class FirebaseTokenVerifierImplTest {
           + "-P1wie318In0sInYiOjAsImlhdCI6MTQ4MDk4Mj"
           + "U2NH0.ZWEpoHgIPCAz8Q-cNFBS8jiqClTJ3j27yuRkQo-QxyI";
 
+  // A legacy custom token whose payload has a malformed version claim: {"v":1-,"d":{"uid":"1"}}
+  private static final String MALFORMED_LEGACY_CUSTOM_TOKEN =
+      "eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiJ9.eyJ2IjoxLSwiZCI6eyJ1aWQiOiIxIn19.c2ln";
+
   private FirebaseTokenVerifier tokenVerifier;
   private TestTokenFactory tokenFactory;
 
@@ -337,6 +350,42 @@ public class FirebaseTokenVerifierImplTest {
     }
   }
 
+  @Test
+  public void testMalformedLegacyVersion() {
+    try {
+      tokenVerifier.verifyToken(MALFORMED_LEGACY_CUSTOM_TOKEN);
+      fail("No error thrown for malformed legacy version");
+    } catch (FirebaseAuthException e) {
+      String message = "Failed to parse Firebase test token. "
+          + "Make sure you passed a string that represents a complete and valid JWT. "
+          + "See https://test.doc.url for details on how to retrieve a test token.";
+      assertEquals(ErrorCode.INVALID_ARGUMENT, e.getErrorCode());
+      assertEquals(message, e.getMessage());
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+      assertEquals(AuthErrorCode.INVALID_ID_TOKEN, e.getAuthErrorCode());
+    }
+  }
+
+  @Test
+  public void testMalformedTypedClaim() {
+    Payload payload = tokenFactory.createTokenPayload();
+    payload.set("auth_time", "x");
+    String token = tokenFactory.createToken(payload);
+
+    try {
+      tokenVerifier.verifyToken(token);
+      fail("No error thrown for malformed auth_time claim");
+    } catch (FirebaseAuthException e) {
+      String message = "Failed to parse Firebase test token. "
+          + "Make sure you passed a string that represents a complete and valid JWT. "
+          + "See https://test.doc.url for details on how to retrieve a test token.";
+      assertEquals(ErrorCode.INVALID_ARGUMENT, e.getErrorCode());
+      assertEquals(message, e.getMessage());
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+      assertEquals(AuthErrorCode.INVALID_ID_TOKEN, e.getAuthErrorCode());
+    }
+  }
+
   @Test
   public void testMalformedToken() {
     try {
@@ -414,14 +463,259 @@ public class FirebaseTokenVerifierImplTest {
     }
   }
 
-  @Test(expected = NullPointerException.class)
-  public void testBuilderNoPublicKeysManager() {
-    fullyPopulatedBuilder().setPublicKeysManager(null).build();
+  @Test
+  public void testVerifyTokens() throws Exception {
+    long twoHoursInPast = (TestTokenFactory.CLOCK.currentTimeMillis() / 1000)
+        - TimeUnit.HOURS.toSeconds(2);
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      tokens.add(tokenFactory.createToken());
+    }
+    tokens.add(createTokenWithTimestamps(
+        twoHoursInPast, twoHoursInPast + TimeUnit.HOURS.toSeconds(1)));
+    tokens.add("not.a.jwt");
+
+    List<VerifyTokenResult> results = tokenVerifier.verifyTokens(tokens);
+
+    assertEquals(tokens.size(), results.size());
+    for (int i = 0; i < 40; i++) {
+      assertTrue(results.get(i).isSuccessful());
+      assertNull(results.get(i).getException());
+      assertEquals(TestTokenFactory.UID, results.get(i).getToken().getUid());
+    }
+    VerifyTokenResult expired = results.get(40);
+    assertFalse(expired.isSuccessful());
+    assertNull(expired.getToken());
+    assertEquals(AuthErrorCode.EXPIRED_ID_TOKEN, expired.getException().getAuthErrorCode());
+    VerifyTokenResult malformed = results.get(41);
+    assertFalse(malformed.isSuccessful());
+    assertEquals(AuthErrorCode.INVALID_ID_TOKEN, malformed.getException().getAuthErrorCode());
+  }
+
+  @Test
+  public void testVerifyTokensWithMalformedLegacyVersion() {
+    List<String> tokens = ImmutableList.of(
+        tokenFactory.createToken(), MALFORMED_LEGACY_CUSTOM_TOKEN);
+
+    List<VerifyTokenResult> results = tokenVerifier.verifyTokens(tokens);
+
+    assertTrue(results.get(0).isSuccessful());
+    VerifyTokenResult malformed = results.get(1);
+    assertFalse(malformed.isSuccessful());
+    assertEquals(AuthErrorCode.INVALID_ID_TOKEN, malformed.getException().getAuthErrorCode());
+  }
+
+  @Test
+  public void testVerifyTokensWithMalformedTypedClaim() {
+    Payload payload = tokenFactory.createTokenPayload();
+    payload.set("amr", 1);
+    List<String> tokens = ImmutableList.of(
+        tokenFactory.createToken(), tokenFactory.createToken(payload));
+
+    List<VerifyTokenResult> results = tokenVerifier.verifyTokens(tokens);
+
+    assertTrue(results.get(0).isSuccessful());
+    VerifyTokenResult malformed = results.get(1);
+    assertFalse(malformed.isSuccessful());
+    assertEquals(AuthErrorCode.INVALID_ID_TOKEN, malformed.getException().getAuthErrorCode());
+  }
+
+  @Test
+  public void testVerifyTokensFetchesKeysOnce() {
+    final AtomicInteger requests = new AtomicInteger();
+    String certificates = String.format("{\"%s\" : \"%s\"}",
+        TestTokenFactory.PRIVATE_KEY_ID, ServiceAccount.EDITOR.getCert());
+    final MockLowLevelHttpRequest request = new MockLowLevelHttpRequest()
+        .setResponse(new MockLowLevelHttpResponse().setContent(certificates));
+    MockHttpTransport transport = new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) {
+        requests.incrementAndGet();
+        return request;
+      }
+    };
+    FirebaseTokenVerifier verifier = newTestTokenVerifier(newPublicKeysManager(transport));
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      tokens.add(tokenFactory.createToken());
+    }
+
+    List<VerifyTokenResult> results = verifier.verifyTokens(tokens);
+
+    assertEquals(1, requests.get());
+    for (VerifyTokenResult result : results) {
+      assertTrue(result.isSuccessful());
+    }
+  }
+
+  @Test
+  public void testVerifyTokensSignatureMismatch() {
+    GooglePublicKeysManager publicKeysManager = newPublicKeysManager(
+        ServiceAccount.NONE.getCert());
+    FirebaseTokenVerifier tokenVerifier = newTestTokenVerifier(publicKeysManager);
+    List<String> tokens = ImmutableList.of(tokenFactory.createToken(), tokenFactory.createToken());
+
+    List<VerifyTokenResult> results = tokenVerifier.verifyTokens(tokens);
+
+    for (VerifyTokenResult result : results) {
+      String message = "Failed to verify the signature of Firebase test token. "
+          + "See https://test.doc.url for details on how to retrieve a test token.";
+      checkInvalidTokenException(result.getException(), message);
+    }
+  }
+
+  @Test
+  public void testVerifyTokensCertificateFetchError() {
+    MockHttpTransport failingTransport = new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        throw new IOException("Expected error");
+      }
+    };
+    FirebaseTokenVerifier tokenVerifier = newTestTokenVerifier(
+        newPublicKeysManager(failingTransport));
+    List<String> tokens = ImmutableList.of(tokenFactory.createToken(), "not.a.jwt");
+
+    List<VerifyTokenResult> results = tokenVerifier.verifyTokens(tokens);
+
+    assertEquals(AuthErrorCode.CERTIFICATE_FETCH_FAILED,
+        results.get(0).getException().getAuthErrorCode());
+    assertEquals(AuthErrorCode.INVALID_ID_TOKEN,
+        results.get(1).getException().getAuthErrorCode());
+  }
+
+  @Test
+  public void testVerifyTokensEmpty() {
+    List<VerifyTokenResult> results = tokenVerifier.verifyTokens(ImmutableList.<String>of());
+
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  public void testRejectionMetrics() {
+    TokenRejectionMetrics metrics = new TokenRejectionMetrics();
+    FirebaseTokenVerifierImpl verifier = fullyPopulatedBuilder()
+        .setRejectionMetrics(metrics)
+        .setTenantId("TENANT_1")
+        .build();
+    List<String> tokens = ImmutableList.of(
+        "not.a.jwt",
+        createTokenWithoutKeyId(),
+        createTokenWithIncorrectAudience(),
+        createTokenWithIncorrectAudience(),
+        createTokenWithSubject(""),
+        createTokenWithTenantId("TENANT_2"));
+
+    for (String token : tokens) {
+      try {
+        verifier.verifyToken(token);
+      } catch (FirebaseAuthException ignore) {
+        // ignore
+      }
+    }
+
+    assertSame(metrics, verifier.getRejectionMetrics());
+    assertEquals(6, metrics.getTotalCount());
+    assertEquals(1, metrics.getCount(TokenRejectionMetrics.Reason.MALFORMED));
+    assertEquals(1, metrics.getCount(TokenRejectionMetrics.Reason.MISSING_KEY_ID));
+    assertEquals(2, metrics.getCount(TokenRejectionMetrics.Reason.INCORRECT_AUDIENCE));
+    assertEquals(1, metrics.getCount(TokenRejectionMetrics.Reason.INVALID_SUBJECT));
+    assertEquals(1, metrics.getCount(TokenRejectionMetrics.Reason.TENANT_ID_MISMATCH));
+    assertEquals(0, metrics.getCount(TokenRejectionMetrics.Reason.EXPIRED));
+    Map<TokenRejectionMetrics.Reason, Long> counts = metrics.getCounts();
+    assertEquals(TokenRejectionMetrics.Reason.values().length, counts.size());
+    assertEquals(2L, (long) counts.get(TokenRejectionMetrics.Reason.INCORRECT_AUDIENCE));
+  }
+
+  @Test
+  public void testRejectionMetricsSignatureMismatch() {
+    FirebaseTokenVerifierImpl verifier = fullyPopulatedBuilder()
+        .setPublicKeysManager(newPublicKeysManager(ServiceAccount.NONE.getCert()))
+        .build();
+
+    verifier.verifyTokens(ImmutableList.of(tokenFactory.createToken(), tokenFactory.createToken()));
+
+    TokenRejectionMetrics metrics = verifier.getRejectionMetrics();
+    assertEquals(2, metrics.getCount(TokenRejectionMetrics.Reason.INVALID_SIGNATURE));
+    assertEquals(2, metrics.getTotalCount());
+  }
+
+  @Test
+  public void testStacklessRejections() {
+    FirebaseTokenVerifierImpl verifier = fullyPopulatedBuilder()
+        .setStacklessRejections(true)
+        .build();
+    long twoHoursInPast = (TestTokenFactory.CLOCK.currentTimeMillis() / 1000)
+        - TimeUnit.HOURS.toSeconds(2);
+    String expiredToken = createTokenWithTimestamps(
+        twoHoursInPast,
+        twoHoursInPast + TimeUnit.HOURS.toSeconds(1));
+
+    try {
+      verifier.verifyToken(expiredToken);
+      fail("No error thrown for expired token");
+    } catch (FirebaseAuthException e) {
+      String message = "Firebase test token has expired. "
+          + "Get a fresh test token and try again. "
+          + "See https://test.doc.url for details on how to retrieve a test token.";
+      checkException(e, message, AuthErrorCode.EXPIRED_ID_TOKEN);
+      assertEquals(0, e.getStackTrace().length);
+    }
+
+    try {
+      verifier.verifyToken("not.a.jwt");
+      fail("No error thrown for malformed token");
+    } catch (FirebaseAuthException e) {
+      String message = "Failed to parse Firebase test token. "
+          + "Make sure you passed a string that represents a complete and valid JWT. "
+          + "See https://test.doc.url for details on how to retrieve a test token.";
+      checkInvalidTokenException(e, message);
+      assertEquals(0, e.getStackTrace().length);
+    }
+  }
+
+  @Test
+  public void testStacklessRejectionsDoNotEchoTokenContents() {
+    FirebaseTokenVerifierImpl verifier = fullyPopulatedBuilder()
+        .setStacklessRejections(true)
+        .build();
+
+    try {
+      verifier.verifyToken(createTokenWithIncorrectAudience());
+      fail("No error thrown for incorrect audience");
+    } catch (FirebaseAuthException e) {
+      String message = "Firebase test token has incorrect \"aud\" (audience) claim. "
+          + "Expected \"proj-test-101\". "
+          + "Make sure the test token comes from the same Firebase project as the service account "
+          + "used to authenticate this SDK. "
+          + "See https://test.doc.url for details on how to retrieve a test token.";
+      checkInvalidTokenException(e, message);
+      assertEquals(0, e.getStackTrace().length);
+    }
+
+    try {
+      verifier.verifyToken(createTokenWithIncorrectAlgorithm());
+      fail("No error thrown for incorrect alg");
+    } catch (FirebaseAuthException e) {
+      String message = "Firebase test token has incorrect algorithm. Expected \"RS256\". "
+          + "See https://test.doc.url for details on how to retrieve a test token.";
+      checkInvalidTokenException(e, message);
+    }
+  }
+
+  @Test
+  public void testStacklessRejectionsDisabledByDefault() {
+    try {
+      tokenVerifier.verifyToken(createTokenWithSubject(""));
+      fail("No error thrown for empty subject");
+    } catch (FirebaseAuthException e) {
+      assertTrue(e.getStackTrace().length > 0);
+    }
   }
 
   @Test(expected = NullPointerException.class)
-  public void testBuilderNoJsonFactory() {
-    fullyPopulatedBuilder().setJsonFactory(null).build();
+  public void testBuilderNoPublicKeysManager() {
+    fullyPopulatedBuilder().setPublicKeysManager(null).build();
   }
 
   @Test(expected = NullPointerException.class)
@@ -72,7 +72,6 @@ class FirebaseTokenVerifierImplTestUtils {
         .setShortName("test token")
         .setMethod("verifyTestToken()")
         .setDocUrl("https://test.doc.url")
-        .setJsonFactory(TestTokenFactory.JSON_FACTORY)
         .setPublicKeysManager(newPublicKeysManager(ServiceAccount.EDITOR.getCert()))
         .setInvalidTokenErrorCode(AuthErrorCode.INVALID_ID_TOKEN)
         .setExpiredTokenErrorCode(AuthErrorCode.EXPIRED_ID_TOKEN)
@@ -44,6 +44,7 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.TestOnlyImplFirebaseTrampolines;
 import com.google.firebase.auth.FirebaseUserManager.EmailLinkType;
+import com.google.firebase.auth.internal.Utils;
 import com.google.firebase.auth.multitenancy.TenantAwareFirebaseAuth;
 import com.google.firebase.auth.multitenancy.TenantManager;
 import com.google.firebase.internal.ApiClientUtils;
@@ -58,6 +59,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -144,6 +146,41 @@ public class FirebaseUserManagerTest {
     checkRequestHeaders(interceptor);
   }
 
+  @Test
+  public void testGetUserWithCache() throws Exception {
+    String user = TestUtils.loadResource("getUser.json");
+    initializeAppForUserManagement(
+        FirebaseOptions.builder().setUserCacheTtlSeconds(60), user, "{}", user);
+    FirebaseAuth auth = FirebaseAuth.getInstance();
+
+    checkUserRecord(auth.getUser("testuser"));
+    checkUserRecord(auth.getUserByEmail("testuser@example.com"));
+    checkUserRecord(auth.getUserByPhoneNumber("+1234567890"));
+    UserCacheStats stats = auth.getUserCacheStats();
+    assertEquals(2, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+
+    auth.setCustomUserClaims("testuser", null);
+    checkUserRecord(auth.getUserAsync("testuser").get());
+    stats = auth.getUserCacheStats();
+    assertEquals(2, stats.getHitCount());
+    assertEquals(2, stats.getMissCount());
+    assertEquals(1, stats.getInvalidationCount());
+  }
+
+  @Test
+  public void testUserCacheDisabledByDefault() throws Exception {
+    String user = TestUtils.loadResource("getUser.json");
+    initializeAppForUserManagement(user, user);
+
+    FirebaseAuth.getInstance().getUser("testuser");
+    FirebaseAuth.getInstance().getUser("testuser");
+
+    UserCacheStats stats = FirebaseAuth.getInstance().getUserCacheStats();
+    assertEquals(0, stats.getHitCount());
+    assertEquals(0, stats.getMissCount());
+  }
+
   @Test
   public void testGetUserWithNotFoundError() throws Exception {
     initializeAppForUserManagement(TestUtils.loadResource("getUserError.json"));
@@ -238,6 +275,28 @@ public class FirebaseUserManagerTest {
     }
   }
 
+  @Test
+  public void testGetUsersInBatches() throws Exception {
+    String response = "{\"users\": [{\"localId\": \"uid_0\"}, {\"localId\": \"uid_150\"}]}";
+    initializeAppForUserManagement(response, response);
+    List<UserIdentifier> identifiers = new ArrayList<>();
+    for (int i = 0; i < 150; i++) {
+      identifiers.add(new UidIdentifier("uid_" + i));
+    }
+    identifiers.add(new EmailIdentifier("user150@example.com"));
+    BulkOperationOptions options = BulkOperationOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .build();
+
+    GetUsersResult result = FirebaseAuth.getInstance().getUsers(identifiers, options);
+
+    assertEquals(2, result.getUsers().size());
+    assertEquals(150, result.getNotFound().size());
+    assertFalse(result.getNotFound().contains(identifiers.get(0)));
+    assertTrue(result.getNotFound().contains(identifiers.get(1)));
+    assertTrue(result.getNotFound().contains(identifiers.get(150)));
+  }
+
   @Test
   public void testGetUsersNull() throws Exception {
     FirebaseApp.initializeApp(FirebaseOptions.builder()
@@ -459,6 +518,80 @@ public class FirebaseUserManagerTest {
     assertEquals("token", url.getFirst("nextPageToken"));
   }
 
+  @Test
+  public void testExportUsers() throws Exception {
+    final TestResponseInterceptor interceptor = initializeAppForUserManagement(
+        TestUtils.loadResource("listUsers.json"));
+    final List<ExportedUserRecord> users = new ArrayList<>();
+    final List<String> checkpoints = new ArrayList<>();
+    UserExportOptions options = UserExportOptions.builder()
+        .setPageToken("token")
+        .setMaxResults(999)
+        .setCheckpointListener(new UserExportOptions.CheckpointListener() {
+          @Override
+          public void onCheckpoint(String nextPageToken) {
+            checkpoints.add(nextPageToken);
+          }
+        })
+        .build();
+
+    UserExportResult result = FirebaseAuth.getInstance().exportUsersAsync(
+        new UserExportConsumer() {
+          @Override
+          public void accept(ExportedUserRecord user) {
+            users.add(user);
+          }
+        }, options).get();
+
+    assertEquals(2, result.getUserCount());
+    assertEquals(1, result.getPageCount());
+    assertEquals(2, users.size());
+    for (ExportedUserRecord userRecord : users) {
+      checkUserRecord(userRecord);
+      assertEquals("passwordHash", userRecord.getPasswordHash());
+    }
+    assertEquals(1, checkpoints.size());
+    assertNull(checkpoints.get(0));
+    checkRequestHeaders(interceptor);
+
+    GenericUrl url = interceptor.getResponse().getRequest().getUrl();
+    assertEquals(999, url.getFirst("maxResults"));
+    assertEquals("token", url.getFirst("nextPageToken"));
+  }
+
+  @Test
+  public void testExportUsersAsNdjson() throws Exception {
+    initializeAppForUserManagement(TestUtils.loadResource("listUsers.json"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    UserExportResult result = FirebaseAuth.getInstance().exportUsers(
+        out, UserExportOptions.builder().build());
+
+    assertEquals(2, result.getUserCount());
+    String[] lines = new String(out.toByteArray(), "UTF-8").split("\n");
+    assertEquals(2, lines.length);
+    for (String line : lines) {
+      GenericJson json = JSON_FACTORY.fromString(line, GenericJson.class);
+      assertEquals("passwordHash", json.get("passwordHash"));
+    }
+  }
+
+  @Test
+  public void testExportUsersWithError() throws Exception {
+    initializeAppForUserManagementWithStatusCode(500, "{}");
+    try {
+      FirebaseAuth.getInstance().exportUsers(new UserExportConsumer() {
+        @Override
+        public void accept(ExportedUserRecord user) {
+          fail("No user should be exported");
+        }
+      });
+      fail("No error thrown for failing export");
+    } catch (FirebaseAuthException e) {
+      assertEquals(ErrorCode.INTERNAL, e.getErrorCode());
+    }
+  }
+
   @Test
   public void testListZeroUsers() throws Exception {
     TestResponseInterceptor interceptor = initializeAppForUserManagement("{}");
@@ -505,6 +638,30 @@ public class FirebaseUserManagerTest {
     assertEquals(JSON_FACTORY.toString(claims), parsed.get("customAttributes"));
   }
 
+  @Test
+  public void testBulkSetCustomAttributes() throws Exception {
+    final TestResponseInterceptor interceptor = initializeAppForUserManagement(
+        TestUtils.loadResource("createUser.json"), TestUtils.loadResource("createUser.json"));
+    Map<String, Map<String, Object>> claims = new LinkedHashMap<>();
+    claims.put("user1", ImmutableMap.<String, Object>of("admin", true));
+    claims.put("user2", ImmutableMap.<String, Object>of("sub", "reserved"));
+    claims.put("user3", null);
+    BulkCustomClaimsOptions options = BulkCustomClaimsOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .build();
+
+    BulkCustomClaimsResult result = FirebaseAuth.getInstance()
+        .bulkSetCustomUserClaimsAsync(claims.entrySet().iterator(), options).get();
+
+    assertEquals(2, result.getSuccessCount());
+    assertEquals(1, result.getFailureCount());
+    assertEquals(1, result.getErrors().get(0).getIndex());
+    checkRequestHeaders(interceptor);
+    GenericJson parsed = parseRequestContent(interceptor);
+    assertEquals("user3", parsed.get("localId"));
+    assertEquals("{}", parsed.get("customAttributes"));
+  }
+
   @Test
   public void testRevokeRefreshTokens() throws Exception {
     TestResponseInterceptor interceptor = initializeAppForUserManagement(
@@ -589,6 +746,29 @@ public class FirebaseUserManagerTest {
     assertEquals("something awful", result.getErrors().get(1).getReason());
   }
 
+  @Test
+  public void testDeleteUsersInBatches() throws Exception {
+    initializeAppForUserManagement(
+        "{\"errors\": [{\"index\": 1, \"localId\": \"uid_1\", \"message\": \"first\"}]}",
+        "{\"errors\": [{\"index\": 2, \"localId\": \"uid_1002\", \"message\": \"second\"}]}");
+    List<String> uids = new ArrayList<>();
+    for (int i = 0; i < 1500; i++) {
+      uids.add("uid_" + i);
+    }
+    BulkOperationOptions options = BulkOperationOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .build();
+
+    DeleteUsersResult result = FirebaseAuth.getInstance().deleteUsersAsync(uids, options).get();
+
+    assertEquals(1498, result.getSuccessCount());
+    assertEquals(2, result.getFailureCount());
+    assertEquals(1, result.getErrors().get(0).getIndex());
+    assertEquals("first", result.getErrors().get(0).getReason());
+    assertEquals(1002, result.getErrors().get(1).getIndex());
+    assertEquals("second", result.getErrors().get(1).getReason());
+  }
+
   @Test
   public void testDeleteUsersSuccess() throws Exception {
     initializeAppForUserManagement("{}");
@@ -746,6 +926,48 @@ public class FirebaseUserManagerTest {
     }
   }
 
+  @Test
+  public void testBulkImportUsers() throws Exception {
+    initializeAppForUserManagement(TestUtils.loadResource("importUsersError.json"), "{}");
+    List<ImportUserRecord> users = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      users.add(ImportUserRecord.builder().setUid("user" + i).build());
+    }
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(3)
+        .setMaxConcurrentRequests(1)
+        .setStartIndex(10)
+        .build();
+
+    UserImportResult result = FirebaseAuth.getInstance()
+        .bulkImportUsersAsync(users.iterator(), options).get();
+
+    assertEquals(3, result.getSuccessCount());
+    assertEquals(2, result.getFailureCount());
+    assertEquals(10, result.getErrors().get(0).getIndex());
+    assertEquals("Some error occurred in user1", result.getErrors().get(0).getReason());
+    assertEquals(12, result.getErrors().get(1).getIndex());
+    assertEquals("Another error occurred in user3", result.getErrors().get(1).getReason());
+  }
+
+  @Test
+  public void testBulkImportUsersMissingHash() {
+    initializeAppForUserManagement();
+    ImportUserRecord user = ImportUserRecord.builder()
+        .setUid("user1")
+        .setPasswordHash("password".getBytes())
+        .build();
+    try {
+      FirebaseAuth.getInstance().bulkImportUsers(
+          ImmutableList.of(user).iterator(), UserBulkImportOptions.builder().build());
+      fail("No error thrown for missing hash option");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    } catch (FirebaseAuthException e) {
+      fail("Unexpected error: " + e);
+    }
+  }
+
   @Test
   public void testCreateSessionCookie() throws Exception {
     TestResponseInterceptor interceptor = initializeAppForUserManagement(
@@ -1444,6 +1666,67 @@ public class FirebaseUserManagerTest {
     }
   }
 
+  @Test
+  public void testGeneratePasswordResetLinks() throws Exception {
+    String response = TestUtils.loadResource("generateEmailLink.json");
+    final TestResponseInterceptor interceptor = initializeAppForUserManagement(response, response);
+    final Map<String, String> links = new LinkedHashMap<>();
+    EmailActionLinkListener listener = new EmailActionLinkListener() {
+      @Override
+      public void onLink(String email, String link) {
+        links.put(email, link);
+      }
+
+      @Override
+      public void onFailure(String email, Exception error) {
+        links.put(email, error.getMessage());
+      }
+    };
+    BulkOperationOptions options = BulkOperationOptions.builder()
+        .setMaxConcurrentRequests(1)
+        .build();
+
+    BulkEmailActionLinkResult result = FirebaseAuth.getInstance().generatePasswordResetLinksAsync(
+        ImmutableList.of("test1@example.com", "", "test\"2@example.com").iterator(),
+        ACTION_CODE_SETTINGS, listener, options).get();
+
+    assertEquals(2, result.getSuccessCount());
+    assertEquals(1, result.getFailureCount());
+    assertEquals("https://mock-oob-link.for.auth.tests", links.get("test1@example.com"));
+    assertEquals("email must not be null or empty", links.get(""));
+    assertEquals("https://mock-oob-link.for.auth.tests", links.get("test\"2@example.com"));
+    checkRequestHeaders(interceptor);
+    GenericJson parsed = parseRequestContent(interceptor);
+    assertEquals(3 + ACTION_CODE_SETTINGS_MAP.size(), parsed.size());
+    assertEquals("test\"2@example.com", parsed.get("email"));
+    assertEquals("PASSWORD_RESET", parsed.get("requestType"));
+    assertTrue((Boolean) parsed.get("returnOobLink"));
+    for (Map.Entry<String, Object> entry : ACTION_CODE_SETTINGS_MAP.entrySet()) {
+      assertEquals(entry.getValue(), parsed.get(entry.getKey()));
+    }
+  }
+
+  @Test
+  public void testGenerateSignInWithEmailLinksWithoutSettings() throws Exception {
+    initializeAppForUserManagement();
+    try {
+      FirebaseAuth.getInstance().generateSignInWithEmailLinks(
+          ImmutableList.of("test@example.com").iterator(), null,
+          new EmailActionLinkListener() {
+            @Override
+            public void onLink(String email, String link) {
+            }
+
+            @Override
+            public void onFailure(String email, Exception error) {
+            }
+          }, BulkOperationOptions.defaults());
+      fail("No error thrown for null action code settings");
+    } catch (NullPointerException expected) {
+      // expected
+    }
+  }
+
   @Test
   public void testGeneratePasswordResetLink() throws Exception {
     TestResponseInterceptor interceptor = initializeAppForUserManagement(
@@ -1945,6 +2228,36 @@ public class FirebaseUserManagerTest {
     checkUrl(interceptor, "GET", PROJECT_BASE_URL + "/oauthIdpConfigs/oidc.provider-id");
   }
 
+  @Test
+  public void testGetOidcProviderConfigWithCache() throws Exception {
+    initializeAppForUserManagement(
+        FirebaseOptions.builder().setProviderConfigCacheTtlSeconds(3600),
+        OIDC_RESPONSE, OIDC_RESPONSE, OIDC_RESPONSE);
+    FirebaseAuth auth = FirebaseAuth.getInstance();
+
+    checkOidcProviderConfig(auth.getOidcProviderConfig("oidc.provider-id"), "oidc.provider-id");
+    checkOidcProviderConfig(
+        auth.getOidcProviderConfigAsync("oidc.provider-id").get(), "oidc.provider-id");
+
+    OidcProviderConfig.UpdateRequest request =
+        new OidcProviderConfig.UpdateRequest("oidc.provider-id").setDisplayName("DISPLAY_NAME");
+    auth.updateOidcProviderConfig(request);
+    checkOidcProviderConfig(auth.getOidcProviderConfig("oidc.provider-id"), "oidc.provider-id");
+    checkOidcProviderConfig(auth.getOidcProviderConfig("oidc.provider-id"), "oidc.provider-id");
+  }
+
+  @Test
+  public void testWarmUpProviderConfigCacheDisabled() throws Exception {
+    initializeAppForUserManagement();
+
+    try {
+      FirebaseAuth.getInstance().warmUpProviderConfigCacheAsync();
+      fail("No error thrown for disabled provider config cache");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+  }
+
   @Test
   public void testGetOidcProviderConfigAsync() throws Exception {
     TestResponseInterceptor interceptor = initializeAppForUserManagement(OIDC_RESPONSE);
@@ -2916,19 +3229,29 @@ public class FirebaseUserManagerTest {
   }
 
   private static TestResponseInterceptor initializeAppForUserManagement(String... responses) {
-    initializeAppWithResponses(responses);
+    return initializeAppForUserManagement(FirebaseOptions.builder(), responses);
+  }
+
+  private static TestResponseInterceptor initializeAppForUserManagement(
+      FirebaseOptions.Builder builder, String... responses) {
+    initializeAppWithResponses(builder, responses);
     TestResponseInterceptor interceptor = new TestResponseInterceptor();
     FirebaseAuth.getInstance().getUserManager().setInterceptor(interceptor);
     return interceptor;
   }
 
   private static void initializeAppWithResponses(String... responses) {
+    initializeAppWithResponses(FirebaseOptions.builder(), responses);
+  }
+
+  private static void initializeAppWithResponses(
+      FirebaseOptions.Builder builder, String... responses) {
     List<MockLowLevelHttpResponse> mocks = new ArrayList<>();
     for (String response : responses) {
       mocks.add(new MockLowLevelHttpResponse().setContent(response));
     }
     MockHttpTransport transport = new MultiRequestMockHttpTransport(mocks);
-    FirebaseApp.initializeApp(FirebaseOptions.builder()
+    FirebaseApp.initializeApp(builder
         .setCredentials(isEmulatorMode() ? emulator_credentials : credentials)
         .setHttpTransport(transport)
         .setProjectId("test-project-id")
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.testing.http.FixedClock;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.internal.ListOidcProviderConfigsResponse;
+import com.google.firebase.auth.internal.ListProviderConfigsResponse;
+import com.google.firebase.auth.internal.ListSamlProviderConfigsResponse;
+import com.google.firebase.internal.ApiClientUtils;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ProviderConfigCacheTest {
+
+  private static final JsonFactory JSON_FACTORY = ApiClientUtils.getDefaultJsonFactory();
+
+  private final FixedClock clock = new FixedClock(1000L);
+  private final Executor executor = MoreExecutors.directExecutor();
+
+  @Test
+  public void testReadThrough() throws Exception {
+    ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    CountingLoader loader = new CountingLoader(newOidcConfig("oidc.provider1"));
+
+    OidcProviderConfig first = cache.get("oidc.provider1", OidcProviderConfig.class, loader);
+    OidcProviderConfig second = cache.get("oidc.provider1", OidcProviderConfig.class, loader);
+
+    assertSame(first, second);
+    assertEquals(1, loader.calls);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testBackgroundRefresh() throws Exception {
+    ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    OidcProviderConfig original = newOidcConfig("oidc.provider1");
+    cache.get("oidc.provider1", OidcProviderConfig.class, new CountingLoader(original));
+
+    clock.setTime(clock.currentTimeMillis() + TimeUnit.SECONDS.toMillis(29));
+    OidcProviderConfig refreshed = newOidcConfig("oidc.provider1");
+    CountingLoader loader = new CountingLoader(refreshed);
+    assertSame(original, cache.get("oidc.provider1", OidcProviderConfig.class, loader));
+    assertEquals(0, loader.calls);
+
+    // Older than half the TTL: the current entry is returned, and replaced in the background.
+    clock.setTime(clock.currentTimeMillis() + TimeUnit.SECONDS.toMillis(2));
+    assertSame(original, cache.get("oidc.provider1", OidcProviderConfig.class, loader));
+    assertEquals(1, loader.calls);
+    assertSame(refreshed, cache.get("oidc.provider1", OidcProviderConfig.class, loader));
+    assertEquals(1, loader.calls);
+  }
+
+  @Test
+  public void testFailedRefreshKeepsEntry() throws Exception {
+    ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    OidcProviderConfig original = newOidcConfig("oidc.provider1");
+    cache.get("oidc.provider1", OidcProviderConfig.class, new CountingLoader(original));
+
+    clock.setTime(clock.currentTimeMillis() + TimeUnit.SECONDS.toMillis(40));
+    OidcProviderConfig result = cache.get(
+        "oidc.provider1", OidcProviderConfig.class, new FailingLoader<OidcProviderConfig>());
+
+    assertSame(original, result);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    CountingLoader loader = new CountingLoader(newOidcConfig("oidc.provider1"));
+    cache.get("oidc.provider1", OidcProviderConfig.class, loader);
+
+    clock.setTime(clock.currentTimeMillis() + TimeUnit.SECONDS.toMillis(61));
+    cache.get("oidc.provider1", OidcProviderConfig.class, loader);
+
+    assertEquals(2, loader.calls);
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    CountingLoader loader = new CountingLoader(newOidcConfig("oidc.provider1"));
+    cache.get("oidc.provider1", OidcProviderConfig.class, loader);
+
+    cache.invalidate("oidc.provider1");
+    cache.get("oidc.provider1", OidcProviderConfig.class, loader);
+
+    assertEquals(2, loader.calls);
+  }
+
+  @Test
+  public void testInvalidationDuringLoadIsNotCached() throws Exception {
+    final ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    final OidcProviderConfig stale = newOidcConfig("oidc.provider1");
+    ProviderConfigCache.Loader<OidcProviderConfig> racingLoader =
+        new ProviderConfigCache.Loader<OidcProviderConfig>() {
+          @Override
+          public OidcProviderConfig load() {
+            // Simulates a write made through the SDK while the lookup is in flight.
+            cache.invalidate("oidc.provider1");
+            return stale;
+          }
+        };
+
+    assertSame(stale, cache.get("oidc.provider1", OidcProviderConfig.class, racingLoader));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testWarmUp() throws Exception {
+    ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    final ListProviderConfigsPage.ProviderConfigSource<OidcProviderConfig> oidcSource =
+        new ListProviderConfigsPage.ProviderConfigSource<OidcProviderConfig>() {
+          @Override
+          public ListProviderConfigsResponse<OidcProviderConfig> fetch(
+              int maxResults, String pageToken) throws FirebaseAuthException {
+            try {
+              if (pageToken == null) {
+                return new ListOidcProviderConfigsResponse(
+                    ImmutableList.of(newOidcConfig("oidc.provider1")), "token");
+              }
+              return new ListOidcProviderConfigsResponse(
+                  ImmutableList.of(newOidcConfig("oidc.provider2")), "");
+            } catch (IOException e) {
+              throw new IllegalStateException(e);
+            }
+          }
+        };
+    final ListProviderConfigsPage.ProviderConfigSource<SamlProviderConfig> samlSource =
+        new ListProviderConfigsPage.ProviderConfigSource<SamlProviderConfig>() {
+          @Override
+          public ListProviderConfigsResponse<SamlProviderConfig> fetch(
+              int maxResults, String pageToken) throws FirebaseAuthException {
+            try {
+              return new ListSamlProviderConfigsResponse(
+                  ImmutableList.of(newSamlConfig("saml.provider1")), "");
+            } catch (IOException e) {
+              throw new IllegalStateException(e);
+            }
+          }
+        };
+
+    int count = cache.warmUp(ImmutableList.of(
+        new ProviderConfigCache.PageSource() {
+          @Override
+          public ListProviderConfigsPage<OidcProviderConfig> fetchFirstPage()
+              throws FirebaseAuthException {
+            return new ListProviderConfigsPage.Factory<>(oidcSource).create();
+          }
+        },
+        new ProviderConfigCache.PageSource() {
+          @Override
+          public ListProviderConfigsPage<SamlProviderConfig> fetchFirstPage()
+              throws FirebaseAuthException {
+            return new ListProviderConfigsPage.Factory<>(samlSource).create();
+          }
+        }));
+
+    assertEquals(3, count);
+    assertEquals(3, cache.size());
+    assertEquals("oidc.provider2", cache.get("oidc.provider2", OidcProviderConfig.class,
+        new FailingLoader<OidcProviderConfig>()).getProviderId());
+    assertEquals("saml.provider1", cache.get("saml.provider1", SamlProviderConfig.class,
+        new FailingLoader<SamlProviderConfig>()).getProviderId());
+  }
+
+  @Test
+  public void testWarmUpError() throws Exception {
+    ProviderConfigCache cache = new ProviderConfigCache(60, executor, clock);
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.PERMISSION_DENIED, "test error", null, null, null);
+    final ListProviderConfigsPage.ProviderConfigSource<OidcProviderConfig> source =
+        new ListProviderConfigsPage.ProviderConfigSource<OidcProviderConfig>() {
+          @Override
+          public ListProviderConfigsResponse<OidcProviderConfig> fetch(
+              int maxResults, String pageToken) throws FirebaseAuthException {
+            if (pageToken != null) {
+              throw error;
+            }
+            try {
+              return new ListOidcProviderConfigsResponse(
+                  ImmutableList.of(newOidcConfig("oidc.provider1")), "token");
+            } catch (IOException e) {
+              throw new IllegalStateException(e);
+            }
+          }
+        };
+
+    try {
+      cache.warmUp(ImmutableList.of(new ProviderConfigCache.PageSource() {
+        @Override
+        public ListProviderConfigsPage<OidcProviderConfig> fetchFirstPage()
+            throws FirebaseAuthException {
+          return new ListProviderConfigsPage.Factory<>(source).create();
+        }
+      }));
+      fail("No error thrown for failing page source");
+    } catch (FirebaseAuthException e) {
+      assertSame(error, e);
+    }
+  }
+
+  @Test
+  public void testWarmUpErrorStopsOtherSources() throws Exception {
+    Executor rejectingExecutor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new IllegalStateException("test executor does not run tasks");
+      }
+    };
+    ProviderConfigCache cache = new ProviderConfigCache(60, rejectingExecutor, clock);
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.PERMISSION_DENIED, "test error", null, null, null);
+    final AtomicInteger fetches = new AtomicInteger();
+
+    try {
+      cache.warmUp(ImmutableList.of(
+          new ProviderConfigCache.PageSource() {
+            @Override
+            public ListProviderConfigsPage<OidcProviderConfig> fetchFirstPage()
+                throws FirebaseAuthException {
+              throw error;
+            }
+          },
+          new ProviderConfigCache.PageSource() {
+            @Override
+            public ListProviderConfigsPage<OidcProviderConfig> fetchFirstPage() {
+              fetches.incrementAndGet();
+              return null;
+            }
+          }));
+      fail("No error thrown for failing page source");
+    } catch (FirebaseAuthException e) {
+      assertSame(error, e);
+    }
+
+    // Both sources run on the calling thread, and the second one is skipped.
+    assertEquals(0, fetches.get());
+  }
+
+  @Test
+  public void testInvalidTtl() {
+    long[] invalidTtls = {0, -1, ProviderConfigCache.MAX_TTL_SECONDS + 1};
+    for (long ttl : invalidTtls) {
+      try {
+        new ProviderConfigCache(ttl, executor, clock);
+        fail("No error thrown for invalid TTL: " + ttl);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  private static OidcProviderConfig newOidcConfig(String providerId) throws IOException {
+    return JSON_FACTORY.fromString(
+        "{\"name\": \"projects/test-project/oauthIdpConfigs/" + providerId + "\"}",
+        OidcProviderConfig.class);
+  }
+
+  private static SamlProviderConfig newSamlConfig(String providerId) throws IOException {
+    return JSON_FACTORY.fromString(
+        "{\"name\": \"projects/test-project/inboundSamlConfigs/" + providerId + "\"}",
+        SamlProviderConfig.class);
+  }
+
+  private static class CountingLoader implements ProviderConfigCache.Loader<OidcProviderConfig> {
+
+    private final OidcProviderConfig config;
+    private int calls;
+
+    CountingLoader(OidcProviderConfig config) {
+      this.config = config;
+    }
+
+    @Override
+    public OidcProviderConfig load() {
+      calls++;
+      return config;
+    }
+  }
+
+  private static class FailingLoader<T extends ProviderConfig>
+      implements ProviderConfigCache.Loader<T> {
+
+    @Override
+    public T load() throws FirebaseAuthException {
+      throw new FirebaseAuthException(ErrorCode.UNAVAILABLE, "test error", null, null, null);
+    }
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.internal.DownloadAccountResponse;
+import com.google.firebase.internal.ApiClientUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class UserExporterTest {
+
+  private static final JsonFactory JSON_FACTORY = ApiClientUtils.getDefaultJsonFactory();
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testExportAllPages() throws Exception {
+    TestPageSource source = new TestPageSource(3, 2);
+    final List<String> checkpoints = new ArrayList<>();
+    UserExportOptions options = UserExportOptions.builder()
+        .setMaxResults(2)
+        .setCheckpointListener(new UserExportOptions.CheckpointListener() {
+          @Override
+          public void onCheckpoint(String nextPageToken) {
+            checkpoints.add(nextPageToken);
+          }
+        })
+        .build();
+    final List<String> uids = new ArrayList<>();
+
+    UserExportResult result = newExporter(source, options).export(new UserExportConsumer() {
+      @Override
+      public void accept(ExportedUserRecord user) {
+        uids.add(user.getUid());
+      }
+    });
+
+    assertEquals(6, result.getUserCount());
+    assertEquals(3, result.getPageCount());
+    assertEquals(ImmutableList.of("user0", "user1", "user2", "user3", "user4", "user5"), uids);
+    assertEquals(Collections.nCopies(3, 2), source.maxResults);
+    assertEquals(Arrays.asList(null, "page1", "page2"), source.calls);
+    assertEquals(Arrays.asList("page1", "page2", null), checkpoints);
+  }
+
+  @Test
+  public void testResumeFromPageToken() throws Exception {
+    TestPageSource source = new TestPageSource(3, 2);
+    UserExportOptions options = UserExportOptions.builder()
+        .setPageToken("page2")
+        .build();
+    final List<String> uids = new ArrayList<>();
+
+    UserExportResult result = newExporter(source, options).export(new UserExportConsumer() {
+      @Override
+      public void accept(ExportedUserRecord user) {
+        uids.add(user.getUid());
+      }
+    });
+
+    assertEquals(2, result.getUserCount());
+    assertEquals(1, result.getPageCount());
+    assertEquals(ImmutableList.of("user4", "user5"), uids);
+    assertEquals(ImmutableList.of("page2"), source.calls);
+  }
+
+  @Test
+  public void testExportZeroUsers() throws Exception {
+    TestPageSource source = new TestPageSource(1, 0);
+
+    UserExportResult result = newExporter(source, UserExportOptions.builder().build())
+        .export(new UserExportConsumer() {
+          @Override
+          public void accept(ExportedUserRecord user) {
+            fail("No users should be exported");
+          }
+        });
+
+    assertEquals(0, result.getUserCount());
+    assertEquals(1, result.getPageCount());
+  }
+
+  @Test
+  public void testExportAsNdjson() throws Exception {
+    TestPageSource source = new TestPageSource(2, 2);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    UserExportResult result = newExporter(source, UserExportOptions.builder().build())
+        .export(out);
+
+    assertEquals(4, result.getUserCount());
+    String[] lines = new String(out.toByteArray(), "UTF-8").split("\n");
+    assertEquals(4, lines.length);
+    for (int i = 0; i < lines.length; i++) {
+      GenericJson json = JSON_FACTORY.fromString(lines[i], GenericJson.class);
+      assertEquals("user" + i, json.get("localId"));
+    }
+  }
+
+  @Test
+  public void testPrefetchIsBounded() throws Exception {
+    final TestPageSource source = new TestPageSource(10, 1);
+    UserExportOptions options = UserExportOptions.builder()
+        .setPrefetchPages(2)
+        .build();
+    final AtomicInteger maxFetchedAhead = new AtomicInteger();
+    final AtomicInteger consumed = new AtomicInteger();
+
+    UserExportResult result = newExporter(source, options).export(new UserExportConsumer() {
+      @Override
+      public void accept(ExportedUserRecord user) {
+        if (consumed.get() == 0) {
+          // Give the fetcher time to run ahead as far as it can.
+          try {
+            Thread.sleep(200);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        int consumedPages = consumed.incrementAndGet();
+        int ahead = source.calls.size() - consumedPages;
+        maxFetchedAhead.set(Math.max(maxFetchedAhead.get(), ahead));
+      }
+    });
+
+    assertEquals(10, result.getUserCount());
+    // One page is being consumed, at most two are queued, and at most one more may have been
+    // fetched while the fetcher is blocked handing it off.
+    assertTrue("Did not fetch ahead", maxFetchedAhead.get() > 0);
+    assertTrue("Fetched too far ahead: " + maxFetchedAhead.get(), maxFetchedAhead.get() <= 3);
+  }
+
+  @Test
+  public void testFetchError() throws Exception {
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.INTERNAL, "test error", null, null, null);
+    TestPageSource source = new TestPageSource(3, 1) {
+      @Override
+      public DownloadAccountResponse fetch(int maxResults, String pageToken)
+          throws FirebaseAuthException {
+        if ("page1".equals(pageToken)) {
+          throw error;
+        }
+        return super.fetch(maxResults, pageToken);
+      }
+    };
+    final List<String> uids = new ArrayList<>();
+
+    try {
+      newExporter(source, UserExportOptions.builder().build()).export(new UserExportConsumer() {
+        @Override
+        public void accept(ExportedUserRecord user) {
+          uids.add(user.getUid());
+        }
+      });
+      fail("No error thrown for failing fetch");
+    } catch (FirebaseAuthException e) {
+      assertSame(error, e);
+    }
+
+    assertEquals(ImmutableList.of("user0"), uids);
+  }
+
+  @Test
+  public void testConsumerErrorStopsExport() throws Exception {
+    TestPageSource source = new TestPageSource(100, 1);
+    final RuntimeException error = new RuntimeException("test error");
+
+    try {
+      newExporter(source, UserExportOptions.builder().build()).export(new UserExportConsumer() {
+        @Override
+        public void accept(ExportedUserRecord user) {
+          throw error;
+        }
+      });
+      fail("No error thrown for failing consumer");
+    } catch (RuntimeException e) {
+      assertSame(error, e);
+    }
+
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(source.calls.size() < 100);
+  }
+
+  @Test
+  public void testExecutorThatNeverRunsFetcher() throws Exception {
+    TestPageSource source = new TestPageSource(3, 2);
+    Executor neverRuns = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+      }
+    };
+    final List<String> uids = new ArrayList<>();
+
+    UserExportResult result = new UserExporter(
+        source, JSON_FACTORY, neverRuns, UserExportOptions.builder().build())
+        .export(new UserExportConsumer() {
+          @Override
+          public void accept(ExportedUserRecord user) {
+            uids.add(user.getUid());
+          }
+        });
+
+    assertEquals(6, result.getUserCount());
+    assertEquals(3, result.getPageCount());
+    assertEquals(ImmutableList.of("user0", "user1", "user2", "user3", "user4", "user5"), uids);
+    assertEquals(Arrays.asList(null, "page1", "page2"), source.calls);
+  }
+
+  @Test
+  public void testCallerRunsOnSameSingleThreadExecutor() throws Exception {
+    TestPageSource source = new TestPageSource(5, 1);
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      final UserExporter exporter = new UserExporter(
+          source, JSON_FACTORY, single, UserExportOptions.builder().build());
+      Future<UserExportResult> future = single.submit(new Callable<UserExportResult>() {
+        @Override
+        public UserExportResult call() throws Exception {
+          return exporter.export(new UserExportConsumer() {
+            @Override
+            public void accept(ExportedUserRecord user) {
+            }
+          });
+        }
+      });
+
+      assertEquals(5, future.get(10, TimeUnit.SECONDS).getUserCount());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    try {
+      UserExportOptions.builder().setPageToken("").build();
+      fail("No error thrown for empty page token");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    int[] invalidMaxResults = {0, -1, FirebaseUserManager.MAX_LIST_USERS_RESULTS + 1};
+    for (int maxResults : invalidMaxResults) {
+      try {
+        UserExportOptions.builder().setMaxResults(maxResults).build();
+        fail("No error thrown for invalid maxResults: " + maxResults);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+
+    int[] invalidPrefetchPages = {0, UserExportOptions.MAX_PREFETCH_PAGES + 1};
+    for (int prefetchPages : invalidPrefetchPages) {
+      try {
+        UserExportOptions.builder().setPrefetchPages(prefetchPages).build();
+        fail("No error thrown for invalid prefetchPages: " + prefetchPages);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  private UserExporter newExporter(UserExporter.PageSource source, UserExportOptions options) {
+    return new UserExporter(source, JSON_FACTORY, executor, options);
+  }
+
+  private static class TestPageSource implements UserExporter.PageSource {
+
+    private final int pageCount;
+    private final int pageSize;
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+    private final List<Integer> maxResults =
+        Collections.synchronizedList(new ArrayList<Integer>());
+
+    TestPageSource(int pageCount, int pageSize) {
+      this.pageCount = pageCount;
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public DownloadAccountResponse fetch(int maxResults, String pageToken)
+        throws FirebaseAuthException {
+      calls.add(pageToken);
+      this.maxResults.add(maxResults);
+      int page = pageToken == null ? 0 : Integer.parseInt(pageToken.substring("page".length()));
+      StringBuilder json = new StringBuilder("{\"users\": [");
+      for (int i = 0; i < pageSize; i++) {
+        if (i > 0) {
+          json.append(",");
+        }
+        json.append("{\"localId\": \"user").append(page * pageSize + i).append("\"}");
+      }
+      json.append("]");
+      if (page + 1 < pageCount) {
+        json.append(", \"nextPageToken\": \"page").append(page + 1).append("\"");
+      }
+      json.append("}");
+      try {
+        return JSON_FACTORY.fromString(json.toString(), DownloadAccountResponse.class);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
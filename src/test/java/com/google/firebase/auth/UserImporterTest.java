@@ -0,0 +1,362 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.ApiClientUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class UserImporterTest {
+
+  private static final JsonFactory JSON_FACTORY = ApiClientUtils.getDefaultJsonFactory();
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testImportInChunks() throws Exception {
+    TestChunkUploader uploader = new TestChunkUploader();
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(10)
+        .setMaxConcurrentRequests(4)
+        .build();
+
+    UserImportResult result = new UserImporter(uploader, executor, options)
+        .importUsers(newUsers(0, 95).iterator());
+
+    assertEquals(95, result.getSuccessCount());
+    assertEquals(0, result.getFailureCount());
+    assertEquals(10, uploader.chunks.size());
+    List<String> uids = new ArrayList<>();
+    for (List<ImportUserRecord> chunk : uploader.chunks) {
+      assertTrue(chunk.size() == 10 || chunk.size() == 5);
+      for (ImportUserRecord user : chunk) {
+        uids.add((String) user.getProperties(JSON_FACTORY).get("localId"));
+      }
+    }
+    assertEquals(95, uids.size());
+    assertEquals(95, new HashSet<>(uids).size());
+  }
+
+  @Test
+  public void testErrorsUseGlobalIndices() throws Exception {
+    TestChunkUploader uploader = new TestChunkUploader();
+    uploader.failingUids.add("user3");
+    uploader.failingUids.add("user17");
+    uploader.failingUids.add("user21");
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(5)
+        .setMaxConcurrentRequests(3)
+        .build();
+
+    UserImportResult result = new UserImporter(uploader, executor, options)
+        .importUsers(newUsers(0, 25).iterator());
+
+    assertEquals(22, result.getSuccessCount());
+    assertEquals(3, result.getFailureCount());
+    assertEquals(3, result.getErrors().get(0).getIndex());
+    assertEquals("failed: user3", result.getErrors().get(0).getReason());
+    assertEquals(17, result.getErrors().get(1).getIndex());
+    assertEquals(21, result.getErrors().get(2).getIndex());
+  }
+
+  @Test
+  public void testResumeFromStartIndex() throws Exception {
+    TestChunkUploader uploader = new TestChunkUploader();
+    uploader.failingUids.add("user42");
+    final List<Integer> checkpoints = Collections.synchronizedList(new ArrayList<Integer>());
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(5)
+        .setMaxConcurrentRequests(1)
+        .setStartIndex(40)
+        .setCheckpointListener(new UserBulkImportOptions.CheckpointListener() {
+          @Override
+          public void onCheckpoint(int processedCount) {
+            checkpoints.add(processedCount);
+          }
+        })
+        .build();
+
+    UserImportResult result = new UserImporter(uploader, executor, options)
+        .importUsers(newUsers(40, 12).iterator());
+
+    assertEquals(11, result.getSuccessCount());
+    assertEquals(42, result.getErrors().get(0).getIndex());
+    assertEquals(ImmutableList.of(45, 50, 52), checkpoints);
+  }
+
+  @Test
+  public void testCheckpointsAreContiguous() throws Exception {
+    TestChunkUploader uploader = new TestChunkUploader() {
+      @Override
+      public UserImportResult upload(List<ImportUserRecord> users) throws FirebaseAuthException {
+        // Complete the first chunk last.
+        String uid = (String) users.get(0).getProperties(JSON_FACTORY).get("localId");
+        if ("user0".equals(uid)) {
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return super.upload(users);
+      }
+    };
+    final List<Integer> checkpoints = Collections.synchronizedList(new ArrayList<Integer>());
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(2)
+        .setMaxConcurrentRequests(4)
+        .setCheckpointListener(new UserBulkImportOptions.CheckpointListener() {
+          @Override
+          public void onCheckpoint(int processedCount) {
+            checkpoints.add(processedCount);
+          }
+        })
+        .build();
+
+    new UserImporter(uploader, executor, options).importUsers(newUsers(0, 20).iterator());
+
+    assertTrue(checkpoints.get(0) >= 2);
+    for (int i = 1; i < checkpoints.size(); i++) {
+      assertTrue(checkpoints.get(i) > checkpoints.get(i - 1));
+    }
+    assertEquals(20, (int) checkpoints.get(checkpoints.size() - 1));
+  }
+
+  @Test
+  public void testConcurrencyIsBounded() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    TestChunkUploader uploader = new TestChunkUploader() {
+      @Override
+      public UserImportResult upload(List<ImportUserRecord> users) throws FirebaseAuthException {
+        int current = inFlight.incrementAndGet();
+        synchronized (maxInFlight) {
+          maxInFlight.set(Math.max(maxInFlight.get(), current));
+        }
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+        return super.upload(users);
+      }
+    };
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(1)
+        .setMaxConcurrentRequests(3)
+        .build();
+
+    UserImportResult result = new UserImporter(uploader, executor, options)
+        .importUsers(newUsers(0, 30).iterator());
+
+    assertEquals(30, result.getSuccessCount());
+    assertTrue(maxInFlight.get() <= 3);
+  }
+
+  @Test
+  public void testUploadFailure() throws Exception {
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.INTERNAL, "test error", null, null, null);
+    TestChunkUploader uploader = new TestChunkUploader() {
+      @Override
+      public UserImportResult upload(List<ImportUserRecord> users) throws FirebaseAuthException {
+        if (chunks.size() == 2) {
+          throw error;
+        }
+        return super.upload(users);
+      }
+    };
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(1)
+        .setMaxConcurrentRequests(1)
+        .build();
+
+    try {
+      new UserImporter(uploader, executor, options).importUsers(newUsers(0, 10).iterator());
+      fail("No error thrown for failing upload");
+    } catch (FirebaseAuthException e) {
+      assertSame(error, e);
+    }
+
+    assertEquals(2, uploader.chunks.size());
+  }
+
+  @Test
+  public void testPasswordWithoutHashFailsBeforeUpload() throws Exception {
+    TestChunkUploader uploader = new TestChunkUploader();
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(2)
+        .setMaxConcurrentRequests(4)
+        .build();
+    List<ImportUserRecord> users = new ArrayList<>();
+    users.add(ImportUserRecord.builder()
+        .setUid("user0")
+        .setPasswordHash("password".getBytes())
+        .build());
+    users.addAll(newUsers(1, 10));
+
+    try {
+      new UserImporter(uploader, executor, options).importUsers(users.iterator());
+      fail("No error thrown for missing hash option");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    assertTrue(uploader.chunks.isEmpty());
+  }
+
+  @Test
+  public void testCallerRunsOnSameSingleThreadExecutor() throws Exception {
+    final TestChunkUploader uploader = new TestChunkUploader();
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      final UserImporter importer = new UserImporter(uploader, single,
+          UserBulkImportOptions.builder().setChunkSize(2).build());
+      Future<UserImportResult> future = single.submit(new Callable<UserImportResult>() {
+        @Override
+        public UserImportResult call() throws Exception {
+          return importer.importUsers(newUsers(0, 10).iterator());
+        }
+      });
+
+      assertEquals(10, future.get(10, TimeUnit.SECONDS).getSuccessCount());
+      assertEquals(5, uploader.chunks.size());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRejectingExecutor() throws Exception {
+    TestChunkUploader uploader = new TestChunkUploader();
+    ExecutorService shutdown = Executors.newSingleThreadExecutor();
+    shutdown.shutdown();
+    UserBulkImportOptions options = UserBulkImportOptions.builder()
+        .setChunkSize(3)
+        .build();
+
+    UserImportResult result = new UserImporter(uploader, shutdown, options)
+        .importUsers(newUsers(0, 10).iterator());
+
+    assertEquals(10, result.getSuccessCount());
+    assertEquals(4, uploader.chunks.size());
+  }
+
+  @Test
+  public void testEmptyInput() throws Exception {
+    TestChunkUploader uploader = new TestChunkUploader();
+
+    UserImportResult result = new UserImporter(
+        uploader, MoreExecutors.directExecutor(), UserBulkImportOptions.builder().build())
+        .importUsers(ImmutableList.<ImportUserRecord>of().iterator());
+
+    assertEquals(0, result.getSuccessCount());
+    assertEquals(0, result.getFailureCount());
+    assertTrue(uploader.chunks.isEmpty());
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    int[] invalidChunkSizes = {0, -1, FirebaseUserManager.MAX_IMPORT_USERS + 1};
+    for (int chunkSize : invalidChunkSizes) {
+      try {
+        UserBulkImportOptions.builder().setChunkSize(chunkSize).build();
+        fail("No error thrown for invalid chunkSize: " + chunkSize);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+
+    int[] invalidConcurrency = {0, UserBulkImportOptions.MAX_CONCURRENT_REQUESTS + 1};
+    for (int concurrency : invalidConcurrency) {
+      try {
+        UserBulkImportOptions.builder().setMaxConcurrentRequests(concurrency).build();
+        fail("No error thrown for invalid maxConcurrentRequests: " + concurrency);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+
+    try {
+      UserBulkImportOptions.builder().setMaxRequestsPerSecond(-1).build();
+      fail("No error thrown for negative maxRequestsPerSecond");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    try {
+      UserBulkImportOptions.builder().setStartIndex(-1).build();
+      fail("No error thrown for negative startIndex");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  private static List<ImportUserRecord> newUsers(int start, int count) {
+    List<ImportUserRecord> users = new ArrayList<>();
+    for (int i = start; i < start + count; i++) {
+      users.add(ImportUserRecord.builder().setUid("user" + i).build());
+    }
+    return users;
+  }
+
+  private static class TestChunkUploader implements UserImporter.ChunkUploader {
+
+    final List<List<ImportUserRecord>> chunks =
+        Collections.synchronizedList(new ArrayList<List<ImportUserRecord>>());
+    final List<String> failingUids = new ArrayList<>();
+
+    @Override
+    public UserImportResult upload(List<ImportUserRecord> users) throws FirebaseAuthException {
+      chunks.add(users);
+      List<ErrorInfo> errors = new ArrayList<>();
+      for (int i = 0; i < users.size(); i++) {
+        String uid = (String) users.get(i).getProperties(JSON_FACTORY).get("localId");
+        if (failingUids.contains(uid)) {
+          errors.add(new ErrorInfo(i, "failed: " + uid));
+        }
+      }
+      return new UserImportResult(users.size(), errors);
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.testing.http.FixedClock;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.internal.GetAccountInfoResponse;
+import com.google.firebase.internal.ApiClientUtils;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class UserRecordCacheTest {
+
+  private static final JsonFactory JSON_FACTORY = ApiClientUtils.getDefaultJsonFactory();
+
+  private final FixedClock clock = new FixedClock(1000L);
+
+  @Test
+  public void testReadThroughByUid() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    CountingLoader loader = new CountingLoader(newUser("uid1", "user1@example.com", null));
+
+    UserRecord first = cache.getByUid("uid1", loader);
+    UserRecord second = cache.getByUid("uid1", loader);
+
+    assertSame(first, second);
+    assertEquals(1, loader.calls);
+    UserCacheStats stats = cache.getStats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(0.5, stats.getHitRate(), 0.0);
+    assertEquals(1, stats.getSize());
+  }
+
+  @Test
+  public void testIndexedByEmailAndPhoneNumber() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    UserRecord user = newUser("uid1", "user1@example.com", "+15555550001");
+    CountingLoader loader = new CountingLoader(user);
+
+    cache.getByEmail("user1@example.com", loader);
+    assertSame(user, cache.getByUid("uid1", loader));
+    assertSame(user, cache.getByPhoneNumber("+15555550001", loader));
+    assertSame(user, cache.getByEmail("User1@Example.com", loader));
+
+    assertEquals(1, loader.calls);
+    assertEquals(3, cache.getStats().getHitCount());
+  }
+
+  @Test
+  public void testIndexIsCheckedAgainstRecord() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    cache.getByEmail("user1@example.com",
+        new CountingLoader(newUser("uid1", "user1@example.com", null)));
+
+    // The user changed their email address. The new record replaces the old one, and the old
+    // address no longer resolves to it.
+    UserRecord updated = newUser("uid1", "new@example.com", null);
+    cache.refresh("uid1", new CountingLoader(updated));
+    CountingLoader loader = new CountingLoader(newUser("uid2", "user1@example.com", null));
+    UserRecord result = cache.getByEmail("user1@example.com", loader);
+
+    assertEquals("uid2", result.getUid());
+    assertEquals(1, loader.calls);
+    assertSame(updated, cache.getByEmail("new@example.com", loader));
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    CountingLoader loader = new CountingLoader(newUser("uid1", null, null));
+
+    cache.getByUid("uid1", loader);
+    clock.setTime(clock.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30));
+    cache.getByUid("uid1", loader);
+    assertEquals(1, loader.calls);
+
+    clock.setTime(clock.currentTimeMillis() + TimeUnit.SECONDS.toMillis(31));
+    cache.getByUid("uid1", loader);
+    assertEquals(2, loader.calls);
+    assertEquals(1, cache.getStats().getEvictionCount());
+  }
+
+  @Test
+  public void testSizeBound() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 2, clock);
+
+    for (int i = 0; i < 5; i++) {
+      cache.getByUid("uid" + i, new CountingLoader(newUser("uid" + i, null, null)));
+    }
+
+    UserCacheStats stats = cache.getStats();
+    assertEquals(2, stats.getSize());
+    assertEquals(3, stats.getEvictionCount());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    CountingLoader loader = new CountingLoader(newUser("uid1", "user1@example.com", null));
+    cache.getByUid("uid1", loader);
+
+    cache.invalidate("uid1");
+    cache.getByEmail("user1@example.com", loader);
+    cache.invalidate(ImmutableList.of("uid1", "uid2"));
+    cache.getByUid("uid1", loader);
+
+    assertEquals(3, loader.calls);
+    assertEquals(3, cache.getStats().getInvalidationCount());
+    assertEquals(0, cache.getStats().getHitCount());
+  }
+
+  @Test
+  public void testInvalidationDuringLoadIsNotCached() throws Exception {
+    final UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    final UserRecord stale = newUser("uid1", null, null);
+    UserRecordCache.Loader racingLoader = new UserRecordCache.Loader() {
+      @Override
+      public UserRecord load() {
+        // Simulates a write made through the SDK while the lookup is in flight.
+        cache.invalidate("uid1");
+        return stale;
+      }
+    };
+
+    assertSame(stale, cache.getByUid("uid1", racingLoader));
+
+    CountingLoader loader = new CountingLoader(newUser("uid1", null, null));
+    cache.getByUid("uid1", loader);
+    assertEquals(1, loader.calls);
+  }
+
+  @Test
+  public void testLoadErrorIsNotCached() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.NOT_FOUND, "not found", null, null, AuthErrorCode.USER_NOT_FOUND);
+    UserRecordCache.Loader failingLoader = new UserRecordCache.Loader() {
+      @Override
+      public UserRecord load() throws FirebaseAuthException {
+        throw error;
+      }
+    };
+
+    try {
+      cache.getByUid("uid1", failingLoader);
+      fail("No error thrown for failing loader");
+    } catch (FirebaseAuthException e) {
+      assertSame(error, e);
+    }
+
+    assertEquals(0, cache.getStats().getSize());
+  }
+
+  @Test
+  public void testHitAge() throws Exception {
+    UserRecordCache cache = new UserRecordCache(60, 10, clock);
+    CountingLoader loader = new CountingLoader(newUser("uid1", null, null));
+    cache.getByUid("uid1", loader);
+
+    clock.setTime(clock.currentTimeMillis() + 1000);
+    cache.getByUid("uid1", loader);
+    clock.setTime(clock.currentTimeMillis() + 2000);
+    cache.getByUid("uid1", loader);
+
+    UserCacheStats stats = cache.getStats();
+    assertEquals(2000, stats.getAverageHitAgeMillis());
+    assertEquals(3000, stats.getMaxHitAgeMillis());
+  }
+
+  @Test
+  public void testInvalidConfiguration() {
+    long[] invalidTtls = {0, -1, UserRecordCache.MAX_TTL_SECONDS + 1};
+    for (long ttl : invalidTtls) {
+      try {
+        new UserRecordCache(ttl, 10, clock);
+        fail("No error thrown for invalid TTL: " + ttl);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+
+    try {
+      new UserRecordCache(60, 0, clock);
+      fail("No error thrown for invalid size");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  private static UserRecord newUser(String uid, String email, String phoneNumber)
+      throws IOException {
+    ImmutableMap.Builder<String, Object> builder = ImmutableMap.builder();
+    builder.put("localId", uid);
+    if (email != null) {
+      builder.put("email", email);
+    }
+    if (phoneNumber != null) {
+      builder.put("phoneNumber", phoneNumber);
+    }
+    Map<String, Object> json = builder.build();
+    GetAccountInfoResponse.User user = JSON_FACTORY.fromString(
+        JSON_FACTORY.toString(json), GetAccountInfoResponse.User.class);
+    return new UserRecord(user, JSON_FACTORY);
+  }
+
+  private static class CountingLoader implements UserRecordCache.Loader {
+
+    private final UserRecord user;
+    private int calls;
+
+    CountingLoader(UserRecord user) {
+      this.user = user;
+    }
+
+    @Override
+    public UserRecord load() {
+      calls++;
+      return user;
+    }
+  }
+}
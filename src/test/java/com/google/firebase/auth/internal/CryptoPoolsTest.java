@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.auth.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CryptoPoolsTest {
+
+  private static final String ALGORITHM = "SHA256withRSA";
+  private static final byte[] PAYLOAD = "test payload".getBytes(StandardCharsets.UTF_8);
+
+  private static KeyPair keyPair;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    keyPair = generator.generateKeyPair();
+  }
+
+  @After
+  public void tearDown() {
+    CryptoPools.discard(ALGORITHM, keyPair.getPrivate());
+    CryptoPools.discard(ALGORITHM, keyPair.getPublic());
+    CryptoPools.clearPublicKeys();
+  }
+
+  @Test
+  public void testSignAndVerify() throws Exception {
+    Signature signer = CryptoPools.getSigner(ALGORITHM, keyPair.getPrivate());
+    signer.update(PAYLOAD);
+    byte[] signature = signer.sign();
+
+    // The same instances are returned, already initialized, for subsequent calls.
+    assertSame(signer, CryptoPools.getSigner(ALGORITHM, keyPair.getPrivate()));
+    for (int i = 0; i < 3; i++) {
+      Signature verifier = CryptoPools.getVerifier(ALGORITHM, keyPair.getPublic());
+      verifier.update(PAYLOAD);
+      assertTrue(verifier.verify(signature));
+    }
+  }
+
+  @Test
+  public void testDiscard() throws Exception {
+    Signature verifier = CryptoPools.getVerifier(ALGORITHM, keyPair.getPublic());
+
+    CryptoPools.discard(ALGORITHM, keyPair.getPublic());
+
+    assertNotSame(verifier, CryptoPools.getVerifier(ALGORITHM, keyPair.getPublic()));
+  }
+
+  @Test
+  public void testPoolIsBounded() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(256);
+    for (int i = 0; i < CryptoPools.MAX_SIGNATURES_PER_THREAD + 2; i++) {
+      CryptoPools.getVerifier("SHA256withECDSA", generator.generateKeyPair().getPublic());
+    }
+
+    assertEquals(CryptoPools.MAX_SIGNATURES_PER_THREAD, CryptoPools.getPooledSignatureCount());
+  }
+
+  @Test
+  public void testPoolIsPerThread() throws Exception {
+    final Signature verifier = CryptoPools.getVerifier(ALGORITHM, keyPair.getPublic());
+    final Signature[] other = new Signature[1];
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          other[0] = CryptoPools.getVerifier(ALGORITHM, keyPair.getPublic());
+        } catch (GeneralSecurityException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertNotSame(verifier, other[0]);
+  }
+
+  @Test
+  public void testKeyFactory() throws Exception {
+    assertSame(CryptoPools.getKeyFactory("RSA"), CryptoPools.getKeyFactory("RSA"));
+    assertNotSame(CryptoPools.getKeyFactory("RSA"), CryptoPools.getKeyFactory("EC"));
+  }
+
+  @Test
+  public void testPublicKeyCache() throws Exception {
+    final AtomicInteger decodeCount = new AtomicInteger();
+    CryptoPools.KeyDecoder decoder = new CryptoPools.KeyDecoder() {
+      @Override
+      public PublicKey decode() {
+        decodeCount.incrementAndGet();
+        return keyPair.getPublic();
+      }
+    };
+
+    assertSame(keyPair.getPublic(), CryptoPools.getPublicKey("key-1", decoder));
+    assertSame(keyPair.getPublic(), CryptoPools.getPublicKey("key-1", decoder));
+    assertEquals(1, decodeCount.get());
+
+    CryptoPools.getPublicKey("key-2", decoder);
+    assertEquals(2, decodeCount.get());
+  }
+
+  @Test
+  public void testPublicKeyDecodeError() {
+    CryptoPools.KeyDecoder decoder = new CryptoPools.KeyDecoder() {
+      @Override
+      public PublicKey decode() throws GeneralSecurityException {
+        throw new GeneralSecurityException("test error");
+      }
+    };
+
+    try {
+      CryptoPools.getPublicKey("key-1", decoder);
+      fail("No error thrown for failing decoder");
+    } catch (GeneralSecurityException e) {
+      assertEquals("test error", e.getMessage());
+    }
+  }
+}
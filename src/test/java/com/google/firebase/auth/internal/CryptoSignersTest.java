@@ -20,18 +20,23 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpStatusCodes;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
 import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
 import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.auth.ServiceAccountSigner;
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.firebase.ErrorCode;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
@@ -43,6 +48,15 @@ import com.google.firebase.internal.SdkUtils;
 import com.google.firebase.testing.MultiRequestMockHttpTransport;
 import com.google.firebase.testing.ServiceAccount;
 import com.google.firebase.testing.TestResponseInterceptor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
 import org.junit.Test;
 
@@ -58,6 +72,24 @@ public class CryptoSignersTest {
     assertArrayEquals(expected, data);
   }
 
+  @Test
+  public void testServiceAccountCryptoSignerSignAll() throws Exception {
+    ServiceAccountCredentials credentials = ServiceAccountCredentials.fromStream(
+        ServiceAccount.EDITOR.asStream());
+    CryptoSigner signer = new CryptoSigners.ServiceAccountCryptoSigner(credentials);
+    List<byte[]> payloads = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      payloads.add(("payload" + i).getBytes());
+    }
+
+    List<byte[]> signatures = signer.signAll(payloads);
+
+    assertEquals(payloads.size(), signatures.size());
+    for (int i = 0; i < payloads.size(); i++) {
+      assertArrayEquals(credentials.sign(payloads.get(i)), signatures.get(i));
+    }
+  }
+
   @Test
   public void testInvalidServiceAccountCryptoSigner() {
     try {
@@ -92,6 +124,110 @@ public class CryptoSignersTest {
     assertEquals(SdkUtils.getMetricsHeader(), request.getHeaders().get("X-Goog-Api-Client"));
   }
 
+  @Test
+  public void testIAMCryptoSignerSignAll() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger requests = new AtomicInteger();
+    MockHttpTransport transport = new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            requests.incrementAndGet();
+            try {
+              Thread.sleep(10);
+              Map<?, ?> request = ApiClientUtils.getDefaultJsonFactory()
+                  .fromString(getContentAsString(), Map.class);
+              String payload = new String(
+                  BaseEncoding.base64().decode((String) request.get("payload")));
+              String signature = BaseEncoding.base64().encode(
+                  ("signed-" + payload).getBytes());
+              return new MockLowLevelHttpResponse().setContent(
+                  ApiClientUtils.getDefaultJsonFactory().toString(
+                      ImmutableMap.of("signedBlob", signature)));
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            } finally {
+              inFlight.decrementAndGet();
+            }
+          }
+        };
+      }
+    };
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      CryptoSigners.IAMCryptoSigner signer = new CryptoSigners.IAMCryptoSigner(
+          transport.createRequestFactory(),
+          ApiClientUtils.getDefaultJsonFactory(),
+          "test-service-account@iam.gserviceaccount.com",
+          executor);
+      List<byte[]> payloads = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        payloads.add(("payload" + i).getBytes());
+      }
+
+      List<byte[]> signatures = signer.signAll(payloads);
+
+      assertEquals(40, requests.get());
+      assertTrue(maxInFlight.get() > 1);
+      assertTrue(maxInFlight.get() <= CryptoSigners.IAMCryptoSigner.MAX_CONCURRENT_REQUESTS);
+      for (int i = 0; i < payloads.size(); i++) {
+        assertArrayEquals(("signed-payload" + i).getBytes(), signatures.get(i));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSignConcurrentlyPropagatesFailure() {
+    final FirebaseAuthException error = new FirebaseAuthException(
+        ErrorCode.PERMISSION_DENIED, "Test error", null, null, null);
+    CryptoSigner signer = new CryptoSigner() {
+      @Override
+      public byte[] sign(byte[] payload) throws FirebaseAuthException {
+        if (payload.length == 0) {
+          throw error;
+        }
+        return payload;
+      }
+
+      @Override
+      public String getAccount() {
+        return "test";
+      }
+    };
+    List<byte[]> payloads = ImmutableList.of(
+        "foo".getBytes(), new byte[0], "bar".getBytes());
+
+    try {
+      CryptoSigners.signConcurrently(signer, payloads, MoreExecutors.directExecutor(), 2);
+      fail("No error thrown for failed signing");
+    } catch (FirebaseAuthException e) {
+      assertSame(error, e);
+    }
+  }
+
+  @Test
+  public void testSignConcurrentlyWithRejectingExecutor() throws Exception {
+    CryptoSigner signer = new CryptoSigners.EmulatorCryptoSigner();
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    };
+
+    List<byte[]> signatures = CryptoSigners.signConcurrently(
+        signer, ImmutableList.of("foo".getBytes(), "bar".getBytes()), executor, 4);
+
+    assertEquals(2, signatures.size());
+  }
+
   @Test
   public void testIAMCryptoSignerHttpError() {
     String error = "{\"error\": {\"status\":\"INTERNAL\", \"message\": \"Test error\"}}";
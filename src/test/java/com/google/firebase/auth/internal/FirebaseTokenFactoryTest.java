@@ -18,8 +18,10 @@ package com.google.firebase.auth.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.api.client.json.GenericJson;
 import com.google.api.client.json.JsonFactory;
@@ -36,7 +38,10 @@ import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.PrivateKey;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -150,9 +155,105 @@ public class FirebaseTokenFactoryTest {
     tokenFactory.createSignedCustomAuthTokenForUser(USER_ID, extraClaims);
   }
 
+  @Test
+  public void createSignedCustomAuthTokens() throws Exception {
+    KeyPair keys = newKeyPair();
+    FixedClock clock = new FixedClock(2002L);
+    TestCryptoSigner signer = new TestCryptoSigner(keys.getPrivate());
+    FirebaseTokenFactory tokenFactory = new FirebaseTokenFactory(FACTORY, clock, signer);
+    Map<String, Map<String, Object>> claimsByUid = new LinkedHashMap<>();
+    claimsByUid.put("uid2", EXTRA_CLAIMS);
+    claimsByUid.put("uid1", null);
+
+    Map<String, String> tokens = tokenFactory.createSignedCustomAuthTokens(claimsByUid);
+
+    assertEquals(ImmutableList.of("uid2", "uid1"), ImmutableList.copyOf(tokens.keySet()));
+    assertEquals(1, signer.getSignAllCount());
+    for (Map.Entry<String, String> entry : tokens.entrySet()) {
+      FirebaseCustomAuthToken signedJwt = FirebaseCustomAuthToken.parse(FACTORY, entry.getValue());
+      assertEquals(entry.getKey(), signedJwt.getPayload().getUid());
+      assertEquals(ISSUER, signedJwt.getPayload().getIssuer());
+      assertTrue(TestUtils.verifySignature(signedJwt, ImmutableList.of(keys.getPublic())));
+    }
+    FirebaseCustomAuthToken signedJwt = FirebaseCustomAuthToken.parse(FACTORY, tokens.get("uid2"));
+    assertEquals("four", signedJwt.getPayload().getDeveloperClaims().get("three"));
+  }
+
+  @Test
+  public void createSignedCustomAuthTokensValidatesBeforeSigning() throws Exception {
+    TestCryptoSigner signer = new TestCryptoSigner(newKeyPair().getPrivate());
+    FirebaseTokenFactory tokenFactory = new FirebaseTokenFactory(
+        FACTORY, new FixedClock(2002L), signer);
+    Map<String, Map<String, Object>> claimsByUid = new LinkedHashMap<>();
+    claimsByUid.put(USER_ID, null);
+    claimsByUid.put(Strings.repeat("a", 129), null);
+
+    try {
+      tokenFactory.createSignedCustomAuthTokens(claimsByUid);
+      fail("No error thrown for invalid uid");
+    } catch (IllegalArgumentException expected) {
+      assertEquals(0, signer.getSignCount());
+    }
+  }
+
+  @Test
+  public void tokenCache() throws Exception {
+    FixedClock clock = new FixedClock(2002L);
+    TestCryptoSigner signer = new TestCryptoSigner(newKeyPair().getPrivate());
+    FirebaseTokenFactory tokenFactory = new FirebaseTokenFactory(
+        FACTORY, clock, signer, null, 60);
+
+    String token = tokenFactory.createSignedCustomAuthTokenForUser(USER_ID, EXTRA_CLAIMS);
+    clock.setTime(30000L);
+    Map<String, Object> sameClaims = ImmutableMap.<String, Object>of("one", 2, "three", "four");
+
+    assertEquals(token, tokenFactory.createSignedCustomAuthTokenForUser(USER_ID, sameClaims));
+    assertEquals(token, tokenFactory.createSignedCustomAuthTokens(
+        ImmutableMap.<String, Map<String, Object>>of(USER_ID, sameClaims)).get(USER_ID));
+    assertEquals(1, signer.getSignCount());
+
+    String otherToken = tokenFactory.createSignedCustomAuthTokenForUser(USER_ID);
+    assertNotEquals(token, otherToken);
+    assertEquals(2, signer.getSignCount());
+
+    clock.setTime(70000L);
+    String refreshedToken = tokenFactory.createSignedCustomAuthTokenForUser(USER_ID, sameClaims);
+    assertNotEquals(token, refreshedToken);
+    assertEquals(3, signer.getSignCount());
+  }
+
+  @Test
+  public void tokenCacheDisabledByDefault() throws Exception {
+    TestCryptoSigner signer = new TestCryptoSigner(newKeyPair().getPrivate());
+    FirebaseTokenFactory tokenFactory = new FirebaseTokenFactory(
+        FACTORY, new FixedClock(2002L), signer);
+
+    tokenFactory.createSignedCustomAuthTokenForUser(USER_ID);
+    tokenFactory.createSignedCustomAuthTokenForUser(USER_ID);
+
+    assertEquals(2, signer.getSignCount());
+  }
+
+  @Test
+  public void failsWhenTokenCacheTtlIsTooLong() throws Exception {
+    TestCryptoSigner signer = new TestCryptoSigner(newKeyPair().getPrivate());
+
+    thrown.expect(IllegalArgumentException.class);
+    new FirebaseTokenFactory(FACTORY, new FixedClock(2002L), signer, null,
+        FirebaseTokenFactory.MAX_TOKEN_CACHE_TTL_SECONDS + 1);
+  }
+
+  private static KeyPair newKeyPair() throws Exception {
+    KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+    keyGen.initialize(512);
+    return keyGen.genKeyPair();
+  }
+
   private static class TestCryptoSigner implements CryptoSigner {
 
     private final PrivateKey privateKey;
+    private final AtomicInteger signCount = new AtomicInteger();
+    private final AtomicInteger signAllCount = new AtomicInteger();
 
     TestCryptoSigner(PrivateKey privateKey) {
       this.privateKey = checkNotNull(privateKey);
@@ -160,6 +261,7 @@ public class FirebaseTokenFactoryTest {
 
     @Override
     public byte[] sign(byte[] payload) throws FirebaseAuthException {
+      signCount.incrementAndGet();
       try {
         return SecurityUtils.sign(SecurityUtils.getSha256WithRsaSignatureAlgorithm(),
             privateKey, payload);
@@ -168,9 +270,23 @@ public class FirebaseTokenFactoryTest {
       }
     }
 
+    @Override
+    public List<byte[]> signAll(List<byte[]> payloads) throws FirebaseAuthException {
+      signAllCount.incrementAndGet();
+      return CryptoSigner.super.signAll(payloads);
+    }
+
     @Override
     public String getAccount() {
       return ISSUER;
     }
+
+    int getSignCount() {
+      return signCount.get();
+    }
+
+    int getSignAllCount() {
+      return signAllCount.get();
+    }
   }
 }
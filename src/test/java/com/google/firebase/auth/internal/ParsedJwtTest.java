@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.firebase.auth.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.api.client.auth.openidconnect.IdToken;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.Data;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import com.google.firebase.internal.ApiClientUtils;
+import com.google.firebase.testing.ServiceAccount;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Map;
+import org.junit.Test;
+
+public class ParsedJwtTest {
+
+  private static final JsonFactory JSON_FACTORY = ApiClientUtils.getDefaultJsonFactory();
+
+  // Kept separate so that checkstyle does not mistake JSON escapes for Java unicode escapes.
+  private static final String ESCAPE = "\\";
+
+  private static final String HEADER = "{\"alg\":\"RS256\",\"kid\":\"key1\",\"typ\":\"JWT\"}";
+  private static final String PAYLOAD = "{"
+      + "\"iss\":\"https://securetoken.google.com/proj\","
+      + "\"aud\":\"proj\","
+      + "\"auth_time\":1600000000,"
+      + "\"sub\":\"uid" + ESCAPE + "u0031\","
+      + "\"iat\":1600000001,"
+      + "\"exp\":1600003601,"
+      + "\"email\":\"j" + ESCAPE + "u00f6rg@example.com\","
+      + "\"email_verified\":true,"
+      + "\"admin\":false,"
+      + "\"level\":1.50,"
+      + "\"score\":-2e3,"
+      + "\"nothing\":null,"
+      + "\"amr\":[\"pwd\"],"
+      + "\"firebase\":{\"identities\":{\"email\":[\"jörg@example.com\"]},"
+      + "\"sign_in_provider\":\"password\",\"tenant\":\"t1\",\"list\":[1,null,\"x\",{}]}"
+      + "}";
+
+  @Test
+  public void testParse() {
+    ParsedJwt jwt = ParsedJwt.parse(encode(HEADER) + "." + encode(PAYLOAD) + ".c2ln");
+
+    assertEquals("RS256", jwt.getAlgorithm());
+    assertEquals("key1", jwt.getKeyId());
+    assertEquals("https://securetoken.google.com/proj", jwt.getIssuer());
+    assertEquals("uid1", jwt.getSubject());
+    assertEquals("proj", jwt.getAudience());
+    assertEquals(ImmutableList.of("proj"), jwt.getAudienceAsList());
+    assertEquals(1600000001L, (long) jwt.getIssuedAtTimeSeconds());
+    assertEquals(1600003601L, (long) jwt.getExpirationTimeSeconds());
+    assertFalse(jwt.hasLegacyCustomTokenClaims());
+  }
+
+  @Test
+  public void testClaimsMatchGenericJson() throws Exception {
+    String token = encode(HEADER) + "." + encode(PAYLOAD) + ".c2ln";
+
+    Map<String, Object> claims = ParsedJwt.parse(token).getClaims();
+
+    IdToken.Payload expected = IdToken.parse(JSON_FACTORY, token).getPayload();
+    assertEquals(ImmutableMap.copyOf(expected), ImmutableMap.copyOf(claims));
+    for (Map.Entry<String, Object> entry : expected.entrySet()) {
+      assertEquals(entry.getKey(), entry.getValue().getClass(),
+          claims.get(entry.getKey()).getClass());
+    }
+    assertTrue(Data.isNull(claims.get("nothing")));
+  }
+
+  @Test
+  public void testAudienceList() {
+    String payload = "{\"aud\":[\"a\",\"b\"]}";
+
+    ParsedJwt jwt = ParsedJwt.parse(encode(HEADER) + "." + encode(payload) + ".");
+
+    assertEquals(ImmutableList.of("a", "b"), jwt.getAudienceAsList());
+    assertNull(jwt.getSubject());
+    assertNull(jwt.getIssuedAtTimeSeconds());
+  }
+
+  @Test
+  public void testStandardBase64WithPadding() {
+    String header = BaseEncoding.base64().encode(HEADER.getBytes(StandardCharsets.UTF_8));
+    String payload = BaseEncoding.base64().encode("{\"sub\":\"a\"}".getBytes(
+        StandardCharsets.UTF_8));
+
+    ParsedJwt jwt = ParsedJwt.parse(header + "." + payload + ".");
+
+    assertEquals("key1", jwt.getKeyId());
+    assertEquals("a", jwt.getSubject());
+  }
+
+  @Test
+  public void testLegacyCustomTokenClaims() {
+    String payload = "{\"v\":0,\"iat\":1480982564,\"d\":{\"uid\":\"1\",\"abc\":\"x\"}}";
+
+    ParsedJwt jwt = ParsedJwt.parse(
+        encode("{\"typ\":\"JWT\",\"alg\":\"HS256\"}") + "." + encode(payload) + ".sig");
+
+    assertEquals("HS256", jwt.getAlgorithm());
+    assertNull(jwt.getKeyId());
+    assertTrue(jwt.hasLegacyCustomTokenClaims());
+  }
+
+  @Test
+  public void testNestingWithinLimit() {
+    String payload = "{\"d\":" + Strings.repeat("[", 64) + Strings.repeat("]", 64) + "}";
+
+    ParsedJwt jwt = ParsedJwt.parse(encode(HEADER) + "." + encode(payload) + ".sig");
+
+    assertFalse(jwt.hasLegacyCustomTokenClaims());
+  }
+
+  @Test
+  public void testMalformedTokens() {
+    String header = encode(HEADER);
+    String[] malformed = {
+      "",
+      "not.a.jwt",
+      header,
+      header + "." + encode("{}"),
+      header + "." + encode("{}") + ".sig.extra",
+      header + "." + encode("[]") + ".sig",
+      header + "." + encode("{\"sub\":1}") + ".sig",
+      header + "." + encode("{\"iat\":\"1\"}") + ".sig",
+      header + "." + encode("{\"iat\":1.5}") + ".sig",
+      header + "." + encode("{\"sub\":\"a\"") + ".sig",
+      header + "." + encode("{\"sub\":\"a\",}") + ".sig",
+      header + "." + encode("{\"sub\":\"a\"} x") + ".sig",
+      header + "." + encode("{}") + ".s!g",
+      header + "." + encode("{}") + ".a",
+      header + "." + encode("{\"v\":1-}") + ".sig",
+      header + "." + encode("{\"v\":01}") + ".sig",
+      header + "." + encode("{\"v\":1.}") + ".sig",
+      header + "." + encode("{\"v\":-}") + ".sig",
+      header + "." + encode("{\"v\":1e}") + ".sig",
+      header + "." + encode("{\"v\":1e99999999999}") + ".sig",
+      header + "." + encode("{\"sub\":\"\\uzzzz\"}") + ".sig",
+      header + "." + encode("{\"d\":" + Strings.repeat("[", 65) + Strings.repeat("]", 65) + "}")
+          + ".sig",
+    };
+    for (String token : malformed) {
+      try {
+        ParsedJwt.parse(token);
+        fail("No error thrown for: " + token);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testVerifySignature() throws Exception {
+    byte[] keyBytes = BaseEncoding.base64().decode(ServiceAccount.EDITOR.getPrivateKey());
+    PrivateKey privateKey = KeyFactory.getInstance("RSA")
+        .generatePrivate(new PKCS8EncodedKeySpec(keyBytes));
+    String content = encode(HEADER) + "." + encode(PAYLOAD);
+    Signature signer = Signature.getInstance("SHA256withRSA");
+    signer.initSign(privateKey);
+    signer.update(content.getBytes(StandardCharsets.US_ASCII));
+    String token = content + "." + BaseEncoding.base64Url().omitPadding().encode(signer.sign());
+    PublicKey publicKey = CertificateFactory.getInstance("X.509")
+        .generateCertificate(new ByteArrayInputStream(
+            ServiceAccount.EDITOR.getCert().getBytes(StandardCharsets.UTF_8)))
+        .getPublicKey();
+
+    assertTrue(ParsedJwt.parse(token).verifySignature(publicKey));
+    assertFalse(ParsedJwt.parse(content + ".c2ln").verifySignature(publicKey));
+  }
+
+  @Test
+  public void testMalformedSignatureDiscardsVerifier() throws Exception {
+    byte[] keyBytes = BaseEncoding.base64().decode(ServiceAccount.EDITOR.getPrivateKey());
+    PrivateKey privateKey = KeyFactory.getInstance("RSA")
+        .generatePrivate(new PKCS8EncodedKeySpec(keyBytes));
+    String content = encode(HEADER) + "." + encode(PAYLOAD);
+    Signature signer = Signature.getInstance("SHA256withRSA");
+    signer.initSign(privateKey);
+    signer.update(content.getBytes(StandardCharsets.US_ASCII));
+    String token = content + "." + BaseEncoding.base64Url().omitPadding().encode(signer.sign());
+    PublicKey publicKey = CertificateFactory.getInstance("X.509")
+        .generateCertificate(new ByteArrayInputStream(
+            ServiceAccount.EDITOR.getCert().getBytes(StandardCharsets.UTF_8)))
+        .getPublicKey();
+    Signature pooled = CryptoPools.getVerifier("SHA256withRSA", publicKey);
+
+    // A signature of the wrong length is rejected by the provider with a SignatureException.
+    assertFalse(ParsedJwt.parse(content + ".c2ln").verifySignature(publicKey));
+    assertNotSame(pooled, CryptoPools.getVerifier("SHA256withRSA", publicKey));
+    assertTrue(ParsedJwt.parse(token).verifySignature(publicKey));
+  }
+
+  private static String encode(String json) {
+    return BaseEncoding.base64Url().omitPadding().encode(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
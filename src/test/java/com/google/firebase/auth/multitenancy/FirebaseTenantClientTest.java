@@ -118,6 +118,26 @@ public class FirebaseTenantClientTest {
     checkUrl(interceptor, "GET", TENANTS_BASE_URL + "/UNKNOWN");
   }
 
+  @Test
+  public void testLoadTenantDirectory() throws Exception {
+    initializeAppForTenantManagement(
+        TestUtils.loadResource("listTenants.json"), TestUtils.loadResource("tenant.json"), "{}");
+    TenantManager tenantManager = FirebaseAuth.getInstance().getTenantManager();
+
+    TenantDirectory directory = tenantManager.loadTenantDirectory(
+        TenantDirectory.Options.builder().setRefreshIntervalSeconds(0).build());
+
+    assertEquals(2, directory.size());
+    checkTenant(directory.getTenant("TENANT_1"), "TENANT_1");
+    checkTenant(directory.getTenant("TENANT_2"), "TENANT_2");
+
+    tenantManager.updateTenant(new Tenant.UpdateRequest("TENANT_1").setDisplayName("DISPLAY_NAME"));
+    tenantManager.deleteTenant("TENANT_2");
+    assertEquals(1, directory.size());
+    assertNull(directory.getTenant("TENANT_2"));
+    directory.close();
+  }
+
   @Test
   public void testListTenants() throws Exception {
     final TestResponseInterceptor interceptor = initializeAppForTenantManagement(
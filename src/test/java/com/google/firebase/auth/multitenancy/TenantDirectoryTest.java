@@ -0,0 +1,280 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.auth.multitenancy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.TestOnlyImplFirebaseTrampolines;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.MockGoogleCredentials;
+import com.google.firebase.auth.internal.ListTenantsResponse;
+import com.google.firebase.internal.ApiClientUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TenantDirectoryTest {
+
+  private static final TenantDirectory.Attribute DOMAIN = new TenantDirectory.Attribute() {
+    @Override
+    public String getValue(Tenant tenant) {
+      String displayName = tenant.getDisplayName();
+      return displayName != null ? displayName.toLowerCase() + ".com" : null;
+    }
+  };
+
+  private static final TenantDirectory.Options OPTIONS = TenantDirectory.Options.builder()
+      .addIndex("domain", DOMAIN)
+      .setRefreshIntervalSeconds(0)
+      .build();
+
+  private FirebaseApp app;
+
+  @Before
+  public void setUp() {
+    app = FirebaseApp.initializeApp(FirebaseOptions.builder()
+        .setCredentials(new MockGoogleCredentials("token"))
+        .setProjectId("test-project-id")
+        .build());
+  }
+
+  @After
+  public void tearDown() {
+    TestOnlyImplFirebaseTrampolines.clearInstancesForTest();
+  }
+
+  @Test
+  public void testLoadMultiplePages() throws Exception {
+    PagedTenantSource source = new PagedTenantSource();
+    source.pages.put(null, new ListTenantsResponse(
+        ImmutableList.of(newTenant("tenant1", "Acme"), newTenant("tenant2", "Example")), "token"));
+    source.pages.put("token", new ListTenantsResponse(
+        ImmutableList.of(newTenant("tenant3", "Acme")), ListTenantsPage.END_OF_LIST));
+    TenantDirectory directory = new TenantDirectory(source, OPTIONS, app);
+
+    directory.reload();
+
+    assertEquals(3, directory.size());
+    assertEquals("tenant2", directory.getTenant("tenant2").getTenantId());
+    assertNull(directory.getTenant("tenant4"));
+    List<Tenant> acme = directory.findTenants("domain", "acme.com");
+    assertEquals(2, acme.size());
+    assertEquals("tenant1", acme.get(0).getTenantId());
+    assertEquals("tenant3", acme.get(1).getTenantId());
+    assertTrue(directory.findTenants("domain", "unknown.com").isEmpty());
+    assertEquals(2, source.calls.size());
+  }
+
+  @Test
+  public void testUnknownIndex() {
+    TenantDirectory directory = new TenantDirectory(new PagedTenantSource(), OPTIONS, app);
+
+    try {
+      directory.findTenants("name", "acme.com");
+      fail("No error thrown for unknown index");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testTenantChanges() throws Exception {
+    PagedTenantSource source = new PagedTenantSource();
+    source.pages.put(null, new ListTenantsResponse(
+        ImmutableList.of(newTenant("tenant1", "Acme")), ListTenantsPage.END_OF_LIST));
+    TenantDirectory directory = new TenantDirectory(source, OPTIONS, app);
+    directory.reload();
+
+    directory.onTenantChanged("tenant1", newTenant("tenant1", "Example"));
+    directory.onTenantChanged("tenant2", newTenant("tenant2", "Acme"));
+
+    assertEquals(2, directory.size());
+    assertEquals("tenant1", directory.findTenants("domain", "example.com").get(0).getTenantId());
+    assertEquals("tenant2", directory.findTenants("domain", "acme.com").get(0).getTenantId());
+
+    directory.onTenantChanged("tenant2", null);
+    assertEquals(1, directory.size());
+    assertTrue(directory.findTenants("domain", "acme.com").isEmpty());
+  }
+
+  @Test
+  public void testTenantChangesKeepOtherIndexEntries() throws Exception {
+    PagedTenantSource source = new PagedTenantSource();
+    source.pages.put(null, new ListTenantsResponse(
+        ImmutableList.of(
+            newTenant("tenant1", "Acme"),
+            newTenant("tenant2", "Acme"),
+            newTenant("tenant3", "Acme")),
+        ListTenantsPage.END_OF_LIST));
+    TenantDirectory directory = new TenantDirectory(source, OPTIONS, app);
+    directory.reload();
+    List<Tenant> before = directory.findTenants("domain", "acme.com");
+    final Collection<Tenant> tenantsBefore = directory.getTenants();
+    Tenant updated = newTenant("tenant2", "Acme");
+
+    directory.onTenantChanged("tenant2", updated);
+
+    List<Tenant> acme = directory.findTenants("domain", "acme.com");
+    assertEquals(3, acme.size());
+    assertSame(before.get(0), acme.get(0));
+    assertSame(updated, acme.get(1));
+    assertSame(before.get(2), acme.get(2));
+    assertEquals(3, before.size());
+    assertSame(updated, directory.getTenant("tenant2"));
+
+    directory.onTenantChanged("tenant1", null);
+    directory.onTenantChanged("tenant4", null);
+
+    acme = directory.findTenants("domain", "acme.com");
+    assertEquals(2, acme.size());
+    assertSame(updated, acme.get(0));
+    assertEquals(2, directory.size());
+    assertEquals(2, directory.getTenants().size());
+    assertEquals(3, tenantsBefore.size());
+  }
+
+  @Test
+  public void testAttributeErrorKeepsContents() throws Exception {
+    TenantDirectory.Options options = TenantDirectory.Options.builder()
+        .addIndex("domain", new TenantDirectory.Attribute() {
+          @Override
+          public String getValue(Tenant tenant) {
+            if ("Broken".equals(tenant.getDisplayName())) {
+              throw new IllegalStateException("test error");
+            }
+            return DOMAIN.getValue(tenant);
+          }
+        })
+        .setRefreshIntervalSeconds(0)
+        .build();
+    PagedTenantSource source = new PagedTenantSource();
+    source.pages.put(null, new ListTenantsResponse(
+        ImmutableList.of(newTenant("tenant1", "Acme")), ListTenantsPage.END_OF_LIST));
+    TenantDirectory directory = new TenantDirectory(source, options, app);
+    directory.reload();
+    Tenant original = directory.getTenant("tenant1");
+
+    directory.onTenantChanged("tenant1", newTenant("tenant1", "Broken"));
+
+    assertSame(original, directory.getTenant("tenant1"));
+    assertSame(original, directory.findTenants("domain", "acme.com").get(0));
+    assertEquals(1, directory.size());
+  }
+
+  @Test
+  public void testChangesDuringReloadAreKept() throws Exception {
+    final PagedTenantSource source = new PagedTenantSource();
+    source.pages.put(null, new ListTenantsResponse(
+        ImmutableList.of(newTenant("tenant1", "Acme"), newTenant("tenant2", "Acme")),
+        ListTenantsPage.END_OF_LIST));
+    final TenantDirectory directory = new TenantDirectory(source, OPTIONS, app);
+    final Tenant created = newTenant("tenant3", "Example");
+    source.onFetch = new Runnable() {
+      @Override
+      public void run() {
+        // Simulates writes made through the TenantManager while the tenants are being listed.
+        directory.onTenantChanged("tenant3", created);
+        directory.onTenantChanged("tenant2", null);
+      }
+    };
+
+    directory.reload();
+
+    assertEquals(2, directory.size());
+    assertSame(created, directory.getTenant("tenant3"));
+    assertNull(directory.getTenant("tenant2"));
+  }
+
+  @Test
+  public void testReloadErrorKeepsContents() throws Exception {
+    PagedTenantSource source = new PagedTenantSource();
+    source.pages.put(null, new ListTenantsResponse(
+        ImmutableList.of(newTenant("tenant1", "Acme")), ListTenantsPage.END_OF_LIST));
+    TenantDirectory directory = new TenantDirectory(source, OPTIONS, app);
+    directory.reload();
+
+    source.pages.clear();
+    try {
+      directory.reload();
+      fail("No error thrown for failing source");
+    } catch (FirebaseAuthException e) {
+      assertEquals(ErrorCode.UNAVAILABLE, e.getErrorCode());
+    }
+
+    assertEquals(1, directory.size());
+    assertEquals("tenant1", directory.findTenants("domain", "acme.com").get(0).getTenantId());
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    try {
+      TenantDirectory.Options.builder().setRefreshIntervalSeconds(59).build();
+      fail("No error thrown for short refresh interval");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    try {
+      TenantDirectory.Options.builder().addIndex("domain", DOMAIN).addIndex("domain", DOMAIN);
+      fail("No error thrown for duplicate index");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  private static Tenant newTenant(String tenantId, String displayName) throws IOException {
+    return ApiClientUtils.getDefaultJsonFactory().fromString(
+        String.format("{\"name\":\"%s\", \"displayName\":\"%s\"}", tenantId, displayName),
+        Tenant.class);
+  }
+
+  private static class PagedTenantSource implements ListTenantsPage.TenantSource {
+
+    private final Map<String, ListTenantsResponse> pages = new HashMap<>();
+    private final List<String> calls = new ArrayList<>();
+    private Runnable onFetch;
+
+    @Override
+    public synchronized ListTenantsResponse fetch(int maxResults, String pageToken)
+        throws FirebaseAuthException {
+      calls.add(pageToken);
+      if (onFetch != null) {
+        onFetch.run();
+      }
+      ListTenantsResponse response = pages.get(pageToken);
+      if (response == null) {
+        throw new FirebaseAuthException(ErrorCode.UNAVAILABLE, "test error", null, null, null);
+      }
+      return response;
+    }
+  }
+}
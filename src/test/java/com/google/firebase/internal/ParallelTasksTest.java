@@ -0,0 +1,278 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ParallelTasksTest {
+
+  // Accepts tasks but never runs them, like a saturated pool that the caller itself runs on.
+  private static final Executor NEVER_RUNS = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+    }
+  };
+
+  private static final Executor REJECTS = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      throw new RejectedExecutionException();
+    }
+  };
+
+  @Test
+  public void testInvokeAllReturnsResultsInOrder() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<String> results = ParallelTasks.invokeAll(
+          executor, ImmutableList.of(constant("a"), constant("b"), constant("c")), noop());
+      assertEquals(ImmutableList.of("a", "b", "c"), results);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInvokeAllRunsTasksOnCallerWhenExecutorNeverRuns() throws Exception {
+    List<String> results = ParallelTasks.invokeAll(
+        NEVER_RUNS, ImmutableList.of(constant("a"), constant("b")), noop());
+    assertEquals(ImmutableList.of("a", "b"), results);
+  }
+
+  @Test
+  public void testInvokeAllRunsTasksOnCallerWhenExecutorRejects() throws Exception {
+    List<String> results = ParallelTasks.invokeAll(
+        REJECTS, ImmutableList.of(constant("a"), constant("b")), noop());
+    assertEquals(ImmutableList.of("a", "b"), results);
+  }
+
+  @Test
+  public void testInvokeAllWithExecutorPerTask() throws Exception {
+    final AtomicInteger executed = new AtomicInteger();
+    Executor counting = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        executed.incrementAndGet();
+        command.run();
+      }
+    };
+    List<String> results = ParallelTasks.invokeAll(
+        ImmutableList.of(counting, REJECTS, counting),
+        ImmutableList.of(constant("a"), constant("b"), constant("c")), noop());
+
+    assertEquals(ImmutableList.of("a", "b", "c"), results);
+    assertEquals(1, executed.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvokeAllWithMismatchedExecutors() throws Exception {
+    ParallelTasks.invokeAll(ImmutableList.of(NEVER_RUNS),
+        ImmutableList.of(constant("a"), constant("b")), noop());
+  }
+
+  @Test
+  public void testInvokeAllThrowsFirstFailureAfterAllTasks() throws Exception {
+    final IllegalStateException first = new IllegalStateException("first");
+    final AtomicInteger completed = new AtomicInteger();
+    List<Callable<String>> tasks = ImmutableList.of(
+        failing(first), counting(completed), failing(new IllegalStateException("second")),
+        counting(completed));
+    try {
+      ParallelTasks.invokeAll(MoreExecutors.directExecutor(), tasks, noop());
+      fail("No error thrown for failing task");
+    } catch (ExecutionException e) {
+      assertSame(first, e.getCause());
+    }
+    assertEquals(2, completed.get());
+  }
+
+  @Test
+  public void testInvokeAllWaitsForRunningTasksWhenInterrupted() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean finished = new AtomicBoolean();
+    final AtomicInteger interrupts = new AtomicInteger();
+    Callable<String> blocking = new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        started.countDown();
+        release.await();
+        finished.set(true);
+        return "blocking";
+      }
+    };
+    Runnable onInterrupt = new Runnable() {
+      @Override
+      public void run() {
+        interrupts.incrementAndGet();
+        release.countDown();
+      }
+    };
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      List<Callable<String>> tasks = ImmutableList.of(interruptCaller(started), blocking);
+      ParallelTasks.invokeAll(executor, tasks, onInterrupt);
+      fail("No error thrown for interrupted caller");
+    } catch (InterruptedException e) {
+      assertTrue(finished.get());
+      assertEquals(1, interrupts.get());
+    } finally {
+      Thread.interrupted();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSubmitAndAwait() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      FutureTask<String> task = new FutureTask<>(constant("a"));
+      ParallelTasks.submit(executor, task);
+      assertEquals("a", ParallelTasks.await(task));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testAwaitRunsTaskOnCaller() throws Exception {
+    Executor[] executors = {null, NEVER_RUNS, REJECTS};
+    for (Executor executor : executors) {
+      FutureTask<String> task = new FutureTask<>(constant("a"));
+      ParallelTasks.submit(executor, task);
+      assertEquals("a", ParallelTasks.await(task));
+    }
+  }
+
+  @Test
+  public void testAwaitThrowsTaskFailure() throws Exception {
+    IllegalStateException error = new IllegalStateException("test");
+    FutureTask<String> task = new FutureTask<>(failing(error));
+    ParallelTasks.submit(REJECTS, task);
+
+    try {
+      ParallelTasks.await(task);
+      fail("No error thrown for failing task");
+    } catch (ExecutionException e) {
+      assertSame(error, e.getCause());
+    }
+  }
+
+  @Test
+  public void testRunWorkersOnCallerWhenExecutorNeverRuns() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+    };
+    ParallelTasks.runWorkers(NEVER_RUNS, 3, worker, noop());
+    assertEquals(3, runs.get());
+  }
+
+  @Test
+  public void testRunWorkersRethrowsUncheckedFailure() throws Exception {
+    final IllegalStateException error = new IllegalStateException("test");
+    Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        throw error;
+      }
+    };
+    try {
+      ParallelTasks.runWorkers(MoreExecutors.directExecutor(), 2, worker, noop());
+      fail("No error thrown for failing worker");
+    } catch (IllegalStateException e) {
+      assertSame(error, e);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRunWorkersWithZeroCount() throws Exception {
+    ParallelTasks.runWorkers(MoreExecutors.directExecutor(), 0, noop(), noop());
+  }
+
+  private static Runnable noop() {
+    return new Runnable() {
+      @Override
+      public void run() {
+      }
+    };
+  }
+
+  private static Callable<String> constant(final String value) {
+    return new Callable<String>() {
+      @Override
+      public String call() {
+        return value;
+      }
+    };
+  }
+
+  private static Callable<String> counting(final AtomicInteger counter) {
+    return new Callable<String>() {
+      @Override
+      public String call() {
+        counter.incrementAndGet();
+        return "ok";
+      }
+    };
+  }
+
+  private static Callable<String> failing(final RuntimeException error) {
+    return new Callable<String>() {
+      @Override
+      public String call() {
+        throw error;
+      }
+    };
+  }
+
+  // Runs on the calling thread as the first task, and interrupts it once the second task, run
+  // by the executor, has started. The caller then gets interrupted while waiting for it.
+  private static Callable<String> interruptCaller(final CountDownLatch started) {
+    return new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.currentThread().interrupt();
+        return "caller";
+      }
+    };
+  }
+}
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.firebase.ErrorCode;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
@@ -84,6 +85,21 @@ public class FirebasePhoneNumberVerificationTest {
     assertSame(instance, FirebasePhoneNumberVerification.getInstance(app));
   }
 
+  @Test
+  public void testGetKeyMetrics() {
+    when(mockVerifier.getKeyCacheCounts()).thenReturn(ImmutableMap.of(
+        FirebasePhoneNumberVerificationKeyMetrics.Event.FETCHED, 3L));
+
+    FirebasePhoneNumberVerificationKeyMetrics metrics =
+        firebasePhoneNumberVerification.getKeyMetrics();
+
+    assertEquals(3L, metrics.getCount(FirebasePhoneNumberVerificationKeyMetrics.Event.FETCHED));
+    assertEquals(0L,
+        metrics.getCount(FirebasePhoneNumberVerificationKeyMetrics.Event.FETCH_FAILED));
+    assertEquals(FirebasePhoneNumberVerificationKeyMetrics.Event.values().length,
+        metrics.getCounts().size());
+  }
+
   @Test
   public void testVerifyToken_DelegatesToVerifier()
       throws FirebasePhoneNumberVerificationException {
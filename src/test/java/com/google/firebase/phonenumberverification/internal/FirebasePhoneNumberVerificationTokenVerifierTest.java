@@ -21,6 +21,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -44,7 +45,9 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.RSASSASigner;
 import com.nimbusds.jose.jwk.Curve;
 import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.proc.BadJOSEException;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.JWTClaimsSet;
@@ -432,6 +435,31 @@ public class FirebasePhoneNumberVerificationTokenVerifierTest {
     }
   }
 
+  @Test
+  public void testVerifyToken_SignatureWithPooledVerifier() throws Exception {
+    FirebaseApp firebaseApp = FirebaseApp.initializeApp(firebaseOptions, "fourth");
+    FirebasePhoneNumberVerificationTokenVerifier spyClass =
+        spy(new FirebasePhoneNumberVerificationTokenVerifier(firebaseApp));
+    doReturn(new ImmutableJWKSet<SecurityContext>(new JWKSet(ecKey.toPublicJWK())))
+        .when(spyClass).createKeySource();
+    String tokenString = createToken(header, claims);
+
+    // Verified twice to exercise both the initial and the pooled signature instances.
+    for (int i = 0; i < 2; i++) {
+      FirebasePhoneNumberVerificationToken result = spyClass.verifyToken(tokenString);
+      assertEquals(subject, result.getPhoneNumber());
+    }
+
+    ECKey otherKey = new ECKeyGenerator(Curve.P_256).keyID(ecKey.getKeyID()).generate();
+    SignedJWT forged = new SignedJWT(header, claims);
+    forged.sign(new ECDSASigner(otherKey.toECPrivateKey()));
+    FirebasePhoneNumberVerificationException e = assertThrows(
+        FirebasePhoneNumberVerificationException.class,
+        () -> spyClass.verifyToken(forged.serialize()));
+    assertEquals(FirebasePhoneNumberVerificationErrorCode.INVALID_TOKEN,
+        e.getPhoneNumberVerificationErrorCode());
+  }
+
   @Test
   public void testVerifyToken_Claims_InvalidIssuerProject() throws Exception {
     JWTClaimsSet badIssuerClaims = new JWTClaimsSet.Builder()
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.phonenumberverification.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.api.client.testing.http.FixedClock;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.phonenumberverification.FirebasePhoneNumberVerificationKeyMetrics.Event;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SharedJwkSetCacheTest {
+
+  private static ECKey key1;
+  private static ECKey key2;
+
+  private final FixedClock clock = new FixedClock(1000L);
+  private final Executor executor = MoreExecutors.directExecutor();
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    key1 = new ECKeyGenerator(Curve.P_256).keyID("key-1").generate().toPublicJWK();
+    key2 = new ECKeyGenerator(Curve.P_256).keyID("key-2").generate().toPublicJWK();
+  }
+
+  @Test
+  public void testKeysAreFetchedOnce() throws Exception {
+    QueueFetcher fetcher = new QueueFetcher(new JWKSet(ImmutableList.<JWK>of(key1, key2)));
+    SharedJwkSetCache cache = new SharedJwkSetCache(fetcher, executor, clock);
+
+    assertEquals(ImmutableList.of(key1), cache.get(selector("key-1"), null));
+    assertEquals(ImmutableList.of(key2), cache.get(selector("key-2"), null));
+
+    assertEquals(1, fetcher.calls);
+    assertEquals(1L, (long) cache.getCounts().get(Event.FETCHED));
+  }
+
+  @Test
+  public void testBackgroundRefresh() throws Exception {
+    QueueFetcher fetcher = new QueueFetcher(
+        new JWKSet(key1), new JWKSet(ImmutableList.<JWK>of(key1, key2)));
+    SharedJwkSetCache cache = new SharedJwkSetCache(fetcher, executor, clock);
+    cache.get(selector("key-1"), null);
+
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.REFRESH_AHEAD_MILLIS);
+    assertEquals(ImmutableList.of(key1), cache.get(selector("key-1"), null));
+
+    assertEquals(2, fetcher.calls);
+    assertEquals(1L, (long) cache.getCounts().get(Event.BACKGROUND_REFRESH));
+    assertEquals(ImmutableList.of(key2), cache.get(selector("key-2"), null));
+    assertEquals(2, fetcher.calls);
+  }
+
+  @Test
+  public void testExpiredKeysAreFetchedInline() throws Exception {
+    QueueFetcher fetcher = new QueueFetcher(new JWKSet(key1), new JWKSet(key2));
+    SharedJwkSetCache cache = new SharedJwkSetCache(
+        fetcher, new RejectingExecutor(), clock);
+    cache.get(selector("key-1"), null);
+
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.EXPIRE_AFTER_MILLIS);
+
+    assertEquals(ImmutableList.of(key2), cache.get(selector("key-2"), null));
+    assertTrue(cache.get(selector("key-1"), null).isEmpty());
+    assertEquals(2, fetcher.calls);
+  }
+
+  @Test
+  public void testStaleIfError() throws Exception {
+    QueueFetcher fetcher = new QueueFetcher(new JWKSet(key1));
+    SharedJwkSetCache cache = new SharedJwkSetCache(fetcher, executor, clock);
+    cache.get(selector("key-1"), null);
+
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.EXPIRE_AFTER_MILLIS);
+    assertEquals(ImmutableList.of(key1), cache.get(selector("key-1"), null));
+    // Served without fetching again, since the last fetch failed very recently.
+    assertEquals(ImmutableList.of(key1), cache.get(selector("key-1"), null));
+
+    assertEquals(2, fetcher.calls);
+    assertEquals(1L, (long) cache.getCounts().get(Event.FETCH_FAILED));
+    assertEquals(2L, (long) cache.getCounts().get(Event.SERVED_STALE));
+
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.STALE_IF_ERROR_MILLIS);
+    try {
+      cache.get(selector("key-1"), null);
+      fail("No error thrown for keys past the stale-if-error limit");
+    } catch (KeySourceException expected) {
+      assertEquals(3, fetcher.calls);
+    }
+  }
+
+  @Test
+  public void testInitialFetchError() {
+    SharedJwkSetCache cache = new SharedJwkSetCache(new QueueFetcher(), executor, clock);
+
+    try {
+      cache.get(selector("key-1"), null);
+      fail("No error thrown for failing fetch");
+    } catch (KeySourceException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test
+  public void testInitialFetchErrorIsRateLimited() throws Exception {
+    QueueFetcher fetcher = new QueueFetcher();
+    SharedJwkSetCache cache = new SharedJwkSetCache(fetcher, executor, clock);
+    try {
+      cache.get(selector("key-1"), null);
+      fail("No error thrown for failing fetch");
+    } catch (KeySourceException expected) {
+      // expected
+    }
+
+    // Fails fast without fetching again, since the last fetch failed very recently.
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.MIN_FETCH_INTERVAL_MILLIS - 1);
+    try {
+      cache.get(selector("key-1"), null);
+      fail("No error thrown while the backend is down");
+    } catch (KeySourceException e) {
+      assertTrue(e.getCause() instanceof KeySourceException);
+    }
+    assertEquals(1, fetcher.calls);
+    assertEquals(1L, (long) cache.getCounts().get(Event.FETCH_FAILED));
+
+    clock.setTime(clock.currentTimeMillis() + 1);
+    fetcher.responses.add(new JWKSet(key1));
+    assertEquals(ImmutableList.of(key1), cache.get(selector("key-1"), null));
+    assertEquals(2, fetcher.calls);
+  }
+
+  @Test
+  public void testFetchErrorPastStaleLimitIsRateLimited() throws Exception {
+    QueueFetcher fetcher = new QueueFetcher(new JWKSet(key1));
+    SharedJwkSetCache cache = new SharedJwkSetCache(fetcher, executor, clock);
+    cache.get(selector("key-1"), null);
+
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.EXPIRE_AFTER_MILLIS
+        + SharedJwkSetCache.STALE_IF_ERROR_MILLIS);
+    for (int i = 0; i < 3; i++) {
+      try {
+        cache.get(selector("key-1"), null);
+        fail("No error thrown for keys past the stale-if-error limit");
+      } catch (KeySourceException expected) {
+        // expected
+      }
+    }
+    assertEquals(2, fetcher.calls);
+  }
+
+  @Test
+  public void testUnknownKeyIdIsRateLimited() throws Exception {
+    QueueFetcher fetcher = new QueueFetcher(
+        new JWKSet(key1), new JWKSet(key1), new JWKSet(ImmutableList.<JWK>of(key1, key2)));
+    SharedJwkSetCache cache = new SharedJwkSetCache(fetcher, executor, clock);
+    cache.get(selector("key-1"), null);
+
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.MIN_FETCH_INTERVAL_MILLIS);
+    assertTrue(cache.get(selector("key-2"), null).isEmpty());
+    assertEquals(2, fetcher.calls);
+
+    // Fetched too recently to try again.
+    assertTrue(cache.get(selector("key-2"), null).isEmpty());
+    assertEquals(2, fetcher.calls);
+    assertEquals(1L, (long) cache.getCounts().get(Event.RATE_LIMITED));
+
+    clock.setTime(clock.currentTimeMillis() + SharedJwkSetCache.MIN_FETCH_INTERVAL_MILLIS);
+    assertEquals(ImmutableList.of(key2), cache.get(selector("key-2"), null));
+    assertEquals(3, fetcher.calls);
+    assertEquals(2L, (long) cache.getCounts().get(Event.UNKNOWN_KEY_REFRESH));
+  }
+
+  private static JWKSelector selector(String keyId) {
+    JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.ES256)
+        .keyID(keyId)
+        .type(JOSEObjectType.JWT)
+        .build();
+    return new JWKSelector(JWKMatcher.forJWSHeader(header));
+  }
+
+  private static class QueueFetcher implements SharedJwkSetCache.Fetcher {
+
+    private final List<JWKSet> responses = new ArrayList<>();
+    private int calls;
+
+    QueueFetcher(JWKSet... responses) {
+      this.responses.addAll(ImmutableList.copyOf(responses));
+    }
+
+    @Override
+    public JWKSet fetch() throws IOException {
+      calls++;
+      if (responses.isEmpty()) {
+        throw new IOException("test error");
+      }
+      return responses.remove(0);
+    }
+  }
+
+  private static class RejectingExecutor implements Executor {
+    @Override
+    public void execute(Runnable command) {
+      throw new IllegalStateException("test executor does not run tasks");
+    }
+  }
+}
@@ -22,9 +22,12 @@ import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.Test;
@@ -756,6 +759,55 @@ public class ConditionEvaluatorTest {
     assertFalse(result.get("signal_key"));
   }
 
+  @Test
+  public void testEvaluateConditionCustomSignalSemanticInvalidValuesToFalse() {
+    ServerCondition condition = createCustomSignalServerCondition(
+        CustomSignalOperator.SEMANTIC_VERSION_NOT_EQUAL, ImmutableList.of("50.0.20"));
+    String[] invalidVersions = {"50..20", "50.0.20.", ".50", "50.0.20.0.0.1", "50.a",
+        "99999999999.0"};
+
+    for (String version : invalidVersions) {
+      KeysAndValues context = new KeysAndValues.Builder().put("signal_key", version).build();
+      Map<String, Boolean> result = conditionEvaluator.evaluateConditions(
+          Arrays.asList(condition), context);
+      assertFalse(version, result.get("signal_key"));
+    }
+  }
+
+  @Test
+  public void testCompiledConditionIsReusable() {
+    ServerCondition condition = createCustomSignalServerCondition(
+        CustomSignalOperator.STRING_CONTAINS_REGEX, ImmutableList.of("[", "^beta-[0-9]+$"));
+    ConditionEvaluator.CompiledCondition compiled =
+        ConditionEvaluator.compile(condition.getCondition());
+
+    assertTrue(compiled.evaluate(new ConditionEvaluator.Evaluation(
+        new KeysAndValues.Builder().put("signal_key", "beta-12").build())));
+    assertFalse(compiled.evaluate(new ConditionEvaluator.Evaluation(
+        new KeysAndValues.Builder().put("signal_key", "beta-x").build())));
+    assertFalse(compiled.evaluate(new ConditionEvaluator.Evaluation(
+        new KeysAndValues.Builder().build())));
+  }
+
+  @Test
+  public void testCollectContextKeys() {
+    OneOfCondition customSignal = createCustomSignalServerCondition(
+        CustomSignalOperator.STRING_CONTAINS, ImmutableList.of("a")).getCondition();
+    final OneOfCondition percent = createPercentCondition(10_000_000,
+        PercentConditionOperator.LESS_OR_EQUAL, "seed");
+    Set<String> keys = new LinkedHashSet<>();
+
+    ConditionEvaluator.collectContextKeys(createOneOfTrueCondition(), keys);
+    assertEquals(ImmutableSet.of(), keys);
+
+    ConditionEvaluator.collectContextKeys(
+        createOneOfOrCondition(createOneOfAndCondition(customSignal)), keys);
+    assertEquals(ImmutableSet.of("signal_key"), keys);
+
+    ConditionEvaluator.collectContextKeys(createOneOfOrCondition(percent), keys);
+    assertEquals(ImmutableSet.of("signal_key", "randomizationId"), keys);
+  }
+
   private ServerCondition createCustomSignalServerCondition(
       CustomSignalOperator operator,
       ImmutableList<String> targetCustomSignalValues) {
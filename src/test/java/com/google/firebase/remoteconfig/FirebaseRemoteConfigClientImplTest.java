@@ -660,6 +660,22 @@ public class FirebaseRemoteConfigClientImplTest {
     checkPutRequestHeader(interceptor.getLastRequest());
   }
 
+  @Test
+  public void testPublishTemplateRequestContent() throws Exception {
+    response.addHeader("etag", TEST_ETAG);
+    response.setContent(MOCK_TEMPLATE_RESPONSE);
+    Map<String, Object> expected = new HashMap<>();
+    ApiClientUtils.getDefaultJsonFactory()
+        .createJsonParser(ApiClientUtils.getDefaultJsonFactory().toString(
+            EXPECTED_TEMPLATE.toTemplateResponse(false)))
+        .parseAndClose(expected);
+
+    client.publishTemplate(EXPECTED_TEMPLATE, false, false);
+
+    checkRequestContent(interceptor.getLastRequest(), expected);
+    assertFalse(expected.containsKey("etag"));
+  }
+
   @Test
   public void testPublishTemplateWithValidTemplateAndForceTrue() throws Exception {
     response.addHeader("etag", TEST_ETAG);
@@ -1518,6 +1534,55 @@ public class FirebaseRemoteConfigClientImplTest {
     client.getServerTemplate();
   }
 
+  @Test
+  public void testGetServerTemplateDataWithEtag() throws Exception {
+    response.addHeader("etag", TEST_ETAG);
+    response.setContent(MOCK_SERVER_TEMPLATE_RESPONSE);
+
+    ServerTemplateData serverTemplateData = client.getServerTemplateData("etag-previous");
+
+    assertEquals(EXPECTED_PARAMETERS, serverTemplateData.getParameters());
+    assertEquals(TEST_ETAG, serverTemplateData.getETag());
+    HttpRequest request = interceptor.getLastRequest();
+    checkGetRequestHeaderForServer(request);
+    assertEquals("etag-previous", request.getHeaders().getIfNoneMatch());
+  }
+
+  @Test
+  public void testGetServerTemplateDataWithoutEtag() throws Exception {
+    response.addHeader("etag", TEST_ETAG);
+    response.setContent(MOCK_SERVER_TEMPLATE_RESPONSE);
+
+    ServerTemplateData serverTemplateData = client.getServerTemplateData(null);
+
+    assertEquals(TEST_ETAG, serverTemplateData.getETag());
+    HttpRequest request = interceptor.getLastRequest();
+    checkGetRequestHeaderForServer(request);
+    assertNull(request.getHeaders().getIfNoneMatch());
+  }
+
+  @Test
+  public void testGetServerTemplateDataNotModified() throws Exception {
+    response.setStatusCode(304).setZeroContent();
+
+    assertNull(client.getServerTemplateData(TEST_ETAG));
+    HttpRequest request = interceptor.getLastRequest();
+    checkGetRequestHeaderForServer(request);
+    assertEquals(TEST_ETAG, request.getHeaders().getIfNoneMatch());
+  }
+
+  @Test
+  public void testGetServerTemplateDataNotModifiedWithoutEtag() {
+    response.setStatusCode(304).setZeroContent();
+
+    try {
+      client.getServerTemplateData(null);
+      fail("No error thrown for unexpected not modified response");
+    } catch (FirebaseRemoteConfigException error) {
+      assertEquals(304, error.getHttpResponse().getStatusCode());
+    }
+  }
+
   @Test
   public void testGetServerTemplateHttpError() {
     for (int code : HTTP_STATUS_CODES) {
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.firebase.ErrorCode;
 import com.google.firebase.FirebaseApp;
@@ -31,6 +32,10 @@ import com.google.firebase.auth.MockGoogleCredentials;
 import com.google.firebase.remoteconfig.internal.TemplateResponse;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import org.junit.After;
 import org.junit.Test;
@@ -646,6 +651,110 @@ public class FirebaseRemoteConfigTest {
     }
   }
 
+  @Test
+  public void testListAllVersions() throws Exception {
+    MockRemoteConfigClient client =
+        MockRemoteConfigClient.fromListVersionsResponse(newListVersionsResponse("1", "2"));
+    FirebaseRemoteConfig remoteConfig1 = new FirebaseRemoteConfig(
+        FirebaseApp.initializeApp(TEST_OPTIONS, "app1"), client);
+    FirebaseRemoteConfig remoteConfig2 = new FirebaseRemoteConfig(
+        FirebaseApp.initializeApp(TEST_OPTIONS, "app2"), client);
+    final Map<String, List<String>> versions = new ConcurrentHashMap<>();
+
+    long count = FirebaseRemoteConfig.listAllVersions(
+        ImmutableList.of(remoteConfig1, remoteConfig2), null,
+        (app, version) -> versions.computeIfAbsent(app.getName(), name -> new ArrayList<>())
+            .add(version.getVersionNumber()));
+
+    assertEquals(4, count);
+    assertEquals(ImmutableList.of("1", "2"), versions.get("app1"));
+    assertEquals(ImmutableList.of("1", "2"), versions.get("app2"));
+  }
+
+  @Test
+  public void testListAllVersionsFailure() {
+    FirebaseRemoteConfig remoteConfig1 = new FirebaseRemoteConfig(
+        FirebaseApp.initializeApp(TEST_OPTIONS, "app1"),
+        MockRemoteConfigClient.fromListVersionsResponse(newListVersionsResponse("1")));
+    FirebaseRemoteConfig remoteConfig2 = new FirebaseRemoteConfig(
+        FirebaseApp.initializeApp(TEST_OPTIONS, "app2"),
+        MockRemoteConfigClient.fromException(TEST_EXCEPTION));
+
+    try {
+      FirebaseRemoteConfig.listAllVersions(
+          ImmutableList.of(remoteConfig1, remoteConfig2), null, (app, version) -> { });
+      fail("No error thrown for failing project");
+    } catch (FirebaseRemoteConfigException e) {
+      assertSame(TEST_EXCEPTION, e);
+    }
+  }
+
+  @Test
+  public void testListAllVersionsListenerFailure() {
+    FirebaseRemoteConfig remoteConfig1 = new FirebaseRemoteConfig(
+        FirebaseApp.initializeApp(TEST_OPTIONS, "app1"),
+        MockRemoteConfigClient.fromListVersionsResponse(newListVersionsResponse("1", "2")));
+    FirebaseRemoteConfig remoteConfig2 = new FirebaseRemoteConfig(
+        FirebaseApp.initializeApp(TEST_OPTIONS, "app2"),
+        MockRemoteConfigClient.fromListVersionsResponse(newListVersionsResponse("1", "2")));
+    final IllegalStateException error = new IllegalStateException("test error");
+
+    try {
+      FirebaseRemoteConfig.listAllVersions(
+          ImmutableList.of(remoteConfig1, remoteConfig2), null, (app, version) -> {
+            throw error;
+          });
+      fail("No error thrown for failing listener");
+    } catch (FirebaseRemoteConfigException e) {
+      fail("Unexpected error: " + e);
+    } catch (IllegalStateException e) {
+      assertSame(error, e);
+    }
+  }
+
+  @Test
+  public void testGetTemplatesAtVersions() throws Exception {
+    MockRemoteConfigClient client =
+        MockRemoteConfigClient.fromTemplate(new Template().setETag(TEST_ETAG));
+    FirebaseRemoteConfig remoteConfig = getRemoteConfig(client);
+    List<Version> versions = ImmutableList.of(
+        new Version(new TemplateResponse.VersionResponse().setVersionNumber("1")),
+        new Version(new TemplateResponse.VersionResponse().setVersionNumber("2")),
+        new Version(new TemplateResponse.VersionResponse().setVersionNumber("3")));
+
+    int count = 0;
+    for (Template template : remoteConfig.getTemplatesAtVersions(versions, 2)) {
+      assertEquals(TEST_ETAG, template.getETag());
+      count++;
+    }
+
+    assertEquals(3, count);
+  }
+
+  @Test
+  public void testGetTemplatesAtVersionsFailure() {
+    MockRemoteConfigClient client = MockRemoteConfigClient.fromException(TEST_EXCEPTION);
+    FirebaseRemoteConfig remoteConfig = getRemoteConfig(client);
+    List<Version> versions = ImmutableList.of(
+        new Version(new TemplateResponse.VersionResponse().setVersionNumber("1")));
+
+    try {
+      remoteConfig.getTemplatesAtVersions(versions, 2).iterator().next();
+      fail("No error thrown for failing request");
+    } catch (RuntimeException e) {
+      assertSame(TEST_EXCEPTION, e.getCause());
+    }
+  }
+
+  private static TemplateResponse.ListVersionsResponse newListVersionsResponse(
+      String... versionNumbers) {
+    List<TemplateResponse.VersionResponse> versions = new ArrayList<>();
+    for (String versionNumber : versionNumbers) {
+      versions.add(new TemplateResponse.VersionResponse().setVersionNumber(versionNumber));
+    }
+    return new TemplateResponse.ListVersionsResponse().setVersions(versions);
+  }
+
   private FirebaseRemoteConfig getRemoteConfig(FirebaseRemoteConfigClient client) {
     FirebaseApp app = FirebaseApp.initializeApp(TEST_OPTIONS);
     return new FirebaseRemoteConfig(app, client);
@@ -20,10 +20,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.ErrorCode;
 import com.google.firebase.remoteconfig.internal.TemplateResponse;
 
 import java.io.IOException;
@@ -310,6 +313,75 @@ public class ListVersionsPageTest {
     return new Version(versionResponse);
   }
 
+  @Test
+  public void testPrefetchingIterator() throws FirebaseRemoteConfigException {
+    PagedVersionSource source = new PagedVersionSource(5, -1);
+    ListVersionsPage page = new ListVersionsPage.Factory(
+            source, null, MoreExecutors.directExecutor()).create();
+    assertEquals(1, source.pageTokens.size());
+
+    Iterator<Version> iterator = page.iterateAll(2).iterator();
+    // The two pages following the first one are requested up front.
+    assertEquals(ImmutableList.of("", "1", "2"), source.pageTokens);
+
+    List<String> versionNumbers = new ArrayList<>();
+    while (iterator.hasNext()) {
+      versionNumbers.add(iterator.next().getVersionNumber());
+    }
+    assertEquals(
+            ImmutableList.of("00", "01", "10", "11", "20", "21", "30", "31", "40", "41"),
+            versionNumbers);
+    assertEquals(ImmutableList.of("", "1", "2", "3", "4"), source.pageTokens);
+  }
+
+  @Test
+  public void testPrefetchingIteratorWithoutExecutor() throws FirebaseRemoteConfigException {
+    PagedVersionSource source = new PagedVersionSource(3, -1);
+    ListVersionsPage page = new ListVersionsPage.Factory(source).create();
+
+    int iterations = 0;
+    for (Version ignored : page.iterateAll(4)) {
+      iterations++;
+    }
+
+    assertEquals(6, iterations);
+    assertEquals(ImmutableList.of("", "1", "2"), source.pageTokens);
+  }
+
+  @Test
+  public void testPrefetchingIteratorError() throws FirebaseRemoteConfigException {
+    PagedVersionSource source = new PagedVersionSource(5, 2);
+    ListVersionsPage page = new ListVersionsPage.Factory(
+            source, null, MoreExecutors.directExecutor()).create();
+    Iterator<Version> iterator = page.iterateAll(3).iterator();
+
+    for (int i = 0; i < 4; i++) {
+      iterator.next();
+    }
+    try {
+      iterator.hasNext();
+      fail("No error thrown for failing page");
+    } catch (RuntimeException e) {
+      assertSame(source.error, e.getCause());
+    }
+    // No pages are requested after the failed one.
+    assertEquals(ImmutableList.of("", "1", "2"), source.pageTokens);
+  }
+
+  @Test
+  public void testInvalidPrefetchPages() throws FirebaseRemoteConfigException {
+    ListVersionsPage page = new ListVersionsPage.Factory(new TestVersionSource(3)).create();
+    int[] invalidPages = {0, -1, ListVersionsPage.MAX_PREFETCH_PAGES + 1};
+    for (int prefetchPages : invalidPages) {
+      try {
+        page.iterateAll(prefetchPages);
+        fail("No error thrown for invalid prefetch pages: " + prefetchPages);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
   private static class TestVersionSource implements ListVersionsPage.VersionSource {
 
     private ListVersionsPage.VersionsResultBatch result;
@@ -335,4 +407,38 @@ public class ListVersionsPageTest {
       return result;
     }
   }
+
+  /**
+   * Serves pages of two versions each, with the index of the next page as the page token.
+   */
+  private static class PagedVersionSource implements ListVersionsPage.VersionSource {
+
+    private final int pageCount;
+    private final int failingPage;
+    private final FirebaseRemoteConfigException error =
+            new FirebaseRemoteConfigException(ErrorCode.UNAVAILABLE, "test error");
+    private final List<String> pageTokens = new ArrayList<>();
+
+    PagedVersionSource(int pageCount, int failingPage) {
+      this.pageCount = pageCount;
+      this.failingPage = failingPage;
+    }
+
+    @Override
+    public synchronized ListVersionsPage.VersionsResultBatch fetch(
+            ListVersionsOptions listVersionsOptions) throws FirebaseRemoteConfigException {
+      String pageToken = listVersionsOptions != null && listVersionsOptions.getPageToken() != null
+              ? listVersionsOptions.getPageToken() : "";
+      pageTokens.add(pageToken);
+      int pageIndex = pageToken.isEmpty() ? 0 : Integer.parseInt(pageToken);
+      if (pageIndex == failingPage) {
+        throw error;
+      }
+      String nextPageToken = pageIndex + 1 < pageCount
+              ? String.valueOf(pageIndex + 1) : ListVersionsPage.END_OF_LIST;
+      return new ListVersionsPage.VersionsResultBatch(
+              ImmutableList.of(newVersion(pageIndex + "0"), newVersion(pageIndex + "1")),
+              nextPageToken);
+    }
+  }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.Test;
+
+public class MicroPercentilesTest {
+
+  private static final BigInteger MODULO =
+      BigInteger.valueOf(MicroPercentiles.MICRO_PERCENT_MODULO);
+
+  @Test
+  public void testMatchesReferenceForRandomInputs() throws Exception {
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      String seed = randomString(random, random.nextInt(33));
+      String randomizationId = randomString(random, 1 + random.nextInt(300));
+      assertMatchesReference(seed, randomizationId);
+    }
+  }
+
+  @Test
+  public void testMatchesReferenceForUuids() throws Exception {
+    for (int i = 0; i < 1000; i++) {
+      assertMatchesReference("seed", UUID.randomUUID().toString());
+    }
+  }
+
+  @Test
+  public void testMatchesReferenceForEdgeCases() throws Exception {
+    String[] ids = {"a", "ü", "日本語", "😀", new String(new char[256]).replace('\0', 'x'),
+        new String(new char[257]).replace('\0', 'x'), "id\u0080"};
+    for (String id : ids) {
+      assertMatchesReference("", id);
+      assertMatchesReference(null, id);
+      assertMatchesReference("seed_1-A", id);
+    }
+  }
+
+  private static void assertMatchesReference(String seed, String randomizationId)
+      throws Exception {
+    long expected = referenceMicroPercentile(seed, randomizationId);
+    long actual = MicroPercentiles.getMicroPercentile(
+        MicroPercentiles.encodeSeedPrefix(seed), randomizationId);
+    assertEquals(seed + "/" + randomizationId, expected, actual);
+  }
+
+  // The original implementation, based on BigInteger.
+  private static long referenceMicroPercentile(String seed, String randomizationId)
+      throws Exception {
+    String seedPrefix = seed != null && !seed.isEmpty() ? seed + "." : "";
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    byte[] hash = digest.digest((seedPrefix + randomizationId).getBytes(StandardCharsets.UTF_8));
+    return new BigInteger(1, hash).mod(MODULO).longValue();
+  }
+
+  private static String randomString(Random random, int length) {
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      int kind = random.nextInt(10);
+      if (kind < 7) {
+        builder.append((char) (0x20 + random.nextInt(0x5f)));
+      } else if (kind < 9) {
+        builder.append((char) (0x80 + random.nextInt(0x7000)));
+      } else {
+        builder.appendCodePoint(0x10000 + random.nextInt(0x1000));
+      }
+    }
+    return builder.toString();
+  }
+}
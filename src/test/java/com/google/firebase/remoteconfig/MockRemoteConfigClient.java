@@ -68,6 +68,19 @@ public class MockRemoteConfigClient implements FirebaseRemoteConfigClient{
     return resultServerTemplate;
   }
 
+  @Override
+  public ServerTemplateData getServerTemplateData(
+      String etag) throws FirebaseRemoteConfigException {
+    if (exception != null) {
+      throw exception;
+    }
+    ServerTemplateData data = ServerTemplateData.fromJSON(resultServerTemplate);
+    if (etag != null && etag.equals(data.getETag())) {
+      return null;
+    }
+    return data;
+  }
+
   @Override
   public Template getTemplateAtVersion(String versionNumber) throws FirebaseRemoteConfigException {
     if (exception != null) {
@@ -17,30 +17,59 @@
 package com.google.firebase.remoteconfig;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import com.google.api.client.testing.http.FixedClock;
 import com.google.api.core.ApiFuture;
+import com.google.firebase.ErrorCode;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.auth.MockGoogleCredentials;
+import com.google.firebase.remoteconfig.internal.TemplateResponse.ListVersionsResponse;
 import com.google.firebase.testing.TestUtils;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /** Tests 
 * for {@link ServerTemplateImpl}. 
 * */
 public class ServerTemplateImplTest {
 
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
   private static final FirebaseOptions TEST_OPTIONS =
       FirebaseOptions.builder()
           .setCredentials(new MockGoogleCredentials("test-token"))
           .setProjectId("test-project")
           .build();
 
+  private static final String CUSTOM_SIGNAL_TEMPLATE = "{"
+      + "\"conditions\": [{\"name\": \"custom_signal\", \"condition\": {\"customSignal\": {"
+      + "\"customSignalOperator\": \"NUMERIC_LESS_THAN\", \"customSignalKey\": \"users\","
+      + "\"targetCustomSignalValues\": [\"100\"]}}}],"
+      + "\"parameters\": {\"Custom\": {\"defaultValue\": {\"value\": \"Default value\"},"
+      + "\"conditionalValues\": {\"custom_signal\": {\"value\": \"Conditional value\"}}}}}";
+
   private static String cacheTemplate;
 
   @BeforeClass
@@ -247,6 +276,139 @@ public class ServerTemplateImplTest {
     assertEquals("Conditional value 1", evaluatedConfig.getString("Multiple conditions"));
   }
 
+  @Test
+  public void testEvaluateReusesCompiledTemplate() throws Exception {
+    KeysAndValues defaultConfig = new KeysAndValues.Builder().build();
+    ServerTemplate template =
+        new ServerTemplateImpl.Builder(null)
+            .defaultConfig(defaultConfig)
+            .cachedTemplate(cacheTemplate)
+            .build();
+
+    ServerConfig matched = template.evaluate(
+        new KeysAndValues.Builder().put("users", "99").build());
+    ServerConfig notMatched = template.evaluate(
+        new KeysAndValues.Builder().put("users", "101").build());
+    ServerConfig matchedAgain = template.evaluate(
+        new KeysAndValues.Builder().put("users", "99").build());
+
+    assertEquals("Conditional value 1", matched.getString("Multiple conditions"));
+    assertEquals("Conditional value 1", matchedAgain.getString("Multiple conditions"));
+    assertEquals("Default value", notMatched.getString("Multiple conditions"));
+  }
+
+  @Test
+  public void testEvaluateResolvesKeysOnRead() throws Exception {
+    KeysAndValues defaultConfig = new KeysAndValues.Builder()
+        .put("In-app default", "abc")
+        .put("Not in template", "xyz")
+        .build();
+    ServerTemplate template =
+        new ServerTemplateImpl.Builder(null)
+            .defaultConfig(defaultConfig)
+            .cachedTemplate(cacheTemplate)
+            .build();
+
+    ServerConfig evaluatedConfig = template.evaluate(
+        new KeysAndValues.Builder().put("users", "99").build());
+
+    for (int i = 0; i < 2; i++) {
+      assertEquals("Conditional value 1", evaluatedConfig.getString("Multiple conditions"));
+      assertEquals("abc", evaluatedConfig.getString("In-app default"));
+      assertEquals(ValueSource.DEFAULT, evaluatedConfig.getValueSource("In-app default"));
+      assertEquals("xyz", evaluatedConfig.getString("Not in template"));
+      assertEquals(ValueSource.STATIC, evaluatedConfig.getValueSource("Unknown key"));
+    }
+  }
+
+  @Test
+  public void testEvaluateAll() throws Exception {
+    ServerTemplate template = newTemplateWithDefaults();
+    Map<Long, String> results = new ConcurrentHashMap<>();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      long count = template.evaluateAll(newContexts(1000), pool,
+          (index, context, config) -> {
+            assertEquals(index % 2 == 0 ? "99" : "101", context.get("users"));
+            results.put(index, config.getString("Multiple conditions"));
+          });
+
+      assertEquals(1000, count);
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(1000, results.size());
+    for (long i = 0; i < 1000; i++) {
+      String expected = i % 2 == 0 ? "Conditional value 1" : "Default value";
+      assertEquals(expected, results.get(i));
+    }
+  }
+
+  @Test
+  public void testEvaluateAllOnShutDownPool() throws Exception {
+    ServerTemplate template = newTemplateWithDefaults();
+    Map<Long, String> results = new ConcurrentHashMap<>();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    pool.shutdown();
+
+    long count = template.evaluateAll(newContexts(100), pool,
+        (index, context, config) -> results.put(index, config.getString("Multiple conditions")));
+
+    assertEquals(100, count);
+    assertEquals(100, results.size());
+  }
+
+  @Test
+  public void testEvaluateAllColumnar() throws Exception {
+    ServerTemplate template = newTemplateWithDefaults();
+    AtomicReference<EvaluationSchema> schema = new AtomicReference<>();
+    Map<Long, int[]> rows = new ConcurrentHashMap<>();
+
+    long count = template.evaluateAllColumnar(newContexts(200), ForkJoinPool.commonPool(),
+        new ServerTemplate.ColumnarListener() {
+          @Override
+          public void onSchema(EvaluationSchema evaluationSchema) {
+            schema.set(evaluationSchema);
+          }
+
+          @Override
+          public void onRow(long index, KeysAndValues context, int[] row) {
+            assertNotNull(schema.get());
+            rows.put(index, row);
+          }
+        });
+
+    assertEquals(200, count);
+    EvaluationSchema evaluationSchema = schema.get();
+    assertTrue(evaluationSchema.getKeys().contains("Multiple conditions"));
+    assertTrue(evaluationSchema.getKeys().contains("Not in template"));
+    for (long i = 0; i < 200; i++) {
+      int[] row = rows.get(i);
+      String expected = i % 2 == 0 ? "Conditional value 1" : "Default value";
+      assertEquals(expected, evaluationSchema.getString(row, "Multiple conditions"));
+      assertEquals("abc", evaluationSchema.getString(row, "In-app default"));
+      assertEquals("xyz", evaluationSchema.getString(row, "Not in template"));
+      assertEquals("", evaluationSchema.getString(row, "Unknown key"));
+      int inAppDefault = row[evaluationSchema.getKeyIndex("In-app default")];
+      assertEquals(ValueSource.DEFAULT, evaluationSchema.getValueSources().get(inAppDefault));
+    }
+  }
+
+  @Test
+  public void testEvaluateAllStopsOnListenerError() throws Exception {
+    ServerTemplate template = newTemplateWithDefaults();
+    IllegalStateException error = new IllegalStateException("test error");
+
+    IllegalStateException thrown = assertThrows(IllegalStateException.class,
+        () -> template.evaluateAll(newContexts(1000), (index, context, config) -> {
+          if (index == 10) {
+            throw error;
+          }
+        }));
+
+    assertSame(error, thrown);
+  }
+
   @Test
   public void testEvaluateWithChainedAndConditionReturnsDefaultValue() throws Exception {
     KeysAndValues defaultConfig = new KeysAndValues.Builder().build();
@@ -416,4 +578,343 @@ public class ServerTemplateImplTest {
 
     assertEquals(expectedJsonTree, actualJsonTree);
   }
+
+  @Test
+  public void testRefreshNotModifiedKeepsTemplate() throws Exception {
+    String templateJson = new ServerTemplateData().setETag(TEST_ETAG).toJSON();
+    FixedClock clock = new FixedClock(1000L);
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(
+        MockRemoteConfigClient.fromServerTemplate(templateJson))
+        .clock(clock)
+        .cachedTemplate(templateJson)
+        .build();
+
+    assertFalse(template.refresh());
+    template.load().get();
+
+    clock.setTime(1500L);
+    ServerTemplateRefreshMetrics metrics = template.getRefreshMetrics();
+    assertEquals(2, metrics.getCount(ServerTemplateRefreshMetrics.Event.NOT_MODIFIED));
+    assertEquals(0, metrics.getCount(ServerTemplateRefreshMetrics.Event.UPDATED));
+    assertEquals(1000L, metrics.getLastRefreshTimeMillis());
+    assertEquals(0L, metrics.getLastUpdateTimeMillis());
+    assertEquals(500L, metrics.getStalenessMillis());
+    assertSame(templateJson, template.getCachedTemplate());
+  }
+
+  @Test
+  public void testRefreshUpdatesTemplate() throws Exception {
+    String templateJson = new ServerTemplateData().setETag(TEST_ETAG).toJSON();
+    FixedClock clock = new FixedClock(1000L);
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(
+        MockRemoteConfigClient.fromServerTemplate(templateJson))
+        .clock(clock)
+        .cachedTemplate(cacheTemplate)
+        .build();
+
+    assertTrue(template.refresh());
+    clock.setTime(2000L);
+    assertFalse(template.refresh());
+
+    ServerTemplateRefreshMetrics metrics = template.getRefreshMetrics();
+    assertEquals(1, metrics.getCount(ServerTemplateRefreshMetrics.Event.UPDATED));
+    assertEquals(1, metrics.getCount(ServerTemplateRefreshMetrics.Event.NOT_MODIFIED));
+    assertEquals(2000L, metrics.getLastRefreshTimeMillis());
+    assertEquals(1000L, metrics.getLastUpdateTimeMillis());
+    assertEquals(JsonParser.parseString(templateJson), JsonParser.parseString(template.toJson()));
+  }
+
+  @Test
+  public void testRefreshLosesToConcurrentRefresh() throws Exception {
+    final String staleJson = new ServerTemplateData().setETag("etag-stale").toJSON();
+    final String latestJson = new ServerTemplateData().setETag("etag-latest").toJSON();
+    final AtomicReference<ServerTemplateImpl> templateRef = new AtomicReference<>();
+    // Replaces the template from a nested refresh while the outer refresh is in flight.
+    FirebaseRemoteConfigClient client = new DelegatingClient(
+        MockRemoteConfigClient.fromServerTemplate(latestJson)) {
+      private boolean nested;
+
+      @Override
+      public ServerTemplateData getServerTemplateData(String etag)
+          throws FirebaseRemoteConfigException {
+        if (nested) {
+          return super.getServerTemplateData(etag);
+        }
+        nested = true;
+        assertTrue(templateRef.get().refresh());
+        return ServerTemplateData.fromJSON(staleJson);
+      }
+    };
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(client)
+        .clock(new FixedClock(1000L))
+        .cachedTemplate(cacheTemplate)
+        .build();
+    templateRef.set(template);
+
+    assertFalse(template.refresh());
+
+    ServerTemplateRefreshMetrics metrics = template.getRefreshMetrics();
+    assertEquals(1, metrics.getCount(ServerTemplateRefreshMetrics.Event.UPDATED));
+    assertEquals(1000L, metrics.getLastUpdateTimeMillis());
+    assertEquals(JsonParser.parseString(latestJson), JsonParser.parseString(template.toJson()));
+  }
+
+  @Test
+  public void testRefreshError() {
+    FirebaseRemoteConfigException error =
+        new FirebaseRemoteConfigException(ErrorCode.UNAVAILABLE, "test error");
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(
+        MockRemoteConfigClient.fromException(error))
+        .cachedTemplate(cacheTemplate)
+        .build();
+
+    FirebaseRemoteConfigException thrown =
+        assertThrows(FirebaseRemoteConfigException.class, template::load);
+
+    assertSame(error, thrown);
+    ServerTemplateRefreshMetrics metrics = template.getRefreshMetrics();
+    assertEquals(1, metrics.getCount(ServerTemplateRefreshMetrics.Event.FAILED));
+    assertEquals(0L, metrics.getLastRefreshTimeMillis());
+    assertEquals(-1L, metrics.getStalenessMillis());
+  }
+
+  @Test
+  public void testTemplateFile() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("template.bin");
+    String templateJson = new ServerTemplateData().setETag(TEST_ETAG).toJSON();
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(
+        MockRemoteConfigClient.fromServerTemplate(templateJson))
+        .templateFile(file)
+        .cachedTemplate(cacheTemplate)
+        .build();
+    assertFalse(Files.exists(file));
+
+    template.load().get();
+
+    ServerTemplateImpl restored = (ServerTemplateImpl) new ServerTemplateImpl.Builder(
+        MockRemoteConfigClient.fromServerTemplate(templateJson))
+        .templateFile(file)
+        .build();
+    assertEquals(JsonParser.parseString(templateJson), JsonParser.parseString(restored.toJson()));
+    assertEquals(JsonParser.parseString(templateJson),
+        JsonParser.parseString(restored.getCachedTemplate()));
+    assertFalse(restored.refresh());
+  }
+
+  @Test
+  public void testMissingTemplateFile() {
+    ServerTemplate template = new ServerTemplateImpl.Builder(null)
+        .templateFile(folder.getRoot().toPath().resolve("template.bin"))
+        .build();
+
+    FirebaseRemoteConfigException error =
+        assertThrows(FirebaseRemoteConfigException.class, template::evaluate);
+    assertEquals(ErrorCode.FAILED_PRECONDITION, error.getErrorCode());
+    assertEquals("{}", template.toJson());
+  }
+
+  @Test
+  public void testStartAutoRefreshWithoutApp() {
+    ServerTemplate template =
+        new ServerTemplateImpl.Builder(null).cachedTemplate(cacheTemplate).build();
+
+    assertThrows(IllegalStateException.class,
+        () -> template.startAutoRefresh(1, TimeUnit.HOURS));
+  }
+
+  @Test
+  public void testStartAutoRefreshInvalidInterval() {
+    ServerTemplate template =
+        new ServerTemplateImpl.Builder(null).cachedTemplate(cacheTemplate).build();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> template.startAutoRefresh(59, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testStartAndStopAutoRefresh() {
+    FirebaseApp app = FirebaseApp.initializeApp(TEST_OPTIONS, "auto-refresh-app");
+    try {
+      ServerTemplateImpl template = (ServerTemplateImpl) new FirebaseRemoteConfig(app,
+          MockRemoteConfigClient.fromServerTemplate(cacheTemplate))
+          .serverTemplateBuilder()
+          .cachedTemplate(cacheTemplate)
+          .build();
+
+      template.startAutoRefresh(1, TimeUnit.HOURS);
+      assertTrue(template.isAutoRefreshing());
+      template.startAutoRefresh(2, TimeUnit.HOURS);
+      assertTrue(template.isAutoRefreshing());
+      template.stopAutoRefresh();
+      assertFalse(template.isAutoRefreshing());
+      template.stopAutoRefresh();
+      assertFalse(template.isAutoRefreshing());
+    } finally {
+      app.delete();
+    }
+  }
+
+  @Test
+  public void testAutoRefreshJitter() {
+    long interval = TimeUnit.MINUTES.toMillis(10);
+    assertEquals(interval - interval / 10, ServerTemplateImpl.jitter(interval, 0.0));
+    assertEquals(interval, ServerTemplateImpl.jitter(interval, 0.5));
+    long max = ServerTemplateImpl.jitter(interval, 0.9999);
+    assertTrue(max > interval && max <= interval + interval / 10);
+  }
+
+  @Test
+  public void testEvaluationCacheSharesConfigs() throws Exception {
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(null)
+        .defaultConfig(new KeysAndValues.Builder().put("In-app default", "abc").build())
+        .cachedTemplate(CUSTOM_SIGNAL_TEMPLATE)
+        .evaluationCacheSize(10)
+        .build();
+
+    ServerConfig first = template.evaluate(
+        new KeysAndValues.Builder().put("users", "99").put("unused", "a").build());
+    ServerConfig second = template.evaluate(
+        new KeysAndValues.Builder().put("users", "99").put("unused", "b").build());
+    ServerConfig other = template.evaluate(new KeysAndValues.Builder().put("users", "101").build());
+
+    assertSame(first, second);
+    assertNotSame(first, other);
+    assertEquals("Conditional value", first.getString("Custom"));
+    assertEquals("Default value", other.getString("Custom"));
+    assertEquals("abc", first.getString("In-app default"));
+    assertEquals(ValueSource.STATIC, first.getValueSource("Not in template"));
+  }
+
+  @Test
+  public void testEvaluationCacheIsBounded() throws Exception {
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(null)
+        .cachedTemplate(CUSTOM_SIGNAL_TEMPLATE)
+        .evaluationCacheSize(2)
+        .build();
+
+    for (int i = 0; i < 10; i++) {
+      ServerConfig config =
+          template.evaluate(new KeysAndValues.Builder().put("users", i).build());
+      assertEquals("Conditional value", config.getString("Custom"));
+    }
+
+    assertTrue(template.getPlan().getCachedConfigCount() <= 2);
+  }
+
+  @Test
+  public void testEvaluationCacheDisabledWithPercentConditions() throws Exception {
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(null)
+        .cachedTemplate(cacheTemplate)
+        .evaluationCacheSize(10)
+        .build();
+    KeysAndValues context = new KeysAndValues.Builder()
+        .put("users", "99")
+        .put("randomizationId", "user")
+        .build();
+
+    assertNotSame(template.evaluate(context), template.evaluate(context));
+    assertEquals(0, template.getPlan().getCachedConfigCount());
+  }
+
+  @Test
+  public void testEvaluationCacheDisabledByDefault() throws Exception {
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(null)
+        .cachedTemplate(CUSTOM_SIGNAL_TEMPLATE)
+        .build();
+    KeysAndValues context = new KeysAndValues.Builder().put("users", "99").build();
+
+    assertNotSame(template.evaluate(context), template.evaluate(context));
+  }
+
+  @Test
+  public void testEvaluationCacheInvalidatedOnLoad() throws Exception {
+    String updatedTemplate = CUSTOM_SIGNAL_TEMPLATE.replace("Conditional value", "Updated value");
+    ServerTemplateImpl template = (ServerTemplateImpl) new ServerTemplateImpl.Builder(
+        MockRemoteConfigClient.fromServerTemplate(updatedTemplate))
+        .cachedTemplate(CUSTOM_SIGNAL_TEMPLATE)
+        .evaluationCacheSize(10)
+        .build();
+    KeysAndValues context = new KeysAndValues.Builder().put("users", "99").build();
+    ServerConfig before = template.evaluate(context);
+
+    template.load().get();
+    ServerConfig after = template.evaluate(context);
+
+    assertEquals("Conditional value", before.getString("Custom"));
+    assertEquals("Updated value", after.getString("Custom"));
+    assertSame(after, template.evaluate(context));
+  }
+
+  @Test
+  public void testInvalidEvaluationCacheSize() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ServerTemplateImpl.Builder(null).evaluationCacheSize(-1));
+  }
+
+  private static ServerTemplate newTemplateWithDefaults() {
+    KeysAndValues defaultConfig = new KeysAndValues.Builder()
+        .put("In-app default", "abc")
+        .put("Not in template", "xyz")
+        .build();
+    return new ServerTemplateImpl.Builder(null)
+        .defaultConfig(defaultConfig)
+        .cachedTemplate(cacheTemplate)
+        .build();
+  }
+
+  private static Iterator<KeysAndValues> newContexts(int count) {
+    List<KeysAndValues> contexts = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      contexts.add(new KeysAndValues.Builder().put("users", i % 2 == 0 ? "99" : "101").build());
+    }
+    return contexts.iterator();
+  }
+
+  private static class DelegatingClient implements FirebaseRemoteConfigClient {
+
+    private final FirebaseRemoteConfigClient delegate;
+
+    DelegatingClient(FirebaseRemoteConfigClient delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Template getTemplate() throws FirebaseRemoteConfigException {
+      return delegate.getTemplate();
+    }
+
+    @Override
+    public Template getTemplateAtVersion(String versionNumber)
+        throws FirebaseRemoteConfigException {
+      return delegate.getTemplateAtVersion(versionNumber);
+    }
+
+    @Override
+    public Template publishTemplate(Template template, boolean validateOnly,
+        boolean forcePublish) throws FirebaseRemoteConfigException {
+      return delegate.publishTemplate(template, validateOnly, forcePublish);
+    }
+
+    @Override
+    public Template rollback(String versionNumber) throws FirebaseRemoteConfigException {
+      return delegate.rollback(versionNumber);
+    }
+
+    @Override
+    public ListVersionsResponse listVersions(ListVersionsOptions options)
+        throws FirebaseRemoteConfigException {
+      return delegate.listVersions(options);
+    }
+
+    @Override
+    public String getServerTemplate() throws FirebaseRemoteConfigException {
+      return delegate.getServerTemplate();
+    }
+
+    @Override
+    public ServerTemplateData getServerTemplateData(String etag)
+        throws FirebaseRemoteConfigException {
+      return delegate.getServerTemplateData(etag);
+    }
+  }
 }
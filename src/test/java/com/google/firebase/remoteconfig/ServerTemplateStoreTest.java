@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.testing.TestUtils;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ServerTemplateStoreTest {
+
+  private static final String TEMPLATE_JSON = TestUtils.loadResource("getServerTemplateData.json");
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    ServerTemplateData templateData =
+        ServerTemplateData.fromJSON(TEMPLATE_JSON).setETag("etag-123456789012-1");
+    Path file = folder.getRoot().toPath().resolve("template.bin");
+    ServerTemplateStore store = new ServerTemplateStore(file);
+
+    store.write(templateData);
+
+    assertSameTemplate(templateData, new ServerTemplateStore(file).read());
+    assertTrue(Files.size(file) < templateData.toJSON().getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  @Test
+  public void testWriteReplacesTemplate() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("template.bin");
+    ServerTemplateStore store = new ServerTemplateStore(file);
+    ServerTemplateData templateData = new ServerTemplateData().setETag("etag-2");
+
+    store.write(ServerTemplateData.fromJSON(TEMPLATE_JSON).setETag("etag-1"));
+    store.write(templateData);
+
+    assertEquals(templateData, store.read());
+    assertEquals(ImmutableList.of(file.toFile()),
+        ImmutableList.copyOf(folder.getRoot().listFiles()));
+  }
+
+  @Test
+  public void testWriteCreatesDirectories() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("a/b/template.bin");
+    ServerTemplateStore store = new ServerTemplateStore(file);
+    ServerTemplateData templateData = ServerTemplateData.fromJSON(TEMPLATE_JSON);
+
+    store.write(templateData);
+
+    assertSameTemplate(templateData, store.read());
+  }
+
+  @Test
+  public void testReadMissingFile() {
+    ServerTemplateStore store =
+        new ServerTemplateStore(folder.getRoot().toPath().resolve("missing.bin"));
+
+    assertNull(store.read());
+  }
+
+  @Test
+  public void testReadInvalidFile() throws Exception {
+    File json = folder.newFile("template.json");
+    Files.write(json.toPath(), TEMPLATE_JSON.getBytes(StandardCharsets.UTF_8));
+    assertNull(new ServerTemplateStore(json.toPath()).read());
+
+    Path file = folder.getRoot().toPath().resolve("template.bin");
+    new ServerTemplateStore(file).write(ServerTemplateData.fromJSON(TEMPLATE_JSON));
+    byte[] content = Files.readAllBytes(file);
+    byte[] truncated = new byte[content.length / 2];
+    System.arraycopy(content, 0, truncated, 0, truncated.length);
+    Files.write(file, truncated);
+    assertNull(new ServerTemplateStore(file).read());
+  }
+
+  private static void assertSameTemplate(ServerTemplateData expected, ServerTemplateData actual) {
+    assertEquals(
+        JsonParser.parseString(expected.toJSON()), JsonParser.parseString(actual.toJSON()));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.firebase.remoteconfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.remoteconfig.internal.TemplateResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class TemplateHistoryIteratorTest {
+
+  @Test
+  public void testTemplatesInVersionOrder() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger inFlight = new AtomicInteger();
+    TemplateHistoryIterator.TemplateSource source = versionNumber -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        if (versionNumber.equals("0")) {
+          // Completes after the other requests in flight.
+          Thread.sleep(50);
+        }
+        return new Template().setETag("etag-" + versionNumber);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    };
+    try {
+      Iterator<Template> templates =
+          new TemplateHistoryIterator(newVersions(10).iterator(), source, executor, 3);
+
+      List<String> etags = new ArrayList<>();
+      while (templates.hasNext()) {
+        etags.add(templates.next().getETag());
+      }
+
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        expected.add("etag-" + i);
+      }
+      assertEquals(expected, etags);
+      assertTrue(maxInFlight.get() <= 3);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testReadsVersionsAsNeeded() {
+    final List<String> requested = new ArrayList<>();
+    TemplateHistoryIterator.TemplateSource source = versionNumber -> {
+      requested.add(versionNumber);
+      return new Template().setETag("etag-" + versionNumber);
+    };
+    Iterator<Template> templates =
+        new TemplateHistoryIterator(newVersions(5).iterator(), source, null, 2);
+
+    assertTrue(templates.hasNext());
+    assertEquals("etag-0", templates.next().getETag());
+    // Without an executor, requests are made when the templates are read, and at most two
+    // versions are read ahead.
+    assertEquals(ImmutableList.of("0"), requested);
+
+    int count = 1;
+    while (templates.hasNext()) {
+      templates.next();
+      count++;
+    }
+    assertEquals(5, count);
+    assertFalse(templates.hasNext());
+    try {
+      templates.next();
+      fail("No error thrown for exhausted iterator");
+    } catch (NoSuchElementException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testError() {
+    final FirebaseRemoteConfigException error =
+        new FirebaseRemoteConfigException(ErrorCode.NOT_FOUND, "test error");
+    TemplateHistoryIterator.TemplateSource source = versionNumber -> {
+      if (versionNumber.equals("1")) {
+        throw error;
+      }
+      return new Template();
+    };
+    Iterator<Template> templates =
+        new TemplateHistoryIterator(newVersions(3).iterator(), source, null, 2);
+
+    templates.next();
+    try {
+      templates.next();
+      fail("No error thrown for failing request");
+    } catch (RuntimeException e) {
+      assertSame(error, e.getCause());
+    }
+  }
+
+  @Test
+  public void testInvalidMaxConcurrentRequests() {
+    int[] invalidValues = {0, -1, TemplateHistoryIterator.MAX_CONCURRENT_REQUESTS + 1};
+    for (int maxConcurrentRequests : invalidValues) {
+      try {
+        new TemplateHistoryIterator(newVersions(1).iterator(), versionNumber -> new Template(),
+            null, maxConcurrentRequests);
+        fail("No error thrown for invalid request count: " + maxConcurrentRequests);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  private static List<Version> newVersions(int count) {
+    List<Version> versions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      versions.add(new Version(new TemplateResponse.VersionResponse()
+          .setVersionNumber(String.valueOf(i))
+          .setUpdateTime("2020-11-15T06:57:26.342763941Z")));
+    }
+    return versions;
+  }
+}
@@ -21,9 +21,12 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.internal.ApiClientUtils;
 import com.google.firebase.remoteconfig.internal.TemplateResponse;
 
 import java.util.List;
@@ -346,4 +349,62 @@ public class TemplateTest {
 
     assertEquals(expectedTemplate, actualTemplate);
   }
+
+  @Test
+  public void testFromJSONMatchesResponseMapping() throws Exception {
+    String json = "{"
+        + "\"parameters\": {"
+        + "  \"rollout\": {\"defaultValue\": {\"rolloutValue\": "
+        + "      {\"rolloutId\": \"rollout_1\", \"value\": \"on\", \"percent\": 25}},"
+        + "    \"conditionalValues\": {\"ios\": {\"personalizationValue\": "
+        + "      {\"personalizationId\": \"p_1\"}}},"
+        + "    \"valueType\": \"BOOLEAN\"},"
+        + "  \"experiment\": {\"defaultValue\": {\"experimentValue\": {"
+        + "      \"experimentId\": \"exp_1\", \"exposurePercent\": 50, \"variantValue\": ["
+        + "        {\"variantId\": \"a\", \"value\": \"x\"},"
+        + "        {\"variantId\": \"b\", \"noChange\": true}]}}},"
+        + "  \"in_app\": {\"defaultValue\": {\"useInAppDefault\": true},"
+        + "    \"description\": \"uses in-app default\", \"unknownField\": [1, {\"a\": 2}]},"
+        + "  \"empty\": {\"defaultValue\": null, \"conditionalValues\": null}"
+        + "},"
+        + "\"conditions\": [{\"name\": \"ios\", \"expression\": \"device.os == 'ios'\","
+        + "  \"tagColor\": \"GREEN\"}],"
+        + "\"parameterGroups\": {\"group\": {\"description\": \"desc\", \"parameters\": {"
+        + "  \"grouped\": {\"defaultValue\": {\"value\": \"1\"}}}}},"
+        + "\"version\": {\"versionNumber\": \"17\", \"updateTime\": \"2020-11-15T06:57:26.342Z\","
+        + "  \"updateUser\": {\"email\": \"user@example.com\"}},"
+        + "\"etag\": \"etag-1\","
+        + "\"unknown\": {\"nested\": [true]}"
+        + "}";
+
+    TemplateResponse response = ApiClientUtils.getDefaultJsonFactory()
+        .createJsonParser(json).parseAndClose(TemplateResponse.class);
+    Template expected = new Template(response);
+
+    Template template = Template.fromJSON(json);
+
+    assertEquals(expected, template);
+    assertEquals(expected.toJSON(), template.toJSON());
+    assertEquals(
+        ApiClientUtils.getDefaultJsonFactory().toString(expected.toTemplateResponse(true)),
+        template.toJSON());
+  }
+
+  @Test
+  public void testFromJSONWithUnexpectedStructure() {
+    String[] invalidJson = {
+        "[]",
+        "{\"parameters\": []}",
+        "{\"parameters\": {\"p\": {\"defaultValue\": \"value\"}}}",
+        "{\"conditions\": {}}",
+    };
+    for (String json : invalidJson) {
+      try {
+        Template.fromJSON(json);
+        fail("No error thrown for: " + json);
+      } catch (FirebaseRemoteConfigException e) {
+        assertEquals(ErrorCode.INVALID_ARGUMENT, e.getErrorCode());
+      }
+    }
+  }
 }
@@ -19,8 +19,13 @@ package com.google.firebase.remoteconfig;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import org.junit.Test;
+import org.slf4j.Logger;
 
 public class ValueTest {
   @Test
@@ -100,5 +105,37 @@ public class ValueTest {
     Value value = new Value(ValueSource.REMOTE, "YeS");
     assertTrue(value.asBoolean());
   }
+
+  @Test
+  public void testTypedValuesAreStableAcrossReads() {
+    Value value = new Value(ValueSource.REMOTE, "1");
+    for (int i = 0; i < 3; i++) {
+      assertTrue(value.asBoolean());
+      assertEquals(1L, value.asLong());
+      assertEquals(1.0, value.asDouble(), 0);
+      assertEquals("1", value.asString());
+    }
+
+    Value invalid = new Value(ValueSource.REMOTE, "not a number");
+    for (int i = 0; i < 3; i++) {
+      assertFalse(invalid.asBoolean());
+      assertEquals(0L, invalid.asLong());
+      assertEquals(0.0, invalid.asDouble(), 0);
+    }
+  }
+
+  @Test
+  public void testParseFailuresAreLoggedOnce() {
+    Logger logger = mock(Logger.class);
+    Value invalid = new Value(ValueSource.REMOTE, "not a number", logger);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0L, invalid.asLong());
+      assertEquals(0.0, invalid.asDouble(), 0);
+    }
+
+    verify(logger, times(1)).warn("Unable to convert {} to long type.", "not a number");
+    verify(logger, times(1)).warn("Unable to convert {} to double type.", "not a number");
+    verifyNoMoreInteractions(logger);
+  }
 }
- 
\ No newline at end of file